@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import javax.annotation.Nonnull;
@@ -361,6 +362,54 @@ public @interface Config {
     public Class<? extends Annotation> annotationType() {
       return Config.class;
     }
+
+    /**
+     * Compares member values as specified by {@link Annotation#equals(Object)}, so configs can be
+     * used as keys, e.g. to avoid identifying the same manifest once per test method.
+     */
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Config)) {
+        return false;
+      }
+      Config other = (Config) o;
+      return minSdk == other.minSdk()
+          && maxSdk == other.maxSdk()
+          && Arrays.equals(sdk, other.sdk())
+          && Objects.equals(manifest, other.manifest())
+          && Objects.equals(qualifiers, other.qualifiers())
+          && Objects.equals(packageName, other.packageName())
+          && Objects.equals(resourceDir, other.resourceDir())
+          && Objects.equals(assetDir, other.assetDir())
+          && Arrays.equals(shadows, other.shadows())
+          && Arrays.equals(instrumentedPackages, other.instrumentedPackages())
+          && Objects.equals(application, other.application())
+          && Arrays.equals(libraries, other.libraries());
+    }
+
+    /** Hashes member values as specified by {@link Annotation#hashCode()}. */
+    @Override
+    public int hashCode() {
+      return memberHashCode("sdk", Arrays.hashCode(sdk))
+          + memberHashCode("minSdk", Integer.hashCode(minSdk))
+          + memberHashCode("maxSdk", Integer.hashCode(maxSdk))
+          + memberHashCode("manifest", Objects.hashCode(manifest))
+          + memberHashCode("qualifiers", Objects.hashCode(qualifiers))
+          + memberHashCode("packageName", Objects.hashCode(packageName))
+          + memberHashCode("resourceDir", Objects.hashCode(resourceDir))
+          + memberHashCode("assetDir", Objects.hashCode(assetDir))
+          + memberHashCode("shadows", Arrays.hashCode(shadows))
+          + memberHashCode("instrumentedPackages", Arrays.hashCode(instrumentedPackages))
+          + memberHashCode("application", Objects.hashCode(application))
+          + memberHashCode("libraries", Arrays.hashCode(libraries));
+    }
+
+    private static int memberHashCode(String name, int valueHashCode) {
+      return (127 * name.hashCode()) ^ valueHashCode;
+    }
   }
 
   class Builder {
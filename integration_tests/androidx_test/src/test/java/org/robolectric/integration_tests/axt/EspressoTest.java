@@ -12,7 +12,9 @@ import android.widget.Button;
 import android.widget.EditText;
 import androidx.test.annotation.UiThreadTest;
 import androidx.test.espresso.Espresso;
+import androidx.test.espresso.IdlingRegistry;
 import androidx.test.espresso.action.ViewActions;
+import androidx.test.espresso.idling.CountingIdlingResource;
 import androidx.test.rule.ActivityTestRule;
 import androidx.test.runner.AndroidJUnit4;
 import org.junit.Rule;
@@ -33,6 +35,31 @@ public final class EspressoTest {
     Espresso.onIdle();
   }
 
+  @Test
+  public void onIdle_waitsForIdlingResources() throws Exception {
+    CountingIdlingResource idlingResource = new CountingIdlingResource("delayed work");
+    IdlingRegistry.getInstance().register(idlingResource);
+    try {
+      idlingResource.increment();
+      new Thread(
+              () -> {
+                try {
+                  Thread.sleep(100);
+                } catch (InterruptedException e) {
+                  throw new RuntimeException(e);
+                }
+                idlingResource.decrement();
+              })
+          .start();
+
+      Espresso.onIdle();
+
+      assertThat(idlingResource.isIdleNow()).isTrue();
+    } finally {
+      IdlingRegistry.getInstance().unregister(idlingResource);
+    }
+  }
+
   @Test
   public void launchActivityAndFindView_ById() throws Exception {
     EspressoActivity activity = activityRule.getActivity();
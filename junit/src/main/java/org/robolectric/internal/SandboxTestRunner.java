@@ -7,9 +7,16 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -17,6 +24,8 @@ import org.junit.Ignore;
 import org.junit.internal.AssumptionViolatedException;
 import org.junit.internal.runners.model.EachTestNotifier;
 import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.BlockJUnit4ClassRunner;
 import org.junit.runners.model.FrameworkMethod;
@@ -50,7 +59,13 @@ public class SandboxTestRunner extends BlockJUnit4ClassRunner {
 
   private final Interceptors interceptors;
   private final List<PerfStatsReporter> perfStatsReporters;
-  private final HashSet<Class<?>> loadedTestClasses = new HashSet<>();
+  private final Set<Class<?>> loadedTestClasses = ConcurrentHashMap.newKeySet();
+  private final List<Filter> filters = new ArrayList<>();
+
+  // Variants started ahead of their turn, see #startVariants(FrameworkMethod).
+  private final Map<FrameworkMethod, Future<Throwable>> startedVariants = new HashMap<>();
+  private List<FrameworkMethod> allChildren;
+  private ExecutorService variantExecutor;
 
   public SandboxTestRunner(Class<?> klass) throws InitializationError {
     super(klass);
@@ -88,15 +103,18 @@ public class SandboxTestRunner extends BlockJUnit4ClassRunner {
         } finally {
           afterClass();
           loadedTestClasses.clear();
+          if (variantExecutor != null) {
+            variantExecutor.shutdownNow();
+            variantExecutor = null;
+          }
+          startedVariants.clear();
         }
       }
     };
   }
 
   private void invokeBeforeClass(final Class clazz) throws Throwable {
-    if (!loadedTestClasses.contains(clazz)) {
-      loadedTestClasses.add(clazz);
-
+    if (loadedTestClasses.add(clazz)) {
       final TestClass testClass = new TestClass(clazz);
       final List<FrameworkMethod> befores = testClass.getAnnotatedMethods(BeforeClass.class);
       for (FrameworkMethod before : befores) {
@@ -116,6 +134,37 @@ public class SandboxTestRunner extends BlockJUnit4ClassRunner {
   protected void afterClass() {
   }
 
+  @Override
+  public void filter(Filter filter) throws NoTestsRemainException {
+    super.filter(filter);
+    filters.add(filter);
+  }
+
+  /**
+   * Returns the maximum number of variants of a test method (see {@link #isVariantOf}) which may
+   * run at the same time, each in its own sandbox and thread. The default, 1, runs every test
+   * serially on the calling thread.
+   *
+   * Variants running at the same time share all process-wide state, such as the default {@link
+   * java.util.Locale} and {@link java.util.TimeZone} and system properties, so this should only
+   * return more than 1 for tests which don't modify it.
+   *
+   * Whatever this returns, JUnit is notified of tests starting and finishing in the usual order.
+   * Performance statistics aren't collected when variants may run concurrently, since the
+   * collector is shared by the whole process.
+   */
+  protected int getMaxConcurrentVariants() {
+    return 1;
+  }
+
+  /**
+   * Returns true if {@code method} and {@code other} are variants of the same test, which differ
+   * only in the sandbox they run in.
+   */
+  protected boolean isVariantOf(FrameworkMethod method, FrameworkMethod other) {
+    return method.getMethod().equals(other.getMethod());
+  }
+
   @Override
   protected void runChild(FrameworkMethod method, RunNotifier notifier) {
     Description description = describeChild(method);
@@ -127,7 +176,12 @@ public class SandboxTestRunner extends BlockJUnit4ClassRunner {
       eachNotifier.fireTestStarted();
 
       try {
-        methodBlock(method).evaluate();
+        Future<Throwable> variant = startVariants(method);
+        if (variant == null) {
+          methodBlock(method).evaluate();
+        } else {
+          awaitVariant(variant);
+        }
       } catch (AssumptionViolatedException e) {
         eachNotifier.addFailedAssumption(e);
       } catch (Throwable e) {
@@ -138,6 +192,82 @@ public class SandboxTestRunner extends BlockJUnit4ClassRunner {
     }
   }
 
+  /**
+   * If variants may run concurrently, starts {@code method}, along with every other variant of the
+   * same test which will run but hasn't been started yet, and returns its result. Otherwise,
+   * returns null.
+   */
+  private Future<Throwable> startVariants(FrameworkMethod method) {
+    Future<Throwable> started = startedVariants.remove(method);
+    if (started != null || getMaxConcurrentVariants() <= 1) {
+      return started;
+    }
+
+    if (allChildren == null) {
+      allChildren = getChildren();
+    }
+    List<FrameworkMethod> variants = new ArrayList<>();
+    for (FrameworkMethod child : allChildren) {
+      if (child.equals(method)) {
+        // run the very same instance, since the runner may keep per-test state on it
+        variants.add(method);
+      } else if (isVariantOf(method, child) && !shouldIgnore(child) && shouldRun(child)) {
+        variants.add(child);
+      }
+    }
+    if (variants.size() <= 1) {
+      return null;
+    }
+
+    if (variantExecutor == null) {
+      variantExecutor = createVariantExecutor(getMaxConcurrentVariants());
+    }
+    for (FrameworkMethod variant : variants) {
+      final Statement statement = methodBlock(variant);
+      Future<Throwable> future = variantExecutor.submit(() -> {
+        try {
+          statement.evaluate();
+          return null;
+        } catch (Throwable t) {
+          return t;
+        }
+      });
+      if (variant == method) {
+        started = future;
+      } else {
+        startedVariants.put(variant, future);
+      }
+    }
+    return started;
+  }
+
+  private boolean shouldRun(FrameworkMethod child) {
+    Description description = describeChild(child);
+    for (Filter filter : filters) {
+      if (!filter.shouldRun(description)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void awaitVariant(Future<Throwable> variant) throws Throwable {
+    Throwable failure = variant.get();
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private ExecutorService createVariantExecutor(int threads) {
+    AtomicInteger threadCount = new AtomicInteger();
+    String name = getTestClass().getJavaClass().getSimpleName();
+    return Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, name + " variant " + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
   @Nonnull
   protected Sandbox getSandbox(FrameworkMethod method) {
     InstrumentationConfiguration instrumentationConfiguration = createClassLoaderConfig(method);
@@ -218,7 +348,8 @@ public class SandboxTestRunner extends BlockJUnit4ClassRunner {
       public void evaluate() throws Throwable {
         PerfStatsCollector perfStatsCollector = PerfStatsCollector.getInstance();
         perfStatsCollector.reset();
-        perfStatsCollector.setEnabled(!perfStatsReporters.isEmpty());
+        perfStatsCollector.setEnabled(
+            !perfStatsReporters.isEmpty() && getMaxConcurrentVariants() <= 1);
 
         Event initialization = perfStatsCollector.startEvent("initialization");
 
@@ -273,7 +404,7 @@ public class SandboxTestRunner extends BlockJUnit4ClassRunner {
   }
 
   private void reportPerfStats(PerfStatsCollector perfStatsCollector) {
-    if (perfStatsReporters.isEmpty()) {
+    if (perfStatsReporters.isEmpty() || getMaxConcurrentVariants() > 1) {
       return;
     }
 
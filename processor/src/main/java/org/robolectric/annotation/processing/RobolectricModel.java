@@ -217,6 +217,7 @@ public class RobolectricModel {
       imports.add("java.util.Map");
       imports.add("java.util.HashMap");
       imports.add("javax.annotation.Generated");
+      imports.add("org.robolectric.internal.ShadowAttributes");
       imports.add("org.robolectric.internal.ShadowProvider");
       imports.add("org.robolectric.shadow.api.Shadow");
 
@@ -402,6 +403,28 @@ public class RobolectricModel {
       return shadowType.getAnnotation(Implements.class).isInAndroidSdk();
     }
 
+    /** Returns the binary name of the shadowed class, as Robolectric resolves it at runtime. */
+    public String getShadowedClassName() {
+      String className = shadowType.getAnnotation(Implements.class).className();
+      return className.isEmpty() ? actualBinaryName : className;
+    }
+
+    public boolean callThroughByDefault() {
+      return shadowType.getAnnotation(Implements.class).callThroughByDefault();
+    }
+
+    public boolean looseSignatures() {
+      return shadowType.getAnnotation(Implements.class).looseSignatures();
+    }
+
+    public int getMinSdk() {
+      return shadowType.getAnnotation(Implements.class).minSdk();
+    }
+
+    public int getMaxSdk() {
+      return shadowType.getAnnotation(Implements.class).maxSdk();
+    }
+
     public String getParamDefStr() {
       return paramDefStr;
     }
@@ -3,6 +3,8 @@ package org.robolectric.annotation.processing.generator;
 import com.google.common.base.Joiner;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
@@ -161,6 +163,29 @@ public class ShadowProviderGenerator extends Generator {
     writer.println("  }");
     writer.println();
 
+    // built on demand, in its own method, since it's only needed once per run and the static
+    // initializer is already large for big shadow packages
+    List<ShadowInfo> attributedShadows = new ArrayList<>();
+    for (ShadowInfo shadowInfo : model.getAllShadowTypes()) {
+      if (shadowInfo.getShadowPickerBinaryName() == null) {
+        attributedShadows.add(shadowInfo);
+      }
+    }
+    writer.println("  @Override");
+    writer.println("  public Map<String, ShadowAttributes> getShadowAttributes() {");
+    writer.println("    Map<String, ShadowAttributes> shadowAttributes = new HashMap<>("
+        + attributedShadows.size() + ");");
+    for (ShadowInfo shadowInfo : attributedShadows) {
+      writer.println("    shadowAttributes.put(\"" + shadowInfo.getActualName() + "\", "
+          + "new ShadowAttributes(\"" + shadowInfo.getShadowedClassName() + "\", \""
+          + shadowInfo.getShadowBinaryName() + "\", " + shadowInfo.callThroughByDefault() + ", "
+          + shadowInfo.looseSignatures() + ", " + shadowInfo.getMinSdk() + ", "
+          + shadowInfo.getMaxSdk() + "));");
+    }
+    writer.println("    return shadowAttributes;");
+    writer.println("  }");
+    writer.println();
+
     writer.println("  @Override");
     writer.println("  public String[] getProvidedPackageNames() {");
     writer.println("    return new String[] {");
@@ -10,6 +10,7 @@ import static org.robolectric.annotation.processing.RobolectricProcessor.JSON_DO
 import static org.robolectric.annotation.processing.RobolectricProcessor.PACKAGE_OPT;
 import static org.robolectric.annotation.processing.RobolectricProcessor.SHOULD_INSTRUMENT_PKG_OPT;
 import static org.robolectric.annotation.processing.Utils.DEFAULT_OPTS;
+import static org.robolectric.annotation.processing.Utils.SHADOW_ATTRIBUTES_SOURCE;
 import static org.robolectric.annotation.processing.Utils.SHADOW_EXTRACTOR_SOURCE;
 import static org.robolectric.annotation.processing.Utils.SHADOW_PROVIDER_SOURCE;
 
@@ -44,6 +45,7 @@ public class RobolectricProcessorTest {
     assertAbout(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_ATTRIBUTES_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forSourceString("HelloWorld", "final class HelloWorld {}")))
       .processedWith(new RobolectricProcessor(DEFAULT_OPTS))
@@ -59,6 +61,7 @@ public class RobolectricProcessorTest {
     assertAbout(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_ATTRIBUTES_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowOuterDummy.java"),
@@ -74,6 +77,7 @@ public class RobolectricProcessorTest {
     assertAbout(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_ATTRIBUTES_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowPrivate.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowOuterDummy2.java"),
@@ -89,6 +93,7 @@ public class RobolectricProcessorTest {
     assertAbout(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_ATTRIBUTES_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowOuterDummyWithErrs.java")))
       .processedWith(new RobolectricProcessor(DEFAULT_OPTS))
@@ -101,6 +106,7 @@ public class RobolectricProcessorTest {
     assertAbout(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_ATTRIBUTES_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowClassNameOnly.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
@@ -115,6 +121,7 @@ public class RobolectricProcessorTest {
     assertAbout(javaSources())
         .that(ImmutableList.of(
             SHADOW_PROVIDER_SOURCE,
+            SHADOW_ATTRIBUTES_SOURCE,
             SHADOW_EXTRACTOR_SOURCE,
             forResource("org/robolectric/annotation/processing/shadows/ShadowExcludedFromAndroidSdk.java")))
         .processedWith(new RobolectricProcessor(DEFAULT_OPTS))
@@ -144,6 +151,7 @@ public class RobolectricProcessorTest {
     assertAbout(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_ATTRIBUTES_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowClassNameOnly.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
@@ -158,6 +166,7 @@ public class RobolectricProcessorTest {
     assertAbout(javaSources())
         .that(ImmutableList.of(
             SHADOW_PROVIDER_SOURCE,
+            SHADOW_ATTRIBUTES_SOURCE,
             SHADOW_EXTRACTOR_SOURCE,
             forResource("org/robolectric/annotation/processing/shadows/ShadowClassNameOnly.java"),
             forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
@@ -172,6 +181,7 @@ public class RobolectricProcessorTest {
     assertAbout(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_ATTRIBUTES_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/TestWithUnrecognizedAnnotation.java")))
       .processedWith(new RobolectricProcessor(DEFAULT_OPTS))
@@ -183,6 +193,7 @@ public class RobolectricProcessorTest {
     assertAbout(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_ATTRIBUTES_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowParameterizedDummy.java")))
@@ -200,6 +211,7 @@ public class RobolectricProcessorTest {
     assertAbout(javaSources())
     .that(ImmutableList.of(
         SHADOW_PROVIDER_SOURCE,
+        SHADOW_ATTRIBUTES_SOURCE,
         SHADOW_EXTRACTOR_SOURCE,
         forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
     .processedWith(new RobolectricProcessor(options))
@@ -19,6 +19,7 @@ public class Utils {
           .build();
 
   public static final JavaFileObject SHADOW_PROVIDER_SOURCE = forResource("mock-source/org/robolectric/internal/ShadowProvider.java");
+  public static final JavaFileObject SHADOW_ATTRIBUTES_SOURCE = forResource("mock-source/org/robolectric/internal/ShadowAttributes.java");
   public static final JavaFileObject SHADOW_EXTRACTOR_SOURCE = forResource("mock-source/org/robolectric/shadow/api/Shadow.java");
 
   public static String toResourcePath(String clazzName) {
@@ -16,6 +16,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 import org.robolectric.annotation.processing.RobolectricModel;
 import org.robolectric.annotation.processing.RobolectricModel.ResetterInfo;
+import org.robolectric.annotation.processing.RobolectricModel.ShadowInfo;
 
 /** Tests for {@link ShadowProviderGenerator} */
 @RunWith(JUnit4.class)
@@ -49,6 +50,23 @@ public class ShadowProviderGeneratorTest {
     assertThat(writer.toString()).contains("if (org.robolectric.RuntimeEnvironment.getApiLevel() <= 18) ShadowThing.resetMax18();");
   }
 
+  @Test
+  public void shadowAttributesAreGenerated() throws Exception {
+    ShadowInfo shadowInfo = mock(ShadowInfo.class);
+    when(shadowInfo.getActualName()).thenReturn("com.example.Thing.Inner");
+    when(shadowInfo.getShadowedClassName()).thenReturn("com.example.Thing$Inner");
+    when(shadowInfo.getShadowBinaryName()).thenReturn("com.example.ShadowThing$ShadowInner");
+    when(shadowInfo.callThroughByDefault()).thenReturn(false);
+    when(shadowInfo.looseSignatures()).thenReturn(true);
+    when(shadowInfo.getMinSdk()).thenReturn(21);
+    when(shadowInfo.getMaxSdk()).thenReturn(-1);
+    when(model.getAllShadowTypes()).thenReturn(Collections.singletonList(shadowInfo));
+
+    generator.generate(new PrintWriter(writer));
+
+    assertThat(writer.toString()).contains("shadowAttributes.put(\"com.example.Thing.Inner\", new ShadowAttributes(\"com.example.Thing$Inner\", \"com.example.ShadowThing$ShadowInner\", false, true, 21, -1));");
+  }
+
   private ResetterInfo resetterInfo(String shadowName, int minSdk, int maxSdk, String methodName) {
     ResetterInfo resetterInfo = mock(ResetterInfo.class);
     when(resetterInfo.getMinSdk()).thenReturn(minSdk);
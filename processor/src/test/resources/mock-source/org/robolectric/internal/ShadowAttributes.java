@@ -0,0 +1,13 @@
+package org.robolectric.internal;
+
+public final class ShadowAttributes {
+
+  public ShadowAttributes(
+      String shadowedClassName,
+      String shadowClassName,
+      boolean callThroughByDefault,
+      boolean looseSignatures,
+      int minSdk,
+      int maxSdk) {
+  }
+}
@@ -9,4 +9,6 @@ public interface ShadowProvider {
   String[] getProvidedPackageNames();
 
   Map<String, String> getShadowMap();
+
+  Map<String, ShadowAttributes> getShadowAttributes();
 }
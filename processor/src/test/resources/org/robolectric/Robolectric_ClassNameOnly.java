@@ -7,6 +7,7 @@ import java.util.Map;
 import javax.annotation.Generated;
 import org.robolectric.annotation.processing.shadows.ShadowClassNameOnly;
 import org.robolectric.annotation.processing.shadows.ShadowDummy;
+import org.robolectric.internal.ShadowAttributes;
 import org.robolectric.internal.ShadowProvider;
 import org.robolectric.shadow.api.Shadow;
 
@@ -39,6 +40,14 @@ public class Shadows implements ShadowProvider {
     return SHADOW_MAP;
   }
 
+  @Override
+  public Map<String, ShadowAttributes> getShadowAttributes() {
+    Map<String, ShadowAttributes> shadowAttributes = new HashMap<>(2);
+    shadowAttributes.put("com.example.objects.AnyObject", new ShadowAttributes("com.example.objects.AnyObject", "org.robolectric.annotation.processing.shadows.ShadowClassNameOnly", true, false, -1, -1));
+    shadowAttributes.put("com.example.objects.Dummy", new ShadowAttributes("com.example.objects.Dummy", "org.robolectric.annotation.processing.shadows.ShadowDummy", true, false, -1, -1));
+    return shadowAttributes;
+  }
+
   @Override
   public String[] getProvidedPackageNames() {
     return new String[] {"com.example.objects"};
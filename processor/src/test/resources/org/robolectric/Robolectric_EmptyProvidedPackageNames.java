@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.Map;
 import javax.annotation.Generated;
 import org.robolectric.annotation.processing.shadows.ShadowDummy;
+import org.robolectric.internal.ShadowAttributes;
 import org.robolectric.internal.ShadowProvider;
 import org.robolectric.shadow.api.Shadow;
 
@@ -31,6 +32,13 @@ public class Shadows implements ShadowProvider {
     return SHADOW_MAP;
   }
 
+  @Override
+  public Map<String, ShadowAttributes> getShadowAttributes() {
+    Map<String, ShadowAttributes> shadowAttributes = new HashMap<>(1);
+    shadowAttributes.put("com.example.objects.Dummy", new ShadowAttributes("com.example.objects.Dummy", "org.robolectric.annotation.processing.shadows.ShadowDummy", true, false, -1, -1));
+    return shadowAttributes;
+  }
+
   @Override
   public String[] getProvidedPackageNames() {
     return new String[] {};
@@ -10,6 +10,7 @@ import org.robolectric.annotation.processing.shadows.ShadowOuterDummy2;
 import org.robolectric.annotation.processing.shadows.ShadowOuterDummy2.ShadowInnerPackage;
 import org.robolectric.annotation.processing.shadows.ShadowOuterDummy2.ShadowInnerProtected;
 import org.robolectric.annotation.processing.shadows.ShadowPrivate;
+import org.robolectric.internal.ShadowAttributes;
 import org.robolectric.internal.ShadowProvider;
 import org.robolectric.shadow.api.Shadow;
 
@@ -46,6 +47,17 @@ public class Shadows implements ShadowProvider {
     return SHADOW_MAP;
   }
 
+  @Override
+  public Map<String, ShadowAttributes> getShadowAttributes() {
+    Map<String, ShadowAttributes> shadowAttributes = new HashMap<>(5);
+    shadowAttributes.put("com.example.objects.Dummy", new ShadowAttributes("com.example.objects.Dummy", "org.robolectric.annotation.processing.shadows.ShadowDummy", true, false, -1, -1));
+    shadowAttributes.put("com.example.objects.OuterDummy2", new ShadowAttributes("com.example.objects.OuterDummy2", "org.robolectric.annotation.processing.shadows.ShadowOuterDummy2", true, false, -1, -1));
+    shadowAttributes.put("com.example.objects.OuterDummy2.InnerPackage", new ShadowAttributes("com.example.objects.OuterDummy2$InnerPackage", "org.robolectric.annotation.processing.shadows.ShadowOuterDummy2$ShadowInnerPackage", true, false, -1, -1));
+    shadowAttributes.put("com.example.objects.OuterDummy2.InnerProtected", new ShadowAttributes("com.example.objects.OuterDummy2$InnerProtected", "org.robolectric.annotation.processing.shadows.ShadowOuterDummy2$ShadowInnerProtected", true, false, -1, -1));
+    shadowAttributes.put("com.example.objects.Private", new ShadowAttributes("com.example.objects.Private", "org.robolectric.annotation.processing.shadows.ShadowPrivate", true, false, -1, -1));
+    return shadowAttributes;
+  }
+
   @Override
   public String[] getProvidedPackageNames() {
     return new String[] {"com.example.objects"};
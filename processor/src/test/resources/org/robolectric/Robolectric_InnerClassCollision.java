@@ -11,6 +11,7 @@ import org.robolectric.annotation.processing.shadows.ShadowDummy;
 import org.robolectric.annotation.processing.shadows.ShadowOuterDummy;
 import org.robolectric.annotation.processing.shadows.ShadowUniqueDummy;
 import org.robolectric.annotation.processing.shadows.ShadowUniqueDummy.ShadowUniqueInnerDummy;
+import org.robolectric.internal.ShadowAttributes;
 import org.robolectric.internal.ShadowProvider;
 import org.robolectric.shadow.api.Shadow;
 
@@ -62,6 +63,18 @@ public class Shadows implements ShadowProvider {
     return SHADOW_MAP;
   }
 
+  @Override
+  public Map<String, ShadowAttributes> getShadowAttributes() {
+    Map<String, ShadowAttributes> shadowAttributes = new HashMap<>(6);
+    shadowAttributes.put("com.example.objects.Dummy", new ShadowAttributes("com.example.objects.Dummy", "org.robolectric.annotation.processing.shadows.ShadowDummy", true, false, -1, -1));
+    shadowAttributes.put("com.example.objects.OuterDummy", new ShadowAttributes("com.example.objects.OuterDummy", "org.robolectric.annotation.processing.shadows.ShadowOuterDummy", true, false, -1, -1));
+    shadowAttributes.put("com.example.objects.OuterDummy.InnerDummy", new ShadowAttributes("com.example.objects.OuterDummy$InnerDummy", "org.robolectric.annotation.processing.shadows.ShadowOuterDummy$ShadowInnerDummy", true, false, -1, -1));
+    shadowAttributes.put("com.example.objects.UniqueDummy", new ShadowAttributes("com.example.objects.UniqueDummy", "org.robolectric.annotation.processing.shadows.ShadowUniqueDummy", true, false, -1, -1));
+    shadowAttributes.put("com.example.objects.UniqueDummy.InnerDummy", new ShadowAttributes("com.example.objects.UniqueDummy$InnerDummy", "org.robolectric.annotation.processing.shadows.ShadowUniqueDummy$ShadowInnerDummy", true, false, -1, -1));
+    shadowAttributes.put("com.example.objects.UniqueDummy.UniqueInnerDummy", new ShadowAttributes("com.example.objects.UniqueDummy$UniqueInnerDummy", "org.robolectric.annotation.processing.shadows.ShadowUniqueDummy$ShadowUniqueInnerDummy", true, false, -1, -1));
+    return shadowAttributes;
+  }
+
   @Override
   public String[] getProvidedPackageNames() {
     return new String[] {"com.example.objects"};
@@ -0,0 +1,128 @@
+package org.robolectric.res;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.File;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * Holds data parsed from APK files for the life of the JVM.
+ *
+ * <p>This class isn't loaded separately in each sandbox, so anything parsed here is shared by
+ * all of them; that's why entries are plain bytes rather than framework objects, which belong to
+ * a single sandbox. Each entry records the file's length and modification time when it was parsed,
+ * so an APK that's rebuilt during the run is parsed again, replacing the stale entry.
+ */
+public class ParsedApkCache {
+
+  private static final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the bytes previously produced by {@code parser} for {@code apkFile} and {@code
+   * variant}, calling it if there are none yet. Callers must not modify the returned array.
+   *
+   * <p>The parser is called without holding any lock, so other entries may be looked up meanwhile;
+   * concurrent callers for the same entry wait for it rather than parsing the file again. If it
+   * throws, nothing is cached, and the exception is rethrown to the caller whose parser it was.
+   *
+   * @param variant distinguishes different kinds of data parsed from the same file, e.g. for
+   *     different SDK levels
+   */
+  public static byte[] get(File apkFile, String variant, Supplier<byte[]> parser) {
+    Key key = new Key(apkFile, variant);
+    long length = apkFile.length();
+    long lastModified = apkFile.lastModified();
+
+    while (true) {
+      Entry entry = entries.get(key);
+      if (entry != null && entry.length == length && entry.lastModified == lastModified) {
+        try {
+          return Uninterruptibles.getUninterruptibly(entry.bytes);
+        } catch (ExecutionException e) {
+          // another caller's parser failed, and it got the exception; try again with ours
+          entries.remove(key, entry);
+          continue;
+        }
+      }
+
+      Entry newEntry = new Entry(length, lastModified, new FutureTask<>(parser::get));
+      boolean installed =
+          entry == null
+              ? entries.putIfAbsent(key, newEntry) == null
+              : entries.replace(key, entry, newEntry);
+      if (!installed) {
+        continue;
+      }
+
+      newEntry.bytes.run();
+      try {
+        return Uninterruptibles.getUninterruptibly(newEntry.bytes);
+      } catch (ExecutionException e) {
+        entries.remove(key, newEntry);
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+    }
+  }
+
+  /** Removes all cached entries. */
+  public static void clear() {
+    entries.clear();
+  }
+
+  /** Returns the number of cached entries, including any still being parsed. */
+  @VisibleForTesting
+  static int size() {
+    return entries.size();
+  }
+
+  private static class Entry {
+    private final long length;
+    private final long lastModified;
+    private final FutureTask<byte[]> bytes;
+
+    Entry(long length, long lastModified, FutureTask<byte[]> bytes) {
+      this.length = length;
+      this.lastModified = lastModified;
+      this.bytes = bytes;
+    }
+  }
+
+  private static class Key {
+    private final String path;
+    private final String variant;
+
+    Key(File file, String variant) {
+      this.path = file.getAbsolutePath();
+      this.variant = variant;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return path.equals(key.path) && variant.equals(key.variant);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, variant);
+    }
+  }
+}
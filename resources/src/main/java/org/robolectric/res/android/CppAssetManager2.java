@@ -15,15 +15,17 @@ import static org.robolectric.res.android.Util.dtohl;
 import static org.robolectric.res.android.Util.dtohs;
 import static org.robolectric.res.android.Util.isTruthy;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.robolectric.res.Fs;
 import org.robolectric.res.FsFile;
 import org.robolectric.res.android.CppApkAssets.ForEachFileCallback;
@@ -39,6 +41,7 @@ import org.robolectric.res.android.ResourceTypes.ResTable_map;
 import org.robolectric.res.android.ResourceTypes.ResTable_map_entry;
 import org.robolectric.res.android.ResourceTypes.ResTable_type;
 import org.robolectric.res.android.ResourceTypes.Res_value;
+import org.robolectric.util.PerfStatsCollector;
 
 // transliterated from https://android.googlesource.com/platform/frameworks/base/+/android-9.0.0_r12/libs/androidfw/include/androidfw/AssetManager2.h
 // and https://android.googlesource.com/platform/frameworks/base/+/android-9.0.0_r12/libs/androidfw/AssetManager2.cpp
@@ -200,7 +203,14 @@ public class CppAssetManager2 {
   // Cached set of bags. These are cached because they can inherit keys from parent bags,
   // which involves some calculation.
 //  private std.unordered_map<int, util.unique_cptr<ResolvedBag>> cached_bags_;
-  final private Map<Integer, ResolvedBag> cached_bags_ = new HashMap<>();
+  final private Map<Integer, ResolvedBag> cached_bags_ = new ConcurrentHashMap<>();
+
+  // Not present in the native implementation: the fully applied state of themes, keyed by the
+  // sequence of styles applied to them, so that themes built from the same style chain can share
+  // it rather than re-resolving every attribute. Invalidated along with cached_bags_.
+  private static final int kMaxCachedThemes = 64;
+  final private Cache<List<Long>, Theme.ThemeState> cached_themes_ =
+      CacheBuilder.newBuilder().maximumSize(kMaxCachedThemes).build();
 //  };
 
 //final ResolvedBag.Entry* begin(final ResolvedBag* bag) { return bag.entries; }
@@ -1310,19 +1320,17 @@ public class CppAssetManager2 {
     if (diff == 0xffffffff) {
       // Everything must go.
       cached_bags_.clear();
+      cached_themes_.invalidateAll();
       return;
     }
 
     // Be more conservative with what gets purged. Only if the bag has other possible
     // variations with respect to what changed (diff) should we remove it.
     // for (auto iter = cached_bags_.cbegin(); iter != cached_bags_.cend();) {
-    for (Integer key : new ArrayList<>(cached_bags_.keySet())) {
-      // if (diff & iter.second.type_spec_flags) {
-      if (isTruthy(diff & cached_bags_.get(key).type_spec_flags)) {
-        // iter = cached_bags_.erase(iter);
-        cached_bags_.remove(key);
-      }
-    }
+    //   if (diff & iter.second.type_spec_flags) {
+    //     iter = cached_bags_.erase(iter);
+    cached_bags_.values().removeIf(bag -> isTruthy(diff & bag.type_spec_flags));
+    cached_themes_.asMap().values().removeIf(state -> isTruthy(diff & state.type_spec_flags));
   }
 
   // Creates a new Theme from this AssetManager.
@@ -1357,6 +1365,13 @@ public class CppAssetManager2 {
     //  std.array<std.unique_ptr<Package>, kPackageCount> packages_;
     private Package[] packages_ = new Package[kPackageCount];
 
+    // Not present in the native implementation: the styles applied to this theme so far, in order
+    // (see styleKey()), or null if unknown. Used as the key into asset_manager_.cached_themes_.
+    private List<Long> applied_styles_ = Collections.emptyList();
+    // True if packages_ is shared with asset_manager_.cached_themes_ (and possibly other themes),
+    // in which case it must be copied before being modified.
+    private boolean shared_ = false;
+
     public Theme(CppAssetManager2 cppAssetManager2) {
       asset_manager_ = cppAssetManager2;
     }
@@ -1388,6 +1403,57 @@ public class CppAssetManager2 {
       ThemeType[] types = new ThemeType[kTypeCount];
     }
 
+    // Immutable snapshot of a theme's state after a sequence of styles has been applied.
+    static class ThemeState {
+      final Package[] packages;
+      final int type_spec_flags;
+
+      ThemeState(Package[] packages, int type_spec_flags) {
+        this.packages = packages;
+        this.type_spec_flags = type_spec_flags;
+      }
+    }
+
+    private static long styleKey(int resid, boolean force) {
+      return (resid & 0xffffffffL) | (force ? 1L << 32 : 0L);
+    }
+
+    // Copies packages_ if it is shared, so it may be modified.
+    private void ensureNotShared() {
+      if (!shared_) {
+        return;
+      }
+
+      Package[] packages = new Package[kPackageCount];
+      for (int p = 0; p < packages_.length; p++) {
+        Package package_ = packages_[p];
+        if (package_ == null) {
+          continue;
+        }
+        Package copied_package = packages[p] = new Package();
+        for (int t = 0; t < package_.types.length; t++) {
+          ThemeType type = package_.types[t];
+          if (type == null) {
+            continue;
+          }
+          ThemeType copied_type = copied_package.types[t] = new ThemeType();
+          copied_type.entry_count = type.entry_count;
+          copied_type.entries = new ThemeEntry[type.entries.length];
+          for (int i = 0; i < type.entries.length; i++) {
+            ThemeEntry entry = type.entries[i];
+            if (entry != null) {
+              ThemeEntry copied_entry = copied_type.entries[i] = new ThemeEntry();
+              copied_entry.cookie = entry.cookie;
+              copied_entry.type_spec_flags = entry.type_spec_flags;
+              copied_entry.value = entry.value;
+            }
+          }
+        }
+      }
+      packages_ = packages;
+      shared_ = false;
+    }
+
     // Applies the style identified by `resid` to this theme. This can be called
     // multiple times with different styles. By default, any theme attributes that
     // are already defined before this call are not overridden. If `force` is set
@@ -1396,6 +1462,40 @@ public class CppAssetManager2 {
     // Returns false if the style failed to apply.
 //  boolean ApplyStyle(int resid, boolean force = false);
     public boolean ApplyStyle(int resid, boolean force) {
+      List<Long> applied_styles = null;
+      if (applied_styles_ != null) {
+        applied_styles = new ArrayList<>(applied_styles_.size() + 1);
+        applied_styles.addAll(applied_styles_);
+        applied_styles.add(styleKey(resid, force));
+
+        ThemeState cached = asset_manager_.cached_themes_.getIfPresent(applied_styles);
+        if (cached != null) {
+          PerfStatsCollector.getInstance().incrementCount("CppAssetManager2 theme cache hit");
+          packages_ = cached.packages;
+          type_spec_flags_ = cached.type_spec_flags;
+          applied_styles_ = applied_styles;
+          shared_ = true;
+          return true;
+        }
+      }
+
+      PerfStatsCollector.getInstance().incrementCount("CppAssetManager2 theme cache miss");
+      ensureNotShared();
+      applied_styles_ = null;
+      if (!ApplyStyleUncached(resid, force)) {
+        return false;
+      }
+
+      if (applied_styles != null) {
+        applied_styles_ = applied_styles;
+        asset_manager_.cached_themes_.put(
+            applied_styles, new ThemeState(packages_, type_spec_flags_));
+        shared_ = true;
+      }
+      return true;
+    }
+
+    private boolean ApplyStyleUncached(int resid, boolean force) {
       // ATRACE_NAME("Theme::ApplyStyle");
 
       final ResolvedBag bag = asset_manager_.GetBag(resid);
@@ -1580,10 +1680,11 @@ public class CppAssetManager2 {
     //  void Clear();
     public void Clear() {
       type_spec_flags_ = 0;
-      for (int i = 0; i < packages_.length; i++) {
-//        package_.reset();
-        packages_[i] = null;
-      }
+      // for (std::unique_ptr<Package>& package : packages_) {
+      //   package.reset();
+      packages_ = new Package[kPackageCount];
+      shared_ = false;
+      applied_styles_ = Collections.emptyList();
     }
 
     // Sets this Theme to be a copy of `o` if `o` has the same AssetManager as this Theme.
@@ -1594,10 +1695,21 @@ public class CppAssetManager2 {
         return true;
       }
 
-      type_spec_flags_ = o.type_spec_flags_;
-
       boolean copy_only_system = asset_manager_ != o.asset_manager_;
 
+      if (!copy_only_system && o.shared_) {
+        // Share the other theme's immutable state rather than copying it.
+        type_spec_flags_ = o.type_spec_flags_;
+        packages_ = o.packages_;
+        applied_styles_ = o.applied_styles_;
+        shared_ = true;
+        return true;
+      }
+
+      ensureNotShared();
+      applied_styles_ = null;
+      type_spec_flags_ = o.type_spec_flags_;
+
       // for (int p = 0; p < packages_.size(); p++) {
       //   final Package package_ = o.packages_[p].get();
       for (int p = 0; p < packages_.length; p++) {
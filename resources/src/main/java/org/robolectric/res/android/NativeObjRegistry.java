@@ -2,27 +2,52 @@ package org.robolectric.res.android;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.robolectric.util.PerfStatsCollector;
 
 /**
  * A unique id per object registry. Used to emulate android platform behavior of storing a long
  * which represents a pointer to an object.
+ *
+ * <p>Objects are stored in a dense array of chunks indexed by id, so lookups by id never take a
+ * lock. Ids of unregistered objects are recycled through a free-list, much like freed native
+ * memory would be; an identity map supports the reverse (object to id) lookup.
  */
 public class NativeObjRegistry<T> {
 
   private static final int INITIAL_ID = 1;
+  private static final int CHUNK_SHIFT = 8;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private static final Queue<WeakReference<NativeObjRegistry<?>>> ALL_REGISTRIES =
+      new ConcurrentLinkedQueue<>();
 
   private final String name;
   private final boolean debug;
-  private final BiMap<Long, T> nativeObjToIdMap = HashBiMap.create();
+  private final ClassLoader classLoader;
+  private final ConcurrentMap<IdentityKey, Long> nativeObjToIdMap = new ConcurrentHashMap<>();
+  private final Queue<Long> freeIds = new ConcurrentLinkedQueue<>();
+  private final AtomicLong nextId = new AtomicLong(INITIAL_ID);
+  private final AtomicInteger liveObjectCount = new AtomicInteger();
+  private final AtomicInteger baselineLiveObjectCount = new AtomicInteger();
   private final Map<Long, DebugInfo> idToDebugInfoMap;
 
-  private long nextId = INITIAL_ID;
+  // Only ever replaced (grown or cleared) while holding the lock on this registry.
+  private volatile AtomicReferenceArray<AtomicReferenceArray<T>> chunks =
+      new AtomicReferenceArray<>(1);
 
   public NativeObjRegistry(Class<T> theClass) {
     this(theClass, false);
@@ -39,7 +64,10 @@ public class NativeObjRegistry<T> {
   public NativeObjRegistry(String name, boolean debug) {
     this.name = name;
     this.debug = debug;
-    this.idToDebugInfoMap = debug ? new HashMap<>() : null;
+    // Registries are created by shadows, so this is the loader of the sandbox they belong to.
+    this.classLoader = Thread.currentThread().getContextClassLoader();
+    this.idToDebugInfoMap = debug ? new ConcurrentHashMap<>() : null;
+    ALL_REGISTRIES.add(new WeakReference<>(this));
   }
 
   /**
@@ -49,18 +77,25 @@ public class NativeObjRegistry<T> {
    * @deprecated Use {@link #register(Object)} instead.
    */
   @Deprecated
-  public synchronized long getNativeObjectId(T o) {
+  public long getNativeObjectId(T o) {
     checkNotNull(o);
-    Long nativeId = nativeObjToIdMap.inverse().get(o);
-    if (nativeId == null) {
-      nativeId = nextId;
-      if (debug) {
-        System.out.printf("NativeObjRegistry %s: register %d -> %s%n", name, nativeId, o);
-      }
-      nativeObjToIdMap.put(nativeId, o);
-      nextId++;
+    IdentityKey key = new IdentityKey(o);
+    Long nativeId = nativeObjToIdMap.get(key);
+    if (nativeId != null) {
+      return nativeId;
     }
-    return nativeId;
+
+    long newId = allocateId(o);
+    nativeId = nativeObjToIdMap.putIfAbsent(key, newId);
+    if (nativeId != null) {
+      // another thread registered the same object first
+      releaseId(newId);
+      return nativeId;
+    }
+    if (debug) {
+      System.out.printf("NativeObjRegistry %s: register %d -> %s%n", name, newId, o);
+    }
+    return newId;
   }
 
   /**
@@ -68,10 +103,12 @@ public class NativeObjRegistry<T> {
    *
    * @throws IllegalStateException if the object was previously registered
    */
-  public synchronized long register(T o) {
+  public long register(T o) {
     checkNotNull(o);
-    Long nativeId = nativeObjToIdMap.inverse().get(o);
+    long newId = allocateId(o);
+    Long nativeId = nativeObjToIdMap.putIfAbsent(new IdentityKey(o), newId);
     if (nativeId != null) {
+      releaseId(newId);
       if (debug) {
         DebugInfo debugInfo = idToDebugInfoMap.get(nativeId);
         if (debugInfo != null) {
@@ -83,14 +120,11 @@ public class NativeObjRegistry<T> {
       throw new IllegalStateException("Object was previously registered with id " + nativeId);
     }
 
-    nativeId = nextId;
     if (debug) {
-      System.out.printf("NativeObjRegistry %s: register %d -> %s%n", name, nativeId, o);
-      idToDebugInfoMap.put(nativeId, new DebugInfo(new Trace(o)));
+      System.out.printf("NativeObjRegistry %s: register %d -> %s%n", name, newId, o);
+      idToDebugInfoMap.put(newId, new DebugInfo(new Trace(o)));
     }
-    nativeObjToIdMap.put(nativeId, o);
-    nextId++;
-    return nativeId;
+    return newId;
   }
 
   /**
@@ -100,8 +134,9 @@ public class NativeObjRegistry<T> {
    * @throws IllegalStateException if the object was never registered, or was previously
    *     unregistered.
    */
-  public synchronized void unregister(long nativeId) {
-    T o = nativeObjToIdMap.remove(nativeId);
+  public void unregister(long nativeId) {
+    AtomicReferenceArray<T> chunk = chunkFor(nativeId);
+    T o = chunk == null ? null : chunk.getAndSet(slotFor(nativeId), null);
     if (debug) {
       System.out.printf("NativeObjRegistry %s: unregister %d -> %s%n", name, nativeId, o);
       new RuntimeException("unregister debug").printStackTrace(System.out);
@@ -109,37 +144,49 @@ public class NativeObjRegistry<T> {
     if (o == null) {
       if (debug) {
         DebugInfo debugInfo = idToDebugInfoMap.get(nativeId);
-        debugInfo.unregistrationTraces.add(new Trace(o));
-        if (debugInfo.unregistrationTraces.size() > 1) {
-          System.out.format("NativeObjRegistry %s: Too many unregistrations:%n", name);
-          for (Trace unregistration : debugInfo.unregistrationTraces) {
-            unregistration.printStackTrace(System.out);
+        if (debugInfo != null) {
+          debugInfo.unregistrationTraces.add(new Trace(o));
+          if (debugInfo.unregistrationTraces.size() > 1) {
+            System.out.format("NativeObjRegistry %s: Too many unregistrations:%n", name);
+            for (Trace unregistration : debugInfo.unregistrationTraces) {
+              unregistration.printStackTrace(System.out);
+            }
           }
         }
       }
       throw new IllegalStateException(
           nativeId + " has already been removed (or was never registered)");
     }
+
+    nativeObjToIdMap.remove(new IdentityKey(o), nativeId);
+    freeId(nativeId);
   }
 
   /**
    * @deprecated Use {@link #unregister(long)} instead.
    */
   @Deprecated
-  public synchronized void unregister(T removed) {
-    nativeObjToIdMap.inverse().remove(removed);
+  public void unregister(T removed) {
+    Long nativeId = nativeObjToIdMap.remove(new IdentityKey(removed));
+    if (nativeId == null) {
+      return;
+    }
+    AtomicReferenceArray<T> chunk = chunkFor(nativeId);
+    if (chunk != null && chunk.compareAndSet(slotFor(nativeId), removed, null)) {
+      freeId(nativeId);
+    }
   }
 
   /** Retrieve the native object for given id. Throws if object with that id cannot be found */
-  public synchronized T getNativeObject(long nativeId) {
-    T object = nativeObjToIdMap.get(nativeId);
+  public T getNativeObject(long nativeId) {
+    T object = peekNativeObject(nativeId);
     if (object != null) {
       return object;
     } else {
       throw new NullPointerException(
           String.format(
               "Could not find object with nativeId: %d. Currently registered ids: %s",
-              nativeId, nativeObjToIdMap.keySet()));
+              nativeId, new TreeSet<>(nativeObjToIdMap.values())));
     }
   }
 
@@ -147,14 +194,156 @@ public class NativeObjRegistry<T> {
    * Similar to {@link #getNativeObject(long)} but returns null if object with given id cannot be
    * found.
    */
-  public synchronized T peekNativeObject(long nativeId) {
-    return nativeObjToIdMap.get(nativeId);
+  public T peekNativeObject(long nativeId) {
+    AtomicReferenceArray<T> chunk = chunkFor(nativeId);
+    return chunk == null ? null : chunk.get(slotFor(nativeId));
+  }
+
+  /** Returns the number of objects currently registered. */
+  public int getLiveObjectCount() {
+    return liveObjectCount.get();
   }
 
   /** WARNING -- dangerous! Call {@link #unregister(long)} instead! */
   public synchronized void clear() {
-    nextId = INITIAL_ID;
+    chunks = new AtomicReferenceArray<>(1);
     nativeObjToIdMap.clear();
+    freeIds.clear();
+    nextId.set(INITIAL_ID);
+    liveObjectCount.set(0);
+    baselineLiveObjectCount.set(0);
+  }
+
+  /**
+   * Takes the current number of live objects in each of the current sandbox's registries as the
+   * baseline for the next {@link #reportStats()}, so objects registered before then (e.g. while
+   * setting up the application) aren't reported as leaks.
+   *
+   * <p>Intended to be called once at the start of each test, on the test thread.
+   */
+  public static void resetStats() {
+    for (NativeObjRegistry<?> registry : currentRegistries()) {
+      registry.baselineLiveObjectCount.set(registry.liveObjectCount.get());
+    }
+  }
+
+  /**
+   * Records, for every registry in the current sandbox with registered objects, the number of live
+   * objects and the number of objects registered since {@link #resetStats()} which are still
+   * registered (a likely leak) as {@link PerfStatsCollector} counts.
+   *
+   * <p>Registries belonging to other sandboxes are skipped, since they aren't used by the test.
+   * Intended to be called once at the end of each test, on the test thread.
+   */
+  public static void reportStats() {
+    PerfStatsCollector perfStatsCollector = PerfStatsCollector.getInstance();
+    for (NativeObjRegistry<?> registry : currentRegistries()) {
+      int live = registry.liveObjectCount.get();
+      int leaked = live - registry.baselineLiveObjectCount.get();
+      if (live > 0) {
+        perfStatsCollector.incrementCount("NativeObjRegistry live objects: " + registry.name, live);
+      }
+      if (leaked > 0) {
+        perfStatsCollector.incrementCount(
+            "NativeObjRegistry leaked objects: " + registry.name, leaked);
+      }
+    }
+  }
+
+  /** Returns the registries created in the current thread's sandbox. */
+  private static List<NativeObjRegistry<?>> currentRegistries() {
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    List<NativeObjRegistry<?>> registries = new ArrayList<>();
+    Iterator<WeakReference<NativeObjRegistry<?>>> iterator = ALL_REGISTRIES.iterator();
+    while (iterator.hasNext()) {
+      NativeObjRegistry<?> registry = iterator.next().get();
+      if (registry == null) {
+        iterator.remove();
+      } else if (registry.classLoader == classLoader) {
+        registries.add(registry);
+      }
+    }
+    return registries;
+  }
+
+  private long allocateId(T o) {
+    Long freeId = freeIds.poll();
+    long nativeId = freeId == null ? nextId.getAndIncrement() : freeId;
+    if (nativeId > Integer.MAX_VALUE) {
+      throw new IllegalStateException("NativeObjRegistry " + name + " is out of ids");
+    }
+    ensureChunk(nativeId).set(slotFor(nativeId), o);
+    liveObjectCount.incrementAndGet();
+    return nativeId;
+  }
+
+  /** Clears the slot of an id which was allocated but never handed out. */
+  private void releaseId(long nativeId) {
+    ensureChunk(nativeId).set(slotFor(nativeId), null);
+    freeId(nativeId);
+  }
+
+  private void freeId(long nativeId) {
+    liveObjectCount.decrementAndGet();
+    freeIds.add(nativeId);
+  }
+
+  private AtomicReferenceArray<T> chunkFor(long nativeId) {
+    if (nativeId < INITIAL_ID || nativeId > Integer.MAX_VALUE) {
+      return null;
+    }
+    int chunkIndex = (int) (nativeId >>> CHUNK_SHIFT);
+    AtomicReferenceArray<AtomicReferenceArray<T>> chunks = this.chunks;
+    return chunkIndex < chunks.length() ? chunks.get(chunkIndex) : null;
+  }
+
+  private AtomicReferenceArray<T> ensureChunk(long nativeId) {
+    AtomicReferenceArray<T> chunk = chunkFor(nativeId);
+    if (chunk != null) {
+      return chunk;
+    }
+
+    synchronized (this) {
+      int chunkIndex = (int) (nativeId >>> CHUNK_SHIFT);
+      AtomicReferenceArray<AtomicReferenceArray<T>> chunks = this.chunks;
+      if (chunkIndex >= chunks.length()) {
+        AtomicReferenceArray<AtomicReferenceArray<T>> grown =
+            new AtomicReferenceArray<>(Math.max(chunks.length() * 2, chunkIndex + 1));
+        for (int i = 0; i < chunks.length(); i++) {
+          grown.set(i, chunks.get(i));
+        }
+        this.chunks = chunks = grown;
+      }
+      chunk = chunks.get(chunkIndex);
+      if (chunk == null) {
+        chunk = new AtomicReferenceArray<>(CHUNK_SIZE);
+        chunks.set(chunkIndex, chunk);
+      }
+      return chunk;
+    }
+  }
+
+  private static int slotFor(long nativeId) {
+    return (int) (nativeId & CHUNK_MASK);
+  }
+
+  /** Wraps a registered object so it's looked up by identity rather than {@code equals()}. */
+  private static final class IdentityKey {
+    private final Object o;
+
+    IdentityKey(Object o) {
+      this.o = o;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof IdentityKey && ((IdentityKey) other).o == o;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(o);
+    }
   }
 
   private static class DebugInfo {
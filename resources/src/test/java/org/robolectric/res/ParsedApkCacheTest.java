@@ -0,0 +1,146 @@
+package org.robolectric.res;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.fail;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link ParsedApkCache}
+ */
+@RunWith(JUnit4.class)
+public class ParsedApkCacheTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File apkFile;
+  private final AtomicInteger parseCount = new AtomicInteger();
+
+  @Before
+  public void setUp() throws Exception {
+    ParsedApkCache.clear();
+    apkFile = temporaryFolder.newFile("app.apk");
+    Files.write(apkFile.toPath(), new byte[] {1, 2, 3});
+  }
+
+  @After
+  public void tearDown() {
+    ParsedApkCache.clear();
+  }
+
+  @Test
+  public void get_shouldParseOnlyOnce() {
+    byte[] first = ParsedApkCache.get(apkFile, "package", this::parse);
+    byte[] second = ParsedApkCache.get(apkFile, "package", this::parse);
+
+    assertThat(second).isSameAs(first);
+    assertThat(parseCount.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_shouldParseEachVariantSeparately() {
+    ParsedApkCache.get(apkFile, "package-27", this::parse);
+    ParsedApkCache.get(apkFile, "package-28", this::parse);
+
+    assertThat(parseCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void get_shouldParseAgainWhenFileChanges() throws Exception {
+    ParsedApkCache.get(apkFile, "package", this::parse);
+    Files.write(apkFile.toPath(), new byte[] {1, 2, 3, 4});
+
+    ParsedApkCache.get(apkFile, "package", this::parse);
+
+    assertThat(parseCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void get_shouldReplaceStaleEntryWhenFileChanges() throws Exception {
+    ParsedApkCache.get(apkFile, "package", this::parse);
+    Files.write(apkFile.toPath(), new byte[] {1, 2, 3, 4});
+
+    byte[] reparsed = ParsedApkCache.get(apkFile, "package", this::parse);
+
+    assertThat(ParsedApkCache.get(apkFile, "package", this::parse)).isSameAs(reparsed);
+    assertThat(parseCount.get()).isEqualTo(2);
+    assertThat(ParsedApkCache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_shouldNotCacheFailures() {
+    try {
+      ParsedApkCache.get(apkFile, "package", () -> {
+        throw new IllegalStateException("can't parse");
+      });
+      fail("should have thrown");
+    } catch (IllegalStateException expected) {
+    }
+
+    ParsedApkCache.get(apkFile, "package", this::parse);
+    assertThat(parseCount.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_shouldWaitForConcurrentParseOfSameEntry() throws Exception {
+    CountDownLatch parseStarted = new CountDownLatch(1);
+    CountDownLatch finishParse = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<byte[]> first = executor.submit(() -> ParsedApkCache.get(apkFile, "package", () -> {
+        parseStarted.countDown();
+        Uninterruptibles.awaitUninterruptibly(finishParse);
+        return parse();
+      }));
+      assertThat(parseStarted.await(10, SECONDS)).isTrue();
+      Future<byte[]> second =
+          executor.submit(() -> ParsedApkCache.get(apkFile, "package", this::parse));
+
+      finishParse.countDown();
+
+      assertThat(second.get(10, SECONDS)).isSameAs(first.get(10, SECONDS));
+      assertThat(parseCount.get()).isEqualTo(1);
+    } finally {
+      finishParse.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void get_shouldNotBlockOtherEntriesWhileParsing() throws Exception {
+    CountDownLatch parseStarted = new CountDownLatch(1);
+    CountDownLatch finishParse = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> ParsedApkCache.get(apkFile, "package-27", () -> {
+        parseStarted.countDown();
+        Uninterruptibles.awaitUninterruptibly(finishParse);
+        return parse();
+      }));
+      assertThat(parseStarted.await(10, SECONDS)).isTrue();
+
+      assertThat(ParsedApkCache.get(apkFile, "package-28", this::parse)).isNotNull();
+    } finally {
+      finishParse.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  private byte[] parse() {
+    return new byte[] {(byte) parseCount.incrementAndGet()};
+  }
+}
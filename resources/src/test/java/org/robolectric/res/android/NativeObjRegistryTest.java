@@ -0,0 +1,222 @@
+package org.robolectric.res.android;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.robolectric.util.PerfStatsCollector;
+import org.robolectric.util.PerfStatsCollector.Metric;
+
+@RunWith(JUnit4.class)
+public class NativeObjRegistryTest {
+
+  private NativeObjRegistry<Object> registry;
+
+  @Before
+  public void setUp() throws Exception {
+    registry = new NativeObjRegistry<>("test");
+    PerfStatsCollector.getInstance().reset();
+    PerfStatsCollector.getInstance().setEnabled(true);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    PerfStatsCollector.getInstance().setEnabled(false);
+    PerfStatsCollector.getInstance().reset();
+  }
+
+  @Test
+  public void register_shouldAssignNonZeroIds() throws Exception {
+    Object a = new Object();
+    Object b = new Object();
+    long aId = registry.register(a);
+    long bId = registry.register(b);
+
+    assertThat(aId).isNotEqualTo(0L);
+    assertThat(bId).isNotEqualTo(aId);
+    assertThat(registry.getNativeObject(aId)).isSameAs(a);
+    assertThat(registry.getNativeObject(bId)).isSameAs(b);
+    assertThat(registry.getLiveObjectCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void register_shouldThrowIfAlreadyRegistered() throws Exception {
+    Object o = new Object();
+    registry.register(o);
+    try {
+      registry.register(o);
+      fail("should have thrown");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    assertThat(registry.getLiveObjectCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void register_shouldUseIdentityNotEquality() throws Exception {
+    long firstId = registry.register("same");
+    long secondId = registry.register(new String("same"));
+
+    assertThat(secondId).isNotEqualTo(firstId);
+  }
+
+  @Test
+  public void unregister_shouldRemoveAndRecycleIds() throws Exception {
+    long id = registry.register(new Object());
+    registry.unregister(id);
+
+    assertThat(registry.peekNativeObject(id)).isNull();
+    assertThat(registry.getLiveObjectCount()).isEqualTo(0);
+
+    Object o = new Object();
+    assertThat(registry.register(o)).isEqualTo(id);
+    assertThat(registry.getNativeObject(id)).isSameAs(o);
+  }
+
+  @Test
+  public void unregister_shouldThrowIfNotRegistered() throws Exception {
+    long id = registry.register(new Object());
+    registry.unregister(id);
+    try {
+      registry.unregister(id);
+      fail("should have thrown");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void getNativeObject_shouldThrowForUnknownIds() throws Exception {
+    try {
+      registry.getNativeObject(12345);
+      fail("should have thrown");
+    } catch (NullPointerException e) {
+      assertThat(e.getMessage()).contains("12345");
+    }
+    assertThat(registry.peekNativeObject(0)).isNull();
+    assertThat(registry.peekNativeObject(-1)).isNull();
+  }
+
+  @Test
+  public void getNativeObjectId_shouldReturnExistingId() throws Exception {
+    Object o = new Object();
+    long id = registry.getNativeObjectId(o);
+    assertThat(registry.getNativeObjectId(o)).isEqualTo(id);
+
+    registry.unregister(o);
+    assertThat(registry.peekNativeObject(id)).isNull();
+  }
+
+  @Test
+  public void shouldGrowBeyondInitialCapacity() throws Exception {
+    List<Object> objects = new ArrayList<>();
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      Object o = new Object();
+      objects.add(o);
+      ids.add(registry.register(o));
+    }
+    for (int i = 0; i < objects.size(); i++) {
+      assertThat(registry.getNativeObject(ids.get(i))).isSameAs(objects.get(i));
+    }
+  }
+
+  @Test
+  public void clear_shouldRemoveAllObjects() throws Exception {
+    long id = registry.register(new Object());
+    registry.clear();
+
+    assertThat(registry.peekNativeObject(id)).isNull();
+    assertThat(registry.getLiveObjectCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldAssignUniqueIdsAcrossThreads() throws Exception {
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<Long>>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(executorService.submit((Callable<List<Long>>) () -> {
+          List<Long> ids = new ArrayList<>();
+          for (int i = 0; i < 1000; i++) {
+            long id = registry.register(new Object());
+            ids.add(id);
+            if (i % 2 == 0) {
+              registry.unregister(id);
+            }
+          }
+          return ids;
+        }));
+      }
+
+      Set<Long> liveIds = new HashSet<>();
+      for (Future<List<Long>> future : futures) {
+        List<Long> ids = future.get();
+        for (int i = 1; i < ids.size(); i += 2) {
+          assertThat(liveIds.add(ids.get(i))).isTrue();
+        }
+      }
+      assertThat(registry.getLiveObjectCount()).isEqualTo(2000);
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test
+  public void reportStats_shouldOnlyReportObjectsRegisteredSinceResetStatsAsLeaked()
+      throws Exception {
+    NativeObjRegistry<Object> registry = new NativeObjRegistry<>("reportStatsLeaks");
+    registry.register(new Object());
+    registry.register(new Object());
+
+    NativeObjRegistry.resetStats();
+    registry.register(new Object());
+    NativeObjRegistry.reportStats();
+
+    assertThat(count("NativeObjRegistry live objects: reportStatsLeaks")).isEqualTo(3);
+    assertThat(count("NativeObjRegistry leaked objects: reportStatsLeaks")).isEqualTo(1);
+  }
+
+  @Test
+  public void reportStats_shouldSkipRegistriesFromOtherSandboxes() throws Exception {
+    Thread thread = Thread.currentThread();
+    ClassLoader priorContextClassLoader = thread.getContextClassLoader();
+    NativeObjRegistry<Object> otherRegistry;
+    thread.setContextClassLoader(new URLClassLoader(new URL[0], priorContextClassLoader));
+    try {
+      otherRegistry = new NativeObjRegistry<>("reportStatsOtherSandbox");
+    } finally {
+      thread.setContextClassLoader(priorContextClassLoader);
+    }
+    otherRegistry.register(new Object());
+
+    NativeObjRegistry.resetStats();
+    NativeObjRegistry.reportStats();
+
+    assertThat(count("NativeObjRegistry live objects: reportStatsOtherSandbox")).isEqualTo(0);
+    assertThat(count("NativeObjRegistry leaked objects: reportStatsOtherSandbox")).isEqualTo(0);
+  }
+
+  private static int count(String name) {
+    for (Metric metric : PerfStatsCollector.getInstance().getMetrics()) {
+      if (metric.getName().equals(name)) {
+        return metric.getCount();
+      }
+    }
+    return 0;
+  }
+}
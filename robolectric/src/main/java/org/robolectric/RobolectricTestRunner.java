@@ -13,12 +13,18 @@ import java.lang.reflect.Method;
 import java.net.URL;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
 import org.junit.Ignore;
 import org.junit.runners.model.FrameworkMethod;
@@ -48,12 +54,14 @@ import org.robolectric.internal.bytecode.SandboxClassLoader;
 import org.robolectric.internal.bytecode.ShadowMap;
 import org.robolectric.internal.bytecode.ShadowWrangler;
 import org.robolectric.internal.dependency.CachedDependencyResolver;
+import org.robolectric.internal.dependency.DependencyJar;
 import org.robolectric.internal.dependency.DependencyResolver;
 import org.robolectric.internal.dependency.LocalDependencyResolver;
 import org.robolectric.internal.dependency.PropertiesDependencyResolver;
 import org.robolectric.manifest.AndroidManifest;
 import org.robolectric.res.Fs;
 import org.robolectric.res.FsFile;
+import org.robolectric.res.android.NativeObjRegistry;
 import org.robolectric.util.Logger;
 import org.robolectric.util.PerfStatsCollector;
 import org.robolectric.util.ReflectionHelpers;
@@ -68,15 +76,24 @@ public class RobolectricTestRunner extends SandboxTestRunner {
 
   private static ApkLoader apkLoader;
   private static final Map<ManifestIdentifier, AndroidManifest> appManifestsCache = new HashMap<>();
+  private static final Set<SdkConfig> prefetchedSdks = ConcurrentHashMap.newKeySet();
+  private static ConfigMerger sharedConfigMerger;
+  private static final ClassValue<Optional<Properties>> buildSystemApiProperties =
+      new ClassValue<Optional<Properties>>() {
+        @Override
+        protected Optional<Properties> computeValue(Class<?> runnerClass) {
+          return Optional.ofNullable(loadBuildSystemApiProperties(runnerClass));
+        }
+      };
 
   private final SdkPicker sdkPicker;
   private final ConfigMerger configMerger;
-  private ServiceLoader<ShadowProvider> providers;
   private transient DependencyResolver dependencyResolver;
   private final ResourcesMode resourcesMode = getResourcesMode();
   private boolean alwaysIncludeVariantMarkersInName =
       Boolean.parseBoolean(
           System.getProperty("robolectric.alwaysIncludeVariantMarkersInTestName", "false"));
+  private List<FrameworkMethod> children;
 
   static {
     new SecureRandom(); // this starts up the Poller SunPKCS11-Darwin thread early, outside of any Robolectric classloader
@@ -100,7 +117,7 @@ public class RobolectricTestRunner extends SandboxTestRunner {
     }
   }
 
-  protected DependencyResolver getJarResolver() {
+  protected synchronized DependencyResolver getJarResolver() {
     if (dependencyResolver == null) {
       if (Boolean.getBoolean("robolectric.offline")) {
         String propPath = System.getProperty("robolectric-deps.properties");
@@ -117,14 +134,19 @@ public class RobolectricTestRunner extends SandboxTestRunner {
           dependencyResolver = new LocalDependencyResolver(new File(dependencyDir));
         }
       } else {
-        File cacheDir = new File(new File(System.getProperty("java.io.tmpdir")), "robolectric");
+        String cacheDirPath = System.getProperty("robolectric.dependency.cacheDir");
+        File cacheDir = cacheDirPath != null
+            ? new File(cacheDirPath)
+            : new File(new File(System.getProperty("java.io.tmpdir")), "robolectric");
+        boolean cacheReadOnly = Boolean.getBoolean("robolectric.dependency.cacheReadOnly");
 
         Class<?> mavenDependencyResolverClass = ReflectionHelpers.loadClass(RobolectricTestRunner.class.getClassLoader(),
             "org.robolectric.internal.dependency.MavenDependencyResolver");
         DependencyResolver dependencyResolver = (DependencyResolver) ReflectionHelpers.callConstructor(mavenDependencyResolverClass);
         if (cacheDir.exists() || cacheDir.mkdir()) {
-          Logger.info("Dependency cache location: %s", cacheDir.getAbsolutePath());
-          this.dependencyResolver = new CachedDependencyResolver(dependencyResolver, cacheDir, 60 * 60 * 24 * 1000);
+          Logger.info("Dependency cache location: %s%s", cacheDir.getAbsolutePath(),
+              cacheReadOnly ? " (read-only)" : "");
+          this.dependencyResolver = new CachedDependencyResolver(dependencyResolver, cacheDir, 60 * 60 * 24 * 1000, cacheReadOnly);
         } else {
           this.dependencyResolver = dependencyResolver;
         }
@@ -169,19 +191,23 @@ public class RobolectricTestRunner extends SandboxTestRunner {
    *
    * Alternate implementations may be provided using a ServiceLoader.
    *
+   * The merger is created once and shared by all test runners, so package configs are only read
+   * once per run rather than once per test class.
+   *
    * @return a {@link ConfigMerger}
    * @since 3.2
    */
   @Nonnull
-  private ConfigMerger createConfigMerger() {
-    ServiceLoader<ConfigMerger> serviceLoader = ServiceLoader.load(ConfigMerger.class);
-    ConfigMerger merger;
-    if (serviceLoader != null && serviceLoader.iterator().hasNext()) {
-      merger = Iterators.getOnlyElement(serviceLoader.iterator());
-    } else {
-      merger = new ConfigMerger();
+  private static synchronized ConfigMerger createConfigMerger() {
+    if (sharedConfigMerger == null) {
+      ServiceLoader<ConfigMerger> serviceLoader = ServiceLoader.load(ConfigMerger.class);
+      if (serviceLoader != null && serviceLoader.iterator().hasNext()) {
+        sharedConfigMerger = Iterators.getOnlyElement(serviceLoader.iterator());
+      } else {
+        sharedConfigMerger = new ConfigMerger();
+      }
     }
-    return merger;
+    return sharedConfigMerger;
   }
 
   /**
@@ -276,15 +302,33 @@ public class RobolectricTestRunner extends SandboxTestRunner {
     }
   }
 
+  /**
+   * Returns the test methods of this class, one per SDK and resources mode each should run in.
+   *
+   * They are only identified once, since doing so finds each test's manifest and SDKs and
+   * prefetches their android-all jars; JUnit, variants run concurrently and {@link
+   * SandboxGroupingSuite} all use the same list.
+   */
   @Override
   protected List<FrameworkMethod> getChildren() {
+    if (children == null) {
+      children = Collections.unmodifiableList(createChildren());
+    }
+    return children;
+  }
+
+  private List<FrameworkMethod> createChildren() {
     List<FrameworkMethod> children = new ArrayList<>();
+    // most methods of a class share a config, so only identify its manifest and SDKs once
+    Map<Config, AndroidManifest> appManifests = new HashMap<>();
+    Map<Config, List<SdkConfig>> sdks = new HashMap<>();
     for (FrameworkMethod frameworkMethod : super.getChildren()) {
       try {
         Config config = getConfig(frameworkMethod.getMethod());
-        AndroidManifest appManifest = getAppManifest(config);
+        AndroidManifest appManifest = appManifests.computeIfAbsent(config, this::getAppManifest);
 
-        List<SdkConfig> sdksToRun = sdkPicker.selectSdks(config, appManifest);
+        List<SdkConfig> sdksToRun =
+            sdks.computeIfAbsent(config, c -> sdkPicker.selectSdks(c, appManifest));
         RobolectricFrameworkMethod last = null;
         for (SdkConfig sdkConfig : sdksToRun) {
           if (resourcesMode.includeLegacy(appManifest)) {
@@ -321,13 +365,110 @@ public class RobolectricTestRunner extends SandboxTestRunner {
             ": " + e.getMessage(), e);
       }
     }
+    prefetchAndroidAllJars(children);
+    if (shouldGroupTestsBySandbox() && getMaxConcurrentVariants() <= 1) {
+      children = groupBySandbox(children);
+    }
     return children;
   }
 
+  /**
+   * Returns true if tests which run in the same sandbox should run one after another, rather than
+   * in the order JUnit gives, as given by the {@code robolectric.groupTestsBySandbox} system
+   * property; by default, they aren't grouped.
+   *
+   * Grouping keeps each {@link SdkEnvironment} warm for as long as it's needed, rather than
+   * switching between SDKs and resources modes for every test method. It has no effect when
+   * variants of a test may run concurrently, since they must then run together.
+   */
+  protected boolean shouldGroupTestsBySandbox() {
+    return Boolean.getBoolean("robolectric.groupTestsBySandbox");
+  }
+
+  /**
+   * Reorders {@code children} so tests which run in the same sandbox are adjacent, keeping both the
+   * order of tests within each sandbox and the order in which sandboxes are first used.
+   */
+  private List<FrameworkMethod> groupBySandbox(List<FrameworkMethod> children) {
+    Map<Object, List<FrameworkMethod>> groups = new LinkedHashMap<>();
+    for (FrameworkMethod child : children) {
+      groups.computeIfAbsent(getSandboxKey(child), key -> new ArrayList<>()).add(child);
+    }
+    List<FrameworkMethod> grouped = new ArrayList<>(children.size());
+    for (List<FrameworkMethod> group : groups.values()) {
+      grouped.addAll(group);
+    }
+    return grouped;
+  }
+
+  /** Returns a value which is equal for test methods which run in the same sandbox. */
+  Object getSandboxKey(FrameworkMethod method) {
+    RobolectricFrameworkMethod roboMethod = (RobolectricFrameworkMethod) method;
+    return Arrays.asList(
+        roboMethod.sdkConfig, roboMethod.isLegacy(), createClassLoaderConfig(method));
+  }
+
+  /**
+   * Resolves the android-all jars for every SDK this class runs against in one go, rather than one
+   * at a time as each SDK's sandbox is first needed.
+   */
+  private void prefetchAndroidAllJars(List<FrameworkMethod> children) {
+    List<SdkConfig> sdkConfigs = new ArrayList<>();
+    for (FrameworkMethod child : children) {
+      SdkConfig sdkConfig = ((RobolectricFrameworkMethod) child).sdkConfig;
+      if (prefetchedSdks.add(sdkConfig)) {
+        sdkConfigs.add(sdkConfig);
+      }
+    }
+    if (sdkConfigs.isEmpty()) {
+      return;
+    }
+
+    DependencyJar[] jars = new DependencyJar[sdkConfigs.size()];
+    for (int i = 0; i < jars.length; i++) {
+      jars[i] = sdkConfigs.get(i).getAndroidSdkDependency();
+    }
+    try {
+      getJarResolver().prefetch(jars);
+    } catch (RuntimeException e) {
+      // not fatal; each jar will be resolved again when its sandbox is created
+      prefetchedSdks.removeAll(sdkConfigs);
+      Logger.info("Failed to prefetch android-all jars: %s", e);
+    }
+  }
+
   @Override protected boolean shouldIgnore(FrameworkMethod method) {
     return method.getAnnotation(Ignore.class) != null;
   }
 
+  /**
+   * Returns the number of SDK (and resources mode) variants of a test which may run at once, as
+   * given by the {@code robolectric.parallelSdks} system property; by default, variants run one at
+   * a time.
+   *
+   * Each variant gets its own {@link SdkEnvironment}, so Android and shadow state is isolated, but
+   * process-wide JVM state is shared by variants running at the same time, and is not restored
+   * between them. In particular:
+   *
+   * <ul>
+   *   <li>{@link java.util.Locale#setDefault} is called by every variant as it starts, with the
+   *       locale from the test's {@link Config}, which is the same for all of them; a test which
+   *       changes the default locale changes it for the other variants too.
+   *   <li>{@link java.util.TimeZone#setDefault} is called by {@code AlarmManager.setTimeZone()}
+   *       and by {@code ShadowAlarmManager}'s reset after each variant, so a variant which sets the
+   *       time zone may see it reset by another variant finishing, or change the time zone seen by
+   *       the others.
+   *   <li>System properties, and static state in classes which aren't loaded in the sandbox, are
+   *       likewise shared.
+   * </ul>
+   *
+   * Tests which modify such state must not be run with this property set above 1.
+   */
+  @Override
+  protected int getMaxConcurrentVariants() {
+    return Math.max(1, Integer.getInteger("robolectric.parallelSdks", 1));
+  }
+
   @Override
   @Nonnull
   protected SdkEnvironment getSandbox(FrameworkMethod method) {
@@ -368,7 +509,8 @@ public class RobolectricTestRunner extends SandboxTestRunner {
     Class<TestLifecycle> cl = sdkEnvironment.bootstrappedClass(getTestLifecycleClass());
     roboMethod.testLifecycle = ReflectionHelpers.newInstance(cl);
 
-    providers = ServiceLoader.load(ShadowProvider.class, sdkEnvironment.getRobolectricClassLoader());
+    roboMethod.providers =
+        ServiceLoader.load(ShadowProvider.class, sdkEnvironment.getRobolectricClassLoader());
 
     roboMethod.parallelUniverseInterface.setSdkConfig(sdkConfig);
 
@@ -382,6 +524,7 @@ public class RobolectricTestRunner extends SandboxTestRunner {
     );
 
     roboMethod.testLifecycle.beforeTest(bootstrappedMethod);
+    NativeObjRegistry.resetStats();
   }
 
   @Override
@@ -396,12 +539,24 @@ public class RobolectricTestRunner extends SandboxTestRunner {
       } finally {
         // reset static state afterward too, so statics don't defeat GC?
         PerfStatsCollector.getInstance().measure("reset Android state (after test)",
-            () -> resetStaticState());
+            () -> resetStaticState(roboMethod.providers));
+        NativeObjRegistry.reportStats();
+        reportReflectionStats();
       }
     }
   }
 
-  private void resetStaticState() {
+  private static void reportReflectionStats() {
+    PerfStatsCollector perfStatsCollector = PerfStatsCollector.getInstance();
+    ReflectionHelpers.reportStats((className, calls, lookups) -> {
+      perfStatsCollector.incrementCount("ReflectionHelpers calls: " + className, calls);
+      if (lookups > 0) {
+        perfStatsCollector.incrementCount("ReflectionHelpers lookups: " + className, lookups);
+      }
+    });
+  }
+
+  private static void resetStaticState(ServiceLoader<ShadowProvider> providers) {
     for (ShadowProvider provider : providers) {
       provider.reset();
     }
@@ -413,6 +568,7 @@ public class RobolectricTestRunner extends SandboxTestRunner {
 
     roboMethod.testLifecycle = null;
     roboMethod.parallelUniverseInterface = null;
+    roboMethod.providers = null;
   }
 
   @Override protected SandboxTestRunner.HelperTestRunner getHelperTestRunner(Class bootstrappedTestClass) {
@@ -443,8 +599,24 @@ public class RobolectricTestRunner extends SandboxTestRunner {
     }
   }
 
+  /**
+   * Returns the properties provided by the build system, or {@code null} if there are none.
+   *
+   * They're read once per runner class; callers may modify the returned copy.
+   */
   protected Properties getBuildSystemApiProperties() {
-    InputStream resourceAsStream = getClass().getResourceAsStream("/com/android/tools/test_config.properties");
+    Optional<Properties> properties = buildSystemApiProperties.get(getClass());
+    if (!properties.isPresent()) {
+      return null;
+    }
+    Properties copy = new Properties();
+    copy.putAll(properties.get());
+    return copy;
+  }
+
+  private static Properties loadBuildSystemApiProperties(Class<?> runnerClass) {
+    InputStream resourceAsStream =
+        runnerClass.getResourceAsStream("/com/android/tools/test_config.properties");
     if (resourceAsStream == null) {
       return null;
     }
@@ -617,6 +789,7 @@ public class RobolectricTestRunner extends SandboxTestRunner {
     private boolean includeVariantMarkersInTestName = true;
     TestLifecycle testLifecycle;
     ParallelUniverseInterface parallelUniverseInterface;
+    ServiceLoader<ShadowProvider> providers;
 
     RobolectricFrameworkMethod(
         @Nonnull Method method,
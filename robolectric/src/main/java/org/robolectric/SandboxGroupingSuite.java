@@ -0,0 +1,69 @@
+package org.robolectric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.runner.Runner;
+import org.junit.runners.Suite;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+
+/**
+ * A {@link Suite} which runs test classes that start in the same sandbox one after another, so
+ * each sandbox stays warm for as long as it's needed rather than being evicted and recreated as
+ * classes alternate between SDKs, resources modes and instrumentation configurations.
+ *
+ * <pre>
+ * &#64;RunWith(SandboxGroupingSuite.class)
+ * &#64;Suite.SuiteClasses({FooTest.class, BarTest.class})
+ * public class AllTests {}
+ * </pre>
+ *
+ * <p>Classes are grouped by the sandbox of their first test, keeping the order in which sandboxes
+ * are first used; classes which aren't run by a {@link RobolectricTestRunner} are grouped
+ * together. To also group the tests within each class, set the {@code
+ * robolectric.groupTestsBySandbox} system property.
+ */
+public class SandboxGroupingSuite extends Suite {
+  private final List<Runner> runners;
+
+  public SandboxGroupingSuite(Class<?> klass, RunnerBuilder builder) throws InitializationError {
+    super(klass, builder);
+    runners = Collections.unmodifiableList(groupBySandbox(super.getChildren()));
+  }
+
+  @Override
+  protected List<Runner> getChildren() {
+    return runners;
+  }
+
+  private static List<Runner> groupBySandbox(List<Runner> runners) {
+    Map<Object, List<Runner>> groups = new LinkedHashMap<>();
+    for (Runner runner : runners) {
+      groups.computeIfAbsent(getSandboxKey(runner), key -> new ArrayList<>()).add(runner);
+    }
+    List<Runner> grouped = new ArrayList<>(runners.size());
+    for (List<Runner> group : groups.values()) {
+      grouped.addAll(group);
+    }
+    return grouped;
+  }
+
+  private static Object getSandboxKey(Runner runner) {
+    if (!(runner instanceof RobolectricTestRunner)) {
+      return null;
+    }
+    RobolectricTestRunner robolectricTestRunner = (RobolectricTestRunner) runner;
+    try {
+      // the runner keeps these, so they're not identified again when it runs
+      List<FrameworkMethod> children = robolectricTestRunner.getChildren();
+      return children.isEmpty() ? null : robolectricTestRunner.getSandboxKey(children.get(0));
+    } catch (RuntimeException e) {
+      // leave it to the runner to report the problem when the class is run
+      return null;
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package org.robolectric.android.internal;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.robolectric.Robolectric;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.ReflectionHelpers;
+import org.robolectric.util.Scheduler;
+
+/**
+ * Runs the tasks of Robolectric's schedulers until the whole system is idle.
+ *
+ * <p>The system is idle once no scheduler has a task due and every Espresso {@code IdlingResource}
+ * in the {@code IdlingRegistry} is idle. As on a device, delayed tasks don't keep the system busy,
+ * and waiting for idle never advances the clock; idling resources which are waiting for other
+ * threads are polled in real time.
+ *
+ * <p>The main looper's tasks are always run, as {@link ShadowLooper#idle()} would; the tasks of
+ * other loopers and of the background scheduler are only run if their scheduler isn't paused.
+ */
+class IdleDetector {
+
+  /** How long to wait (in real time) for idling resources to become idle; as in Espresso. */
+  private static final long IDLING_RESOURCE_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(26);
+
+  private static final long IDLING_RESOURCE_POLL_INTERVAL_MS = 10;
+
+  private static final long NO_PENDING_TASKS = -1;
+
+  private Class<?> idlingRegistryClass;
+  private boolean idlingRegistryClassLoaded;
+
+  /** Runs due tasks until the whole system is idle, without advancing the clock. */
+  void loopUntilIdle() {
+    long busySince = 0;
+    while (true) {
+      if (runDueTasks(getSchedulers())) {
+        continue;
+      }
+
+      List<Object> busyResources = getBusyIdlingResources();
+      if (busyResources.isEmpty()) {
+        return;
+      }
+
+      if (busySince == 0) {
+        busySince = System.currentTimeMillis();
+      } else if (System.currentTimeMillis() - busySince > IDLING_RESOURCE_TIMEOUT_MS) {
+        throw new IllegalStateException(
+            "Timed out waiting for idling resources to become idle: " + describe(busyResources));
+      }
+      // nothing is due, so the idling resources must be waiting for other threads
+      sleep(IDLING_RESOURCE_POLL_INTERVAL_MS);
+    }
+  }
+
+  /**
+   * Advances the clocks of the schedulers by {@code millis}, running each task when its time
+   * comes, in order across all schedulers; then runs due tasks until the whole system is idle.
+   */
+  void loopFor(long millis) {
+    long remaining = millis;
+    while (remaining > 0) {
+      Collection<Scheduler> schedulers = getSchedulers();
+      long delay = getDelayToNextTask(schedulers);
+      long step = delay == NO_PENDING_TASKS ? remaining : Math.min(delay, remaining);
+      advanceBy(schedulers, step);
+      remaining -= step;
+    }
+    loopUntilIdle();
+  }
+
+  /**
+   * Returns the main looper's scheduler, and those of other loopers and of background tasks
+   * which aren't paused.
+   */
+  private static Collection<Scheduler> getSchedulers() {
+    // the same scheduler may be shared, e.g. when the global scheduler is in use
+    Set<Scheduler> schedulers = new LinkedHashSet<>();
+    for (Looper looper : ShadowLooper.getAllLoopers()) {
+      Scheduler scheduler = shadowOf(looper).getScheduler();
+      if (looper == Looper.getMainLooper() || !scheduler.isPaused()) {
+        schedulers.add(scheduler);
+      }
+    }
+    if (RuntimeEnvironment.application != null) {
+      Scheduler backgroundScheduler = Robolectric.getBackgroundThreadScheduler();
+      if (!backgroundScheduler.isPaused()) {
+        schedulers.add(backgroundScheduler);
+      }
+    }
+    return schedulers;
+  }
+
+  private static boolean runDueTasks(Collection<Scheduler> schedulers) {
+    boolean ran = false;
+    for (Scheduler scheduler : schedulers) {
+      if (scheduler.areAnyRunnable()) {
+        ran |= scheduler.advanceBy(0, TimeUnit.MILLISECONDS);
+      }
+    }
+    return ran;
+  }
+
+  private static long getDelayToNextTask(Collection<Scheduler> schedulers) {
+    long delay = NO_PENDING_TASKS;
+    for (Scheduler scheduler : schedulers) {
+      if (scheduler.size() > 0) {
+        long schedulerDelay =
+            Math.max(0, scheduler.getNextScheduledTaskTime() - scheduler.getCurrentTime());
+        if (delay == NO_PENDING_TASKS || schedulerDelay < delay) {
+          delay = schedulerDelay;
+        }
+      }
+    }
+    return delay;
+  }
+
+  private static void advanceBy(Collection<Scheduler> schedulers, long millis) {
+    for (Scheduler scheduler : schedulers) {
+      scheduler.advanceBy(millis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private List<Object> getBusyIdlingResources() {
+    Class<?> registryClass = getIdlingRegistryClass();
+    if (registryClass == null) {
+      return Collections.emptyList();
+    }
+    Object registry = ReflectionHelpers.callStaticMethod(registryClass, "getInstance");
+    Collection<?> resources = ReflectionHelpers.callInstanceMethod(registry, "getResources");
+    List<Object> busyResources = new ArrayList<>();
+    for (Object resource : resources) {
+      boolean idle = ReflectionHelpers.callInstanceMethod(resource, "isIdleNow");
+      if (!idle) {
+        busyResources.add(resource);
+      }
+    }
+    return busyResources;
+  }
+
+  /** Espresso is an optional dependency, so its registry is looked up reflectively. */
+  private Class<?> getIdlingRegistryClass() {
+    if (!idlingRegistryClassLoaded) {
+      try {
+        idlingRegistryClass = Class.forName("androidx.test.espresso.IdlingRegistry");
+      } catch (ClassNotFoundException | NoClassDefFoundError e) {
+        idlingRegistryClass = null;
+      }
+      idlingRegistryClassLoaded = true;
+    }
+    return idlingRegistryClass;
+  }
+
+  private static String describe(List<Object> resources) {
+    List<String> names = new ArrayList<>();
+    for (Object resource : resources) {
+      names.add(ReflectionHelpers.callInstanceMethod(resource, "getName"));
+    }
+    return names.toString();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.robolectric.android.internal;
 import static android.location.LocationManager.GPS_PROVIDER;
 import static org.robolectric.shadow.api.Shadow.newInstanceOf;
 import static org.robolectric.util.ReflectionHelpers.ClassParameter.from;
+import static org.robolectric.util.reflector.Reflector.reflector;
 
 import android.annotation.SuppressLint;
 import android.app.ActivityThread;
@@ -26,15 +27,20 @@ import android.os.Build.VERSION_CODES;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.provider.Settings.Secure;
 import android.util.DisplayMetrics;
 import com.google.common.annotations.VisibleForTesting;
 import java.lang.reflect.Method;
 import java.security.Security;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.robolectric.ApkLoader;
 import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.AccessibilityUtil;
 import org.robolectric.android.Bootstrap;
 import org.robolectric.annotation.Config;
 import org.robolectric.internal.ParallelUniverseInterface;
@@ -58,14 +64,25 @@ import org.robolectric.shadows.ShadowLog;
 import org.robolectric.shadows.ShadowLooper;
 import org.robolectric.shadows.ShadowPackageManager;
 import org.robolectric.shadows.ShadowPackageParser;
+import org.robolectric.util.Logger;
 import org.robolectric.util.PerfStatsCollector;
 import org.robolectric.util.ReflectionHelpers;
 import org.robolectric.util.Scheduler;
 import org.robolectric.util.TempDirectory;
+import org.robolectric.util.reflector.Accessor;
+import org.robolectric.util.reflector.ForType;
 
 @SuppressLint("NewApi")
 public class ParallelUniverse implements ParallelUniverseInterface {
 
+  /**
+   * Packages created from each manifest in legacy resources mode, used as templates for later
+   * tests. This class is loaded separately in each sandbox, so the SDK is the same for all of them.
+   * In binary resources mode, ShadowPackageParser caches parsed packages instead.
+   */
+  private static final Map<AndroidManifest, PackageParser.Package> legacyPackages =
+      new HashMap<>();
+
   private boolean loggingInitialized = false;
   private SdkConfig sdkConfig;
 
@@ -87,6 +104,9 @@ public class ParallelUniverse implements ParallelUniverseInterface {
 
     RuntimeEnvironment.application = null;
     RuntimeEnvironment.setActivityThread(null);
+    // Nothing refers to the previous test's files once static state has been reset, so they
+    // can be deleted in the background.
+    RuntimeEnvironment.getTempDirectory().destroyAsync();
     RuntimeEnvironment.setTempDirectory(new TempDirectory(createTestDataDirRootPath(method)));
     RuntimeEnvironment.setMasterScheduler(new Scheduler());
     RuntimeEnvironment.setMainThread(Thread.currentThread());
@@ -103,8 +123,8 @@ public class ParallelUniverse implements ParallelUniverseInterface {
     Configuration configuration = new Configuration();
     DisplayMetrics displayMetrics = new DisplayMetrics();
 
-    Bootstrap.applyQualifiers(config.qualifiers(), sdkConfig.getApiLevel(), configuration,
-        displayMetrics);
+    Bootstrap.applyQualifiersToDefaults(config.qualifiers(), sdkConfig.getApiLevel(),
+        configuration, displayMetrics);
 
     Locale locale = sdkConfig.getApiLevel() >= VERSION_CODES.N
         ? configuration.getLocales().get(0)
@@ -125,7 +145,7 @@ public class ParallelUniverse implements ParallelUniverseInterface {
 
       if (appManifest.getAndroidManifestFile() != null
           && appManifest.getAndroidManifestFile().exists()) {
-        parsedPackage = LegacyManifestParser.createPackage(appManifest);
+        parsedPackage = loadLegacyPackage(appManifest);
       } else {
         parsedPackage = new PackageParser.Package("org.robolectric.default");
         parsedPackage.applicationInfo.targetSdkVersion = appManifest.getTargetSdkVersion();
@@ -146,6 +166,7 @@ public class ParallelUniverse implements ParallelUniverseInterface {
           apkLoader.getArtifactUrl(sdkConfig.getAndroidSdkDependency()).getFile());
 
       FsFile packageFile = appManifest.getApkFile();
+      // cached by ShadowPackageParser for the whole run
       parsedPackage = ShadowPackageParser.callParsePackage(packageFile);
     }
 
@@ -178,13 +199,9 @@ public class ParallelUniverse implements ParallelUniverseInterface {
     // code in there that can be reusable, e.g: the XxxxIntentResolver code.
     ShadowActivityThread.setApplicationInfo(applicationInfo);
 
-    Class<?> contextImplClass =
-        ReflectionHelpers.loadClass(
-            getClass().getClassLoader(), ShadowContextImpl.CLASS_NAME);
-
-    ReflectionHelpers.setField(activityThread, "mCompatConfiguration", configuration);
-    ReflectionHelpers
-        .setStaticField(ActivityThread.class, "sMainThreadHandler", new Handler(Looper.myLooper()));
+    _ActivityThread_ activityThreadReflector = reflector(_ActivityThread_.class, activityThread);
+    activityThreadReflector.setCompatConfiguration(configuration);
+    reflector(_ActivityThread_.class).setMainThreadHandler(new Handler(Looper.myLooper()));
 
     Bootstrap.setUpDisplay(configuration, displayMetrics);
     activityThread.applyConfigurationToResources(configuration);
@@ -192,8 +209,8 @@ public class ParallelUniverse implements ParallelUniverseInterface {
     Resources systemResources = Resources.getSystem();
     systemResources.updateConfiguration(configuration, displayMetrics);
 
-    Context systemContextImpl = ReflectionHelpers.callStaticMethod(contextImplClass,
-        "createSystemContext", from(ActivityThread.class, activityThread));
+    Context systemContextImpl =
+        reflector(_ContextImpl_.class).createSystemContext(activityThread);
     RuntimeEnvironment.systemContext = systemContextImpl;
 
     Application application = createApplication(appManifest, config);
@@ -210,9 +227,10 @@ public class ParallelUniverse implements ParallelUniverseInterface {
         throw new RuntimeException(e);
       }
       Object data = ReflectionHelpers.newInstance(appBindDataClass);
-      ReflectionHelpers.setField(data, "processName", "org.robolectric");
-      ReflectionHelpers.setField(data, "appInfo", applicationInfo);
-      ReflectionHelpers.setField(activityThread, "mBoundApplication", data);
+      _AppBindData_ appBindData = reflector(_AppBindData_.class, data);
+      appBindData.setProcessName("org.robolectric");
+      appBindData.setAppInfo(applicationInfo);
+      activityThreadReflector.setBoundApplication(data);
 
       LoadedApk loadedApk = activityThread
           .getPackageInfo(applicationInfo, null, Context.CONTEXT_INCLUDE_CODE);
@@ -223,14 +241,10 @@ public class ParallelUniverse implements ParallelUniverseInterface {
 
         ShadowPackageManager shadowPackageManager = Shadow.extract(contextImpl.getPackageManager());
         shadowPackageManager.addPackageInternal(parsedPackage);
-        ReflectionHelpers
-            .setField(ActivityThread.class, activityThread, "mInitialApplication", application);
+        activityThreadReflector.setInitialApplication(application);
         ShadowApplication shadowApplication = Shadow.extract(application);
         shadowApplication.callAttach(contextImpl);
-        ReflectionHelpers.callInstanceMethod(
-            contextImpl,
-            "setOuterContext",
-            ReflectionHelpers.ClassParameter.from(Context.class, application));
+        reflector(_ContextImpl_.class, contextImpl).setOuterContext(application);
       } catch (PackageManager.NameNotFoundException e) {
         throw new RuntimeException(e);
       }
@@ -238,8 +252,9 @@ public class ParallelUniverse implements ParallelUniverseInterface {
       Secure.setLocationProviderEnabled(application.getContentResolver(), GPS_PROVIDER, true);
 
       Resources appResources = application.getResources();
-      ReflectionHelpers.setField(loadedApk, "mResources", appResources);
-      ReflectionHelpers.setField(loadedApk, "mApplication", application);
+      _LoadedApk_ loadedApkReflector = reflector(_LoadedApk_.class, loadedApk);
+      loadedApkReflector.setResources(appResources);
+      loadedApkReflector.setApplication(application);
 
       registerBroadcastReceivers(application, appManifest);
 
@@ -256,6 +271,51 @@ public class ParallelUniverse implements ParallelUniverseInterface {
     }
   }
 
+  /**
+   * Returns a copy of the package created from {@code appManifest}, creating it only the first
+   * time it's needed in this sandbox.
+   *
+   * Tests, and the package manager, are free to modify the package they're given, so each gets
+   * its own copy, made by parceling the original. Packages which can't be parceled (before O MR1)
+   * are created for every test.
+   */
+  private static PackageParser.Package loadLegacyPackage(AndroidManifest appManifest) {
+    if (!Parcelable.class.isAssignableFrom(PackageParser.Package.class)) {
+      return LegacyManifestParser.createPackage(appManifest);
+    }
+
+    PackageParser.Package template;
+    synchronized (legacyPackages) {
+      template = legacyPackages.get(appManifest);
+    }
+    if (template == null) {
+      template = LegacyManifestParser.createPackage(appManifest);
+      try {
+        PackageParser.Package copy = copyPackage(template);
+        synchronized (legacyPackages) {
+          legacyPackages.put(appManifest, template);
+        }
+        return copy;
+      } catch (RuntimeException e) {
+        Logger.warn("Couldn't copy package %s, it will be created for each test: %s",
+            template.packageName, e);
+        return template;
+      }
+    }
+    return copyPackage(template);
+  }
+
+  private static PackageParser.Package copyPackage(PackageParser.Package pkg) {
+    Parcel parcel = Parcel.obtain();
+    try {
+      pkg.writeToParcel(parcel, 0);
+      parcel.setDataPosition(0);
+      return new PackageParser.Package(parcel);
+    } finally {
+      parcel.recycle();
+    }
+  }
+
   private void injectResourceStuffForLegacy(ApkLoader apkLoader, AndroidManifest appManifest,
       SdkEnvironment sdkEnvironment) {
     PackageResourceTable systemResourceTable = apkLoader.getSystemResourceTable(sdkEnvironment);
@@ -339,7 +399,7 @@ public class ParallelUniverse implements ParallelUniverseInterface {
       ActivityThread activityThread,
       ApplicationInfo applicationInfo, Application application) {
     Instrumentation androidInstrumentation = createInstrumentation();
-    ReflectionHelpers.setField(activityThread, "mInstrumentation", androidInstrumentation);
+    reflector(_ActivityThread_.class, activityThread).setInstrumentation(androidInstrumentation);
 
     final ComponentName component =
         new ComponentName(
@@ -399,8 +459,12 @@ public class ParallelUniverse implements ParallelUniverseInterface {
 
   @Override
   public void tearDownApplication() {
-    if (RuntimeEnvironment.application != null) {
-      RuntimeEnvironment.application.onTerminate();
+    try {
+      AccessibilityUtil.checkPendingViews();
+    } finally {
+      if (RuntimeEnvironment.application != null) {
+        RuntimeEnvironment.application.onTerminate();
+      }
     }
   }
 
@@ -462,4 +526,55 @@ public class ParallelUniverse implements ParallelUniverseInterface {
     }
     return receiverClassName;
   }
+
+  /** Accessor interface for {@link ActivityThread}'s internals. */
+  @ForType(ActivityThread.class)
+  private interface _ActivityThread_ {
+
+    @Accessor("mBoundApplication")
+    void setBoundApplication(Object data);
+
+    @Accessor("mCompatConfiguration")
+    void setCompatConfiguration(Configuration configuration);
+
+    @Accessor("mInitialApplication")
+    void setInitialApplication(Application application);
+
+    @Accessor("mInstrumentation")
+    void setInstrumentation(Instrumentation instrumentation);
+
+    @Accessor("sMainThreadHandler")
+    void setMainThreadHandler(Handler handler);
+  }
+
+  /** Accessor interface for {@link ActivityThread}.AppBindData's internals. */
+  @ForType(className = "android.app.ActivityThread$AppBindData")
+  private interface _AppBindData_ {
+
+    @Accessor("appInfo")
+    void setAppInfo(ApplicationInfo applicationInfo);
+
+    @Accessor("processName")
+    void setProcessName(String name);
+  }
+
+  /** Accessor interface for ContextImpl's internals. */
+  @ForType(className = ShadowContextImpl.CLASS_NAME)
+  private interface _ContextImpl_ {
+
+    Context createSystemContext(ActivityThread activityThread);
+
+    void setOuterContext(Context context);
+  }
+
+  /** Accessor interface for {@link LoadedApk}'s internals. */
+  @ForType(LoadedApk.class)
+  private interface _LoadedApk_ {
+
+    @Accessor("mApplication")
+    void setApplication(Application application);
+
+    @Accessor("mResources")
+    void setResources(Resources resources);
+  }
 }
@@ -22,9 +22,7 @@ import androidx.test.platform.ui.UiController;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import org.robolectric.RuntimeEnvironment;
-import org.robolectric.shadows.ShadowLooper;
 import org.robolectric.util.ReflectionHelpers;
 
 /** Custom implementation of {@link UiController} for Robolectric. */
@@ -32,6 +30,8 @@ public class RoboUiController implements UiController {
 
   private static final String TAG = "RoboUiController";
 
+  private final IdleDetector idleDetector = new IdleDetector();
+
   @Override
   public boolean injectMotionEvent(MotionEvent event) throws InjectEventSecurityException {
     checkNotNull(event);
@@ -137,14 +137,19 @@ public class RoboUiController implements UiController {
     return keyCharacterMap;
   }
 
+  /**
+   * Runs due tasks on the main looper, and on other loopers and the background scheduler unless
+   * they're paused, until none are due and every registered Espresso idling resource is idle.
+   * The clock isn't advanced.
+   */
   @Override
   public void loopMainThreadUntilIdle() {
-    ShadowLooper.getShadowMainLooper().idle();
+    idleDetector.loopUntilIdle();
   }
 
   @Override
   public void loopMainThreadForAtLeast(long millisDelay) {
-    ShadowLooper.getShadowMainLooper().idle(millisDelay, TimeUnit.MILLISECONDS);
+    idleDetector.loopFor(millisDelay);
   }
 
   private static List<ViewRootImpl> getViewRoots() {
@@ -9,6 +9,7 @@ import javax.annotation.Nonnull;
 import org.robolectric.internal.bytecode.InstrumentationConfiguration;
 import org.robolectric.internal.bytecode.SandboxClassLoader;
 import org.robolectric.internal.dependency.DependencyResolver;
+import org.robolectric.util.PerfStatsCollector;
 
 @SuppressLint("NewApi")
 public class SandboxFactory {
@@ -28,21 +29,35 @@ public class SandboxFactory {
     }
   };
 
-  public synchronized SdkEnvironment getSdkEnvironment(
+  public SdkEnvironment getSdkEnvironment(
       InstrumentationConfiguration instrumentationConfig, SdkConfig sdkConfig,
       boolean useLegacyResources, DependencyResolver dependencyResolver) {
     SandboxKey key = new SandboxKey(sdkConfig, instrumentationConfig, useLegacyResources);
 
-    SdkEnvironment sdkEnvironment = sdkToEnvironment.get(key);
-    if (sdkEnvironment == null) {
-      URL[] urls = dependencyResolver.getLocalArtifactUrls(sdkConfig.getAndroidSdkDependency());
+    synchronized (this) {
+      SdkEnvironment sdkEnvironment = sdkToEnvironment.get(key);
+      if (sdkEnvironment != null) {
+        return sdkEnvironment;
+      }
+    }
 
-      ClassLoader robolectricClassLoader = createClassLoader(instrumentationConfig, urls);
-      sdkEnvironment = createSdkEnvironment(sdkConfig, robolectricClassLoader);
+    // Resolve the jar outside of the lock, so sandboxes which already exist can be handed out
+    // meanwhile.
+    URL[] urls = dependencyResolver.getLocalArtifactUrls(sdkConfig.getAndroidSdkDependency());
 
-      sdkToEnvironment.put(key, sdkEnvironment);
+    synchronized (this) {
+      SdkEnvironment sdkEnvironment = sdkToEnvironment.get(key);
+      if (sdkEnvironment == null) {
+        // reported so sandbox churn, e.g. from tests alternating between SDKs, shows up
+        sdkEnvironment = PerfStatsCollector.getInstance().measure("create sandbox", () -> {
+          ClassLoader robolectricClassLoader = createClassLoader(instrumentationConfig, urls);
+          return createSdkEnvironment(sdkConfig, robolectricClassLoader);
+        });
+
+        sdkToEnvironment.put(key, sdkEnvironment);
+      }
+      return sdkEnvironment;
     }
-    return sdkEnvironment;
   }
 
   protected SdkEnvironment createSdkEnvironment(SdkConfig sdkConfig,
@@ -1,20 +1,36 @@
 package org.robolectric.internal.dependency;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 import java.util.zip.CRC32;
 
 public class CachedDependencyResolver implements DependencyResolver {
   private final static String CACHE_PREFIX = "localArtifactUrl";
+  private final static String DIGEST_SUFFIX = ".sha256";
+  private final static String PREFETCH_LOCK = CACHE_PREFIX + "-prefetch";
 
   private final DependencyResolver dependencyResolver;
   private final CacheNamingStrategy cacheNamingStrategy;
@@ -22,7 +38,16 @@ public class CachedDependencyResolver implements DependencyResolver {
   private final Cache cache;
 
   public CachedDependencyResolver(DependencyResolver dependencyResolver, File cacheDir, long cacheValidTime) {
-    this(dependencyResolver, new FileCache(cacheDir, cacheValidTime), new DefaultCacheNamingStrategy(), new DefaultCacheValidationStrategy());
+    this(dependencyResolver, cacheDir, cacheValidTime, false);
+  }
+
+  /**
+   * @param readOnly if true, the cache in {@code cacheDir} is never written to or expired, and
+   *     dependencies missing from it are not resolved; use this with a pre-seeded cache directory
+   *     for hermetic builds.
+   */
+  public CachedDependencyResolver(DependencyResolver dependencyResolver, File cacheDir, long cacheValidTime, boolean readOnly) {
+    this(dependencyResolver, new FileCache(cacheDir, cacheValidTime, readOnly), new DefaultCacheNamingStrategy(), new DefaultCacheValidationStrategy());
   }
 
   public CachedDependencyResolver(DependencyResolver dependencyResolver, Cache cache, CacheNamingStrategy cacheNamingStrategy, CacheValidationStrategy cacheValidationStrategy) {
@@ -35,15 +60,160 @@ public class CachedDependencyResolver implements DependencyResolver {
   @Override
   public URL getLocalArtifactUrl(DependencyJar dependency) {
     final String cacheName = cacheNamingStrategy.getName(CACHE_PREFIX, dependency);
+    final URL urlFromCache = loadValid(cacheName);
+    if (urlFromCache != null) {
+      return urlFromCache;
+    }
+
+    if (cache.isReadOnly()) {
+      throw notCached(dependency);
+    }
+
+    return cache.withLock(cacheName, () -> {
+      // another process may have resolved it while we were waiting for the lock
+      URL url = loadValid(cacheName);
+      if (url == null) {
+        url = dependencyResolver.getLocalArtifactUrl(dependency);
+        writeValid(cacheName, url);
+      }
+      return url;
+    });
+  }
+
+  /**
+   * Hands all dependencies missing from the cache to the underlying resolver in a single call, so
+   * it may resolve them concurrently, then caches the results.
+   */
+  @Override
+  public void prefetch(DependencyJar... dependencies) {
+    List<DependencyJar> initialMisses = findMisses(dependencies);
+    if (initialMisses.isEmpty()) {
+      return;
+    }
+
+    if (cache.isReadOnly()) {
+      throw notCached(initialMisses.get(0));
+    }
+
+    cache.withLock(PREFETCH_LOCK, () -> {
+      // other processes may have resolved some of them while we were waiting for the lock
+      List<DependencyJar> misses = findMisses(dependencies);
+      if (!misses.isEmpty()) {
+        dependencyResolver.prefetch(misses.toArray(new DependencyJar[0]));
+        for (DependencyJar dependency : misses) {
+          writeValid(
+              cacheNamingStrategy.getName(CACHE_PREFIX, dependency),
+              dependencyResolver.getLocalArtifactUrl(dependency));
+        }
+      }
+      return null;
+    });
+  }
+
+  private List<DependencyJar> findMisses(DependencyJar... dependencies) {
+    List<DependencyJar> misses = new ArrayList<>();
+    for (DependencyJar dependency : dependencies) {
+      if (loadValid(cacheNamingStrategy.getName(CACHE_PREFIX, dependency)) == null) {
+        misses.add(dependency);
+      }
+    }
+    return misses;
+  }
+
+  private static IllegalStateException notCached(DependencyJar dependency) {
+    return new IllegalStateException(
+        dependency.getShortName() + " is missing from the read-only dependency cache");
+  }
+
+  private URL loadValid(String cacheName) {
     final URL urlFromCache = cache.load(cacheName, URL.class);
+    if (urlFromCache == null || !cacheValidationStrategy.isValid(urlFromCache)) {
+      return null;
+    }
 
-    if (urlFromCache != null && cacheValidationStrategy.isValid(urlFromCache)) {
-      return urlFromCache;
+    final ArtifactDigest digest = cache.load(cacheName + DIGEST_SUFFIX, ArtifactDigest.class);
+    if (digest != null && !digest.isCurrent(urlFromCache)) {
+      // the file was touched or replaced; only keep using it if its content is unchanged
+      ArtifactDigest currentDigest = ArtifactDigest.of(urlFromCache);
+      if (currentDigest == null || !currentDigest.sha256.equals(digest.sha256)) {
+        return null;
+      }
+      // so the next lookup doesn't need to hash it again
+      cache.write(cacheName + DIGEST_SUFFIX, currentDigest);
     }
+    return urlFromCache;
+  }
 
-    final URL url = dependencyResolver.getLocalArtifactUrl(dependency);
+  private void writeValid(String cacheName, URL url) {
     cache.write(cacheName, url);
-    return url;
+
+    ArtifactDigest digest = ArtifactDigest.of(url);
+    if (digest != null) {
+      cache.write(cacheName + DIGEST_SUFFIX, digest);
+    }
+  }
+
+  /**
+   * The SHA-256 digest of a resolved local artifact, so a cached entry is only used while the file
+   * still has the content it had when it was resolved. The digest is only recomputed if the file's
+   * size or modification time have changed, after which the new size and modification time are
+   * stored along with it.
+   */
+  static class ArtifactDigest implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    final String sha256;
+    final long length;
+    final long lastModified;
+
+    ArtifactDigest(String sha256, long length, long lastModified) {
+      this.sha256 = sha256;
+      this.length = length;
+      this.lastModified = lastModified;
+    }
+
+    /** Returns the digest of the file at {@code url}, or null if it isn't a local file. */
+    static ArtifactDigest of(URL url) {
+      if (url == null || !"file".equals(url.getProtocol())) {
+        return null;
+      }
+      File file = new File(url.getPath());
+      if (!file.isFile()) {
+        return null;
+      }
+      try {
+        return new ArtifactDigest(sha256(file), file.length(), file.lastModified());
+      } catch (IOException e) {
+        return null;
+      }
+    }
+
+    /** Returns true if the file at {@code url} still has the recorded size and modification time. */
+    boolean isCurrent(URL url) {
+      File file = new File(url.getPath());
+      return file.length() == length && file.lastModified() == lastModified;
+    }
+
+    private static String sha256(File file) throws IOException {
+      MessageDigest messageDigest;
+      try {
+        messageDigest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new RuntimeException(e);
+      }
+      byte[] buffer = new byte[64 * 1024];
+      try (InputStream in = new FileInputStream(file)) {
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+          messageDigest.update(buffer, 0, count);
+        }
+      }
+      StringBuilder sb = new StringBuilder();
+      for (byte b : messageDigest.digest()) {
+        sb.append(String.format("%02x", b));
+      }
+      return sb.toString();
+    }
   }
 
   interface CacheNamingStrategy {
@@ -98,22 +268,45 @@ public class CachedDependencyResolver implements DependencyResolver {
   interface Cache {
     <T extends Serializable> T load(String id, Class<T> type);
     <T extends Serializable> boolean write(String id, T object);
+
+    /**
+     * Runs {@code action} while holding an exclusive lock on the entry {@code id}, which may be
+     * shared with other processes using the same cache.
+     */
+    default <T> T withLock(String id, Supplier<T> action) {
+      return action.get();
+    }
+
+    /** Returns true if entries are never written, in which case misses must not be resolved. */
+    default boolean isReadOnly() {
+      return false;
+    }
   }
 
   static class FileCache implements Cache {
+    // FileChannel locks are held on behalf of the whole JVM, so threads must also be kept apart.
+    private static final ConcurrentMap<String, Object> inProcessLocks = new ConcurrentHashMap<>();
+
     private final File dir;
     private final long validTime;
+    private final boolean readOnly;
 
     FileCache(File dir, long validTime) {
+      this(dir, validTime, false);
+    }
+
+    FileCache(File dir, long validTime, boolean readOnly) {
       this.dir = dir;
       this.validTime = validTime;
+      this.readOnly = readOnly;
     }
 
     @Override
     public <T extends Serializable> T load(String id, Class<T> type) {
       try {
         File file = new File(dir, id);
-        if (!file.exists() || (validTime > 0 && file.lastModified() < new Date().getTime() - validTime)) {
+        if (!file.exists()
+            || (!readOnly && validTime > 0 && file.lastModified() < new Date().getTime() - validTime)) {
           return null;
         }
 
@@ -126,16 +319,75 @@ public class CachedDependencyResolver implements DependencyResolver {
       }
     }
 
+    /**
+     * Writes to a temporary file which is then renamed into place, so concurrent readers (possibly in
+     * other processes) never see a partially written entry.
+     */
     @Override
     public <T extends Serializable> boolean write(String id, T object) {
+      if (readOnly) {
+        return false;
+      }
+
+      File tempFile = null;
       try {
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(new File(dir, id)))) {
+        tempFile = File.createTempFile(id, ".tmp", dir);
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(tempFile))) {
           out.writeObject(object);
-          return true;
         }
+        try {
+          Files.move(tempFile.toPath(), new File(dir, id).toPath(),
+              StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(tempFile.toPath(), new File(dir, id).toPath(),
+              StandardCopyOption.REPLACE_EXISTING);
+        }
+        return true;
       } catch (IOException e) {
+        if (tempFile != null) {
+          tempFile.delete();
+        }
         return false;
       }
     }
+
+    @Override
+    public boolean isReadOnly() {
+      return readOnly;
+    }
+
+    @Override
+    public <T> T withLock(String id, Supplier<T> action) {
+      if (readOnly) {
+        return action.get();
+      }
+
+      File lockFile = new File(dir, id + ".lock");
+      Object inProcessLock =
+          inProcessLocks.computeIfAbsent(lockFile.getAbsolutePath(), path -> new Object());
+      synchronized (inProcessLock) {
+        FileChannel channel;
+        try {
+          channel = FileChannel.open(lockFile.toPath(), CREATE, WRITE);
+        } catch (IOException e) {
+          // can't lock, so risk resolving the same thing as another process
+          return action.get();
+        }
+        try {
+          try {
+            channel.lock();
+          } catch (IOException e) {
+            // ditto
+          }
+          return action.get();
+        } finally {
+          try {
+            // also releases the lock
+            channel.close();
+          } catch (IOException ignored) {
+          }
+        }
+      }
+    }
   }
 }
@@ -8,4 +8,15 @@ public interface DependencyResolver {
   default URL[] getLocalArtifactUrls(DependencyJar dependency) {
     return new URL[] {getLocalArtifactUrl(dependency)};
   }
+
+  /**
+   * Resolves the given dependencies ahead of their first use, so that later calls to
+   * {@link #getLocalArtifactUrl(DependencyJar)} for them return quickly. Resolvers which have to
+   * download artifacts may resolve them concurrently.
+   */
+  default void prefetch(DependencyJar... dependencies) {
+    for (DependencyJar dependency : dependencies) {
+      getLocalArtifactUrl(dependency);
+    }
+  }
 }
@@ -2,8 +2,15 @@ package org.robolectric.internal.dependency;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Hashtable;
-
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.maven.artifact.ant.Authentication;
 import org.apache.maven.artifact.ant.DependenciesTask;
 import org.apache.maven.artifact.ant.RemoteRepository;
@@ -13,11 +20,13 @@ import org.robolectric.RoboSettings;
 import org.robolectric.util.Util;
 
 public class MavenDependencyResolver implements DependencyResolver {
-  private final Project project = new Project();
+  private static final int MAX_CONCURRENT_RESOLUTIONS = 4;
+
   private final String repositoryUrl;
   private final String repositoryId;
   private final String repositoryUserName;
   private final String repositoryPassword;
+  private final Map<String, URL> resolvedUrls = new ConcurrentHashMap<>();
 
   public MavenDependencyResolver() {
     this(RoboSettings.getMavenRepositoryUrl(), RoboSettings.getMavenRepositoryId(), RoboSettings.getMavenRepositoryUserName(), RoboSettings.getMavenRepositoryPassword());
@@ -38,8 +47,12 @@ public class MavenDependencyResolver implements DependencyResolver {
   /**
    * Get an array of local artifact URLs for the given dependencies. The order of the URLs is guaranteed to be the
    * same as the input order of dependencies, i.e., urls[i] is the local artifact URL for dependencies[i].
+   *
+   * Dependencies are resolved together, so they must not include different versions of the same artifact;
+   * use {@link #prefetch(DependencyJar...)} for that.
    */
   public URL[] getLocalArtifactUrls(DependencyJar... dependencies) {
+    Project project = new Project();
     DependenciesTask dependenciesTask = createDependenciesTask();
     configureMaven(dependenciesTask);
     RemoteRepository remoteRepository = new RemoteRepository();
@@ -81,13 +94,64 @@ public class MavenDependencyResolver implements DependencyResolver {
 
   @Override
   public URL getLocalArtifactUrl(DependencyJar dependency) {
+    URL resolvedUrl = resolvedUrls.get(dependency.getShortName());
+    if (resolvedUrl != null) {
+      return resolvedUrl;
+    }
+
     URL[] urls = getLocalArtifactUrls(dependency);
     if (urls.length > 0) {
+      if (urls[0] != null) {
+        resolvedUrls.put(dependency.getShortName(), urls[0]);
+      }
       return urls[0];
     }
     return null;
   }
 
+  /**
+   * Resolves each of the given dependencies in its own {@link DependenciesTask}, several at a time.
+   * Separate tasks are needed because different versions of the same artifact (e.g. android-all jars
+   * for several SDKs) can't be resolved by a single task.
+   */
+  @Override
+  public void prefetch(DependencyJar... dependencies) {
+    List<DependencyJar> unresolved = new ArrayList<>();
+    for (DependencyJar dependency : dependencies) {
+      if (!resolvedUrls.containsKey(dependency.getShortName())) {
+        unresolved.add(dependency);
+      }
+    }
+    if (unresolved.size() <= 1) {
+      for (DependencyJar dependency : unresolved) {
+        getLocalArtifactUrl(dependency);
+      }
+      return;
+    }
+
+    ExecutorService executorService =
+        Executors.newFixedThreadPool(Math.min(unresolved.size(), MAX_CONCURRENT_RESOLUTIONS));
+    try {
+      List<Future<URL>> futures = new ArrayList<>();
+      for (DependencyJar dependency : unresolved) {
+        futures.add(executorService.submit(() -> getLocalArtifactUrl(dependency)));
+      }
+      for (Future<URL> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
   private String key(DependencyJar dependency) {
     String key = dependency.getGroupId() + ":" + dependency.getArtifactId() + ":" + dependency.getType();
     if(dependency.getClassifier() != null) {
@@ -5,6 +5,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import org.robolectric.res.FsFile;
 
@@ -49,4 +51,17 @@ public class PropertiesDependencyResolver implements DependencyResolver {
 
     throw new RuntimeException("no artifacts found for " + dependency);
   }
+
+  @Override
+  public void prefetch(DependencyJar... dependencies) {
+    List<DependencyJar> notInProperties = new ArrayList<>();
+    for (DependencyJar dependency : dependencies) {
+      if (properties.getProperty(dependency.getShortName()) == null) {
+        notInProperties.add(dependency);
+      }
+    }
+    if (delegate != null && !notInProperties.isEmpty()) {
+      delegate.prefetch(notInProperties.toArray(new DependencyJar[0]));
+    }
+  }
 }
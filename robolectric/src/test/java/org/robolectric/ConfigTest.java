@@ -175,6 +175,31 @@ public class ConfigTest {
     }
   }
 
+  @Test
+  public void equals_shouldCompareValues() throws Exception {
+    Config config = new Config.Builder().setSdk(16, 17).setQualifiers("land").build();
+
+    assertThat(config)
+        .isEqualTo(new Config.Builder().setSdk(16, 17).setQualifiers("land").build());
+    assertThat(config.hashCode())
+        .isEqualTo(new Config.Builder().setSdk(16, 17).setQualifiers("land").build().hashCode());
+    assertThat(config).isNotEqualTo(new Config.Builder().setSdk(16).setQualifiers("land").build());
+    assertThat(config).isNotEqualTo(new Config.Builder().setSdk(16, 17).build());
+  }
+
+  @Test
+  public void equals_shouldMatchAnnotations() throws Exception {
+    Config annotation = AnnotatedWithConfig.class.getAnnotation(Config.class);
+    Config config = new Config.Builder(annotation).build();
+
+    assertThat(config).isEqualTo(annotation);
+    assertThat(annotation).isEqualTo(config);
+    assertThat(config.hashCode()).isEqualTo(annotation.hashCode());
+  }
+
+  @Config(sdk = 16, qualifiers = "land", shadows = ConfigTest.class)
+  private static class AnnotatedWithConfig {}
+
   //////////////////////////
 
   private String sdksIn(Config config) {
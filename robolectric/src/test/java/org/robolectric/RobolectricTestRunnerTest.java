@@ -1,9 +1,11 @@
 package org.robolectric;
 
 import static android.os.Build.VERSION_CODES.JELLY_BEAN;
+import static android.os.Build.VERSION_CODES.JELLY_BEAN_MR1;
 import static com.google.common.truth.Truth.assertThat;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toSet;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
@@ -14,6 +16,8 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
 import org.junit.After;
 import org.junit.Before;
@@ -27,6 +31,7 @@ import org.junit.runner.notification.RunListener;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.JUnit4;
 import org.junit.runners.MethodSorters;
+import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.InitializationError;
 import org.robolectric.RobolectricTestRunner.ResourcesMode;
 import org.robolectric.RobolectricTestRunner.RobolectricFrameworkMethod;
@@ -171,6 +176,129 @@ public class RobolectricTestRunnerTest {
     assertThat(metricNames).contains("initialization");
   }
 
+  @Test
+  public void concurrentSdkVariants_shouldNotifyInOrder() throws Exception {
+    RobolectricTestRunner runner = new MyRobolectricTestRunner(TestWithTwoSdks.class) {
+      @Nonnull
+      @Override
+      protected SdkPicker createSdkPicker() {
+        return new SdkPicker(asList(new SdkConfig(JELLY_BEAN), new SdkConfig(JELLY_BEAN_MR1)), null);
+      }
+
+      @Override
+      protected int getMaxConcurrentVariants() {
+        return 2;
+      }
+    };
+    notifier.addListener(new RunListener() {
+      @Override
+      public void testStarted(Description description) throws Exception {
+        events.add("started: " + description.getMethodName());
+      }
+
+      @Override
+      public void testFinished(Description description) throws Exception {
+        events.add("finished: " + description.getMethodName());
+      }
+    });
+
+    runner.run(notifier);
+
+    assertThat(events).containsExactly(
+        "started: failing[16]",
+        "failure: failing on sdk 16",
+        "finished: failing[16]",
+        "started: failing[17]",
+        "failure: failing on sdk 17",
+        "finished: failing[17]",
+        "started: passing[16]",
+        "finished: passing[16]",
+        "started: passing[17]",
+        "finished: passing[17]"
+    ).inOrder();
+  }
+
+  @Test
+  public void groupTestsBySandbox_shouldRunTestsForEachSdkTogether() throws Exception {
+    RobolectricTestRunner runner = new MyRobolectricTestRunner(TestWithTwoSdks.class) {
+      @Nonnull
+      @Override
+      protected SdkPicker createSdkPicker() {
+        return new SdkPicker(asList(new SdkConfig(JELLY_BEAN), new SdkConfig(JELLY_BEAN_MR1)), null);
+      }
+
+      @Override
+      protected boolean shouldGroupTestsBySandbox() {
+        return true;
+      }
+    };
+    notifier.addListener(new RunListener() {
+      @Override
+      public void testStarted(Description description) throws Exception {
+        events.add("started: " + description.getMethodName());
+      }
+    });
+
+    runner.run(notifier);
+
+    assertThat(events).containsExactly(
+        "started: failing[16]",
+        "failure: failing on sdk 16",
+        "started: passing[16]",
+        "started: failing[17]",
+        "failure: failing on sdk 17",
+        "started: passing[17]"
+    ).inOrder();
+  }
+
+  @Test
+  public void concurrentSdkVariants_shouldIsolateSandboxState() throws Exception {
+    RobolectricTestRunner runner = new MyRobolectricTestRunner(TestWithStaticState.class) {
+      @Nonnull
+      @Override
+      protected SdkPicker createSdkPicker() {
+        return new SdkPicker(asList(new SdkConfig(JELLY_BEAN), new SdkConfig(JELLY_BEAN_MR1)), null);
+      }
+
+      @Override
+      protected int getMaxConcurrentVariants() {
+        return 2;
+      }
+    };
+    System.getProperties().put(TestWithStaticState.BARRIER, new CyclicBarrier(2));
+    try {
+      runner.run(notifier);
+    } finally {
+      System.getProperties().remove(TestWithStaticState.BARRIER);
+    }
+
+    assertThat(events).isEmpty();
+  }
+
+  @Test
+  public void getChildren_shouldOnlyIdentifyTestsOnce() throws Exception {
+    AtomicInteger sdkSelections = new AtomicInteger();
+    RobolectricTestRunner runner = new MyRobolectricTestRunner(TestWithTwoMethods.class) {
+      @Nonnull
+      @Override
+      protected SdkPicker createSdkPicker() {
+        return new SdkPicker(asList(new SdkConfig(JELLY_BEAN)), null) {
+          @Override
+          public List<SdkConfig> selectSdks(Config config, UsesSdk usesSdk) {
+            sdkSelections.incrementAndGet();
+            return super.selectSdks(config, usesSdk);
+          }
+        };
+      }
+    };
+
+    List<FrameworkMethod> children = runner.getChildren();
+    runner.run(notifier);
+
+    assertThat(runner.getChildren()).isSameAs(children);
+    assertThat(sdkSelections.get()).isEqualTo(1);
+  }
+
   /////////////////////////////
 
   public static class MyParallelUniverse extends ParallelUniverse {
@@ -210,6 +338,40 @@ public class RobolectricTestRunnerTest {
     }
   }
 
+  @Ignore
+  @Config(sdk = {JELLY_BEAN, JELLY_BEAN_MR1})
+  public static class TestWithStaticState {
+    // System properties are shared by every sandbox, unlike this class.
+    static final String BARRIER = "RobolectricTestRunnerTest.barrier";
+
+    private static int sdk;
+
+    @Test
+    public void changeStaticState() throws Exception {
+      CyclicBarrier barrier = (CyclicBarrier) System.getProperties().get(BARRIER);
+
+      sdk = Build.VERSION.SDK_INT;
+      // wait until both variants have set it
+      barrier.await(10, SECONDS);
+      assertThat(sdk).isEqualTo(Build.VERSION.SDK_INT);
+      assertThat(sdk).isEqualTo(RuntimeEnvironment.getApiLevel());
+    }
+  }
+
+  @Ignore
+  @FixMethodOrder(MethodSorters.NAME_ASCENDING)
+  @Config(sdk = {JELLY_BEAN, JELLY_BEAN_MR1})
+  public static class TestWithTwoSdks {
+    @Test
+    public void failing() throws Exception {
+      fail("failing on sdk " + Build.VERSION.SDK_INT);
+    }
+
+    @Test
+    public void passing() throws Exception {
+    }
+  }
+
   private static class MyRobolectricTestRunner extends RobolectricTestRunner {
     public MyRobolectricTestRunner(Class<?> testClass) throws InitializationError {
       super(testClass);
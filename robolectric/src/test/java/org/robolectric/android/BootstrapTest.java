@@ -362,4 +362,35 @@ public class BootstrapTest {
     assertThat(outQualifiers).startsWith("fr-ldltr-sw321dp-w321dp-h426dp-small");
     assertThat(outQualifiers).contains("-xxhdpi-");
   }
+
+  @Test
+  public void applyQualifiersToDefaults_shouldMatchApplyQualifiers() throws Exception {
+    Bootstrap.applyQualifiers("fr-land-xhdpi-night", RuntimeEnvironment.getApiLevel(),
+        configuration, displayMetrics);
+    Configuration cachedConfiguration = new Configuration();
+    DisplayMetrics cachedDisplayMetrics = new DisplayMetrics();
+    Bootstrap.applyQualifiersToDefaults("fr-land-xhdpi-night", RuntimeEnvironment.getApiLevel(),
+        cachedConfiguration, cachedDisplayMetrics);
+
+    assertThat(cachedConfiguration).isEqualTo(configuration);
+    assertThat(cachedDisplayMetrics.densityDpi).isEqualTo(displayMetrics.densityDpi);
+    assertThat(cachedDisplayMetrics.widthPixels).isEqualTo(displayMetrics.widthPixels);
+    assertThat(cachedDisplayMetrics.heightPixels).isEqualTo(displayMetrics.heightPixels);
+  }
+
+  @Test
+  public void applyQualifiersToDefaults_shouldReturnIndependentCopies() throws Exception {
+    Bootstrap.applyQualifiersToDefaults("de-w480dp", RuntimeEnvironment.getApiLevel(),
+        configuration, displayMetrics);
+    configuration.screenWidthDp = 123;
+    displayMetrics.density = 4f;
+
+    Configuration otherConfiguration = new Configuration();
+    DisplayMetrics otherDisplayMetrics = new DisplayMetrics();
+    Bootstrap.applyQualifiersToDefaults("de-w480dp", RuntimeEnvironment.getApiLevel(),
+        otherConfiguration, otherDisplayMetrics);
+
+    assertThat(otherConfiguration.screenWidthDp).isEqualTo(480);
+    assertThat(otherDisplayMetrics.density).isEqualTo(1f);
+  }
 }
@@ -0,0 +1,90 @@
+package org.robolectric.android.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.Scheduler;
+
+@RunWith(AndroidJUnit4.class)
+public class IdleDetectorTest {
+
+  private final List<String> events = new ArrayList<>();
+  private IdleDetector idleDetector;
+  private Scheduler backgroundScheduler;
+
+  @Before
+  public void setUp() throws Exception {
+    idleDetector = new IdleDetector();
+    backgroundScheduler = Robolectric.getBackgroundThreadScheduler();
+  }
+
+  @Test
+  public void loopUntilIdle_shouldNotRunDelayedBackgroundTasks() throws Exception {
+    long startTime = backgroundScheduler.getCurrentTime();
+    backgroundScheduler.postDelayed(() -> events.add("delayed"), 1000);
+
+    idleDetector.loopUntilIdle();
+
+    assertThat(events).isEmpty();
+    assertThat(backgroundScheduler.getCurrentTime()).isEqualTo(startTime);
+    assertThat(backgroundScheduler.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void loopUntilIdle_shouldNotWaitForRepeatingBackgroundTasks() throws Exception {
+    long startTime = backgroundScheduler.getCurrentTime();
+    backgroundScheduler.post(new Runnable() {
+      @Override
+      public void run() {
+        events.add("repeating");
+        backgroundScheduler.postDelayed(this, 100);
+      }
+    });
+
+    idleDetector.loopUntilIdle();
+
+    assertThat(events).containsExactly("repeating");
+    assertThat(backgroundScheduler.getCurrentTime()).isEqualTo(startTime);
+  }
+
+  @Test
+  public void loopUntilIdle_shouldNotRunTasksOnPausedBackgroundScheduler() throws Exception {
+    backgroundScheduler.pause();
+    backgroundScheduler.post(() -> events.add("background"));
+
+    idleDetector.loopUntilIdle();
+
+    assertThat(events).isEmpty();
+    assertThat(backgroundScheduler.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void loopUntilIdle_shouldRunDueTasksOnPausedMainLooper() throws Exception {
+    ShadowLooper.pauseMainLooper();
+    new Handler(Looper.getMainLooper()).post(() -> events.add("main"));
+
+    idleDetector.loopUntilIdle();
+
+    assertThat(events).containsExactly("main");
+  }
+
+  @Test
+  public void loopFor_shouldRunTasksInTimeOrderAcrossSchedulers() throws Exception {
+    ShadowLooper.pauseMainLooper();
+    new Handler(Looper.getMainLooper()).postDelayed(() -> events.add("main"), 200);
+    backgroundScheduler.postDelayed(() -> events.add("background"), 100);
+
+    idleDetector.loopFor(200);
+
+    assertThat(events).containsExactly("background", "main").inOrder();
+  }
+}
@@ -8,6 +8,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
 import android.app.Application;
+import android.content.pm.ApplicationInfo;
 import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.os.Build;
@@ -133,6 +134,20 @@ public class ParallelUniverseTest {
             + Build.VERSION.RESOURCES_SDK_INT);
   }
 
+  @Test
+  public void setUpApplicationState_givesEachTestItsOwnPackage() {
+    bootstrapWrapper.callSetUpApplicationState();
+    ApplicationInfo first = RuntimeEnvironment.application.getApplicationInfo();
+    first.nonLocalizedLabel = "changed by an earlier test";
+
+    bootstrapWrapper.callSetUpApplicationState();
+    ApplicationInfo second = RuntimeEnvironment.application.getApplicationInfo();
+
+    assertThat(second).isNotSameAs(first);
+    assertThat(second.packageName).isEqualTo(first.packageName);
+    assertThat(second.nonLocalizedLabel).isNotEqualTo("changed by an earlier test");
+  }
+
   @Test
   public void tearDownApplication_invokesOnTerminate() {
     RuntimeEnvironment.application = mock(Application.class);
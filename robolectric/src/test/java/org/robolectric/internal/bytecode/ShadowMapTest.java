@@ -1,14 +1,23 @@
 package org.robolectric.internal.bytecode;
 
 import static com.google.common.truth.Truth.assertThat;
+import static java.util.Arrays.asList;
 
+import com.google.common.io.ByteStreams;
+import com.google.common.testing.GcFinalization;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
 import java.util.Collections;
 import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
+import org.robolectric.annotation.Implements;
+import org.robolectric.internal.ShadowAttributes;
 import org.robolectric.internal.ShadowProvider;
+import org.robolectric.shadow.api.ShadowPicker;
 import org.robolectric.shadows.ShadowActivity;
 
 @RunWith(JUnit4.class)
@@ -60,6 +69,25 @@ public class ShadowMapTest {
         .isEqualTo(ShadowActivity.class.getName());
   }
 
+  @Test public void shouldUseShadowAttributesWithoutLoadingShadowClass() throws Exception {
+    ShadowMap map = ShadowMap.createFromShadowProviders(Collections.singletonList(
+        new IndexedShadowProvider(new ShadowAttributes(A, "no.such.ShadowA", false, true, 21, -1))));
+
+    ShadowInfo shadowInfo = map.getShadowInfo(A.class, 21);
+    assertThat(shadowInfo.shadowClassName).isEqualTo("no.such.ShadowA");
+    assertThat(shadowInfo.callThroughByDefault).isFalse();
+    assertThat(shadowInfo.looseSignatures).isTrue();
+    assertThat(map.getShadowInfo(A.class, 19)).isNull();
+  }
+
+  @Test public void shouldPreferShadowsFromLaterProviders() throws Exception {
+    ShadowMap map = ShadowMap.createFromShadowProviders(asList(
+        new IndexedShadowProvider(new ShadowAttributes(A, "no.such.ShadowA", true, false, -1, -1)),
+        new IndexedShadowProvider(new ShadowAttributes(A, "other.ShadowA", true, false, -1, -1))));
+
+    assertThat(map.getShadowInfo(A.class, 21).shadowClassName).isEqualTo("other.ShadowA");
+  }
+
   @Test public void getInvalidatedClasses_disjoin() {
     ShadowMap current = baseShadowMap.newBuilder().addShadowClass(A1, A2, true, false).build();
     ShadowMap previous = baseShadowMap.newBuilder().addShadowClass(B1, B2, true, false).build();
@@ -84,6 +112,46 @@ public class ShadowMapTest {
     assertThat(current.getInvalidatedClasses(previous)).containsExactly(C1);
   }
 
+  @Test public void shouldPickShadowOncePerClassLoader() throws Exception {
+    ShadowMap pickerShadowMap =
+        ShadowMap.createFromShadowProviders(Collections.singletonList(new PickerShadowProvider()));
+    CountingShadowPicker.picks = 0;
+
+    ShadowMap map = pickerShadowMap.newBuilder().build();
+    assertThat(map.getShadowInfo(A.class, -1).shadowClassName)
+        .isEqualTo(ShadowForA.class.getName());
+    assertThat(map.getShadowInfo(A.class, -1).shadowClassName)
+        .isEqualTo(ShadowForA.class.getName());
+    assertThat(pickerShadowMap.newBuilder().build().getShadowInfo(A.class, -1).shadowClassName)
+        .isEqualTo(ShadowForA.class.getName());
+    assertThat(CountingShadowPicker.picks).isEqualTo(1);
+  }
+
+  @Test public void shouldNotRetainClassLoadersOfPickedShadows() throws Exception {
+    ShadowMap pickerShadowMap =
+        ShadowMap.createFromShadowProviders(Collections.singletonList(new PickerShadowProvider()));
+    ClassLoader classLoader = new IsolatingClassLoader();
+    Class<?> isolatedA = classLoader.loadClass(A);
+    assertThat(isolatedA.getClassLoader()).isSameAs(classLoader);
+    assertThat(pickerShadowMap.getShadowInfo(isolatedA, -1).shadowClassName)
+        .isEqualTo(ShadowForA.class.getName());
+
+    WeakReference<ClassLoader> classLoaderRef = new WeakReference<>(classLoader);
+    classLoader = null;
+    isolatedA = null;
+    GcFinalization.awaitClear(classLoaderRef);
+  }
+
+  @Test public void getInvalidatedClasses_shouldNotIncludeUnchangedShadowPickers() {
+    ShadowMap pickerShadowMap =
+        ShadowMap.createFromShadowProviders(Collections.singletonList(new PickerShadowProvider()));
+    ShadowMap current = pickerShadowMap.newBuilder().addShadowClass(A1, A2, true, false).build();
+    ShadowMap previous = pickerShadowMap.newBuilder().build();
+
+    assertThat(current.getInvalidatedClasses(previous)).containsExactly(A1);
+    assertThat(previous.getInvalidatedClasses(previous)).isEmpty();
+  }
+
   @Test public void equalsHashCode() throws Exception {
     ShadowMap a = baseShadowMap.newBuilder().addShadowClass(A, B, true, false).build();
     ShadowMap b = baseShadowMap.newBuilder().addShadowClass(A, B, true, false).build();
@@ -99,6 +167,96 @@ public class ShadowMapTest {
     assertThat(d.hashCode()).isNotEqualTo(b.hashCode());
   }
 
+  private static class IndexedShadowProvider implements ShadowProvider {
+    private final ShadowAttributes attributes;
+
+    IndexedShadowProvider(ShadowAttributes attributes) {
+      this.attributes = attributes;
+    }
+
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public String[] getProvidedPackageNames() {
+      return new String[0];
+    }
+
+    @Override
+    public Map<String, String> getShadowMap() {
+      return Collections.singletonMap(
+          attributes.shadowedClassName.replace('$', '.'), attributes.shadowClassName);
+    }
+
+    @Override
+    public Map<String, ShadowAttributes> getShadowAttributes() {
+      return Collections.singletonMap(
+          attributes.shadowedClassName.replace('$', '.'), attributes);
+    }
+  }
+
+  private static class PickerShadowProvider implements ShadowProvider {
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public String[] getProvidedPackageNames() {
+      return new String[0];
+    }
+
+    @Override
+    public Map<String, String> getShadowMap() {
+      return Collections.emptyMap();
+    }
+
+    @Override
+    public Map<String, String> getShadowPickerMap() {
+      return Collections.singletonMap(A, CountingShadowPicker.class.getName());
+    }
+  }
+
+  public static class CountingShadowPicker implements ShadowPicker<Object> {
+    static int picks;
+
+    @Override
+    public Class<?> pickShadowClass() {
+      picks++;
+      return ShadowForA.class;
+    }
+  }
+
+  @Implements(value = A.class, shadowPicker = CountingShadowPicker.class)
+  static class ShadowForA {}
+
+  /** Loads its own copies of this test's nested classes, like a sandbox. */
+  private static class IsolatingClassLoader extends ClassLoader {
+    IsolatingClassLoader() {
+      super(ShadowMapTest.class.getClassLoader());
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (!name.startsWith(ShadowMapTest.class.getName() + "$")) {
+        return super.loadClass(name, resolve);
+      }
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> loadedClass = findLoadedClass(name);
+        if (loadedClass == null) {
+          byte[] bytes;
+          try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+            bytes = ByteStreams.toByteArray(in);
+          } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+          }
+          loadedClass = defineClass(name, bytes, 0, bytes.length);
+        }
+        return loadedClass;
+      }
+    }
+  }
+
   static class Activity {}
 
   static class A {}
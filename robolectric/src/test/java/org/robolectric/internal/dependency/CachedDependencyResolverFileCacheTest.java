@@ -1,10 +1,15 @@
 package org.robolectric.internal.dependency;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import com.google.common.util.concurrent.Uninterruptibles;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -12,6 +17,12 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -83,6 +94,90 @@ public class CachedDependencyResolverFileCacheTest {
     assertArrayEquals(urls, (URL[]) actual);
   }
 
+  @Test
+  public void shouldNotWriteWhenReadOnly() throws Exception {
+    Cache cache = new CachedDependencyResolver.FileCache(temporaryFolder.getRoot(), 1000, true);
+
+    assertFalse(cache.write(ID, 421L));
+
+    assertFalse(new File(temporaryFolder.getRoot(), ID).exists());
+  }
+
+  @Test
+  public void shouldNotExpireEntriesWhenReadOnly() throws Exception {
+    Cache cache = new CachedDependencyResolver.FileCache(temporaryFolder.getRoot(), 1000, true);
+
+    writeToCacheFile("some string");
+    new File(temporaryFolder.getRoot(), ID).setLastModified(0);
+
+    assertEquals("some string", cache.load(ID, String.class));
+  }
+
+  @Test
+  public void withLock_shouldRunActionAndReturnResult() throws Exception {
+    Cache cache = new CachedDependencyResolver.FileCache(temporaryFolder.getRoot(), 1000);
+
+    assertEquals("result", cache.withLock(ID, () -> "result"));
+  }
+
+  @Test
+  public void withLock_shouldMakeOtherCachesWaitForSameEntry() throws Exception {
+    Cache cache = new CachedDependencyResolver.FileCache(temporaryFolder.getRoot(), 1000);
+    Cache otherCache = new CachedDependencyResolver.FileCache(temporaryFolder.getRoot(), 1000);
+    CountDownLatch firstActionStarted = new CountDownLatch(1);
+    CountDownLatch finishFirstAction = new CountDownLatch(1);
+    AtomicBoolean secondActionRan = new AtomicBoolean();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> first = executor.submit(() -> cache.withLock(ID, () -> {
+        firstActionStarted.countDown();
+        Uninterruptibles.awaitUninterruptibly(finishFirstAction);
+        return null;
+      }));
+      assertTrue(firstActionStarted.await(10, SECONDS));
+
+      Future<?> second = executor.submit(() -> otherCache.withLock(ID, () -> {
+        secondActionRan.set(true);
+        return null;
+      }));
+      try {
+        second.get(200, MILLISECONDS);
+        fail("second action should wait for the lock");
+      } catch (TimeoutException expected) {
+      }
+      assertFalse(secondActionRan.get());
+
+      finishFirstAction.countDown();
+      first.get(10, SECONDS);
+      second.get(10, SECONDS);
+      assertTrue(secondActionRan.get());
+    } finally {
+      finishFirstAction.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void withLock_shouldNotMakeOtherEntriesWait() throws Exception {
+    Cache cache = new CachedDependencyResolver.FileCache(temporaryFolder.getRoot(), 1000);
+    CountDownLatch firstActionStarted = new CountDownLatch(1);
+    CountDownLatch finishFirstAction = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> cache.withLock(ID, () -> {
+        firstActionStarted.countDown();
+        Uninterruptibles.awaitUninterruptibly(finishFirstAction);
+        return null;
+      }));
+      assertTrue(firstActionStarted.await(10, SECONDS));
+
+      assertEquals("result", cache.withLock("other", () -> "result"));
+    } finally {
+      finishFirstAction.countDown();
+      executor.shutdownNow();
+    }
+  }
+
   private Object readFromCacheFile() throws ClassNotFoundException, IOException {
     File dir = temporaryFolder.getRoot();
 
@@ -1,15 +1,20 @@
 package org.robolectric.internal.dependency;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyVararg;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.Before;
@@ -19,6 +24,7 @@ import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 import org.junit.runners.model.InitializationError;
+import org.robolectric.internal.dependency.CachedDependencyResolver.ArtifactDigest;
 import org.robolectric.internal.dependency.CachedDependencyResolver.Cache;
 import org.robolectric.internal.dependency.CachedDependencyResolver.CacheNamingStrategy;
 import org.robolectric.internal.dependency.CachedDependencyResolver.CacheValidationStrategy;
@@ -96,6 +102,104 @@ public class CachedDependencyResolverTest {
     verify(internalResolver).getLocalArtifactUrl(dependency);
   }
 
+  @Test
+  public void prefetch_shouldPrefetchAndCacheMisses() throws Exception {
+    DependencyResolver res = createResolver();
+
+    when(internalResolver.getLocalArtifactUrl(dependency)).thenReturn(url);
+
+    res.prefetch(dependency);
+
+    verify(internalResolver).prefetch(dependency);
+    assertCacheContents(url);
+  }
+
+  @Test
+  public void prefetch_shouldNotPrefetchCachedDependencies() throws Exception {
+    DependencyResolver res = createResolver();
+    cache.write(CACHE_NAME, url);
+
+    res.prefetch(dependency);
+
+    verify(internalResolver, never()).prefetch(anyVararg());
+    verify(internalResolver, never()).getLocalArtifactUrl(dependency);
+  }
+
+  @Test
+  public void getLocalArtifactUrl_whenCachedArtifactContentChanged_shouldFetchDependencyInformation()
+      throws Exception {
+    File jar = temporaryFolder.newFile("artifact.jar");
+    Files.write(jar.toPath(), new byte[] {1, 2, 3});
+    URL jarUrl = jar.toURI().toURL();
+    when(internalResolver.getLocalArtifactUrl(dependency)).thenReturn(jarUrl);
+    DependencyResolver res = createResolver();
+
+    res.getLocalArtifactUrl(dependency);
+    res.getLocalArtifactUrl(dependency);
+    verify(internalResolver, times(1)).getLocalArtifactUrl(dependency);
+
+    Files.write(jar.toPath(), new byte[] {4, 5, 6, 7});
+    res.getLocalArtifactUrl(dependency);
+    verify(internalResolver, times(2)).getLocalArtifactUrl(dependency);
+  }
+
+  @Test
+  public void getLocalArtifactUrl_whenCachedArtifactTouched_shouldRefreshDigest() throws Exception {
+    File jar = temporaryFolder.newFile("artifact.jar");
+    Files.write(jar.toPath(), new byte[] {1, 2, 3});
+    jar.setLastModified(1000000L);
+    when(internalResolver.getLocalArtifactUrl(dependency)).thenReturn(jar.toURI().toURL());
+    DependencyResolver res = createResolver();
+    res.getLocalArtifactUrl(dependency);
+    String sha256 = cache.load(CACHE_NAME + ".sha256", ArtifactDigest.class).sha256;
+
+    jar.setLastModified(2000000L);
+    res.getLocalArtifactUrl(dependency);
+
+    verify(internalResolver, times(1)).getLocalArtifactUrl(dependency);
+    ArtifactDigest digest = cache.load(CACHE_NAME + ".sha256", ArtifactDigest.class);
+    assertEquals(jar.lastModified(), digest.lastModified);
+    assertEquals(sha256, digest.sha256);
+  }
+
+  @Test
+  public void getLocalArtifactUrl_whenCacheReadOnly_shouldNotResolveMisses() throws Exception {
+    cache = new CacheStub(true);
+    DependencyResolver res = createResolver();
+
+    try {
+      res.getLocalArtifactUrl(dependency);
+      fail("should have thrown");
+    } catch (IllegalStateException expected) {
+    }
+
+    verify(internalResolver, never()).getLocalArtifactUrl(dependency);
+  }
+
+  @Test
+  public void getLocalArtifactUrl_whenCacheReadOnly_shouldReadLocalArtifactUrlFromCache()
+      throws Exception {
+    CacheStub readOnlyCache = new CacheStub(true);
+    readOnlyCache.map.put(CACHE_NAME, url);
+    cache = readOnlyCache;
+
+    assertEquals(url, createResolver().getLocalArtifactUrl(dependency));
+  }
+
+  @Test
+  public void prefetch_whenCacheReadOnly_shouldNotResolveMisses() throws Exception {
+    cache = new CacheStub(true);
+    DependencyResolver res = createResolver();
+
+    try {
+      res.prefetch(dependency);
+      fail("should have thrown");
+    } catch (IllegalStateException expected) {
+    }
+
+    verify(internalResolver, never()).prefetch(anyVararg());
+  }
+
   private void assertCacheContents(URL url) {
     assertEquals(url, cache.load(CACHE_NAME, URL.class));
   }
@@ -125,6 +229,15 @@ public class CachedDependencyResolverTest {
 
   private static class CacheStub implements CachedDependencyResolver.Cache {
     private Map<String, Serializable> map = new HashMap<>();
+    private final boolean readOnly;
+
+    CacheStub() {
+      this(false);
+    }
+
+    CacheStub(boolean readOnly) {
+      this.readOnly = readOnly;
+    }
 
     @SuppressWarnings("unchecked")
     @Override
@@ -136,8 +249,16 @@ public class CachedDependencyResolverTest {
 
     @Override
     public <T extends Serializable> boolean write(String id, T object) {
+      if (readOnly) {
+        return false;
+      }
       map.put(id, object);
       return true;
     }
+
+    @Override
+    public boolean isReadOnly() {
+      return readOnly;
+    }
   }
 }
@@ -6,9 +6,12 @@ import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.maven.artifact.ant.DependenciesTask;
 import org.apache.maven.artifact.ant.RemoteRepository;
@@ -38,7 +41,11 @@ public class MavenDependencyResolverTest {
 
   @Before
   public void setUp() {
-    dependenciesTask = spy(new DependenciesTask());
+    dependenciesTask = createDependenciesTask();
+  }
+
+  private DependenciesTask createDependenciesTask() {
+    DependenciesTask dependenciesTask = spy(new DependenciesTask());
     doNothing().when(dependenciesTask).execute();
     doAnswer(new Answer() {
       @Override
@@ -52,6 +59,7 @@ public class MavenDependencyResolverTest {
         return null;
       }
     }).when(dependenciesTask).setProject(any(Project.class));
+    return dependenciesTask;
   }
 
   @Test
@@ -117,6 +125,47 @@ public class MavenDependencyResolverTest {
     assertEquals("file:/path3", url.toExternalForm());
   }
 
+  @Test
+  public void getLocalArtifactUrl_shouldOnlyResolveEachDependencyOnce() {
+    DependencyResolver dependencyResolver = createResolver();
+    DependencyJar dependencyJar = new DependencyJar("group1", "artifact1", "", null);
+
+    dependencyResolver.getLocalArtifactUrl(dependencyJar);
+    URL url = dependencyResolver.getLocalArtifactUrl(dependencyJar);
+
+    verify(dependenciesTask, times(1)).execute();
+    assertEquals("file:/path1", url.toExternalForm());
+  }
+
+  @Test
+  public void prefetch_shouldResolveEachDependencyInItsOwnTask() {
+    List<DependenciesTask> tasks = Collections.synchronizedList(new ArrayList<>());
+    DependencyResolver dependencyResolver =
+        new MavenDependencyResolver(
+            REPOSITORY_URL, REPOSITORY_ID, REPOSITORY_USERNAME, REPOSITORY_PASSWORD) {
+          @Override
+          protected DependenciesTask createDependenciesTask() {
+            DependenciesTask task = MavenDependencyResolverTest.this.createDependenciesTask();
+            tasks.add(task);
+            return task;
+          }
+        };
+    DependencyJar jar1 = new DependencyJar("group1", "artifact1", "1", null);
+    DependencyJar jar2 = new DependencyJar("group2", "artifact2", "2", null);
+
+    dependencyResolver.prefetch(jar1, jar2);
+
+    assertEquals(2, tasks.size());
+    for (DependenciesTask task : tasks) {
+      assertEquals(1, task.getDependencies().size());
+      verify(task).execute();
+    }
+
+    assertEquals("file:/path1", dependencyResolver.getLocalArtifactUrl(jar1).toExternalForm());
+    assertEquals("file:/path2", dependencyResolver.getLocalArtifactUrl(jar2).toExternalForm());
+    assertEquals(2, tasks.size());
+  }
+
   private DependencyResolver createResolver() {
     return new MavenDependencyResolver(REPOSITORY_URL, REPOSITORY_ID, REPOSITORY_USERNAME, REPOSITORY_PASSWORD) {
       @Override
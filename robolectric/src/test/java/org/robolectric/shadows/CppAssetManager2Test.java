@@ -0,0 +1,198 @@
+package org.robolectric.shadows;
+
+import static android.os.Build.VERSION_CODES.P;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assume.assumeTrue;
+import static org.robolectric.shadows.ShadowAssetManager.useLegacy;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.ArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.R;
+import org.robolectric.annotation.Config;
+import org.robolectric.res.android.CppAssetManager2;
+import org.robolectric.res.android.CppAssetManager2.ResolvedBag;
+import org.robolectric.res.android.CppAssetManager2.Theme;
+import org.robolectric.res.android.Ref;
+import org.robolectric.res.android.ResTable_config;
+import org.robolectric.res.android.ResourceTypes.Res_value;
+import org.robolectric.util.PerfStatsCollector;
+import org.robolectric.util.PerfStatsCollector.Metric;
+
+@RunWith(AndroidJUnit4.class)
+@Config(minSdk = P)
+public class CppAssetManager2Test {
+
+  private static final String THEME_CACHE_HIT = "CppAssetManager2 theme cache hit";
+  private static final String THEME_CACHE_MISS = "CppAssetManager2 theme cache miss";
+
+  private CppAssetManager2 assetManager;
+
+  @Before
+  public void setUp() throws Exception {
+    assumeTrue(!useLegacy());
+
+    // Use a private asset manager so the caches under test start out empty.
+    assetManager = newAssetManager();
+    PerfStatsCollector.getInstance().setEnabled(true);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    PerfStatsCollector.getInstance().setEnabled(false);
+  }
+
+  @Test
+  public void applyStyle_shouldReuseCachedThemeState() throws Exception {
+    assetManager.NewTheme().ApplyStyle(R.style.SimpleParent, false);
+    int hits = count(THEME_CACHE_HIT);
+    int misses = count(THEME_CACHE_MISS);
+
+    Theme theme = assetManager.NewTheme();
+    assertThat(theme.ApplyStyle(R.style.SimpleParent, false)).isTrue();
+
+    assertThat(count(THEME_CACHE_HIT)).isEqualTo(hits + 1);
+    assertThat(count(THEME_CACHE_MISS)).isEqualTo(misses);
+    assertThat(getAttribute(theme, R.attr.parent_string))
+        .isEqualTo(bagValue(R.style.SimpleParent));
+  }
+
+  @Test
+  public void applyStyle_shouldMissAfterSetApkAssets() throws Exception {
+    assetManager.NewTheme().ApplyStyle(R.style.SimpleParent, false);
+    assetManager.SetApkAssets(new ArrayList<>(assetManager.GetApkAssets()), true);
+    int hits = count(THEME_CACHE_HIT);
+    int misses = count(THEME_CACHE_MISS);
+
+    Theme theme = assetManager.NewTheme();
+    assertThat(theme.ApplyStyle(R.style.SimpleParent, false)).isTrue();
+
+    assertThat(count(THEME_CACHE_HIT)).isEqualTo(hits);
+    assertThat(count(THEME_CACHE_MISS)).isEqualTo(misses + 1);
+    assertThat(getAttribute(theme, R.attr.parent_string))
+        .isEqualTo(bagValue(R.style.SimpleParent));
+  }
+
+  @Test
+  public void applyStyle_shouldKeepConfigurationInvariantThemesAcrossConfigurationChanges()
+      throws Exception {
+    assetManager.NewTheme().ApplyStyle(R.style.SimpleParent, false);
+    ResTable_config configuration = new ResTable_config();
+    configuration.orientation = ResTable_config.ORIENTATION_LAND;
+    assetManager.SetConfiguration(configuration);
+    int hits = count(THEME_CACHE_HIT);
+
+    assetManager.NewTheme().ApplyStyle(R.style.SimpleParent, false);
+
+    assertThat(count(THEME_CACHE_HIT)).isEqualTo(hits + 1);
+  }
+
+  @Test
+  public void getBag_shouldReturnCachedBag() throws Exception {
+    ResolvedBag bag = assetManager.GetBag(R.style.SimpleChildWithAdditionalAttributes);
+
+    assertThat(assetManager.GetBag(R.style.SimpleChildWithAdditionalAttributes)).isSameAs(bag);
+  }
+
+  @Test
+  public void getBag_shouldReturnSameEntriesAfterInvalidation() throws Exception {
+    ResolvedBag bag = assetManager.GetBag(R.style.SimpleChildWithAdditionalAttributes);
+
+    assetManager.SetApkAssets(new ArrayList<>(assetManager.GetApkAssets()), true);
+    ResolvedBag rebuiltBag = assetManager.GetBag(R.style.SimpleChildWithAdditionalAttributes);
+    ResolvedBag uncachedBag =
+        newAssetManager().GetBag(R.style.SimpleChildWithAdditionalAttributes);
+
+    assertThat(rebuiltBag).isNotSameAs(bag);
+    assertSameEntries(rebuiltBag, bag);
+    assertSameEntries(uncachedBag, bag);
+  }
+
+  @Test
+  public void applyStyle_shouldNotModifyThemesSharingCachedState() throws Exception {
+    Theme original = assetManager.NewTheme();
+    original.ApplyStyle(R.style.SimpleParent, false);
+    Theme sharing = assetManager.NewTheme();
+    sharing.ApplyStyle(R.style.SimpleParent, false);
+
+    sharing.ApplyStyle(R.style.SimpleChildWithOverride, true);
+
+    assertThat(getAttribute(sharing, R.attr.parent_string))
+        .isEqualTo(bagValue(R.style.SimpleChildWithOverride));
+    assertThat(getAttribute(original, R.attr.parent_string))
+        .isEqualTo(bagValue(R.style.SimpleParent));
+
+    Theme later = assetManager.NewTheme();
+    later.ApplyStyle(R.style.SimpleParent, false);
+    assertThat(getAttribute(later, R.attr.parent_string))
+        .isEqualTo(bagValue(R.style.SimpleParent));
+  }
+
+  @Test
+  public void setTo_shouldNotModifyCopiedThemeWhenCopyChanges() throws Exception {
+    Theme original = assetManager.NewTheme();
+    original.ApplyStyle(R.style.SimpleParent, false);
+    Theme copy = assetManager.NewTheme();
+    copy.SetTo(original);
+
+    copy.ApplyStyle(R.style.SimpleChildWithOverride, true);
+    assertThat(getAttribute(copy, R.attr.parent_string))
+        .isEqualTo(bagValue(R.style.SimpleChildWithOverride));
+    assertThat(getAttribute(original, R.attr.parent_string))
+        .isEqualTo(bagValue(R.style.SimpleParent));
+
+    copy.Clear();
+    assertThat(getAttribute(original, R.attr.parent_string))
+        .isEqualTo(bagValue(R.style.SimpleParent));
+  }
+
+  private static CppAssetManager2 newAssetManager() {
+    CppAssetManager2 appAssetManager =
+        ShadowArscAssetManager9.AssetManagerForJavaObject(
+            ApplicationProvider.getApplicationContext().getResources().getAssets());
+    CppAssetManager2 assetManager = new CppAssetManager2();
+    assetManager.SetApkAssets(new ArrayList<>(appAssetManager.GetApkAssets()), true);
+    return assetManager;
+  }
+
+  private static int count(String name) {
+    for (Metric metric : PerfStatsCollector.getInstance().getMetrics()) {
+      if (metric.getName().equals(name)) {
+        return metric.getCount();
+      }
+    }
+    return 0;
+  }
+
+  private static Integer getAttribute(Theme theme, int attr) {
+    Ref<Res_value> value = new Ref<>(null);
+    theme.GetAttribute(attr, value, new Ref<>(0));
+    return value.get() == null ? null : value.get().data;
+  }
+
+  private Integer bagValue(int style) {
+    ResolvedBag bag = assetManager.GetBag(style);
+    for (ResolvedBag.Entry entry : bag.entries) {
+      if (entry.key == R.attr.parent_string) {
+        return entry.value.data;
+      }
+    }
+    return null;
+  }
+
+  private static void assertSameEntries(ResolvedBag actual, ResolvedBag expected) {
+    assertThat(actual.entry_count).isEqualTo(expected.entry_count);
+    assertThat(actual.type_spec_flags).isEqualTo(expected.type_spec_flags);
+    for (int i = 0; i < expected.entry_count; i++) {
+      assertThat(actual.entries[i].key).isEqualTo(expected.entries[i].key);
+      assertThat(actual.entries[i].cookie.intValue())
+          .isEqualTo(expected.entries[i].cookie.intValue());
+      assertThat(actual.entries[i].value.dataType).isEqualTo(expected.entries[i].value.dataType);
+      assertThat(actual.entries[i].value.data).isEqualTo(expected.entries[i].value.data);
+    }
+  }
+}
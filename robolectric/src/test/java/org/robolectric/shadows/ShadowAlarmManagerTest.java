@@ -7,6 +7,7 @@ import static android.os.Build.VERSION_CODES.LOLLIPOP;
 import static android.os.Build.VERSION_CODES.M;
 import static android.os.Build.VERSION_CODES.N;
 import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.Assert.fail;
 import static org.robolectric.Shadows.shadowOf;
 
@@ -20,9 +21,12 @@ import android.content.Context;
 import android.content.Intent;
 import android.os.Build.VERSION_CODES;
 import android.os.Handler;
+import android.os.SystemClock;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
 import org.junit.Before;
 import org.junit.Test;
@@ -269,6 +273,46 @@ public class ShadowAlarmManagerTest {
     assertThat(shadowAlarmManager.getScheduledAlarms()).hasSize(1);
   }
 
+  @Test
+  public void getScheduledAlarms_shouldBeLiveView() {
+    List<ShadowAlarmManager.ScheduledAlarm> scheduledAlarms =
+        shadowAlarmManager.getScheduledAlarms();
+    PendingIntent later = PendingIntent.getBroadcast(context, 0, new Intent("later"), 0);
+    PendingIntent sooner = PendingIntent.getBroadcast(context, 0, new Intent("sooner"), 0);
+
+    alarmManager.set(AlarmManager.RTC, 2000, later);
+    alarmManager.set(AlarmManager.RTC, 1000, sooner);
+
+    assertThat(scheduledAlarms).hasSize(2);
+    assertThat(scheduledAlarms.get(0).operation).isSameAs(sooner);
+    assertThat(scheduledAlarms.get(1).operation).isSameAs(later);
+
+    alarmManager.cancel(sooner);
+
+    assertThat(scheduledAlarms).hasSize(1);
+    assertThat(scheduledAlarms.get(0).operation).isSameAs(later);
+  }
+
+  @Test
+  public void getScheduledAlarms_removingAlarmsShouldCancelThem() {
+    PendingIntent first = PendingIntent.getBroadcast(context, 0, new Intent("first"), 0);
+    PendingIntent second = PendingIntent.getBroadcast(context, 0, new Intent("second"), 0);
+    alarmManager.set(AlarmManager.RTC, 1000, first);
+    alarmManager.set(AlarmManager.RTC, 2000, second);
+
+    shadowAlarmManager.getScheduledAlarms().remove(0);
+
+    assertThat(shadowAlarmManager.peekNextScheduledAlarm().operation).isSameAs(second);
+    alarmManager.set(AlarmManager.RTC, 3000, first);
+    assertThat(shadowAlarmManager.getScheduledAlarms()).hasSize(2);
+
+    shadowAlarmManager.getScheduledAlarms().clear();
+
+    assertThat(shadowAlarmManager.peekNextScheduledAlarm()).isNull();
+    alarmManager.cancel(second);
+    assertThat(shadowAlarmManager.getScheduledAlarms()).isEmpty();
+  }
+
   @Test
   public void cancel_removesMatchingPendingIntentsWithActions() {
     Intent newIntent = new Intent("someAction");
@@ -396,6 +440,70 @@ public class ShadowAlarmManagerTest {
     assertThat(shadowAlarmManager.peekNextScheduledAlarm()).isNull();
   }
 
+  @Test
+  public void getScheduledAlarms_shouldBeOrderedByTriggerTime() {
+    for (int i = 0; i < 100; i++) {
+      PendingIntent pendingIntent =
+          PendingIntent.getBroadcast(context, i, new Intent("someAction"), 0);
+      alarmManager.set(AlarmManager.ELAPSED_REALTIME, 1000 - i, pendingIntent);
+    }
+    alarmManager.cancel(PendingIntent.getBroadcast(context, 99, new Intent("someAction"), 0));
+
+    List<ShadowAlarmManager.ScheduledAlarm> scheduledAlarms =
+        shadowAlarmManager.getScheduledAlarms();
+    assertThat(scheduledAlarms).hasSize(99);
+    assertThat(scheduledAlarms.get(0).triggerAtTime).isEqualTo(902);
+    assertThat(scheduledAlarms.get(98).triggerAtTime).isEqualTo(1000);
+    assertThat(shadowAlarmManager.getNextScheduledAlarm().triggerAtTime).isEqualTo(902);
+    assertThat(shadowAlarmManager.peekNextScheduledAlarm().triggerAtTime).isEqualTo(903);
+  }
+
+  @Test
+  @Config(minSdk = N)
+  public void setAutoSchedule_shouldDeliverAlarmWhenClockAdvances() {
+    ShadowAlarmManager.setAutoSchedule(true);
+    List<String> deliveredAlarms = new ArrayList<>();
+    long now = SystemClock.elapsedRealtime();
+    alarmManager.set(
+        AlarmManager.ELAPSED_REALTIME, now + 1000, "tag", () -> deliveredAlarms.add("tag"), null);
+
+    Robolectric.getForegroundThreadScheduler().advanceBy(999, MILLISECONDS);
+    assertThat(deliveredAlarms).isEmpty();
+
+    Robolectric.getForegroundThreadScheduler().advanceBy(1, MILLISECONDS);
+    assertThat(deliveredAlarms).containsExactly("tag");
+    assertThat(shadowAlarmManager.peekNextScheduledAlarm()).isNull();
+  }
+
+  @Test
+  public void setAutoSchedule_shouldRescheduleRepeatingAlarms() {
+    ShadowAlarmManager.setAutoSchedule(true);
+    long now = SystemClock.elapsedRealtime();
+    PendingIntent pendingIntent =
+        PendingIntent.getBroadcast(context, 0, new Intent("someAction"), 0);
+    alarmManager.setRepeating(AlarmManager.ELAPSED_REALTIME, now + 1000, 1000, pendingIntent);
+
+    Robolectric.getForegroundThreadScheduler().advanceBy(2500, MILLISECONDS);
+
+    assertThat(shadowOf((Application) context).getBroadcastIntents()).hasSize(2);
+    assertRepeatingScheduledAlarm(
+        now + 3000, 1000, pendingIntent, shadowAlarmManager.peekNextScheduledAlarm());
+  }
+
+  @Test
+  public void setAutoSchedule_shouldNotDeliverCanceledAlarms() {
+    ShadowAlarmManager.setAutoSchedule(true);
+    long now = SystemClock.elapsedRealtime();
+    PendingIntent pendingIntent =
+        PendingIntent.getBroadcast(context, 0, new Intent("someAction"), 0);
+    alarmManager.set(AlarmManager.ELAPSED_REALTIME, now + 1000, pendingIntent);
+    alarmManager.cancel(pendingIntent);
+
+    Robolectric.getForegroundThreadScheduler().advanceBy(1000, MILLISECONDS);
+
+    assertThat(shadowOf((Application) context).getBroadcastIntents()).isEmpty();
+  }
+
   private void assertScheduledAlarm(long now, PendingIntent pendingIntent,
       ShadowAlarmManager.ScheduledAlarm scheduledAlarm) {
     assertRepeatingScheduledAlarm(now, 0L, pendingIntent, scheduledAlarm);
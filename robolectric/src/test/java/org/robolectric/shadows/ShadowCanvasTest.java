@@ -420,4 +420,161 @@ public class ShadowCanvasTest {
     assertThat(shadowCanvas.getDrawnRect(1).rect).isEqualTo(rect1);
     assertThat(shadowCanvas.getDrawnRect(1).paint.getColor()).isEqualTo(Color.BLACK);
   }
+
+  @Test
+  public void rasterMode_shouldBeDisabledByDefault() {
+    Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+    Paint paint = new Paint();
+    paint.setColor(Color.RED);
+
+    new Canvas(bitmap).drawRect(0f, 0f, 10f, 10f, paint);
+
+    assertThat(bitmap.getPixel(5, 5)).isEqualTo(0);
+  }
+
+  @Test
+  public void rasterMode_shouldDrawIntoBitmapPixels() {
+    ShadowCanvas.setRasterEnabled(true);
+    Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+    Canvas canvas = new Canvas(bitmap);
+    Paint paint = new Paint();
+    paint.setColor(Color.RED);
+
+    canvas.drawRect(2f, 2f, 5f, 5f, paint);
+
+    assertThat(bitmap.getPixel(3, 3)).isEqualTo(Color.RED);
+    assertThat(bitmap.getPixel(7, 7)).isEqualTo(0);
+    assertThat(shadowOf(canvas).getRectPaintHistoryCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void rasterMode_shouldApplyCanvasTransforms() {
+    ShadowCanvas.setRasterEnabled(true);
+    Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+    Canvas canvas = new Canvas(bitmap);
+    Paint paint = new Paint();
+    paint.setColor(Color.RED);
+
+    canvas.save();
+    canvas.translate(5f, 5f);
+    canvas.drawRect(0f, 0f, 2f, 2f, paint);
+    canvas.restore();
+    paint.setColor(Color.BLUE);
+    canvas.drawRect(0f, 0f, 1f, 1f, paint);
+
+    assertThat(bitmap.getPixel(6, 6)).isEqualTo(Color.RED);
+    assertThat(bitmap.getPixel(1, 1)).isEqualTo(0);
+    assertThat(bitmap.getPixel(0, 0)).isEqualTo(Color.BLUE);
+  }
+
+  @Test
+  public void rasterMode_shouldDrawBitmapsWithMatrix() {
+    ShadowCanvas.setRasterEnabled(true);
+    Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+    Bitmap source =
+        Bitmap.createBitmap(
+            new int[] {Color.GREEN, Color.GREEN, Color.GREEN, Color.GREEN},
+            2,
+            2,
+            Bitmap.Config.ARGB_8888);
+    Matrix matrix = new Matrix();
+    matrix.setTranslate(4f, 4f);
+
+    new Canvas(bitmap).drawBitmap(source, matrix, null);
+
+    assertThat(bitmap.getPixel(4, 4)).isEqualTo(Color.GREEN);
+    assertThat(bitmap.getPixel(5, 5)).isEqualTo(Color.GREEN);
+    assertThat(bitmap.getPixel(6, 6)).isEqualTo(0);
+  }
+
+  @Test
+  public void saveLayer_shouldPushOntoSaveStack() {
+    Canvas canvas = new Canvas(Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+
+    assertThat(canvas.save()).isEqualTo(1);
+    assertThat(canvas.saveLayer(null, null)).isEqualTo(2);
+    assertThat(canvas.saveLayerAlpha(0f, 0f, 10f, 10f, 128)).isEqualTo(3);
+    assertThat(canvas.getSaveCount()).isEqualTo(4);
+
+    canvas.restoreToCount(2);
+
+    assertThat(canvas.getSaveCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void rasterMode_restoreToCountOfLayer_shouldKeepOuterTransforms() {
+    ShadowCanvas.setRasterEnabled(true);
+    Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+    Canvas canvas = new Canvas(bitmap);
+    Paint paint = new Paint();
+    paint.setColor(Color.RED);
+
+    canvas.save();
+    canvas.translate(5f, 5f);
+    int saveCount = canvas.saveLayer(null, null);
+    canvas.scale(2f, 2f);
+    canvas.restoreToCount(saveCount);
+    canvas.drawRect(0f, 0f, 1f, 1f, paint);
+    canvas.restore();
+
+    assertThat(bitmap.getPixel(5, 5)).isEqualTo(Color.RED);
+    assertThat(bitmap.getPixel(6, 6)).isEqualTo(0);
+    assertThat(bitmap.getPixel(0, 0)).isEqualTo(0);
+  }
+
+  @Test
+  public void getMatrix_shouldReturnCurrentTransform() {
+    Canvas canvas = new Canvas(Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+    Matrix scale = new Matrix();
+    scale.setScale(2f, 3f);
+
+    canvas.translate(4f, 5f);
+    canvas.concat(scale);
+
+    float[] values = new float[9];
+    canvas.getMatrix().getValues(values);
+    assertThat(values)
+        .usingExactEquality()
+        .containsExactly(2f, 0f, 4f, 0f, 3f, 5f, 0f, 0f, 1f)
+        .inOrder();
+  }
+
+  @Test
+  public void getMatrix_shouldRoundTripThroughSetMatrix() {
+    Canvas canvas = new Canvas(Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+    Matrix matrix = new Matrix();
+    matrix.setValues(new float[] {1f, 2f, 3f, 4f, 5f, 6f, 0f, 0f, 1f});
+
+    canvas.setMatrix(matrix);
+    Matrix result = new Matrix();
+    result.setTranslate(7f, 7f);
+    canvas.getMatrix(result);
+
+    float[] values = new float[9];
+    result.getValues(values);
+    assertThat(values)
+        .usingExactEquality()
+        .containsExactly(1f, 2f, 3f, 4f, 5f, 6f, 0f, 0f, 1f)
+        .inOrder();
+  }
+
+  @Test
+  public void getMatrix_afterRestore_shouldReturnSavedTransform() {
+    Canvas canvas = new Canvas(Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+
+    canvas.save();
+    canvas.translate(4f, 5f);
+    canvas.restore();
+
+    assertThat(canvas.getMatrix().isIdentity()).isTrue();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void restore_withoutSave_shouldThrow() {
+    Canvas canvas = new Canvas(Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+
+    canvas.save();
+    canvas.restore();
+    canvas.restore();
+  }
 }
@@ -255,6 +255,62 @@ public class ShadowContextWrapperTest {
     assertThat(transcript).isEmpty();
   }
 
+  @Test
+  public void unregisterReceiver_shouldOnlyUnregisterThatReceiver() throws Exception {
+    BroadcastReceiver larry = broadcastReceiver("Larry");
+    BroadcastReceiver bob = broadcastReceiver("Bob");
+    BroadcastReceiver carol = broadcastReceiver("Carol");
+
+    contextWrapper.registerReceiver(larry, intentFilter("foo", "baz"));
+    contextWrapper.registerReceiver(bob, intentFilter("foo"));
+    contextWrapper.registerReceiver(carol, intentFilter("baz", "foo"));
+    contextWrapper.unregisterReceiver(bob);
+
+    contextWrapper.sendBroadcast(new Intent("foo"));
+    contextWrapper.sendBroadcast(new Intent("baz"));
+    assertThat(transcript)
+        .containsExactly(
+            "Larry notified of foo",
+            "Carol notified of foo",
+            "Larry notified of baz",
+            "Carol notified of baz")
+        .inOrder();
+  }
+
+  @Test
+  public void modifyingRegisteredReceivers_shouldUnregisterAndReregisterReceivers()
+      throws Exception {
+    BroadcastReceiver larryReceiver = broadcastReceiver("Larry");
+    contextWrapper.registerReceiver(larryReceiver, intentFilter("foo", "baz"));
+    contextWrapper.registerReceiver(broadcastReceiver("Bob"), intentFilter("foo"));
+    List<ShadowApplication.Wrapper> registeredReceivers =
+        shadowOf((Application) context).getRegisteredReceivers();
+
+    ShadowApplication.Wrapper larry = null;
+    for (ShadowApplication.Wrapper wrapper : registeredReceivers) {
+      if (wrapper.broadcastReceiver == larryReceiver) {
+        larry = wrapper;
+      }
+    }
+    assertThat(registeredReceivers.remove(larry)).isTrue();
+    contextWrapper.sendBroadcast(new Intent("foo"));
+    contextWrapper.sendBroadcast(new Intent("baz"));
+    assertThat(transcript).containsExactly("Bob notified of foo");
+
+    transcript.clear();
+    registeredReceivers.add(larry);
+    contextWrapper.sendBroadcast(new Intent("foo"));
+    contextWrapper.sendBroadcast(new Intent("baz"));
+    assertThat(transcript)
+        .containsExactly("Bob notified of foo", "Larry notified of foo", "Larry notified of baz")
+        .inOrder();
+
+    transcript.clear();
+    registeredReceivers.clear();
+    contextWrapper.sendBroadcast(new Intent("foo"));
+    assertThat(transcript).isEmpty();
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void unregisterReceiver_shouldThrowExceptionWhenReceiverIsNotRegistered() throws Exception {
     contextWrapper.unregisterReceiver(new AppWidgetProvider());
@@ -329,6 +385,20 @@ public class ShadowContextWrapperTest {
     assertThat(sticker).isNotNull();
   }
 
+  @Test
+  public void afterSendStickyBroadcast_stickyIntentsShouldBeDeliveredInTheOrderSent() {
+    contextWrapper.sendStickyBroadcast(new Intent("baz"));
+    contextWrapper.sendStickyBroadcast(new Intent("womp"));
+    contextWrapper.sendStickyBroadcast(new Intent("foo"));
+
+    Intent sticker =
+        contextWrapper.registerReceiver(broadcastReceiver("Larry"), intentFilter("foo", "baz"));
+    assertThat(transcript)
+        .containsExactly("Larry notified of baz", "Larry notified of foo")
+        .inOrder();
+    assertThat(sticker.getAction()).isEqualTo("baz");
+  }
+
   @Test
   public void shouldReturnSameApplicationEveryTime() throws Exception {
     Activity activity = new Activity();
@@ -523,6 +523,30 @@ public class ShadowMatrixTest {
         .containsExactly(0.0f, 0.0f, 2.0f, 6.0f);
   }
 
+  @Test
+  public void testMapRect_shouldMapAllCorners() {
+    final Matrix matrix = new Matrix();
+    matrix.setRotate(45.0f);
+    final RectF output = new RectF();
+    assertThat(matrix.mapRect(output, new RectF(0.0f, 0.0f, 1.0f, 1.0f)))
+        .isFalse();
+    assertThat(output.left).isWithin(EPSILON).of(-0.70710677f);
+    assertThat(output.top).isWithin(EPSILON).of(0.0f);
+    assertThat(output.right).isWithin(EPSILON).of(0.70710677f);
+    assertThat(output.bottom).isWithin(EPSILON).of(1.4142135f);
+  }
+
+  @Test
+  public void testMapPoints_withPerspective() {
+    final Matrix matrix = new Matrix();
+    matrix.setValues(new float[] { 1.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f, 0.0f, 0.0f, 2.0f });
+    final float[] output = new float[4];
+    matrix.mapPoints(output, new float[] { 2.0f, 4.0f, 6.0f, 8.0f });
+    assertThat(output)
+        .usingExactEquality()
+        .containsExactly(1.0f, 2.0f, 3.0f, 4.0f);
+  }
+
   private static PointF mapPoint(Matrix matrix, float x, float y) {
     return shadowOf(matrix).mapPoint(x, y);
   }
@@ -4,6 +4,7 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.robolectric.Shadows.shadowOf;
 
+import android.os.Parcel;
 import android.view.MotionEvent;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import org.junit.Before;
@@ -70,4 +71,34 @@ public class ShadowMotionEventTest {
     assertEquals(1, event.findPointerIndex(1));
     assertEquals(-1, event.findPointerIndex(3));
   }
+
+  @Test
+  public void canAddManyHistoricalSamples() {
+    for (int i = 1; i <= 1000; i++) {
+      event.addBatch(200 + i, 5.0f + i, 10.0f + i, 1.0f, 1.0f, 0);
+    }
+
+    assertThat(event.getHistorySize()).isEqualTo(1000);
+    assertThat(event.getHistoricalX(0)).isEqualTo(5.0f);
+    assertThat(event.getHistoricalY(500)).isEqualTo(510.0f);
+    assertThat(event.getHistoricalEventTime(999)).isEqualTo(1199);
+    assertThat(event.getX()).isEqualTo(1005.0f);
+    assertThat(event.getEventTime()).isEqualTo(1200);
+  }
+
+  @Test
+  public void parcelingKeepsHistoricalSamples() {
+    for (int i = 1; i <= 100; i++) {
+      event.addBatch(200 + i, 5.0f + i, 10.0f + i, 1.0f, 1.0f, 0);
+    }
+    Parcel parcel = Parcel.obtain();
+    event.writeToParcel(parcel, 0);
+    parcel.setDataPosition(0);
+
+    MotionEvent unparceled = MotionEvent.CREATOR.createFromParcel(parcel);
+
+    assertThat(unparceled.getHistorySize()).isEqualTo(100);
+    assertThat(unparceled.getHistoricalX(50)).isEqualTo(55.0f);
+    assertThat(unparceled.getY()).isEqualTo(110.0f);
+  }
 }
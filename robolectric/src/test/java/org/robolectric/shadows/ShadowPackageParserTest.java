@@ -0,0 +1,60 @@
+package org.robolectric.shadows;
+
+import static android.os.Build.VERSION_CODES.O_MR1;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.pm.PackageParser.Package;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.BootstrapDeferringRobolectricTestRunner;
+import org.robolectric.BootstrapDeferringRobolectricTestRunner.BootstrapWrapper;
+import org.robolectric.BootstrapDeferringRobolectricTestRunner.RoboInject;
+import org.robolectric.annotation.Config;
+import org.robolectric.res.FsFile;
+
+@RunWith(BootstrapDeferringRobolectricTestRunner.class)
+@Config(minSdk = O_MR1)
+public class ShadowPackageParserTest {
+
+  @RoboInject BootstrapWrapper bootstrapWrapper;
+
+  private FsFile apkFile;
+
+  @Before
+  public void setUp() throws Exception {
+    apkFile = bootstrapWrapper.appManifest.getApkFile();
+    assumeTrue(apkFile != null);
+  }
+
+  @Test
+  public void callParsePackage_shouldReturnNewCopyEachTime() throws Exception {
+    Package first = ShadowPackageParser.callParsePackage(apkFile);
+    Package second = ShadowPackageParser.callParsePackage(apkFile);
+
+    assertThat(second).isNotSameAs(first);
+    assertThat(second.applicationInfo).isNotSameAs(first.applicationInfo);
+    assertThat(second.activities).isNotSameAs(first.activities);
+    assertThat(second.packageName).isEqualTo(first.packageName);
+    assertThat(second.activities).hasSize(first.activities.size());
+  }
+
+  @Test
+  public void callParsePackage_shouldNotShareChangesBetweenCopies() throws Exception {
+    Package first = ShadowPackageParser.callParsePackage(apkFile);
+    Package second = ShadowPackageParser.callParsePackage(apkFile);
+    int activityCount = second.activities.size();
+    String className = second.applicationInfo.className;
+
+    first.activities.clear();
+    first.requestedPermissions.add("org.robolectric.ADDED_BY_TEST");
+    first.applicationInfo.className = "org.robolectric.ChangedByTest";
+
+    for (Package copy : new Package[] {second, ShadowPackageParser.callParsePackage(apkFile)}) {
+      assertThat(copy.activities).hasSize(activityCount);
+      assertThat(copy.requestedPermissions).doesNotContain("org.robolectric.ADDED_BY_TEST");
+      assertThat(copy.applicationInfo.className).isEqualTo(className);
+    }
+  }
+}
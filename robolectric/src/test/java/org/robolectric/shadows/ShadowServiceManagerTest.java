@@ -0,0 +1,33 @@
+package org.robolectric.shadows;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.os.IBinder;
+import android.os.ServiceManager;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class ShadowServiceManagerTest {
+
+  @Test
+  public void getService_shouldReturnBinderWithInterface() {
+    IBinder binder = ServiceManager.getService(Context.CLIPBOARD_SERVICE);
+
+    assertThat(binder).isNotNull();
+    assertThat(binder.queryLocalInterface("android.content.IClipboard")).isNotNull();
+  }
+
+  @Test
+  public void getService_shouldReturnSameBinderEachTime() {
+    assertThat(ServiceManager.getService(Context.ALARM_SERVICE))
+        .isSameAs(ServiceManager.getService(Context.ALARM_SERVICE));
+  }
+
+  @Test
+  public void getService_shouldReturnNullForUnknownService() {
+    assertThat(ServiceManager.getService("no such service")).isNull();
+  }
+}
@@ -5,6 +5,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import android.app.Application;
 import android.content.ContentResolver;
+import android.database.ContentObserver;
 import android.provider.Settings;
 import android.provider.Settings.Global;
 import android.provider.Settings.Secure;
@@ -77,6 +78,29 @@ public class ShadowSettingsTest {
     assertThat(Settings.System.getFloat(contentResolver, "property", 10L)).isEqualTo(42.42f);
   }
 
+  @Test
+  public void testSystemGetInt_afterPutString() throws Exception {
+    Settings.System.putString(contentResolver, "property", "1");
+
+    assertThat(Settings.System.getInt(contentResolver, "property", 0)).isEqualTo(0);
+    assertThat(Settings.System.getString(contentResolver, "property")).isEqualTo("1");
+  }
+
+  @Test
+  public void testPut_notifiesObserversOnlyWhenValueChanges() throws Exception {
+    CountingContentObserver observer = new CountingContentObserver();
+    contentResolver.registerContentObserver(
+        Settings.System.getUriFor("property"), false, observer);
+
+    Settings.System.putInt(contentResolver, "property", 1);
+    Settings.System.putInt(contentResolver, "property", 1);
+    Settings.System.putInt(contentResolver, "property", 2);
+    Settings.System.putLong(contentResolver, "property", 2L);
+    Settings.System.putInt(contentResolver, "other property", 1);
+
+    assertThat(observer.changeCount).isEqualTo(3);
+  }
+
   @Test(expected = Settings.SettingNotFoundException.class)
   public void testSystemGetLong_exception() throws Exception {
     Settings.System.getLong(contentResolver, "property");
@@ -209,4 +233,17 @@ public class ShadowSettingsTest {
                 /* def= */ 1))
         .isEqualTo(0);
   }
+
+  private static class CountingContentObserver extends ContentObserver {
+    private int changeCount;
+
+    CountingContentObserver() {
+      super(null);
+    }
+
+    @Override
+    public void onChange(boolean selfChange) {
+      changeCount++;
+    }
+  }
 }
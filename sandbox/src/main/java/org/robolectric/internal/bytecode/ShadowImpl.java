@@ -1,7 +1,16 @@
 package org.robolectric.internal.bytecode;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.robolectric.internal.IShadow;
 import org.robolectric.util.ReflectionHelpers;
+import org.robolectric.util.ReflectionHelpers.ClassParameter;
 
 public class ShadowImpl implements IShadow {
 
@@ -14,6 +23,14 @@ public class ShadowImpl implements IShadow {
             }
           });
 
+  private final ClassValueMap<ConcurrentMap<DirectMethodKey, DirectMethod>> directMethods =
+      new ClassValueMap<ConcurrentMap<DirectMethodKey, DirectMethod>>() {
+        @Override
+        protected ConcurrentMap<DirectMethodKey, DirectMethod> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
   @Override
   @SuppressWarnings("TypeParameterUnusedInFormals")
   public <T> T extract(Object instance) {
@@ -52,21 +69,51 @@ public class ShadowImpl implements IShadow {
 
   @Override @SuppressWarnings(value = {"unchecked", "TypeParameterUnusedInFormals"})
   public <R, T> R directlyOn(T shadowedObject, Class<T> clazz, String methodName, ReflectionHelpers.ClassParameter... paramValues) {
-    String directMethodName = directMethodName(clazz.getName(), methodName);
-    return (R) ReflectionHelpers.callInstanceMethod(clazz, shadowedObject, directMethodName, paramValues);
+    DirectMethod directMethod =
+        findDirectMethod(clazz, methodName, ClassParameter.getClasses(paramValues));
+    if (directMethod.isStatic) {
+      throw new IllegalArgumentException(directMethod.method + " is static");
+    }
+    return (R) directMethod.invoke(shadowedObject, ClassParameter.getValues(paramValues));
   }
 
   @Override @SuppressWarnings(value = {"unchecked", "TypeParameterUnusedInFormals"})
   public <R, T> R directlyOn(Class<T> clazz, String methodName, ReflectionHelpers.ClassParameter... paramValues) {
-    String directMethodName = directMethodName(clazz.getName(), methodName);
-    return (R) ReflectionHelpers.callStaticMethod(clazz, directMethodName, paramValues);
+    DirectMethod directMethod =
+        findDirectMethod(clazz, methodName, ClassParameter.getClasses(paramValues));
+    if (!directMethod.isStatic) {
+      throw new IllegalArgumentException(directMethod.method + " is not static");
+    }
+    return (R) directMethod.invoke(null, ClassParameter.getValues(paramValues));
   }
 
   @Override @SuppressWarnings(value = {"unchecked", "TypeParameterUnusedInFormals"})
   public <R> R invokeConstructor(Class<? extends R> clazz, R instance, ReflectionHelpers.ClassParameter... paramValues) {
-    String directMethodName =
-        directMethodName(clazz.getName(), ShadowConstants.CONSTRUCTOR_METHOD_NAME);
-    return (R) ReflectionHelpers.callInstanceMethod(clazz, instance, directMethodName, paramValues);
+    DirectMethod directMethod = findDirectMethod(
+        clazz, ShadowConstants.CONSTRUCTOR_METHOD_NAME, ClassParameter.getClasses(paramValues));
+    return (R) directMethod.invoke(instance, ClassParameter.getValues(paramValues));
+  }
+
+  @Override
+  public MethodHandle directMethodHandle(Class<?> clazz, String methodName,
+      Class<?>... parameterTypes) {
+    return findDirectMethod(clazz, methodName, parameterTypes).handle;
+  }
+
+  private DirectMethod findDirectMethod(Class<?> clazz, String methodName,
+      Class<?>[] parameterTypes) {
+    ConcurrentMap<DirectMethodKey, DirectMethod> classDirectMethods = directMethods.get(clazz);
+    DirectMethodKey key = new DirectMethodKey(methodName, parameterTypes);
+    DirectMethod directMethod = classDirectMethods.get(key);
+    if (directMethod == null) {
+      directMethod = new DirectMethod(clazz, directMethodName(clazz.getName(), methodName),
+          parameterTypes);
+      DirectMethod existing = classDirectMethods.putIfAbsent(key, directMethod);
+      if (existing != null) {
+        directMethod = existing;
+      }
+    }
+    return directMethod;
   }
 
   @Override
@@ -76,4 +123,71 @@ public class ShadowImpl implements IShadow {
       + "$" + methodName;
   }
 
+  private static class DirectMethodKey {
+    private final String methodName;
+    private final Class<?>[] parameterTypes;
+
+    DirectMethodKey(String methodName, Class<?>[] parameterTypes) {
+      this.methodName = methodName;
+      this.parameterTypes = parameterTypes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof DirectMethodKey)) {
+        return false;
+      }
+      DirectMethodKey that = (DirectMethodKey) o;
+      return methodName.equals(that.methodName)
+          && Arrays.equals(parameterTypes, that.parameterTypes);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * methodName.hashCode() + Arrays.hashCode(parameterTypes);
+    }
+  }
+
+  /**
+   * The original implementation of an instrumented method, bound once. {@link #handle} has the
+   * method's exact type (with the receiver first for instance methods); {@link #spreader} takes
+   * the receiver and an argument array for use by the reflective {@code directlyOn} variants.
+   */
+  private static class DirectMethod {
+    private final Method method;
+    private final boolean isStatic;
+    private final MethodHandle handle;
+    private final MethodHandle spreader;
+
+    DirectMethod(Class<?> clazz, String directMethodName, Class<?>[] parameterTypes) {
+      try {
+        method = clazz.getDeclaredMethod(directMethodName, parameterTypes);
+        method.setAccessible(true);
+        handle = MethodHandles.lookup().unreflect(method);
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        throw new RuntimeException(e);
+      }
+      isStatic = Modifier.isStatic(method.getModifiers());
+
+      MethodHandle generic = isStatic
+          ? MethodHandles.dropArguments(handle, 0, Object.class)
+          : handle;
+      spreader = generic
+          .asType(MethodType.genericMethodType(parameterTypes.length + 1))
+          .asSpreader(Object[].class, parameterTypes.length);
+    }
+
+    Object invoke(Object target, Object[] args) {
+      try {
+        return (Object) spreader.invokeExact(target, args);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new RuntimeException(t);
+      }
+    }
+  }
 }
@@ -3,6 +3,7 @@ package org.robolectric.internal.bytecode;
 import java.util.Objects;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.Implements.DefaultShadowPicker;
+import org.robolectric.internal.ShadowAttributes;
 import org.robolectric.shadow.api.ShadowPicker;
 
 @SuppressWarnings("NewApi")
@@ -46,6 +47,22 @@ public class ShadowInfo {
         annotation.shadowPicker());
   }
 
+  ShadowInfo(ShadowAttributes attributes) {
+    this(attributes.shadowedClassName,
+        attributes.shadowClassName,
+        attributes.callThroughByDefault,
+        attributes.looseSignatures,
+        attributes.minSdk,
+        attributes.maxSdk,
+        null);
+  }
+
+  /** Returns the attributes of this shadow, less its shadow picker class. */
+  ShadowAttributes toShadowAttributes() {
+    return new ShadowAttributes(
+        shadowedClassName, shadowClassName, callThroughByDefault, looseSignatures, minSdk, maxSdk);
+  }
+
   public boolean supportsSdk(int sdkInt) {
     return minSdk <= sdkInt && (maxSdk == -1 || maxSdk >= sdkInt);
   }
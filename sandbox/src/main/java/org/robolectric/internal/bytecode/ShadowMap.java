@@ -1,13 +1,20 @@
 package org.robolectric.internal.bytecode;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Sets;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.robolectric.annotation.Implements;
+import org.robolectric.internal.ShadowAttributes;
 import org.robolectric.internal.ShadowProvider;
 import org.robolectric.shadow.api.ShadowPicker;
 
@@ -25,31 +32,74 @@ public class ShadowMap {
 
   static final ShadowMap EMPTY = new ShadowMap(ImmutableMap.of(), ImmutableMap.of());
 
+  /** Shadows whose attributes must be read from their annotations, by canonical class name. */
   private final ImmutableMap<String, String> defaultShadows;
+  /** Shadows whose attributes were resolved at build time, by binary class name. */
+  private final ImmutableMap<String, ShadowInfo> indexedShadows;
   private final ImmutableMap<String, ShadowInfo> overriddenShadows;
   private final ImmutableMap<String, String> shadowPickers;
+  /**
+   * The shadow picked by each {@link ShadowPicker} class, by sandbox class loader. A sandbox's SDK
+   * level and resources mode never change, so each picker only needs to be consulted once per
+   * sandbox. Shared by all maps built from the same base map.
+   *
+   * <p>The values mustn't refer to any class loaded by the sandbox, or they'd keep their class
+   * loader from being collected; hence they're {@link ShadowAttributes} rather than {@link
+   * ShadowInfo}s, which refer to their shadow picker class.
+   */
+  private final ConcurrentMap<ClassLoader, ConcurrentMap<String, Optional<ShadowAttributes>>>
+      pickedShadows;
 
   public static ShadowMap createFromShadowProviders(Iterable<ShadowProvider> shadowProviders) {
     final Map<String, String> shadowMap = new HashMap<>();
+    final Map<String, ShadowInfo> indexedShadowMap = new HashMap<>();
     final Map<String, String> shadowPickerMap = new HashMap<>();
     for (ShadowProvider provider : shadowProviders) {
-       shadowMap.putAll(provider.getShadowMap());
-       shadowPickerMap.putAll(provider.getShadowPickerMap());
+      Map<String, ShadowAttributes> shadowAttributes = provider.getShadowAttributes();
+      // later providers win, whether or not they index their shadows
+      for (Map.Entry<String, String> entry : provider.getShadowMap().entrySet()) {
+        String className = entry.getKey();
+        ShadowAttributes attributes = shadowAttributes.get(className);
+        if (attributes != null && attributes.shadowClassName.equals(entry.getValue())) {
+          indexedShadowMap.put(className, new ShadowInfo(attributes));
+          shadowMap.remove(className);
+        } else {
+          shadowMap.put(className, entry.getValue());
+          indexedShadowMap.remove(className);
+        }
+      }
+      shadowPickerMap.putAll(provider.getShadowPickerMap());
+    }
+
+    Map<String, ShadowInfo> indexedShadows = new HashMap<>();
+    for (ShadowInfo shadowInfo : indexedShadowMap.values()) {
+      indexedShadows.put(shadowInfo.shadowedClassName, shadowInfo);
     }
-    return new ShadowMap(ImmutableMap.copyOf(shadowMap), Collections.emptyMap(),
-        ImmutableMap.copyOf(shadowPickerMap));
+    return new ShadowMap(ImmutableMap.copyOf(shadowMap), ImmutableMap.copyOf(indexedShadows),
+        Collections.emptyMap(), ImmutableMap.copyOf(shadowPickerMap), newPickedShadows());
   }
 
   ShadowMap(ImmutableMap<String, String> defaultShadows, Map<String, ShadowInfo> overriddenShadows) {
-    this(defaultShadows, overriddenShadows, Collections.emptyMap());
+    this(defaultShadows, ImmutableMap.of(), overriddenShadows, Collections.emptyMap(),
+        newPickedShadows());
   }
 
   private ShadowMap(ImmutableMap<String, String> defaultShadows,
+      ImmutableMap<String, ShadowInfo> indexedShadows,
       Map<String, ShadowInfo> overriddenShadows,
-      Map<String, String> shadowPickers) {
+      Map<String, String> shadowPickers,
+      ConcurrentMap<ClassLoader, ConcurrentMap<String, Optional<ShadowAttributes>>>
+          pickedShadows) {
     this.defaultShadows = defaultShadows;
+    this.indexedShadows = indexedShadows;
     this.overriddenShadows = ImmutableMap.copyOf(overriddenShadows);
     this.shadowPickers = ImmutableMap.copyOf(shadowPickers);
+    this.pickedShadows = pickedShadows;
+  }
+
+  private static ConcurrentMap<ClassLoader, ConcurrentMap<String, Optional<ShadowAttributes>>>
+      newPickedShadows() {
+    return new MapMaker().weakKeys().makeMap();
   }
 
   public ShadowInfo getShadowInfo(Class<?> clazz, int apiLevel) {
@@ -61,6 +111,10 @@ public class ShadowMap {
     }
 
     if (shadowInfo == null && clazz.getClassLoader() != null) {
+      shadowInfo = indexedShadows.get(instrumentedClassName);
+    }
+
+    if (shadowInfo == null && clazz.getClassLoader() != null && !defaultShadows.isEmpty()) {
       try {
         final String shadowName = defaultShadows.get(clazz.getCanonicalName());
         if (shadowName != null) {
@@ -83,7 +137,6 @@ public class ShadowMap {
     return shadowInfo;
   }
 
-  // todo: some caching would probably be nice here...
   private ShadowInfo checkShadowPickers(String instrumentedClassName, Class<?> clazz) {
     String shadowPickerClassName = shadowPickers.get(instrumentedClassName);
     if (shadowPickerClassName == null) {
@@ -91,6 +144,27 @@ public class ShadowMap {
     }
 
     ClassLoader classLoader = clazz.getClassLoader();
+    ConcurrentMap<String, Optional<ShadowAttributes>> sandboxPickedShadows =
+        pickedShadows.computeIfAbsent(classLoader, key -> new ConcurrentHashMap<>());
+    Optional<ShadowAttributes> pickedShadow = sandboxPickedShadows.get(shadowPickerClassName);
+    if (pickedShadow == null) {
+      pickedShadow =
+          Optional.ofNullable(pickShadow(shadowPickerClassName, instrumentedClassName, classLoader))
+              .map(ShadowInfo::toShadowAttributes);
+      sandboxPickedShadows.put(shadowPickerClassName, pickedShadow);
+    }
+
+    ShadowInfo shadowInfo = pickedShadow.map(ShadowInfo::new).orElse(null);
+    if (shadowInfo != null && !shadowInfo.shadowedClassName.equals(instrumentedClassName)) {
+      throw new IllegalArgumentException("Implemented class for "
+          + shadowInfo.shadowClassName + " (" + shadowInfo.shadowedClassName + ") != "
+          + instrumentedClassName);
+    }
+    return shadowInfo;
+  }
+
+  private static ShadowInfo pickShadow(String shadowPickerClassName, String instrumentedClassName,
+      ClassLoader classLoader) {
     try {
       Class<? extends ShadowPicker<?>> shadowPickerClass =
           (Class<? extends ShadowPicker<?>>) classLoader.loadClass(shadowPickerClassName);
@@ -99,15 +173,7 @@ public class ShadowMap {
       if (selectedShadowClass == null) {
         return obtainShadowInfo(Object.class, true);
       }
-      ShadowInfo shadowInfo = obtainShadowInfo(selectedShadowClass);
-
-      if (!shadowInfo.shadowedClassName.equals(instrumentedClassName)) {
-        throw new IllegalArgumentException("Implemented class for "
-            + selectedShadowClass.getName() + " (" + shadowInfo.shadowedClassName + ") != "
-            + instrumentedClassName);
-      }
-
-      return shadowInfo;
+      return obtainShadowInfo(selectedShadowClass);
     } catch (ClassNotFoundException | NoSuchMethodException | InvocationTargetException
         | IllegalAccessException | InstantiationException e) {
       throw new RuntimeException("Failed to resolve shadow picker for " + instrumentedClassName,
@@ -136,9 +202,15 @@ public class ShadowMap {
     return new ShadowInfo(className, clazz.getName(), annotation);
   }
 
+  /**
+   * Returns the names of classes whose shadows may differ between {@code previous} and this map.
+   *
+   * Classes with shadow pickers are only included if their picker changed, since a picker always
+   * picks the same shadow within a sandbox.
+   */
   @SuppressWarnings("ReferenceEquality")
   public Set<String> getInvalidatedClasses(ShadowMap previous) {
-    if (this == previous && shadowPickers.isEmpty()) return Collections.emptySet();
+    if (this == previous) return Collections.emptySet();
 
     Map<String, ShadowInfo> invalidated = new HashMap<>(overriddenShadows);
 
@@ -154,7 +226,11 @@ public class ShadowMap {
     }
 
     HashSet<String> classNames = new HashSet<>(invalidated.keySet());
-    classNames.addAll(shadowPickers.keySet());
+    for (String className : Sets.union(shadowPickers.keySet(), previous.shadowPickers.keySet())) {
+      if (!Objects.equals(shadowPickers.get(className), previous.shadowPickers.get(className))) {
+        classNames.add(className);
+      }
+    }
     return classNames;
   }
 
@@ -192,19 +268,26 @@ public class ShadowMap {
 
   public static class Builder {
     private final ImmutableMap<String, String> defaultShadows;
+    private final ImmutableMap<String, ShadowInfo> indexedShadows;
     private final Map<String, ShadowInfo> overriddenShadows;
     private final Map<String, String> shadowPickers;
+    private final ConcurrentMap<ClassLoader, ConcurrentMap<String, Optional<ShadowAttributes>>>
+        pickedShadows;
 
     public Builder () {
       defaultShadows = ImmutableMap.of();
+      indexedShadows = ImmutableMap.of();
       overriddenShadows = new HashMap<>();
       shadowPickers = new HashMap<>();
+      pickedShadows = newPickedShadows();
     }
 
     public Builder(ShadowMap shadowMap) {
       this.defaultShadows = shadowMap.defaultShadows;
+      this.indexedShadows = shadowMap.indexedShadows;
       this.overriddenShadows = new HashMap<>(shadowMap.overriddenShadows);
       this.shadowPickers = new HashMap<>(shadowMap.shadowPickers);
+      this.pickedShadows = shadowMap.pickedShadows;
     }
 
     public Builder addShadowClasses(Class<?>... shadowClasses) {
@@ -239,7 +322,8 @@ public class ShadowMap {
     }
 
     public ShadowMap build() {
-      return new ShadowMap(defaultShadows, overriddenShadows, shadowPickers);
+      return new ShadowMap(
+          defaultShadows, indexedShadows, overriddenShadows, shadowPickers, pickedShadows);
     }
   }
 }
@@ -0,0 +1,66 @@
+package org.robolectric;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.robolectric.util.reflector.Reflector.reflector;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.annotation.internal.Instrument;
+import org.robolectric.internal.SandboxTestRunner;
+import org.robolectric.internal.bytecode.SandboxConfig;
+import org.robolectric.util.reflector.Direct;
+import org.robolectric.util.reflector.ForType;
+
+@SandboxConfig(shadows = {ReflectorDirectTest.ShadowCounter.class})
+@RunWith(SandboxTestRunner.class)
+public class ReflectorDirectTest {
+
+  @Test
+  public void direct_shouldCallOriginalImplementation() {
+    Counter counter = new Counter();
+    assertThat(counter.increment(2)).isEqualTo(-1);
+    assertThat(counter.count).isEqualTo(0);
+
+    assertThat(reflector(_Counter_.class, counter).increment(2)).isEqualTo(2);
+    assertThat(counter.count).isEqualTo(2);
+  }
+
+  @Test
+  public void nonDirect_shouldCallShadow() {
+    Counter counter = new Counter();
+
+    assertThat(reflector(_ShadowedCounter_.class, counter).increment(2)).isEqualTo(-1);
+    assertThat(counter.count).isEqualTo(0);
+  }
+
+  @Instrument
+  public static class Counter {
+    public int count;
+
+    public int increment(int by) {
+      count += by;
+      return count;
+    }
+  }
+
+  @Implements(Counter.class)
+  public static class ShadowCounter {
+    @Implementation
+    protected int increment(int by) {
+      return -1;
+    }
+  }
+
+  @ForType(Counter.class)
+  interface _Counter_ {
+    @Direct
+    int increment(int by);
+  }
+
+  @ForType(Counter.class)
+  interface _ShadowedCounter_ {
+    int increment(int by);
+  }
+}
@@ -7,6 +7,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import org.junit.Test;
@@ -20,6 +21,7 @@ import org.robolectric.internal.bytecode.ShadowConstants;
 import org.robolectric.shadow.api.Shadow;
 import org.robolectric.testing.AnUninstrumentedClass;
 import org.robolectric.testing.Pony;
+import org.robolectric.util.ReflectionHelpers.ClassParameter;
 
 @RunWith(SandboxTestRunner.class)
 public class ShadowingTest {
@@ -138,6 +140,29 @@ public class ShadowingTest {
     assertEquals("Fake whinny! You're on my haunches!", pony.ride("haunches"));
   }
 
+  @Test
+  @SandboxConfig(shadows = {Pony.ShadowPony.class})
+  public void directlyOnByName_shouldCallThroughToOriginalMethodBody() throws Exception {
+    Pony pony = new Pony();
+
+    for (int i = 0; i < 2; i++) {
+      String result = Shadow.directlyOn(pony, Pony.class, "ride",
+          ClassParameter.from(String.class, "neck"));
+      assertEquals("Whinny! You're on my neck!", result);
+    }
+    assertEquals("Fake whinny! You're on my haunches!", pony.ride("haunches"));
+  }
+
+  @Test
+  @SandboxConfig(shadows = {Pony.ShadowPony.class})
+  public void directMethodHandle_shouldCallThroughToOriginalMethodBody() throws Throwable {
+    Pony pony = new Pony();
+    MethodHandle ride = Shadow.directMethodHandle(Pony.class, "ride", String.class);
+
+    assertEquals("Whinny! You're on my neck!", (String) ride.invokeExact(pony, "neck"));
+    assertThat(Shadow.directMethodHandle(Pony.class, "ride", String.class)).isSameAs(ride);
+  }
+
   @Test
   @SandboxConfig(shadows = {Pony.ShadowPony.class})
   public void shouldCallRealForUnshadowedMethod() throws Exception {
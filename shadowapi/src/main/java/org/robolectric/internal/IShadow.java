@@ -1,5 +1,6 @@
 package org.robolectric.internal;
 
+import java.lang.invoke.MethodHandle;
 import org.robolectric.util.ReflectionHelpers;
 
 @SuppressWarnings("TypeParameterUnusedInFormals")
@@ -21,5 +22,7 @@ public interface IShadow {
 
   <R> R invokeConstructor(Class<? extends R> clazz, R instance, ReflectionHelpers.ClassParameter... paramValues);
 
+  MethodHandle directMethodHandle(Class<?> clazz, String methodName, Class<?>... parameterTypes);
+
   String directMethodName(String className, String methodName);
 }
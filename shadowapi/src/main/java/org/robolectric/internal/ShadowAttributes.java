@@ -0,0 +1,34 @@
+package org.robolectric.internal;
+
+/**
+ * The attributes of a shadow's {@code @Implements} annotation, as resolved by the Robolectric
+ * annotation processor at build time.
+ *
+ * @see ShadowProvider#getShadowAttributes()
+ */
+public final class ShadowAttributes {
+
+  /** The binary name of the shadowed class. */
+  public final String shadowedClassName;
+  /** The binary name of the shadow class. */
+  public final String shadowClassName;
+  public final boolean callThroughByDefault;
+  public final boolean looseSignatures;
+  public final int minSdk;
+  public final int maxSdk;
+
+  public ShadowAttributes(
+      String shadowedClassName,
+      String shadowClassName,
+      boolean callThroughByDefault,
+      boolean looseSignatures,
+      int minSdk,
+      int maxSdk) {
+    this.shadowedClassName = shadowedClassName;
+    this.shadowClassName = shadowClassName;
+    this.callThroughByDefault = callThroughByDefault;
+    this.looseSignatures = looseSignatures;
+    this.minSdk = minSdk;
+    this.maxSdk = maxSdk;
+  }
+}
@@ -38,4 +38,17 @@ public interface ShadowProvider {
   default Map<String, String> getShadowPickerMap() {
     return Collections.emptyMap();
   }
+
+  /**
+   * Map of the framework classes in {@link #getShadowMap()} to the attributes of their shadows,
+   * so they needn't be loaded and have their annotations read at runtime.
+   *
+   * Classes which are missing from this map are resolved reflectively, as before.
+   *
+   * @return A map from the name of the framework class, as in {@link #getShadowMap()}, to the
+   *     attributes of its shadow.
+   */
+  default Map<String, ShadowAttributes> getShadowAttributes() {
+    return Collections.emptyMap();
+  }
 }
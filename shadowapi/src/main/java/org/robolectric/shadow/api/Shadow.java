@@ -1,5 +1,6 @@
 package org.robolectric.shadow.api;
 
+import java.lang.invoke.MethodHandle;
 import org.robolectric.internal.IShadow;
 import org.robolectric.util.ReflectionHelpers.ClassParameter;
 
@@ -65,6 +66,20 @@ public class Shadow {
     return SHADOW_IMPL.invokeConstructor(clazz, instance, paramValues);
   }
 
+  /**
+   * Returns a handle to the original (non-shadowed) implementation of a method, with the method's
+   * exact type (and the receiver as the first parameter, for instance methods). Unlike the {@code
+   * directlyOn} variants, calling it involves no proxy, reflection, or argument boxing, so it's
+   * suitable for hot paths when kept in a {@code static final} field and called with {@link
+   * MethodHandle#invokeExact}.
+   *
+   * @since 4.1
+   */
+  public static MethodHandle directMethodHandle(Class<?> clazz, String methodName,
+      Class<?>... parameterTypes) {
+    return SHADOW_IMPL.directMethodHandle(clazz, methodName, parameterTypes);
+  }
+
   public static String directMethodName(String className, String methodName) {
     return SHADOW_IMPL.directMethodName(className, methodName);
   }
@@ -1,5 +1,12 @@
 package org.robolectric.shadow.api;
 
+/**
+ * Picks which of several shadows to use for a framework class.
+ *
+ * <p>A picker is consulted at most once per sandbox, and its choice is used for the rest of the
+ * sandbox's life, so it should only depend on state which is fixed for a sandbox, such as the SDK
+ * level or resources mode.
+ */
 public interface ShadowPicker<T> {
   Class<? extends T> pickShadowClass();
 }
@@ -1,6 +1,8 @@
 package org.robolectric.util;
 
 import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
@@ -8,15 +10,28 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Collection of helper methods for calling methods and accessing fields reflectively.
+ *
+ * <p>Looked-up members (and failed lookups) are cached per class, so repeated calls don't search
+ * the class hierarchy again; {@link #reportStats(StatsConsumer)} reports how often each class's
+ * members are accessed.
  */
 @SuppressWarnings(value = {"unchecked", "TypeParameterUnusedInFormals"})
 public class ReflectionHelpers {
+  private static final Class<?>[] NO_CLASSES = new Class<?>[0];
+
   public static final Map<String, Object> PRIMITIVE_RETURN_VALUES =
       Collections.unmodifiableMap(new HashMap<String, Object>() {{
         put("boolean", Boolean.FALSE);
@@ -104,14 +119,8 @@ public class ReflectionHelpers {
   @SuppressWarnings("unchecked")
   public static <R> R getField(final Object object, final String fieldName) {
     try {
-      return traverseClassHierarchy(object.getClass(), NoSuchFieldException.class, new InsideTraversal<R>() {
-        @Override
-        public R run(Class<?> traversalClass) throws Exception {
-          Field field = traversalClass.getDeclaredField(fieldName);
-          field.setAccessible(true);
-          return (R) field.get(object);
-        }
-      });
+      return (R) findMember(object.getClass(), MemberKind.FIELD, fieldName, NO_CLASSES, Field.class)
+          .get(object);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -126,15 +135,8 @@ public class ReflectionHelpers {
    */
   public static void setField(final Object object, final String fieldName, final Object fieldNewValue) {
     try {
-      traverseClassHierarchy(object.getClass(), NoSuchFieldException.class, new InsideTraversal<Void>() {
-        @Override
-        public Void run(Class<?> traversalClass) throws Exception {
-          Field field = traversalClass.getDeclaredField(fieldName);
-          field.setAccessible(true);
-          field.set(object, fieldNewValue);
-          return null;
-        }
-      });
+      findMember(object.getClass(), MemberKind.FIELD, fieldName, NO_CLASSES, Field.class)
+          .set(object, fieldNewValue);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -150,9 +152,8 @@ public class ReflectionHelpers {
    */
   public static void setField(Class<?> type, final Object object, final String fieldName, final Object fieldNewValue) {
     try {
-      Field field = type.getDeclaredField(fieldName);
-      field.setAccessible(true);
-      field.set(object, fieldNewValue);
+      findMember(type, MemberKind.DECLARED_FIELD, fieldName, NO_CLASSES, Field.class)
+          .set(object, fieldNewValue);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -185,7 +186,8 @@ public class ReflectionHelpers {
    */
   public static <R> R getStaticField(Class<?> clazz, String fieldName) {
     try {
-      return getStaticField(clazz.getDeclaredField(fieldName));
+      return (R) findMember(clazz, MemberKind.STATIC_FIELD, fieldName, NO_CLASSES, Field.class)
+          .get(null);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -215,7 +217,8 @@ public class ReflectionHelpers {
    */
   public static void setStaticField(Class<?> clazz, String fieldName, Object fieldNewValue) {
     try {
-      setStaticField(clazz.getDeclaredField(fieldName), fieldNewValue);
+      findMember(clazz, MemberKind.STATIC_FIELD, fieldName, NO_CLASSES, Field.class)
+          .set(null, fieldNewValue);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -235,15 +238,9 @@ public class ReflectionHelpers {
       final Class<?>[] classes = ClassParameter.getClasses(classParameters);
       final Object[] values = ClassParameter.getValues(classParameters);
 
-      return traverseClassHierarchy(instance.getClass(), NoSuchMethodException.class, new InsideTraversal<R>() {
-        @Override
-        @SuppressWarnings("unchecked")
-        public R run(Class<?> traversalClass) throws Exception {
-          Method declaredMethod = traversalClass.getDeclaredMethod(methodName, classes);
-          declaredMethod.setAccessible(true);
-          return (R) declaredMethod.invoke(instance, values);
-        }
-      });
+      Method method =
+          findMember(instance.getClass(), MemberKind.METHOD, methodName, classes, Method.class);
+      return (R) method.invoke(instance, values);
     } catch (InvocationTargetException e) {
       if (e.getTargetException() instanceof RuntimeException) {
         throw (RuntimeException) e.getTargetException();
@@ -272,8 +269,8 @@ public class ReflectionHelpers {
       final Class<?>[] classes = ClassParameter.getClasses(classParameters);
       final Object[] values = ClassParameter.getValues(classParameters);
 
-      Method method = cl.getDeclaredMethod(methodName, classes);
-      method.setAccessible(true);
+      Method method =
+          findMember(cl, MemberKind.DECLARED_METHOD, methodName, classes, Method.class);
       if (Modifier.isStatic(method.getModifiers())) {
         throw new IllegalArgumentException(method + " is static");
       }
@@ -306,8 +303,8 @@ public class ReflectionHelpers {
       Class<?>[] classes = ClassParameter.getClasses(classParameters);
       Object[] values = ClassParameter.getValues(classParameters);
 
-      Method method = clazz.getDeclaredMethod(methodName, classes);
-      method.setAccessible(true);
+      Method method =
+          findMember(clazz, MemberKind.DECLARED_METHOD, methodName, classes, Method.class);
       if (!Modifier.isStatic(method.getModifiers())) {
         throw new IllegalArgumentException(method + " is not static");
       }
@@ -371,8 +368,8 @@ public class ReflectionHelpers {
       final Class<?>[] classes = ClassParameter.getClasses(classParameters);
       final Object[] values = ClassParameter.getValues(classParameters);
 
-      Constructor<? extends R> constructor = clazz.getDeclaredConstructor(classes);
-      constructor.setAccessible(true);
+      Constructor<? extends R> constructor =
+          findMember(clazz, MemberKind.CONSTRUCTOR, "<init>", classes, Constructor.class);
       return constructor.newInstance(values);
     } catch (InstantiationException e) {
       throw new RuntimeException("error instantiating " + clazz.getName(), e);
@@ -389,20 +386,257 @@ public class ReflectionHelpers {
     }
   }
 
-  private static <R, E extends Exception> R traverseClassHierarchy(Class<?> targetClass, Class<? extends E> exceptionClass, InsideTraversal<R> insideTraversal) throws Exception {
-    Class<?> hierarchyTraversalClass = targetClass;
-    while (true) {
-      try {
-        return insideTraversal.run(hierarchyTraversalClass);
-      } catch (Exception e) {
-        if (!exceptionClass.isInstance(e)) {
-          throw e;
+  /**
+   * Reports, for every class whose members have been accessed since the previous call, the number
+   * of reflective calls made and how many of those had to look up the member, then resets the
+   * counts.
+   */
+  public static void reportStats(StatsConsumer statsConsumer) {
+    Iterator<WeakReference<MemberCache>> iterator = ALL_MEMBER_CACHES.iterator();
+    while (iterator.hasNext()) {
+      MemberCache memberCache = iterator.next().get();
+      if (memberCache == null) {
+        iterator.remove();
+        continue;
+      }
+
+      int calls = saturatedInt(memberCache.calls.getAndSet(0));
+      int lookups = saturatedInt(memberCache.lookups.getAndSet(0));
+      if (calls > 0) {
+        statsConsumer.accept(memberCache.className, calls, lookups);
+      }
+    }
+  }
+
+  /** Receives the reflection counts for a class; see {@link #reportStats(StatsConsumer)}. */
+  public interface StatsConsumer {
+    void accept(String className, int calls, int lookups);
+  }
+
+  private static int saturatedInt(long value) {
+    return (int) Math.min(value, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns the accessible member of {@code type} (or, for {@link MemberKind#FIELD} and {@link
+   * MemberKind#METHOD}, of its closest superclass declaring it) with the given name and parameter
+   * types. Both found and missing members are cached.
+   */
+  private static <T> T findMember(Class<?> type, MemberKind kind, String name,
+      Class<?>[] parameterTypes, Class<T> memberClass) throws ReflectiveOperationException {
+    try {
+      return memberClass.cast(memberCacheFor(type).find(kind, name, parameterTypes));
+    } catch (NoSuchFieldException | NoSuchMethodException e) {
+      if (kind == MemberKind.FIELD || kind == MemberKind.METHOD) {
+        throw new RuntimeException(e);
+      }
+      throw e;
+    }
+  }
+
+  private static final Queue<WeakReference<MemberCache>> ALL_MEMBER_CACHES =
+      new ConcurrentLinkedQueue<>();
+
+  private static final boolean CACHE_MEMBERS = isClassValueAvailable();
+
+  private static boolean isClassValueAvailable() {
+    try {
+      Class.forName("java.lang.ClassValue");
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  private static MemberCache memberCacheFor(Class<?> type) {
+    return CACHE_MEMBERS ? MemberCaches.MEMBER_CACHES.get(type) : new MemberCache(type);
+  }
+
+  /**
+   * Holds the {@link ClassValue}, which doesn't exist on Android (where this class may also be
+   * used), so it's only loaded if available; otherwise members aren't cached.
+   */
+  private static class MemberCaches {
+    static final ClassValue<MemberCache> MEMBER_CACHES = new ClassValue<MemberCache>() {
+      @Override
+      protected MemberCache computeValue(Class<?> type) {
+        MemberCache memberCache = new MemberCache(type);
+        ALL_MEMBER_CACHES.add(new WeakReference<>(memberCache));
+        return memberCache;
+      }
+    };
+  }
+
+  private enum MemberKind {
+    /** A field declared by the class or one of its superclasses. */
+    FIELD,
+    /** A field declared by the class. */
+    DECLARED_FIELD,
+    /** A static field declared by the class, which may be written even if final. */
+    STATIC_FIELD,
+    /** A method declared by the class or one of its superclasses. */
+    METHOD,
+    /** A method declared by the class. */
+    DECLARED_METHOD,
+    CONSTRUCTOR
+  }
+
+  /** Members of a single class which have been looked up, and counts of calls through them. */
+  private static class MemberCache {
+    private final Class<?> type;
+    private final String className;
+    private final ConcurrentMap<MemberKey, Object> members = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+
+    MemberCache(Class<?> type) {
+      this.type = type;
+      this.className = type.getName();
+    }
+
+    Object find(MemberKind kind, String name, Class<?>[] parameterTypes)
+        throws ReflectiveOperationException {
+      calls.incrementAndGet();
+      MemberKey key = new MemberKey(kind, name, parameterTypes);
+      Object member = members.get(key);
+      if (member == null) {
+        lookups.incrementAndGet();
+        try {
+          member = lookUp(kind, name, parameterTypes);
+        } catch (NoSuchFieldException | NoSuchMethodException e) {
+          member = new MissingMember(e);
         }
-        hierarchyTraversalClass = hierarchyTraversalClass.getSuperclass();
-        if (hierarchyTraversalClass == null) {
-          throw new RuntimeException(e);
+        if (canCache(parameterTypes)) {
+          Object existing = members.putIfAbsent(key.copy(), member);
+          if (existing != null) {
+            member = existing;
+          }
         }
       }
+
+      if (member instanceof MissingMember) {
+        throw ((MissingMember) member).newException();
+      }
+      return member;
+    }
+
+    private Object lookUp(MemberKind kind, String name, Class<?>[] parameterTypes)
+        throws ReflectiveOperationException {
+      switch (kind) {
+        case FIELD:
+          for (Class<?> c = type; ; c = c.getSuperclass()) {
+            try {
+              return accessible(c.getDeclaredField(name));
+            } catch (NoSuchFieldException e) {
+              if (c.getSuperclass() == null) {
+                throw e;
+              }
+            }
+          }
+        case DECLARED_FIELD:
+          return accessible(type.getDeclaredField(name));
+        case STATIC_FIELD:
+          Field field = type.getDeclaredField(name);
+          makeFieldVeryAccessible(field);
+          return field;
+        case METHOD:
+          for (Class<?> c = type; ; c = c.getSuperclass()) {
+            try {
+              return accessible(c.getDeclaredMethod(name, parameterTypes));
+            } catch (NoSuchMethodException e) {
+              if (c.getSuperclass() == null) {
+                throw e;
+              }
+            }
+          }
+        case DECLARED_METHOD:
+          return accessible(type.getDeclaredMethod(name, parameterTypes));
+        case CONSTRUCTOR:
+          return accessible(type.getDeclaredConstructor(parameterTypes));
+        default:
+          throw new IllegalArgumentException(kind.toString());
+      }
+    }
+
+    private static <T extends AccessibleObject> T accessible(T member) {
+      member.setAccessible(true);
+      return member;
+    }
+
+    /**
+     * Parameter types from a class loader that can't see this class's loader (e.g. a sandbox
+     * class passed to a method of a JDK class) mustn't be cached, or they'd be kept alive for as
+     * long as this class is.
+     */
+    private boolean canCache(Class<?>[] parameterTypes) {
+      for (Class<?> parameterType : parameterTypes) {
+        ClassLoader parameterClassLoader = parameterType.getClassLoader();
+        if (parameterClassLoader == null) {
+          continue;
+        }
+        ClassLoader classLoader = type.getClassLoader();
+        while (classLoader != null && classLoader != parameterClassLoader) {
+          classLoader = classLoader.getParent();
+        }
+        if (classLoader == null) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static class MemberKey {
+    private final MemberKind kind;
+    private final String name;
+    private final Class<?>[] parameterTypes;
+
+    MemberKey(MemberKind kind, String name, Class<?>[] parameterTypes) {
+      this.kind = kind;
+      this.name = name;
+      this.parameterTypes = parameterTypes;
+    }
+
+    /** Returns a key which doesn't share the (caller-owned) parameter types array. */
+    MemberKey copy() {
+      return new MemberKey(kind, name, parameterTypes.clone());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof MemberKey)) {
+        return false;
+      }
+      MemberKey memberKey = (MemberKey) o;
+      return kind == memberKey.kind
+          && name.equals(memberKey.name)
+          && Arrays.equals(parameterTypes, memberKey.parameterTypes);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = kind.hashCode();
+      result = 31 * result + name.hashCode();
+      result = 31 * result + Arrays.hashCode(parameterTypes);
+      return result;
+    }
+  }
+
+  /** Cached result of a failed lookup. */
+  private static class MissingMember {
+    private final boolean isField;
+    private final String message;
+
+    MissingMember(ReflectiveOperationException e) {
+      this.isField = e instanceof NoSuchFieldException;
+      this.message = e.getMessage();
+    }
+
+    ReflectiveOperationException newException() {
+      return isField ? new NoSuchFieldException(message) : new NoSuchMethodException(message);
     }
   }
 
@@ -426,10 +660,6 @@ public class ReflectionHelpers {
     return PRIMITIVE_RETURN_VALUES.get(returnType);
   }
 
-  private interface InsideTraversal<R> {
-    R run(Class<?> traversalClass) throws Exception;
-  }
-
   /**
    * Typed parameter used with reflective method calls.
    *
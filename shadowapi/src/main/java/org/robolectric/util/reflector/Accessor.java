@@ -0,0 +1,22 @@
+package org.robolectric.util.reflector;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicates that the annotated method reads or writes a field rather than calling a method.
+ *
+ * <p>A method with no parameters and a non-void return type is a getter; a method with a single
+ * parameter and a void return type is a setter.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface Accessor {
+
+  /** The name of the field. */
+  String value();
+}
@@ -0,0 +1,17 @@
+package org.robolectric.util.reflector;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicates that the annotated method should invoke the original (non-shadowed) implementation of
+ * the method, like {@link org.robolectric.shadow.api.Shadow#directlyOn(Object, Class)}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface Direct {
+}
@@ -0,0 +1,25 @@
+package org.robolectric.util.reflector;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicates that the annotated interface is an accessor for the given class (or class name, if the
+ * class isn't visible at compile time).
+ *
+ * @see Reflector#reflector(Class, Object)
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface ForType {
+
+  /** The class being accessed. */
+  Class<?> value() default void.class;
+
+  /** The fully-qualified name of the class being accessed, if {@link #value()} isn't given. */
+  String className() default "";
+}
@@ -0,0 +1,289 @@
+package org.robolectric.util.reflector;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.robolectric.shadow.api.Shadow;
+
+/**
+ * Provides fast, typed access to non-public members of a class.
+ *
+ * <p>Accessors are declared as interfaces annotated with {@link ForType}:
+ *
+ * <pre>
+ *   &#064;ForType(View.class)
+ *   interface _View_ {
+ *     &#064;Accessor("mScrollX")
+ *     void setScrollX(int scrollX);
+ *
+ *     &#064;Direct
+ *     void onLayout(boolean changed, int left, int top, int right, int bottom);
+ *   }
+ *
+ *   reflector(_View_.class, view).setScrollX(10);
+ * </pre>
+ *
+ * <p>Unlike {@link org.robolectric.util.ReflectionHelpers}, each interface method is looked up only
+ * once per interface class (and so once per sandbox) and bound to a {@link MethodHandle}; later
+ * calls don't search the class hierarchy, call {@code setAccessible()}, or box parameter types.
+ *
+ * <p>Accessors for static members are shared. An accessor for an instance is created on each call,
+ * so callers on hot paths should keep it, e.g. in a field of the target's shadow.
+ */
+public class Reflector {
+
+  private static final Object[] NO_ARGS = new Object[0];
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final boolean CLASS_VALUE_AVAILABLE = isClassValueAvailable();
+
+  /** Bindings by accessor interface, used where {@link ClassValue} isn't available. */
+  private static final Map<Class<?>, Binding> FALLBACK_BINDINGS = new WeakHashMap<>();
+
+  /** Returns an accessor for static members of the class described by {@code iClass}. */
+  public static <T> T reflector(Class<T> iClass) {
+    return reflector(iClass, null);
+  }
+
+  /**
+   * Returns an accessor for members of {@code target}, an instance of the class described by
+   * {@code iClass}.
+   */
+  public static <T> T reflector(Class<T> iClass, Object target) {
+    Binding binding = bindingFor(iClass);
+    return iClass.cast(target == null ? binding.staticAccessor() : binding.newAccessor(target));
+  }
+
+  private static boolean isClassValueAvailable() {
+    try {
+      Class.forName("java.lang.ClassValue");
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  private static Binding bindingFor(Class<?> iClass) {
+    if (CLASS_VALUE_AVAILABLE) {
+      return Bindings.BINDINGS.get(iClass);
+    }
+    synchronized (FALLBACK_BINDINGS) {
+      Binding binding = FALLBACK_BINDINGS.get(iClass);
+      if (binding == null) {
+        binding = new Binding(iClass);
+        FALLBACK_BINDINGS.put(iClass, binding);
+      }
+      return binding;
+    }
+  }
+
+  /**
+   * Holds the {@link ClassValue}, which doesn't exist on Android (where this class may also be
+   * used), so it's only loaded if available.
+   */
+  private static class Bindings {
+    static final ClassValue<Binding> BINDINGS = new ClassValue<Binding>() {
+      @Override
+      protected Binding computeValue(Class<?> iClass) {
+        return new Binding(iClass);
+      }
+    };
+  }
+
+  private static class Handler implements InvocationHandler {
+    private final Binding binding;
+    private final Object target;
+
+    Handler(Binding binding, Object target) {
+      this.binding = binding;
+      this.target = target;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        switch (method.getName()) {
+          case "equals":
+            return proxy == args[0];
+          case "hashCode":
+            return System.identityHashCode(proxy);
+          default:
+            return "reflector for " + binding.targetClass.getName() + ": " + target;
+        }
+      }
+
+      MethodHandle handle = binding.handleFor(method);
+      Object[] arguments = args == null ? NO_ARGS : args;
+      return (Object) handle.invokeExact(target, arguments);
+    }
+  }
+
+  /** The resolved target class and member handles for a single accessor interface. */
+  private static class Binding {
+    private final ClassLoader classLoader;
+    private final Class<?> targetClass;
+    private final Constructor<?> proxyConstructor;
+    private final ConcurrentMap<Method, MethodHandle> handles = new ConcurrentHashMap<>();
+    private volatile Object staticAccessor;
+
+    @SuppressWarnings("deprecation")
+    Binding(Class<?> iClass) {
+      ForType forType = iClass.getAnnotation(ForType.class);
+      if (forType == null) {
+        throw new IllegalArgumentException(iClass + " must be annotated @ForType");
+      }
+      classLoader = iClass.getClassLoader();
+      targetClass = forType.value() != void.class
+          ? forType.value()
+          : loadClass(classLoader, forType.className());
+      try {
+        proxyConstructor = Proxy.getProxyClass(classLoader, iClass)
+            .getConstructor(InvocationHandler.class);
+        // the proxy class isn't public if the accessor interface isn't
+        proxyConstructor.setAccessible(true);
+      } catch (NoSuchMethodException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    Object staticAccessor() {
+      Object accessor = staticAccessor;
+      if (accessor == null) {
+        accessor = newAccessor(null);
+        staticAccessor = accessor;
+      }
+      return accessor;
+    }
+
+    Object newAccessor(Object target) {
+      try {
+        return proxyConstructor.newInstance(new Handler(this, target));
+      } catch (ReflectiveOperationException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    MethodHandle handleFor(Method method) {
+      MethodHandle handle = handles.get(method);
+      if (handle == null) {
+        handle = bind(method);
+        MethodHandle existing = handles.putIfAbsent(method, handle);
+        if (existing != null) {
+          handle = existing;
+        }
+      }
+      return handle;
+    }
+
+    /** Binds {@code method} to a handle of type {@code (Object target, Object[] args)Object}. */
+    private MethodHandle bind(Method method) {
+      Class<?>[] parameterTypes = resolveParameterTypes(method);
+      MethodHandle handle;
+      boolean isStatic;
+      try {
+        Accessor accessor = method.getAnnotation(Accessor.class);
+        if (accessor != null) {
+          Field field = findField(accessor.value());
+          field.setAccessible(true);
+          isStatic = Modifier.isStatic(field.getModifiers());
+          if (parameterTypes.length == 0 && method.getReturnType() != void.class) {
+            handle = LOOKUP.unreflectGetter(field);
+          } else if (parameterTypes.length == 1 && method.getReturnType() == void.class) {
+            handle = LOOKUP.unreflectSetter(field);
+          } else {
+            throw new IllegalArgumentException(
+                "@Accessor method must be a getter or a setter: " + method);
+          }
+        } else {
+          Method targetMethod = method.getAnnotation(Direct.class) != null
+              ? findDirectMethod(method.getName(), parameterTypes)
+              : findMethod(method.getName(), parameterTypes);
+          targetMethod.setAccessible(true);
+          isStatic = Modifier.isStatic(targetMethod.getModifiers());
+          handle = LOOKUP.unreflect(targetMethod);
+        }
+      } catch (IllegalAccessException e) {
+        throw new RuntimeException(e);
+      }
+
+      if (isStatic) {
+        handle = MethodHandles.dropArguments(handle, 0, Object.class);
+      }
+      return handle
+          .asType(MethodType.genericMethodType(parameterTypes.length + 1))
+          .asSpreader(Object[].class, parameterTypes.length);
+    }
+
+    private Class<?>[] resolveParameterTypes(Method method) {
+      Class<?>[] parameterTypes = method.getParameterTypes();
+      Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+      for (int i = 0; i < parameterTypes.length; i++) {
+        for (Annotation annotation : parameterAnnotations[i]) {
+          if (annotation instanceof WithType) {
+            parameterTypes[i] = loadClass(classLoader, ((WithType) annotation).value());
+          }
+        }
+      }
+      return parameterTypes;
+    }
+
+    private Field findField(String name) {
+      for (Class<?> c = targetClass; c != null; c = c.getSuperclass()) {
+        try {
+          return c.getDeclaredField(name);
+        } catch (NoSuchFieldException e) {
+          // try the superclass
+        }
+      }
+      throw new RuntimeException(new NoSuchFieldException(targetClass.getName() + "." + name));
+    }
+
+    private Method findMethod(String name, Class<?>[] parameterTypes) {
+      Method method = findDeclaredMethod(name, parameterTypes, false);
+      if (method == null) {
+        throw new RuntimeException(new NoSuchMethodException(targetClass.getName() + "." + name));
+      }
+      return method;
+    }
+
+    /**
+     * Finds the original implementation of a method, falling back to the method itself if the
+     * class wasn't instrumented.
+     */
+    private Method findDirectMethod(String name, Class<?>[] parameterTypes) {
+      Method method = findDeclaredMethod(name, parameterTypes, true);
+      return method == null ? findMethod(name, parameterTypes) : method;
+    }
+
+    private Method findDeclaredMethod(String name, Class<?>[] parameterTypes, boolean direct) {
+      for (Class<?> c = targetClass; c != null; c = c.getSuperclass()) {
+        String methodName = direct ? Shadow.directMethodName(c.getName(), name) : name;
+        try {
+          return c.getDeclaredMethod(methodName, parameterTypes);
+        } catch (NoSuchMethodException e) {
+          // try the superclass
+        }
+      }
+      return null;
+    }
+
+    private static Class<?> loadClass(ClassLoader classLoader, String className) {
+      try {
+        return Class.forName(className, false, classLoader);
+      } catch (ClassNotFoundException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package org.robolectric.util.reflector;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Specifies the actual type of a parameter whose class isn't visible at compile time; the
+ * parameter itself should be declared as {@link Object}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER})
+public @interface WithType {
+
+  /** The fully-qualified name of the parameter's class. */
+  String value();
+}
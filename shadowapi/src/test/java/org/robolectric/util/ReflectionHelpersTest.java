@@ -4,6 +4,8 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.fail;
 
 import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -261,6 +263,51 @@ public class ReflectionHelpersTest {
     assertThat(ec.name).named("name").isNull();
   }
 
+  @Test
+  public void callInstanceMethodReflectively_shouldCacheMissingMethods() {
+    ExampleDescendant example = new ExampleDescendant();
+    for (int i = 0; i < 2; i++) {
+      try {
+        ReflectionHelpers.callInstanceMethod(example, "nonExistent");
+        fail("Expected exception not thrown");
+      } catch (RuntimeException e) {
+        assertThat(e.getMessage()).contains("nonExistent");
+      }
+    }
+  }
+
+  @Test
+  public void reportStats_shouldReportCallsAndLookupsPerClass() {
+    ReflectionHelpers.reportStats((className, calls, lookups) -> {});
+
+    StatsExample example = new StatsExample();
+    for (int i = 0; i < 3; i++) {
+      ReflectionHelpers.callInstanceMethod(example, "returnNumber");
+      ReflectionHelpers.getField(example, "number");
+    }
+
+    Map<String, int[]> stats = new HashMap<>();
+    ReflectionHelpers.reportStats(
+        (className, calls, lookups) -> stats.put(className, new int[] {calls, lookups}));
+    int[] exampleStats = stats.get(StatsExample.class.getName());
+    assertThat(exampleStats[0]).named("calls").isEqualTo(6);
+    assertThat(exampleStats[1]).named("lookups").isEqualTo(2);
+
+    stats.clear();
+    ReflectionHelpers.reportStats(
+        (className, calls, lookups) -> stats.put(className, new int[] {calls, lookups}));
+    assertThat(stats).doesNotContainKey(StatsExample.class.getName());
+  }
+
+  @SuppressWarnings("unused")
+  private static class StatsExample {
+    private int number = 7;
+
+    private int returnNumber() {
+      return number;
+    }
+  }
+
   @SuppressWarnings("serial")
   private static class TestError extends Error {
   }
@@ -0,0 +1,162 @@
+package org.robolectric.util.reflector;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.robolectric.util.reflector.Reflector.reflector;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ReflectorTest {
+
+  @Test
+  public void accessor_shouldGetAndSetPrivateFields() {
+    SomeClass someClass = new SomeClass("c");
+    _SomeClass_ accessor = reflector(_SomeClass_.class, someClass);
+
+    assertThat(accessor.getC()).isEqualTo("c");
+    accessor.setC("c++");
+    assertThat(someClass.c).isEqualTo("c++");
+  }
+
+  @Test
+  public void accessor_shouldGetInheritedFields() {
+    assertThat(reflector(_SomeClass_.class, new SomeClass("c")).getB()).isEqualTo("b");
+  }
+
+  @Test
+  public void accessor_shouldGetAndSetStaticFields() {
+    reflector(_SomeClass_.class).setEyeColor("brown");
+    assertThat(reflector(_SomeClass_.class).getEyeColor()).isEqualTo("brown");
+    reflector(_SomeClass_.class).setEyeColor("blue");
+    assertThat(SomeClass.eyeColor).isEqualTo("blue");
+  }
+
+  @Test
+  public void methods_shouldCallPrivateMethods() {
+    _SomeClass_ accessor = reflector(_SomeClass_.class, new SomeClass("c"));
+
+    assertThat(accessor.someMethod("a", 3)).isEqualTo("c-a-3");
+    assertThat(accessor.someMethod("b", 4)).isEqualTo("c-b-4");
+  }
+
+  @Test
+  public void methods_shouldCallInheritedAndStaticMethods() {
+    assertThat(reflector(_SomeClass_.class, new SomeClass("c")).inherited()).isEqualTo("b!");
+    assertThat(reflector(_SomeClass_.class).staticMethod(2)).isEqualTo(4);
+  }
+
+  @Test
+  public void methods_shouldResolveParametersWithType() {
+    assertThat(reflector(_SomeClass_.class).describe(new SomeClass("x"))).isEqualTo("some x");
+  }
+
+  @Test
+  public void methods_shouldPropagateExceptions() {
+    try {
+      reflector(_SomeClass_.class, new SomeClass("c")).throwing();
+      fail("should have thrown");
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessageThat().isEqualTo("boom");
+    }
+  }
+
+  @Test
+  public void reflector_shouldGiveHelpfulExceptionsForMissingMembers() {
+    try {
+      reflector(_SomeClass_.class, new SomeClass("c")).getNonExistent();
+      fail("should have thrown");
+    } catch (RuntimeException e) {
+      assertThat(e).hasMessageThat().contains("nonExistent");
+    }
+  }
+
+  @Test
+  public void reflector_shouldShareStaticAccessors() {
+    assertThat(reflector(_SomeClass_.class)).isSameAs(reflector(_SomeClass_.class));
+  }
+
+  @Test
+  public void reflector_shouldRequireForType() {
+    try {
+      reflector(NotAnnotated.class);
+      fail("should have thrown");
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessageThat().contains("@ForType");
+    }
+  }
+
+  //////////////////////
+
+  @ForType(SomeClass.class)
+  interface _SomeClass_ {
+
+    @Accessor("c")
+    String getC();
+
+    @Accessor("c")
+    void setC(String value);
+
+    @Accessor("b")
+    String getB();
+
+    @Accessor("eyeColor")
+    String getEyeColor();
+
+    @Accessor("eyeColor")
+    void setEyeColor(String color);
+
+    @Accessor("nonExistent")
+    String getNonExistent();
+
+    String someMethod(String a, int b);
+
+    String inherited();
+
+    int staticMethod(int i);
+
+    String describe(
+        @WithType("org.robolectric.util.reflector.ReflectorTest$SomeClass") Object someClass);
+
+    void throwing();
+  }
+
+  interface NotAnnotated {
+  }
+
+  static class SuperClass {
+    private String b = "b";
+
+    private String inherited() {
+      return b + "!";
+    }
+  }
+
+  static class SomeClass extends SuperClass {
+    private static String eyeColor = "blue";
+
+    private String c;
+
+    SomeClass(String c) {
+      this.c = c;
+    }
+
+    private String someMethod(String a, int b) {
+      return c + "-" + a + "-" + b;
+    }
+
+    private static int staticMethod(int i) {
+      return i * 2;
+    }
+
+    private static String describe(SomeClass someClass) {
+      return "some " + someClass.c;
+    }
+
+    private void throwing() {
+      throw new IllegalStateException("boom");
+    }
+  }
+}
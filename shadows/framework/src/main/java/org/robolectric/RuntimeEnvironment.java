@@ -124,10 +124,12 @@ public class RuntimeEnvironment {
     if (newQualifiers.startsWith("+")) {
       configuration = new Configuration(Resources.getSystem().getConfiguration());
       displayMetrics.setTo(Resources.getSystem().getDisplayMetrics());
+      Bootstrap.applyQualifiers(newQualifiers, getApiLevel(), configuration, displayMetrics);
     } else {
       configuration = new Configuration();
+      Bootstrap.applyQualifiersToDefaults(
+          newQualifiers, getApiLevel(), configuration, displayMetrics);
     }
-    Bootstrap.applyQualifiers(newQualifiers, getApiLevel(), configuration, displayMetrics);
 
     Resources systemResources = Resources.getSystem();
     systemResources.updateConfiguration(configuration, displayMetrics);
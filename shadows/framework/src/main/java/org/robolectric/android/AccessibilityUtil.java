@@ -11,8 +11,12 @@ import com.google.android.apps.common.testing.accessibility.framework.TouchTarge
 import com.google.android.apps.common.testing.accessibility.framework.integrations.espresso.AccessibilityValidator;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
 import org.robolectric.annotation.AccessibilityChecks;
@@ -26,6 +30,12 @@ import org.robolectric.annotation.AccessibilityChecks.ForRobolectricVersion;
  * better initialized the View, the more accurate the checking will be. At a minimum, the view
  * should be attached to a proper view hierarchy similar to what's checked for in:q
  * {@code ShadowView.checkedPerformClick}.
+ *
+ * With {@link #setBatchChecking(boolean)}, clicks don't check anything at all, and each clicked
+ * view is checked once at the end of the test instead, so clicking repeatedly doesn't check the UI
+ * over and over again. Since nothing changes while the queued views are checked, a hierarchy which
+ * is checked for several of them (e.g. the root view, with {@link
+ * #setRunChecksFromRootView(boolean)}) is only checked once. Otherwise, every click is checked.
  */
 public class AccessibilityUtil {
   private static final String COMPAT_V4_CLASS_NAME = "android.support.v4.view.ViewCompat";
@@ -42,6 +52,15 @@ public class AccessibilityUtil {
   /* Flag indicating if the support library's presence has been verified */
   private static boolean v4SupportPresenceVerified = false;
 
+  /* Mirrors the validator's setting, which can't be read back from it */
+  private static boolean runChecksFromRootView = false;
+
+  /* When true, clicked views are queued in pendingViews rather than checked straight away */
+  private static boolean batchChecking = false;
+
+  /* Views queued for checking, with the annotation in effect when they were clicked */
+  private static final Map<View, AccessibilityChecks> pendingViews = new LinkedHashMap<>();
+
   protected AccessibilityUtil() {}
 
   /**
@@ -53,6 +72,8 @@ public class AccessibilityUtil {
    *
    * @param view The {@code View} to examine
    *
+   * <p>If batch checking is enabled, the view is only queued for checking, and the list is empty.
+   *
    * @return A list of results from the check. If there are no results or checking is disabled, 
    * the list is empty.
    */
@@ -62,7 +83,31 @@ public class AccessibilityUtil {
       return Collections.emptyList();
     }
 
-    return checkView(view);
+    if (batchChecking) {
+      pendingViews.put(view, classChecksAnnotation);
+      return Collections.emptyList();
+    }
+    return checkView(view, classChecksAnnotation, null);
+  }
+
+  /**
+   * Checks all views queued by {@link #checkViewIfCheckingEnabled(View)} while batch checking was
+   * enabled, then forgets them. Robolectric calls this at the end of each test.
+   *
+   * @return The results of checking all queued views. If there are no results, the list is empty.
+   */
+  public static List<AccessibilityViewCheckResult> checkPendingViews() {
+    // results of checks that passed, by the checked hierarchy; views can't change in the meantime
+    Map<View, CachedResults> cachedResults = new IdentityHashMap<>();
+    try {
+      List<AccessibilityViewCheckResult> results = new ArrayList<>();
+      for (Map.Entry<View, AccessibilityChecks> entry : pendingViews.entrySet()) {
+        results.addAll(checkView(entry.getKey(), entry.getValue(), cachedResults));
+      }
+      return results;
+    } finally {
+      pendingViews.clear();
+    }
   }
 
   /**
@@ -73,7 +118,7 @@ public class AccessibilityUtil {
    * @return A list of results from the check. If there are no results, the list is empty.
    */
   public static List<AccessibilityViewCheckResult> checkView(View view) {
-    return checkView(view, getAnnotation());
+    return checkView(view, getAnnotation(), null);
   }
 
   /**
@@ -131,6 +176,19 @@ public class AccessibilityUtil {
   public static void setRunChecksFromRootView(boolean runChecksFromRootView) {
     initializeValidator();
     validator.setRunChecksFromRootView(runChecksFromRootView);
+    AccessibilityUtil.runChecksFromRootView = runChecksFromRootView;
+  }
+
+  /**
+   * Specify that views clicked with {@code ShadowView.clickOn} should be queued and checked once,
+   * at the end of the test, rather than every time they're clicked. Views are checked as they are
+   * at the end of the test.
+   *
+   * @param batchChecking {@code true} to check clicked views at the end of the test. Default:
+   * {@code false}.
+   */
+  public static void setBatchChecking(boolean batchChecking) {
+    AccessibilityUtil.batchChecking = batchChecking;
   }
   
   /**
@@ -172,8 +230,12 @@ public class AccessibilityUtil {
     validator.setThrowExceptionForErrors(throwExceptionForErrors);
   }
 
+  /**
+   * @param cachedResults results of checks during this batch which passed, by the checked
+   *     hierarchy, which are reused and added to; or null to always check
+   */
   private static List<AccessibilityViewCheckResult> checkView(View view,
-      AccessibilityChecks classChecksAnnotation) {
+      AccessibilityChecks classChecksAnnotation, Map<View, CachedResults> cachedResults) {
     /*
      * Accessibility Checking requires the v4 support library. If the support library isn't present,
      * throw a descriptive exception now.
@@ -190,15 +252,30 @@ public class AccessibilityUtil {
     }
 
     initializeValidator();
+    AccessibilityCheckPreset preset = null;
     if (!forVersionSet) {
       if (classChecksAnnotation != null) {
-        validator.setCheckPreset(
-            convertRoboVersionToA11yTestVersion(classChecksAnnotation.forRobolectricVersion()));
+        preset = convertRoboVersionToA11yTestVersion(classChecksAnnotation.forRobolectricVersion());
       } else {
-        validator.setCheckPreset(AccessibilityCheckPreset.LATEST);
+        preset = AccessibilityCheckPreset.LATEST;
       }
+      validator.setCheckPreset(preset);
+    }
+
+    if (cachedResults == null) {
+      return validator.checkAndReturnResults(view);
     }
-    return validator.checkAndReturnResults(view);
+
+    View checkedView = runChecksFromRootView ? view.getRootView() : view;
+    CachedResults cached = cachedResults.get(checkedView);
+    if (cached != null && cached.preset == preset) {
+      return new ArrayList<>(cached.results);
+    }
+
+    // only results that pass are cached, so errors are reported (and thrown) every time
+    List<AccessibilityViewCheckResult> results = validator.checkAndReturnResults(view);
+    cachedResults.put(checkedView, new CachedResults(preset, results));
+    return results;
   }
 
   private static boolean isAccessibilityCheckingEnabled(AccessibilityChecks classChecksAnnotation) {
@@ -266,6 +343,17 @@ public class AccessibilityUtil {
     }
   }
 
+  /* The results of checking a hierarchy, and the preset they were checked with */
+  private static class CachedResults {
+    final AccessibilityCheckPreset preset;
+    final List<AccessibilityViewCheckResult> results;
+
+    CachedResults(AccessibilityCheckPreset preset, List<AccessibilityViewCheckResult> results) {
+      this.preset = preset;
+      this.results = new ArrayList<>(results);
+    }
+  }
+
   private static AccessibilityCheckPreset convertRoboVersionToA11yTestVersion(
       ForRobolectricVersion robolectricVersion) {
     if (robolectricVersion == ForRobolectricVersion.LATEST) {
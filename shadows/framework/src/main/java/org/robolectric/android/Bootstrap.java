@@ -4,6 +4,10 @@ import android.content.res.Configuration;
 import android.os.Build;
 import android.os.Build.VERSION_CODES;
 import android.util.DisplayMetrics;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.res.Qualifiers;
 import org.robolectric.shadows.ShadowDisplayManager;
@@ -11,6 +15,13 @@ import org.robolectric.shadows.ShadowWindowManagerImpl;
 
 public class Bootstrap {
 
+  /**
+   * Configurations which result from applying qualifiers, keyed by qualifiers and API level. This
+   * class is loaded in each sandbox, so there's a separate cache for each SDK.
+   */
+  private static final ConcurrentMap<List<Object>, DeviceTemplate> deviceTemplates =
+      new ConcurrentHashMap<>();
+
   public static void setUpDisplay(Configuration configuration, DisplayMetrics displayMetrics) {
     if (Build.VERSION.SDK_INT == VERSION_CODES.JELLY_BEAN) {
       ShadowWindowManagerImpl.configureDefaultDisplayForJBOnly(configuration, displayMetrics);
@@ -19,6 +30,28 @@ public class Bootstrap {
     }
   }
 
+  /**
+   * Sets {@code configuration} and {@code displayMetrics} to the result of applying {@code
+   * qualifiersStrs} to a new {@link Configuration} and {@link DisplayMetrics}, as with {@link
+   * #applyQualifiers}.
+   *
+   * <p>The same qualifiers are typically applied for many tests, so the result is computed once
+   * for each qualifiers string and API level, and then copied.
+   */
+  public static void applyQualifiersToDefaults(String qualifiersStrs, int apiLevel,
+      Configuration configuration, DisplayMetrics displayMetrics) {
+    DeviceTemplate template = deviceTemplates.computeIfAbsent(
+        Arrays.asList(qualifiersStrs, apiLevel),
+        key -> {
+          Configuration templateConfiguration = new Configuration();
+          DisplayMetrics templateDisplayMetrics = new DisplayMetrics();
+          applyQualifiers(qualifiersStrs, apiLevel, templateConfiguration, templateDisplayMetrics);
+          return new DeviceTemplate(templateConfiguration, templateDisplayMetrics);
+        });
+    configuration.setTo(template.configuration);
+    displayMetrics.setTo(template.displayMetrics);
+  }
+
   public static void applyQualifiers(String qualifiersStrs, int apiLevel,
       Configuration configuration, DisplayMetrics displayMetrics) {
 
@@ -63,4 +96,14 @@ public class Bootstrap {
     }
   }
 
+  /** The result of applying qualifiers; never modified, only copied. */
+  private static class DeviceTemplate {
+    private final Configuration configuration;
+    private final DisplayMetrics displayMetrics;
+
+    DeviceTemplate(Configuration configuration, DisplayMetrics displayMetrics) {
+      this.configuration = configuration;
+      this.displayMetrics = displayMetrics;
+    }
+  }
 }
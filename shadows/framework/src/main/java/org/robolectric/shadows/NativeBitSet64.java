@@ -36,13 +36,7 @@ public class NativeBitSet64 {
 
   /** Returns the number of marked bits in the set. */
   int count() {
-    int count = 0;
-    for (int n = 0; n < 64; n++) {
-      if (hasBit(n)) {
-        count++;
-      }
-    }
-    return count;
+    return Long.bitCount(value);
   }
 
   /** Returns true if the bit set does not contain any marked bits. */
@@ -67,12 +61,7 @@ public class NativeBitSet64 {
 
   /** Finds the first marked bit in the set. Result is undefined if all bits are unmarked. */
   int firstMarkedBit() {
-    for (int n = 0; n < 64; n++) {
-      if (hasBit(n)) {
-        return n;
-      }
-    }
-    return 0;
+    return isEmpty() ? 0 : Long.numberOfLeadingZeros(value);
   }
 
   /**
@@ -90,14 +79,13 @@ public class NativeBitSet64 {
    * before the specified bit.
    */
   int getIndexOfBit(int n) {
+    return getIndexOfBit(value, n);
+  }
+
+  /** Gets the index of the specified bit in a bit set with the given value. */
+  static int getIndexOfBit(long value, int n) {
     // return __builtin_popcountll(value & ~(0xffffffffffffffffULL >> n));
-    int numMarkedBits = 0;
-    for (int i = 0; i < n; i++) {
-      if (hasBit(i)) {
-        numMarkedBits++;
-      }
-    }
-    return numMarkedBits;
+    return Long.bitCount(value & ~(0xffffffffffffffffL >>> n));
   }
 
   public void setValue(long l) {
@@ -25,9 +25,7 @@ import static org.robolectric.shadows.NativeAndroidInput.AMOTION_EVENT_AXIS_Y;
 
 import android.os.Parcel;
 import android.view.MotionEvent.PointerProperties;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 import org.robolectric.res.android.Ref;
 
 /**
@@ -49,7 +47,7 @@ public class NativeInput {
   /*
    * Maximum number of samples supported per motion event.
    */
-  private static final int MAX_SAMPLES = 2 ^ 16; /* UINT16_MAX */
+  private static final int MAX_SAMPLES = 0xffff; /* UINT16_MAX */
   /*
    * Maximum pointer id value supported in a motion event.
    * Smallest pointer id is 0.
@@ -65,12 +63,13 @@ public class NativeInput {
   /*
    * Pointer coordinate data.
    *
-   * Deviates from original platform implementation to store axises in simple SparseArray as opposed
-   * to complicated bitset + array arrangement.
+   * Like the platform implementation, stores the values of the axes that are present in a dense
+   * array, ordered by axis, alongside a bitset of those axes. The static variants of the accessors
+   * operate on coordinates stored at an offset in a larger array, as done by {@link MotionEvent}.
    */
   static class PointerCoords {
 
-    private static final int MAX_AXES = 30;
+    static final int MAX_AXES = 30;
 
     // Bitfield of axes that are present in this structure.
     private NativeBitSet64 bits = new NativeBitSet64();
@@ -91,50 +90,61 @@ public class NativeInput {
     }
 
     public float getAxisValue(int axis) {
-      if (axis < 0 || axis > 63 || !bits.hasBit(axis)) {
+      return getAxisValue(bits.getValue(), values, 0, axis);
+    }
+
+    public boolean setAxisValue(int axis, float value) {
+      bits.setValue(setAxisValue(bits.getValue(), values, 0, axis, value));
+      return true;
+    }
+
+    static float getAxisValue(long bits, float[] values, int offset, int axis) {
+      if (axis < 0 || axis > 63 || (bits & NativeBitSet64.valueForBit(axis)) == 0) {
         return 0;
       }
-      return values[bits.getIndexOfBit(axis)];
+      return values[offset + NativeBitSet64.getIndexOfBit(bits, axis)];
     }
 
-    public boolean setAxisValue(int axis, float value) {
+    /** Returns the new axis bits. */
+    static long setAxisValue(long bits, float[] values, int offset, int axis, float value) {
       checkState(axis >= 0 && axis <= 63, "axis out of range");
-      int index = bits.getIndexOfBit(axis);
-      if (!bits.hasBit(axis)) {
+      int index = NativeBitSet64.getIndexOfBit(bits, axis);
+      if ((bits & NativeBitSet64.valueForBit(axis)) == 0) {
         if (value == 0) {
-          return true; // axes with value 0 do not need to be stored
+          return bits; // axes with value 0 do not need to be stored
         }
 
-        int count = bits.count();
+        int count = Long.bitCount(bits);
         if (count >= MAX_AXES) {
           tooManyAxes(axis);
-          return false;
-        }
-        bits.markBit(axis);
-        for (int i = count; i > index; i--) {
-          values[i] = values[i - 1];
         }
+        bits |= NativeBitSet64.valueForBit(axis);
+        System.arraycopy(values, offset + index, values, offset + index + 1, count - index);
       }
-      values[index] = value;
-      return true;
+      values[offset + index] = value;
+      return bits;
     }
 
-    static void scaleAxisValue(PointerCoords c, int axis, float scaleFactor) {
-      float value = c.getAxisValue(axis);
-      if (value != 0) {
-        c.setAxisValue(axis, value * scaleFactor);
+    private static void scaleAxisValue(
+        long bits, float[] values, int offset, int axis, float scaleFactor) {
+      if ((bits & NativeBitSet64.valueForBit(axis)) != 0) {
+        values[offset + NativeBitSet64.getIndexOfBit(bits, axis)] *= scaleFactor;
       }
     }
 
     public void scale(float scaleFactor) {
+      scale(bits.getValue(), values, 0, scaleFactor);
+    }
+
+    static void scale(long bits, float[] values, int offset, float scaleFactor) {
       // No need to scale pressure or size since they are normalized.
       // No need to scale orientation since it is meaningless to do so.
-      scaleAxisValue(this, AMOTION_EVENT_AXIS_X, scaleFactor);
-      scaleAxisValue(this, AMOTION_EVENT_AXIS_Y, scaleFactor);
-      scaleAxisValue(this, AMOTION_EVENT_AXIS_TOUCH_MAJOR, scaleFactor);
-      scaleAxisValue(this, AMOTION_EVENT_AXIS_TOUCH_MINOR, scaleFactor);
-      scaleAxisValue(this, AMOTION_EVENT_AXIS_TOOL_MAJOR, scaleFactor);
-      scaleAxisValue(this, AMOTION_EVENT_AXIS_TOOL_MINOR, scaleFactor);
+      scaleAxisValue(bits, values, offset, AMOTION_EVENT_AXIS_X, scaleFactor);
+      scaleAxisValue(bits, values, offset, AMOTION_EVENT_AXIS_Y, scaleFactor);
+      scaleAxisValue(bits, values, offset, AMOTION_EVENT_AXIS_TOUCH_MAJOR, scaleFactor);
+      scaleAxisValue(bits, values, offset, AMOTION_EVENT_AXIS_TOUCH_MINOR, scaleFactor);
+      scaleAxisValue(bits, values, offset, AMOTION_EVENT_AXIS_TOOL_MAJOR, scaleFactor);
+      scaleAxisValue(bits, values, offset, AMOTION_EVENT_AXIS_TOOL_MINOR, scaleFactor);
     }
 
     public void applyOffset(float xOffset, float yOffset) {
@@ -177,11 +187,18 @@ public class NativeInput {
     //     }
 
     public void copyFrom(PointerCoords other) {
-      bits = new NativeBitSet64(other.bits);
-      int count = bits.count();
-      for (int i = 0; i < count; i++) {
-        values[i] = other.values[i];
-      }
+      copyFrom(other.bits.getValue(), other.values, 0);
+    }
+
+    void copyFrom(long otherBits, float[] otherValues, int otherOffset) {
+      bits.setValue(otherBits);
+      System.arraycopy(otherValues, otherOffset, values, 0, Long.bitCount(otherBits));
+    }
+
+    /** Copies these coordinates to {@code offset} in {@code outValues}, returning the axis bits. */
+    long copyTo(float[] outValues, int offset) {
+      System.arraycopy(values, 0, outValues, offset, bits.count());
+      return bits.getValue();
     }
 
     private static void tooManyAxes(int axis) {
@@ -272,6 +289,11 @@ public class NativeInput {
 
   /*
    * Motion events.
+   *
+   * As on the platform, all samples are stored in flat arrays rather than as separate objects. The
+   * coordinates of pointer p in sample s are stored at index s * pointerCount + p of
+   * mSampleAxisBits, with their axis values at MAX_AXES times that index in mSampleAxisValues. The
+   * arrays are reused when the event is reinitialized.
    */
   static class MotionEvent extends InputEvent {
 
@@ -279,6 +301,8 @@ public class NativeInput {
     private static final double M_PI = 3.14159265358979323846f; /* pi */
     private static final double M_PI_2 = 1.57079632679489661923f; /* pi/2 */
 
+    private static final int INITIAL_SAMPLE_CAPACITY = 4;
+
     private int mAction;
     private int mActionButton;
     private int mFlags;
@@ -290,9 +314,12 @@ public class NativeInput {
     private float mXPrecision;
     private float mYPrecision;
     private long mDownTime;
-    private List<PointerProperties> mPointerProperties = new ArrayList<>();
-    private List<Long> mSampleEventTimes = new ArrayList<>();
-    private List<NativeInput.PointerCoords> mSamplePointerCoords = new ArrayList<>();
+    private int mPointerCount;
+    private PointerProperties[] mPointerProperties = new PointerProperties[0];
+    private int mSampleCount;
+    private long[] mSampleEventTimes = new long[INITIAL_SAMPLE_CAPACITY];
+    private long[] mSampleAxisBits = new long[INITIAL_SAMPLE_CAPACITY];
+    private float[] mSampleAxisValues = new float[INITIAL_SAMPLE_CAPACITY * PointerCoords.MAX_AXES];
 
     public int getType() {
       return AINPUT_EVENT_TYPE_MOTION;
@@ -380,32 +407,33 @@ public class NativeInput {
     }
 
     public int getPointerCount() {
-      return mPointerProperties.size();
+      return mPointerCount;
     }
 
     public PointerProperties getPointerProperties(int pointerIndex) {
-      return mPointerProperties.get(pointerIndex);
+      checkPointerIndex(pointerIndex);
+      return mPointerProperties[pointerIndex];
     }
 
     public int getPointerId(int pointerIndex) {
-      return mPointerProperties.get(pointerIndex).id;
+      return getPointerProperties(pointerIndex).id;
     }
 
     public int getToolType(int pointerIndex) {
-      return mPointerProperties.get(pointerIndex).toolType;
+      return getPointerProperties(pointerIndex).toolType;
     }
 
     public long getEventTime() {
-      return mSampleEventTimes.get(getHistorySize());
+      return mSampleEventTimes[getHistorySize()];
     }
 
-    public PointerCoords getRawPointerCoords(int pointerIndex) {
-
-      return mSamplePointerCoords.get(getHistorySize() * getPointerCount() + pointerIndex);
+    /** Copies the raw coordinates of the given pointer in the current sample to {@code out}. */
+    public void getRawPointerCoords(int pointerIndex, PointerCoords out) {
+      getHistoricalRawPointerCoords(pointerIndex, getHistorySize(), out);
     }
 
     public float getRawAxisValue(int axis, int pointerIndex) {
-      return getRawPointerCoords(pointerIndex).getAxisValue(axis);
+      return getHistoricalRawAxisValue(axis, pointerIndex, getHistorySize());
     }
 
     public float getRawX(int pointerIndex) {
@@ -417,14 +445,7 @@ public class NativeInput {
     }
 
     public float getAxisValue(int axis, int pointerIndex) {
-      float value = getRawPointerCoords(pointerIndex).getAxisValue(axis);
-      switch (axis) {
-        case AMOTION_EVENT_AXIS_X:
-          return value + mXOffset;
-        case AMOTION_EVENT_AXIS_Y:
-          return value + mYOffset;
-      }
-      return value;
+      return getHistoricalAxisValue(axis, pointerIndex, getHistorySize());
     }
 
     public float getX(int pointerIndex) {
@@ -464,19 +485,34 @@ public class NativeInput {
     }
 
     public int getHistorySize() {
-      return mSampleEventTimes.size() - 1;
+      return mSampleCount - 1;
     }
 
     public long getHistoricalEventTime(int historicalIndex) {
-      return mSampleEventTimes.get(historicalIndex);
+      checkSampleIndex(historicalIndex);
+      return mSampleEventTimes[historicalIndex];
     }
 
-    public PointerCoords getHistoricalRawPointerCoords(int pointerIndex, int historicalIndex) {
-      return mSamplePointerCoords.get(historicalIndex * getPointerCount() + pointerIndex);
+    /**
+     * Copies the raw coordinates of the given pointer in the given historical sample to {@code
+     * out}. A {@code historicalIndex} of {@link #getHistorySize()} denotes the current sample.
+     */
+    public void getHistoricalRawPointerCoords(
+        int pointerIndex, int historicalIndex, PointerCoords out) {
+      int coordsIndex = getCoordsIndex(pointerIndex, historicalIndex);
+      out.copyFrom(
+          mSampleAxisBits[coordsIndex],
+          mSampleAxisValues,
+          coordsIndex * PointerCoords.MAX_AXES);
     }
 
     public float getHistoricalRawAxisValue(int axis, int pointerIndex, int historicalIndex) {
-      return getHistoricalRawPointerCoords(pointerIndex, historicalIndex).getAxisValue(axis);
+      int coordsIndex = getCoordsIndex(pointerIndex, historicalIndex);
+      return PointerCoords.getAxisValue(
+          mSampleAxisBits[coordsIndex],
+          mSampleAxisValues,
+          coordsIndex * PointerCoords.MAX_AXES,
+          axis);
     }
 
     public float getHistoricalRawX(int pointerIndex, int historicalIndex) {
@@ -488,7 +524,7 @@ public class NativeInput {
     }
 
     public float getHistoricalAxisValue(int axis, int pointerIndex, int historicalIndex) {
-      float value = getHistoricalRawPointerCoords(pointerIndex, historicalIndex).getAxisValue(axis);
+      float value = getHistoricalRawAxisValue(axis, pointerIndex, historicalIndex);
       switch (axis) {
         case AMOTION_EVENT_AXIS_X:
           return value + mXOffset;
@@ -535,9 +571,8 @@ public class NativeInput {
     }
 
     public int findPointerIndex(int pointerId) {
-      int pointerCount = mPointerProperties.size();
-      for (int i = 0; i < pointerCount; i++) {
-        if (mPointerProperties.get(i).id == pointerId) {
+      for (int i = 0; i < mPointerCount; i++) {
+        if (mPointerProperties[i].id == pointerId) {
           return i;
         }
       }
@@ -574,11 +609,9 @@ public class NativeInput {
       mXPrecision = xPrecision;
       mYPrecision = yPrecision;
       mDownTime = downTime;
-      mPointerProperties.clear();
-      mPointerProperties.addAll(Arrays.asList(pointerProperties).subList(0, pointerCount));
-      mSampleEventTimes.clear();
-      mSamplePointerCoords.clear();
-      addSample(eventTime, Arrays.asList(pointerCoords).subList(0, pointerCount));
+      setPointerProperties(pointerCount, pointerProperties);
+      mSampleCount = 0;
+      addSample(eventTime, pointerCoords);
     }
 
     public void copyFrom(MotionEvent other, boolean keepHistory) {
@@ -594,32 +627,34 @@ public class NativeInput {
       mXPrecision = other.mXPrecision;
       mYPrecision = other.mYPrecision;
       mDownTime = other.mDownTime;
-      mPointerProperties = other.mPointerProperties;
-      mSampleEventTimes.clear();
-      mSamplePointerCoords.clear();
-      if (keepHistory) {
-        mSampleEventTimes.addAll(other.mSampleEventTimes);
-        mSamplePointerCoords.addAll(other.mSamplePointerCoords);
-      } else {
-        mSampleEventTimes.add(other.getEventTime());
-        int pointerCount = other.getPointerCount();
-        int historySize = other.getHistorySize();
-        // mSamplePointerCoords.appendArray(other->mSamplePointerCoords.array()
-        //    + (historySize * pointerCount), pointerCount);
-        int currentStartIndex = historySize * pointerCount;
-        mSamplePointerCoords.addAll(
-            other.mSamplePointerCoords.subList(
-                currentStartIndex, currentStartIndex + pointerCount));
-      }
-    }
-
+      setPointerProperties(other.mPointerCount, other.mPointerProperties);
+      int firstSample = keepHistory ? 0 : other.getHistorySize();
+      mSampleCount = other.mSampleCount - firstSample;
+      ensureSampleCapacity(mSampleCount);
+      System.arraycopy(
+          other.mSampleEventTimes, firstSample, mSampleEventTimes, 0, mSampleCount);
+      int coordsCount = mSampleCount * mPointerCount;
+      System.arraycopy(
+          other.mSampleAxisBits, firstSample * mPointerCount, mSampleAxisBits, 0, coordsCount);
+      System.arraycopy(
+          other.mSampleAxisValues,
+          firstSample * mPointerCount * PointerCoords.MAX_AXES,
+          mSampleAxisValues,
+          0,
+          coordsCount * PointerCoords.MAX_AXES);
+    }
+
+    /** Appends a sample, copying the first {@link #getPointerCount()} of {@code pointerCoords}. */
     public void addSample(long eventTime, PointerCoords[] pointerCoords) {
-      addSample(eventTime, Arrays.asList(pointerCoords));
-    }
-
-    public void addSample(long eventTime, List<PointerCoords> pointerCoords) {
-      mSampleEventTimes.add(eventTime);
-      mSamplePointerCoords.addAll(pointerCoords);
+      int sampleIndex = mSampleCount;
+      ensureSampleCapacity(sampleIndex + 1);
+      mSampleEventTimes[sampleIndex] = eventTime;
+      for (int i = 0; i < mPointerCount; i++) {
+        int coordsIndex = sampleIndex * mPointerCount + i;
+        mSampleAxisBits[coordsIndex] =
+            pointerCoords[i].copyTo(mSampleAxisValues, coordsIndex * PointerCoords.MAX_AXES);
+      }
+      mSampleCount++;
     }
 
     public void offsetLocation(float xOffset, float yOffset) {
@@ -632,9 +667,10 @@ public class NativeInput {
       mYOffset *= scaleFactor;
       mXPrecision *= scaleFactor;
       mYPrecision *= scaleFactor;
-      int numSamples = mSamplePointerCoords.size();
-      for (int i = 0; i < numSamples; i++) {
-        mSamplePointerCoords.get(i).scale(scaleFactor);
+      int coordsCount = mSampleCount * mPointerCount;
+      for (int i = 0; i < coordsCount; i++) {
+        PointerCoords.scale(
+            mSampleAxisBits[i], mSampleAxisValues, i * PointerCoords.MAX_AXES, scaleFactor);
       }
     }
 
@@ -661,18 +697,35 @@ public class NativeInput {
       final Ref<Float> originY = new Ref<>(0f);
       transformPoint(matrix, 0, 0, originX, originY);
       // Apply the transformation to all samples.
-      int numSamples = mSamplePointerCoords.size();
-      for (int i = 0; i < numSamples; i++) {
-        PointerCoords c = mSamplePointerCoords.get(i);
-        final Ref<Float> x = new Ref<>(c.getAxisValue(AMOTION_EVENT_AXIS_X) + oldXOffset);
-        final Ref<Float> y = new Ref<>(c.getAxisValue(AMOTION_EVENT_AXIS_Y) + oldYOffset);
+      int coordsCount = mSampleCount * mPointerCount;
+      final Ref<Float> x = new Ref<>(0f);
+      final Ref<Float> y = new Ref<>(0f);
+      for (int i = 0; i < coordsCount; i++) {
+        int offset = i * PointerCoords.MAX_AXES;
+        long bits = mSampleAxisBits[i];
+        x.set(
+            PointerCoords.getAxisValue(bits, mSampleAxisValues, offset, AMOTION_EVENT_AXIS_X)
+                + oldXOffset);
+        y.set(
+            PointerCoords.getAxisValue(bits, mSampleAxisValues, offset, AMOTION_EVENT_AXIS_Y)
+                + oldYOffset);
         transformPoint(matrix, x.get(), y.get(), x, y);
-        c.setAxisValue(AMOTION_EVENT_AXIS_X, x.get() - mXOffset);
-        c.setAxisValue(AMOTION_EVENT_AXIS_Y, y.get() - mYOffset);
-        float orientation = c.getAxisValue(AMOTION_EVENT_AXIS_ORIENTATION);
-        c.setAxisValue(
-            AMOTION_EVENT_AXIS_ORIENTATION,
-            transformAngle(matrix, orientation, originX.get(), originY.get()));
+        bits =
+            PointerCoords.setAxisValue(
+                bits, mSampleAxisValues, offset, AMOTION_EVENT_AXIS_X, x.get() - mXOffset);
+        bits =
+            PointerCoords.setAxisValue(
+                bits, mSampleAxisValues, offset, AMOTION_EVENT_AXIS_Y, y.get() - mYOffset);
+        float orientation =
+            PointerCoords.getAxisValue(
+                bits, mSampleAxisValues, offset, AMOTION_EVENT_AXIS_ORIENTATION);
+        mSampleAxisBits[i] =
+            PointerCoords.setAxisValue(
+                bits,
+                mSampleAxisValues,
+                offset,
+                AMOTION_EVENT_AXIS_ORIENTATION,
+                transformAngle(matrix, orientation, originX.get(), originY.get()));
       }
     }
 
@@ -731,34 +784,37 @@ public class NativeInput {
       mXPrecision = parcel.readFloat();
       mYPrecision = parcel.readFloat();
       mDownTime = parcel.readLong();
-      mPointerProperties = new ArrayList<>(pointerCount);
-      mSampleEventTimes = new ArrayList<>(sampleCount);
-      mSamplePointerCoords = new ArrayList<>(sampleCount * pointerCount);
+      setPointerCount(pointerCount);
       for (int i = 0; i < pointerCount; i++) {
-        PointerProperties properties = new PointerProperties();
-        mPointerProperties.add(properties);
+        PointerProperties properties = mPointerProperties[i];
         properties.id = parcel.readInt();
         properties.toolType = parcel.readInt();
       }
-      while (sampleCount > 0) {
-        sampleCount--;
-        mSampleEventTimes.add(parcel.readLong());
+      mSampleCount = 0;
+      ensureSampleCapacity(sampleCount);
+      for (int h = 0; h < sampleCount; h++) {
+        mSampleEventTimes[h] = parcel.readLong();
         for (int i = 0; i < pointerCount; i++) {
-          NativeInput.PointerCoords pointerCoords = new NativeInput.PointerCoords();
-          mSamplePointerCoords.add(pointerCoords);
-          if (!pointerCoords.readFromParcel(parcel)) {
+          int coordsIndex = h * pointerCount + i;
+          long bits = parcel.readLong();
+          int axisCount = Long.bitCount(bits);
+          if (axisCount > PointerCoords.MAX_AXES) {
             return false;
           }
+          mSampleAxisBits[coordsIndex] = bits;
+          int offset = coordsIndex * PointerCoords.MAX_AXES;
+          for (int a = 0; a < axisCount; a++) {
+            mSampleAxisValues[offset + a] = parcel.readFloat();
+          }
         }
+        mSampleCount++;
       }
       return true;
     }
 
     public boolean writeToParcel(Parcel parcel) {
-      int pointerCount = mPointerProperties.size();
-      int sampleCount = mSampleEventTimes.size();
-      parcel.writeInt(pointerCount);
-      parcel.writeInt(sampleCount);
+      parcel.writeInt(mPointerCount);
+      parcel.writeInt(mSampleCount);
       parcel.writeInt(mDeviceId);
       parcel.writeInt(mSource);
       parcel.writeInt(mAction);
@@ -772,16 +828,21 @@ public class NativeInput {
       parcel.writeFloat(mXPrecision);
       parcel.writeFloat(mYPrecision);
       parcel.writeLong(mDownTime);
-      for (int i = 0; i < pointerCount; i++) {
-        PointerProperties properties = mPointerProperties.get(i);
+      for (int i = 0; i < mPointerCount; i++) {
+        PointerProperties properties = mPointerProperties[i];
         parcel.writeInt(properties.id);
         parcel.writeInt(properties.toolType);
       }
-      for (int h = 0; h < sampleCount; h++) {
-        parcel.writeLong(mSampleEventTimes.get(h));
-        for (int i = 0; i < pointerCount; i++) {
-          if (!mSamplePointerCoords.get(i).writeToParcel(parcel)) {
-            return false;
+      for (int h = 0; h < mSampleCount; h++) {
+        parcel.writeLong(mSampleEventTimes[h]);
+        for (int i = 0; i < mPointerCount; i++) {
+          int coordsIndex = h * mPointerCount + i;
+          long bits = mSampleAxisBits[coordsIndex];
+          parcel.writeLong(bits);
+          int offset = coordsIndex * PointerCoords.MAX_AXES;
+          int axisCount = Long.bitCount(bits);
+          for (int a = 0; a < axisCount; a++) {
+            parcel.writeFloat(mSampleAxisValues[offset + a]);
           }
         }
       }
@@ -810,16 +871,101 @@ public class NativeInput {
     }
 
     // Low-level accessors.
-    public List<PointerProperties> getPointerProperties() {
-      return mPointerProperties;
+
+    /**
+     * Adds pointers with cleared properties and no axis values in any sample, until there are at
+     * least {@code pointerCount} pointers.
+     */
+    void ensurePointerCount(int pointerCount) {
+      int oldPointerCount = mPointerCount;
+      if (oldPointerCount >= pointerCount) {
+        return;
+      }
+      long[] oldAxisBits = mSampleAxisBits;
+      float[] oldAxisValues = mSampleAxisValues;
+      int coordsCapacity = mSampleEventTimes.length * pointerCount;
+      mSampleAxisBits = new long[coordsCapacity];
+      mSampleAxisValues = new float[coordsCapacity * PointerCoords.MAX_AXES];
+      for (int h = 0; h < mSampleCount; h++) {
+        System.arraycopy(
+            oldAxisBits, h * oldPointerCount, mSampleAxisBits, h * pointerCount, oldPointerCount);
+        System.arraycopy(
+            oldAxisValues,
+            h * oldPointerCount * PointerCoords.MAX_AXES,
+            mSampleAxisValues,
+            h * pointerCount * PointerCoords.MAX_AXES,
+            oldPointerCount * PointerCoords.MAX_AXES);
+      }
+      setPointerCount(pointerCount);
+      for (int i = oldPointerCount; i < pointerCount; i++) {
+        mPointerProperties[i].clear();
+      }
+    }
+
+    /** Sets the raw value of an axis of the given pointer in the current sample. */
+    void setRawAxisValue(int axis, int pointerIndex, float value) {
+      int coordsIndex = getCoordsIndex(pointerIndex, getHistorySize());
+      mSampleAxisBits[coordsIndex] =
+          PointerCoords.setAxisValue(
+              mSampleAxisBits[coordsIndex],
+              mSampleAxisValues,
+              coordsIndex * PointerCoords.MAX_AXES,
+              axis,
+              value);
     }
 
-    List<Long> getSampleEventTimes() {
-      return mSampleEventTimes;
+    private void setPointerProperties(int pointerCount, PointerProperties[] pointerProperties) {
+      setPointerCount(pointerCount);
+      for (int i = 0; i < pointerCount; i++) {
+        mPointerProperties[i].copyFrom(pointerProperties[i]);
+      }
+    }
+
+    /** Sets the number of pointers, without changing the layout of any existing samples. */
+    private void setPointerCount(int pointerCount) {
+      int oldLength = mPointerProperties.length;
+      if (oldLength < pointerCount) {
+        mPointerProperties = Arrays.copyOf(mPointerProperties, pointerCount);
+        for (int i = oldLength; i < pointerCount; i++) {
+          mPointerProperties[i] = new PointerProperties();
+        }
+      }
+      mPointerCount = pointerCount;
+    }
+
+    /** Grows the sample arrays, keeping their contents, to hold {@code sampleCount} samples. */
+    private void ensureSampleCapacity(int sampleCount) {
+      if (mSampleEventTimes.length < sampleCount) {
+        mSampleEventTimes =
+            Arrays.copyOf(mSampleEventTimes, Math.max(sampleCount, mSampleEventTimes.length * 2));
+      }
+      int coordsCount = sampleCount * mPointerCount;
+      if (mSampleAxisBits.length < coordsCount) {
+        int coordsCapacity = Math.max(coordsCount, mSampleAxisBits.length * 2);
+        mSampleAxisBits = Arrays.copyOf(mSampleAxisBits, coordsCapacity);
+        mSampleAxisValues =
+            Arrays.copyOf(mSampleAxisValues, coordsCapacity * PointerCoords.MAX_AXES);
+      }
+    }
+
+    private int getCoordsIndex(int pointerIndex, int sampleIndex) {
+      checkPointerIndex(pointerIndex);
+      checkSampleIndex(sampleIndex);
+      return sampleIndex * mPointerCount + pointerIndex;
     }
 
-    List<NativeInput.PointerCoords> getSamplePointerCoords() {
-      return mSamplePointerCoords;
+    private void checkPointerIndex(int pointerIndex) {
+      if (pointerIndex < 0 || pointerIndex >= mPointerCount) {
+        throw new IndexOutOfBoundsException(
+            "pointerIndex " + pointerIndex + " out of range for " + mPointerCount + " pointers");
+      }
+    }
+
+    private void checkSampleIndex(int sampleIndex) {
+      if (sampleIndex < 0 || sampleIndex >= mSampleCount) {
+        throw new IndexOutOfBoundsException(
+            "sample " + sampleIndex + " out of range for " + mSampleCount + " samples");
+      }
     }
   }
 }
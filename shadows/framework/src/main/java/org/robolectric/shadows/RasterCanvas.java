@@ -0,0 +1,218 @@
+package org.robolectric.shadows;
+
+import android.graphics.Bitmap;
+import android.graphics.Paint;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import org.robolectric.shadow.api.Shadow;
+
+/**
+ * Rasterizes canvas operations into a {@link Bitmap}'s pixels using Java2D.
+ *
+ * <p>Drawing goes straight into the bitmap's {@code int[]} pixel buffer (see {@link
+ * ShadowBitmap#getBufferedImage()}), so it's visible through {@link Bitmap#getPixel(int, int)} and
+ * friends. Java2D rendering into a {@link BufferedImage} doesn't need a display, so this works on
+ * headless machines; text rendering does require at least one font to be installed.
+ */
+class RasterCanvas {
+  /** Skia's default miter limit; {@code Paint.getStrokeMiter()} is native and isn't shadowed. */
+  private static final float DEFAULT_MITER_LIMIT = 4f;
+
+  private final BufferedImage image;
+
+  private RasterCanvas(BufferedImage image) {
+    this.image = image;
+  }
+
+  /**
+   * Returns a raster canvas drawing into {@code bitmap}, or {@code null} if the bitmap doesn't have
+   * a pixel buffer to draw into.
+   */
+  static RasterCanvas forBitmap(Bitmap bitmap) {
+    if (bitmap == null) {
+      return null;
+    }
+    ShadowBitmap shadowBitmap = Shadow.extract(bitmap);
+    BufferedImage image = shadowBitmap.getBufferedImage();
+    return image == null ? null : new RasterCanvas(image);
+  }
+
+  /** Fills the whole bitmap with {@code color}, composited over its current contents. */
+  void fill(int color) {
+    Graphics2D graphics = image.createGraphics();
+    try {
+      graphics.setColor(new Color(color, true));
+      graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+    } finally {
+      graphics.dispose();
+    }
+  }
+
+  void drawShape(Shape shape, Paint paint, AffineTransform transform) {
+    Graphics2D graphics = createGraphics(transform);
+    try {
+      applyPaint(graphics, paint);
+      Paint.Style style = paint.getStyle() == null ? Paint.Style.FILL : paint.getStyle();
+      if (style == Paint.Style.FILL || style == Paint.Style.FILL_AND_STROKE) {
+        graphics.fill(shape);
+      }
+      if (style == Paint.Style.STROKE || style == Paint.Style.FILL_AND_STROKE) {
+        graphics.draw(shape);
+      }
+    } finally {
+      graphics.dispose();
+    }
+  }
+
+  void drawLine(Shape line, Paint paint, AffineTransform transform) {
+    Graphics2D graphics = createGraphics(transform);
+    try {
+      applyPaint(graphics, paint);
+      // lines are always stroked, whatever the paint's style
+      graphics.draw(line);
+    } finally {
+      graphics.dispose();
+    }
+  }
+
+  void drawText(String text, float x, float y, Paint paint, AffineTransform transform) {
+    if (text.isEmpty() || paint.getTextSize() <= 0) {
+      return;
+    }
+    Graphics2D graphics = createGraphics(transform);
+    try {
+      applyPaint(graphics, paint);
+      graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 1).deriveFont(paint.getTextSize()));
+      if (paint.getTextAlign() != null && paint.getTextAlign() != Paint.Align.LEFT) {
+        float width = (float) graphics.getFontMetrics().getStringBounds(text, graphics).getWidth();
+        x -= paint.getTextAlign() == Paint.Align.CENTER ? width / 2 : width;
+      }
+      graphics.drawString(text, x, y);
+    } finally {
+      graphics.dispose();
+    }
+  }
+
+  /** Draws the {@code src} region of {@code bitmap} into {@code dst}, in canvas coordinates. */
+  void drawBitmap(
+      Bitmap bitmap,
+      int srcLeft,
+      int srcTop,
+      int srcRight,
+      int srcBottom,
+      float dstLeft,
+      float dstTop,
+      float dstRight,
+      float dstBottom,
+      Paint paint,
+      AffineTransform transform) {
+    ShadowBitmap shadowBitmap = Shadow.extract(bitmap);
+    BufferedImage source = shadowBitmap.getBufferedImage();
+    if (source == null || srcRight <= srcLeft || srcBottom <= srcTop) {
+      return;
+    }
+    Graphics2D graphics = createGraphics(transform);
+    try {
+      if (paint != null && paint.isFilterBitmap()) {
+        graphics.setRenderingHint(
+            RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      }
+      graphics.translate(dstLeft, dstTop);
+      graphics.scale(
+          (dstRight - dstLeft) / (srcRight - srcLeft), (dstBottom - dstTop) / (srcBottom - srcTop));
+      graphics.drawImage(
+          source,
+          0,
+          0,
+          srcRight - srcLeft,
+          srcBottom - srcTop,
+          srcLeft,
+          srcTop,
+          srcRight,
+          srcBottom,
+          null);
+    } finally {
+      graphics.dispose();
+    }
+  }
+
+  void drawBitmap(Bitmap bitmap, AffineTransform matrix, Paint paint, AffineTransform transform) {
+    AffineTransform combined = new AffineTransform(transform);
+    combined.concatenate(matrix);
+    drawBitmap(
+        bitmap,
+        0,
+        0,
+        bitmap.getWidth(),
+        bitmap.getHeight(),
+        0,
+        0,
+        bitmap.getWidth(),
+        bitmap.getHeight(),
+        paint,
+        combined);
+  }
+
+  private Graphics2D createGraphics(AffineTransform transform) {
+    Graphics2D graphics = image.createGraphics();
+    graphics.setTransform(transform);
+    return graphics;
+  }
+
+  private static void applyPaint(Graphics2D graphics, Paint paint) {
+    graphics.setColor(new Color(paint.getColor(), true));
+    graphics.setRenderingHint(
+        RenderingHints.KEY_ANTIALIASING,
+        paint.isAntiAlias()
+            ? RenderingHints.VALUE_ANTIALIAS_ON
+            : RenderingHints.VALUE_ANTIALIAS_OFF);
+    graphics.setRenderingHint(
+        RenderingHints.KEY_TEXT_ANTIALIASING,
+        paint.isAntiAlias()
+            ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON
+            : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+    // a stroke width of 0 means "hairline", which Java2D draws for a width of 0 too
+    graphics.setStroke(
+        new BasicStroke(
+            paint.getStrokeWidth(),
+            toJavaCap(paint.getStrokeCap()),
+            toJavaJoin(paint.getStrokeJoin()),
+            DEFAULT_MITER_LIMIT));
+  }
+
+  private static int toJavaCap(Paint.Cap cap) {
+    if (cap == null) {
+      return BasicStroke.CAP_BUTT;
+    }
+    switch (cap) {
+      case ROUND:
+        return BasicStroke.CAP_ROUND;
+      case SQUARE:
+        return BasicStroke.CAP_SQUARE;
+      case BUTT:
+      default:
+        return BasicStroke.CAP_BUTT;
+    }
+  }
+
+  private static int toJavaJoin(Paint.Join join) {
+    if (join == null) {
+      return BasicStroke.JOIN_MITER;
+    }
+    switch (join) {
+      case ROUND:
+        return BasicStroke.JOIN_ROUND;
+      case BEVEL:
+        return BasicStroke.JOIN_BEVEL;
+      case MITER:
+      default:
+        return BasicStroke.JOIN_MITER;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package org.robolectric.shadows;
 
+import static android.app.AlarmManager.RTC;
 import static android.app.AlarmManager.RTC_WAKEUP;
 import static android.os.Build.VERSION_CODES.KITKAT;
 import static android.os.Build.VERSION_CODES.LOLLIPOP;
@@ -13,10 +14,16 @@ import android.app.AlarmManager.OnAlarmListener;
 import android.app.PendingIntent;
 import android.content.Intent;
 import android.os.Handler;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.TimeZone;
+import java.util.TreeSet;
+import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.RealObject;
@@ -29,13 +36,96 @@ public class ShadowAlarmManager {
 
   private static final TimeZone DEFAULT_TIMEZONE = TimeZone.getDefault();
 
-  private final List<ScheduledAlarm> scheduledAlarms = new ArrayList<>();
+  private static boolean autoSchedule;
+
+  /** Alarms in the order they're due, and then in the order they were set. */
+  private final NavigableSet<AlarmEntry> scheduledAlarms =
+      new TreeSet<>(
+          Comparator.<AlarmEntry>comparingLong(entry -> entry.alarm.triggerAtTime)
+              .thenComparingLong(entry -> entry.sequence));
+
+  private final Map<OperationKey, AlarmEntry> alarmsByOperation = new HashMap<>();
+  private final Map<OnAlarmListener, AlarmEntry> alarmsByListener = new HashMap<>();
+  private long nextSequence;
+
+  /** A view of the scheduled alarms, returned by {@link #getScheduledAlarms()}. */
+  private final List<ScheduledAlarm> scheduledAlarmsView =
+      new AbstractList<ScheduledAlarm>() {
+        @Override
+        public ScheduledAlarm get(int index) {
+          return entryAt(index).alarm;
+        }
+
+        @Override
+        public ScheduledAlarm remove(int index) {
+          AlarmEntry entry = entryAt(index);
+          ShadowAlarmManager.this.remove(entry);
+          modCount++;
+          return entry.alarm;
+        }
+
+        @Override
+        public int size() {
+          return scheduledAlarms.size();
+        }
+
+        @Override
+        public Iterator<ScheduledAlarm> iterator() {
+          Iterator<AlarmEntry> entries = scheduledAlarms.iterator();
+          return new Iterator<ScheduledAlarm>() {
+            private AlarmEntry last;
+
+            @Override
+            public boolean hasNext() {
+              return entries.hasNext();
+            }
+
+            @Override
+            public ScheduledAlarm next() {
+              last = entries.next();
+              return last.alarm;
+            }
+
+            @Override
+            public void remove() {
+              entries.remove();
+              unindex(last);
+              modCount++;
+            }
+          };
+        }
+
+        private AlarmEntry entryAt(int index) {
+          if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+          }
+          Iterator<AlarmEntry> entries = scheduledAlarms.iterator();
+          for (int i = 0; i < index; i++) {
+            entries.next();
+          }
+          return entries.next();
+        }
+      };
 
   @RealObject private AlarmManager realObject;
 
   @Resetter
   public static void reset() {
     TimeZone.setDefault(DEFAULT_TIMEZONE);
+    autoSchedule = false;
+  }
+
+  /**
+   * When set to true, alarms set from then on are delivered when the foreground scheduler's clock
+   * reaches their trigger time: their PendingIntent is sent, or their listener is called, and
+   * they're removed from the scheduled alarms. Repeating alarms are then set again for their next
+   * interval.
+   *
+   * <p>Defaults to false, in which case alarms are only recorded, for tests to inspect with {@link
+   * #getNextScheduledAlarm()} and friends.
+   */
+  public static void setAutoSchedule(boolean autoSchedule) {
+    ShadowAlarmManager.autoSchedule = autoSchedule;
   }
 
   @Implementation
@@ -114,8 +204,8 @@ public class ShadowAlarmManager {
 
   @Implementation(minSdk = LOLLIPOP)
   protected AlarmClockInfo getNextAlarmClock() {
-    for (ScheduledAlarm scheduledAlarm : scheduledAlarms) {
-      AlarmClockInfo alarmClockInfo = scheduledAlarm.getAlarmClockInfo();
+    for (AlarmEntry entry : scheduledAlarms) {
+      AlarmClockInfo alarmClockInfo = entry.alarm.getAlarmClockInfo();
       if (alarmClockInfo != null) {
         return alarmClockInfo;
       }
@@ -126,15 +216,87 @@ public class ShadowAlarmManager {
   private void internalSet(int type, long triggerAtTime, long interval, PendingIntent operation,
       PendingIntent showIntent) {
     cancel(operation);
-    scheduledAlarms.add(new ScheduledAlarm(type, triggerAtTime, interval, operation, showIntent));
-    Collections.sort(scheduledAlarms);
+    schedule(new ScheduledAlarm(type, triggerAtTime, interval, operation, showIntent));
   }
 
   private void internalSet(
       int type, long triggerAtTime, OnAlarmListener listener, Handler handler) {
     cancel(listener);
-    scheduledAlarms.add(new ScheduledAlarm(type, triggerAtTime, 0L, listener, handler));
-    Collections.sort(scheduledAlarms);
+    schedule(new ScheduledAlarm(type, triggerAtTime, 0L, listener, handler));
+  }
+
+  private void schedule(ScheduledAlarm scheduledAlarm) {
+    long delay = Math.max(0, scheduledAlarm.triggerAtTime - now(scheduledAlarm.type));
+    schedule(scheduledAlarm, delay);
+  }
+
+  private void schedule(ScheduledAlarm scheduledAlarm, long delay) {
+    AlarmEntry entry = new AlarmEntry(scheduledAlarm, nextSequence++);
+    scheduledAlarms.add(entry);
+    if (scheduledAlarm.operation != null) {
+      alarmsByOperation.put(new OperationKey(scheduledAlarm.operation), entry);
+    } else if (scheduledAlarm.onAlarmListener != null) {
+      alarmsByListener.put(scheduledAlarm.onAlarmListener, entry);
+    }
+    if (autoSchedule) {
+      entry.trigger = () -> deliver(entry);
+      RuntimeEnvironment.getMasterScheduler().postDelayed(entry.trigger, delay);
+    }
+  }
+
+  private void remove(AlarmEntry entry) {
+    scheduledAlarms.remove(entry);
+    unindex(entry);
+  }
+
+  /** Removes {@code entry} from the indexes and the scheduler, but not from the alarms. */
+  private void unindex(AlarmEntry entry) {
+    if (entry.alarm.operation != null) {
+      alarmsByOperation.remove(new OperationKey(entry.alarm.operation), entry);
+    } else if (entry.alarm.onAlarmListener != null) {
+      alarmsByListener.remove(entry.alarm.onAlarmListener, entry);
+    }
+    if (entry.trigger != null) {
+      RuntimeEnvironment.getMasterScheduler().remove(entry.trigger);
+    }
+  }
+
+  private void deliver(AlarmEntry entry) {
+    remove(entry);
+    ScheduledAlarm alarm = entry.alarm;
+    if (alarm.interval > 0) {
+      schedule(
+          new ScheduledAlarm(
+              alarm.type,
+              alarm.triggerAtTime + alarm.interval,
+              alarm.interval,
+              alarm.operation,
+              alarm.showIntent,
+              alarm.onAlarmListener,
+              alarm.handler),
+          alarm.interval);
+    }
+
+    if (alarm.operation != null) {
+      try {
+        alarm.operation.send();
+      } catch (PendingIntent.CanceledException e) {
+        // as on a device, alarms whose PendingIntent was canceled are dropped
+        cancel(alarm.operation);
+      }
+    } else if (alarm.onAlarmListener != null) {
+      if (alarm.handler != null) {
+        alarm.handler.post(alarm.onAlarmListener::onAlarm);
+      } else {
+        alarm.onAlarmListener.onAlarm();
+      }
+    }
+  }
+
+  private static long now(int type) {
+    return type == RTC || type == RTC_WAKEUP
+        ? ShadowSystemClock.currentTimeMillis()
+        : ShadowSystemClock.elapsedRealtime();
   }
 
   /**
@@ -144,7 +306,9 @@ public class ShadowAlarmManager {
     if (scheduledAlarms.isEmpty()) {
       return null;
     } else {
-      return scheduledAlarms.remove(0);
+      AlarmEntry entry = scheduledAlarms.first();
+      remove(entry);
+      return entry.alarm;
     }
   }
 
@@ -155,44 +319,74 @@ public class ShadowAlarmManager {
     if (scheduledAlarms.isEmpty()) {
       return null;
     } else {
-      return scheduledAlarms.get(0);
+      return scheduledAlarms.first().alarm;
     }
   }
 
   /**
+   * Returns a live view of all scheduled alarms, in the order they're due. Removing an alarm from
+   * the view cancels it; alarms can't be added through the view.
+   *
    * @return all scheduled alarms
    */
   public List<ScheduledAlarm> getScheduledAlarms() {
-    return scheduledAlarms;
+    return scheduledAlarmsView;
   }
 
   @Implementation
   protected void cancel(PendingIntent operation) {
-    ShadowPendingIntent shadowPendingIntent = Shadow.extract(operation);
-    final Intent toRemove = shadowPendingIntent.getSavedIntent();
-    final int requestCode = shadowPendingIntent.getRequestCode();
-    for (ScheduledAlarm scheduledAlarm : scheduledAlarms) {
-      if (scheduledAlarm.operation != null) {
-        ShadowPendingIntent scheduledShadowPendingIntent = Shadow.extract(scheduledAlarm.operation);
-        final Intent scheduledIntent = scheduledShadowPendingIntent.getSavedIntent();
-        final int scheduledRequestCode = scheduledShadowPendingIntent.getRequestCode();
-        if (scheduledIntent.filterEquals(toRemove) && scheduledRequestCode == requestCode) {
-          scheduledAlarms.remove(scheduledAlarm);
-          break;
-        }
-      }
+    AlarmEntry entry = alarmsByOperation.get(new OperationKey(operation));
+    if (entry != null) {
+      remove(entry);
     }
   }
 
   @Implementation(minSdk = N)
   protected void cancel(OnAlarmListener listener) {
-    for (ScheduledAlarm scheduledAlarm : scheduledAlarms) {
-      if (scheduledAlarm.onAlarmListener != null) {
-        if (scheduledAlarm.onAlarmListener.equals(listener)) {
-          scheduledAlarms.remove(scheduledAlarm);
-          break;
-        }
+    AlarmEntry entry = alarmsByListener.get(listener);
+    if (entry != null) {
+      remove(entry);
+    }
+  }
+
+  /** A scheduled alarm, and the task delivering it if alarms are scheduled automatically. */
+  private static class AlarmEntry {
+    final ScheduledAlarm alarm;
+    final long sequence;
+    Runnable trigger;
+
+    AlarmEntry(ScheduledAlarm alarm, long sequence) {
+      this.alarm = alarm;
+      this.sequence = sequence;
+    }
+  }
+
+  /**
+   * Identifies the alarms of equivalent PendingIntents: those with the same request code and
+   * intents which are equal for the purpose of intent resolution.
+   */
+  private static class OperationKey {
+    private final Intent intent;
+    private final int requestCode;
+
+    OperationKey(PendingIntent operation) {
+      ShadowPendingIntent shadowPendingIntent = Shadow.extract(operation);
+      this.intent = shadowPendingIntent.getSavedIntent();
+      this.requestCode = shadowPendingIntent.getRequestCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof OperationKey)) {
+        return false;
       }
+      OperationKey other = (OperationKey) o;
+      return requestCode == other.requestCode && intent.filterEquals(other.intent);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * intent.filterHashCode() + requestCode;
     }
   }
 
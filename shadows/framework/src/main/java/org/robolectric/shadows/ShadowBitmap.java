@@ -11,6 +11,11 @@ import android.graphics.RectF;
 import android.os.Build;
 import android.os.Parcel;
 import android.util.DisplayMetrics;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
 import java.io.FileDescriptor;
 import java.io.IOException;
 import java.io.InputStream;
@@ -30,6 +35,9 @@ public class ShadowBitmap {
   /** Number of bytes used internally to represent each pixel (in the {@link #colors} array) */
   private static final int INTERNAL_BYTES_PER_PIXEL = 4;
 
+  /** Where each channel lives in the (non-premultiplied) ARGB ints of the {@link #colors} array. */
+  private static final int[] ARGB_MASKS = {0x00ff0000, 0x0000ff00, 0x000000ff, 0xff000000};
+
   @RealObject
   private Bitmap realBitmap;
 
@@ -58,6 +66,7 @@ public class ShadowBitmap {
   private boolean recycled = false;
   private boolean hasMipMap;
   private boolean isPremultiplied;
+  private BufferedImage bufferedImage;
 
   /**
    * Returns a textual representation of the appearance of the object.
@@ -538,7 +547,11 @@ public class ShadowBitmap {
   }
 
   @Implementation
-  protected void eraseColor(int c) {}
+  protected void eraseColor(int c) {
+    if (colors != null) {
+      Arrays.fill(colors, c);
+    }
+  }
 
   @Implementation
   protected void writeToParcel(Parcel p, int flags) {
@@ -655,6 +668,26 @@ public class ShadowBitmap {
     return realBitmap;
   }
 
+  /**
+   * Returns a Java2D image backed by this bitmap's pixels, or {@code null} if it doesn't have any.
+   * Drawing into the image writes straight through to the bitmap.
+   */
+  BufferedImage getBufferedImage() {
+    if (colors == null || width <= 0 || height <= 0 || colors.length < width * height) {
+      return null;
+    }
+    if (bufferedImage == null
+        || ((DataBufferInt) bufferedImage.getRaster().getDataBuffer()).getData() != colors
+        || bufferedImage.getWidth() != width
+        || bufferedImage.getHeight() != height) {
+      WritableRaster raster =
+          Raster.createPackedRaster(
+              new DataBufferInt(colors, width * height), width, height, width, ARGB_MASKS, null);
+      bufferedImage = new BufferedImage(ColorModel.getRGBdefault(), raster, false, null);
+    }
+    return bufferedImage;
+  }
+
   public static int getBytesPerPixel(Bitmap.Config config) {
     if (config == null) {
       throw new NullPointerException("Bitmap config was null.");
@@ -1,5 +1,7 @@
 package org.robolectric.shadows;
 
+import static android.os.Build.VERSION_CODES.LOLLIPOP;
+
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.ColorFilter;
@@ -10,10 +12,18 @@ import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.RectF;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
+import org.robolectric.annotation.Resetter;
 import org.robolectric.shadow.api.Shadow;
 import org.robolectric.util.Join;
 import org.robolectric.util.ReflectionHelpers;
@@ -22,10 +32,21 @@ import org.robolectric.util.ReflectionHelpers;
  * Broken. This implementation is very specific to the application for which it was developed.
  * Todo: Reimplement. Consider using the same strategy of collecting a history of draw events
  * and providing methods for writing queries based on type, number, and order of events.
+ *
+ * <p>When raster mode is enabled (see {@link #setRasterEnabled(boolean)}), drawing is also
+ * rendered into the target bitmap's pixels using Java2D, so the result can be inspected with
+ * {@link Bitmap#getPixel(int, int)} or compared with {@link Bitmap#sameAs(Bitmap)}.
  */
 @SuppressWarnings({"UnusedDeclaration"})
 @Implements(Canvas.class)
 public class ShadowCanvas {
+  /** System property which, if {@code "true"}, enables raster mode by default. */
+  public static final String RASTER_PROPERTY = "robolectric.canvas.raster";
+
+  private static final boolean RASTER_ENABLED_BY_DEFAULT = Boolean.getBoolean(RASTER_PROPERTY);
+
+  private static Boolean rasterEnabled;
+
   private List<PathPaintHistoryEvent> pathPaintEvents = new ArrayList<>();
   private List<CirclePaintHistoryEvent> circlePaintEvents = new ArrayList<>();
   private List<ArcPaintHistoryEvent> arcPaintEvents = new ArrayList<>();
@@ -41,6 +62,24 @@ public class ShadowCanvas {
   private float scaleY = 1;
   private int height;
   private int width;
+  private AffineTransform matrix = new AffineTransform();
+  private final Deque<AffineTransform> savedMatrices = new ArrayDeque<>();
+
+  /**
+   * Enables or disables drawing into the pixels of the target bitmap, for the rest of the current
+   * test. By default, this is enabled if the {@link #RASTER_PROPERTY} system property is {@code
+   * "true"}.
+   *
+   * <p>Drawing history and descriptions are recorded either way.
+   */
+  public static void setRasterEnabled(boolean enabled) {
+    rasterEnabled = enabled;
+  }
+
+  @Resetter
+  public static void reset() {
+    rasterEnabled = null;
+  }
 
   /**
    * Returns a textual representation of the appearance of the object.
@@ -76,50 +115,175 @@ public class ShadowCanvas {
   @Implementation
   protected void drawText(String text, float x, float y, Paint paint) {
     drawnTextEventHistory.add(new TextHistoryEvent(x, y, paint, text));
+    rasterizeText(text, x, y, paint);
   }
 
   @Implementation
   protected void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
-    drawnTextEventHistory.add(
-        new TextHistoryEvent(x, y, paint, text.subSequence(start, end).toString()));
+    String drawnText = text.subSequence(start, end).toString();
+    drawnTextEventHistory.add(new TextHistoryEvent(x, y, paint, drawnText));
+    rasterizeText(drawnText, x, y, paint);
   }
 
   @Implementation
   protected void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
-    drawnTextEventHistory.add(new TextHistoryEvent(x, y, paint, new String(text, index, count)));
+    String drawnText = new String(text, index, count);
+    drawnTextEventHistory.add(new TextHistoryEvent(x, y, paint, drawnText));
+    rasterizeText(drawnText, x, y, paint);
   }
 
   @Implementation
   protected void drawText(String text, int start, int end, float x, float y, Paint paint) {
-    drawnTextEventHistory.add(new TextHistoryEvent(x, y, paint, text.substring(start, end)));
+    String drawnText = text.substring(start, end);
+    drawnTextEventHistory.add(new TextHistoryEvent(x, y, paint, drawnText));
+    rasterizeText(drawnText, x, y, paint);
   }
 
   @Implementation
   protected void translate(float x, float y) {
     this.translateX = x;
     this.translateY = y;
+    matrix.translate(x, y);
   }
 
   @Implementation
   protected void scale(float sx, float sy) {
     this.scaleX = sx;
     this.scaleY = sy;
+    matrix.scale(sx, sy);
   }
 
   @Implementation
   protected void scale(float sx, float sy, float px, float py) {
     this.scaleX = sx;
     this.scaleY = sy;
+    matrix.translate(px, py);
+    matrix.scale(sx, sy);
+    matrix.translate(-px, -py);
+  }
+
+  @Implementation
+  protected void rotate(float degrees) {
+    matrix.rotate(Math.toRadians(degrees));
+  }
+
+  @Implementation
+  protected void concat(Matrix matrix) {
+    if (matrix != null) {
+      ShadowMatrix shadowMatrix = Shadow.extract(matrix);
+      this.matrix.concatenate(shadowMatrix.getAffineTransform());
+    }
+  }
+
+  @Implementation
+  protected void setMatrix(Matrix matrix) {
+    if (matrix == null) {
+      this.matrix = new AffineTransform();
+    } else {
+      ShadowMatrix shadowMatrix = Shadow.extract(matrix);
+      this.matrix = shadowMatrix.getAffineTransform();
+    }
+  }
+
+  @Implementation
+  protected void getMatrix(Matrix ctm) {
+    ctm.reset();
+    ctm.setValues(
+        new float[] {
+          (float) matrix.getScaleX(), (float) matrix.getShearX(), (float) matrix.getTranslateX(),
+          (float) matrix.getShearY(), (float) matrix.getScaleY(), (float) matrix.getTranslateY(),
+          0f, 0f, 1f
+        });
+  }
+
+  @Implementation
+  protected int save() {
+    return saveMatrix();
+  }
+
+  @Implementation
+  protected int save(int saveFlags) {
+    return saveMatrix();
+  }
+
+  // Layers are treated as plain saves: their contents are drawn straight to the target bitmap.
+
+  @Implementation(minSdk = LOLLIPOP)
+  protected int saveLayer(RectF bounds, Paint paint) {
+    return saveMatrix();
+  }
+
+  @Implementation
+  protected int saveLayer(RectF bounds, Paint paint, int saveFlags) {
+    return saveMatrix();
+  }
+
+  @Implementation(minSdk = LOLLIPOP)
+  protected int saveLayer(float left, float top, float right, float bottom, Paint paint) {
+    return saveMatrix();
+  }
+
+  @Implementation
+  protected int saveLayer(
+      float left, float top, float right, float bottom, Paint paint, int saveFlags) {
+    return saveMatrix();
+  }
+
+  @Implementation(minSdk = LOLLIPOP)
+  protected int saveLayerAlpha(RectF bounds, int alpha) {
+    return saveMatrix();
+  }
+
+  @Implementation
+  protected int saveLayerAlpha(RectF bounds, int alpha, int saveFlags) {
+    return saveMatrix();
+  }
+
+  @Implementation(minSdk = LOLLIPOP)
+  protected int saveLayerAlpha(float left, float top, float right, float bottom, int alpha) {
+    return saveMatrix();
+  }
+
+  @Implementation
+  protected int saveLayerAlpha(
+      float left, float top, float right, float bottom, int alpha, int saveFlags) {
+    return saveMatrix();
+  }
+
+  private int saveMatrix() {
+    int saveCount = getSaveCount();
+    savedMatrices.push(new AffineTransform(matrix));
+    return saveCount;
+  }
+
+  @Implementation
+  protected int getSaveCount() {
+    return savedMatrices.size() + 1;
+  }
+
+  @Implementation
+  protected void restoreToCount(int saveCount) {
+    while (getSaveCount() > Math.max(saveCount, 1)) {
+      restore();
+    }
   }
 
   @Implementation
   protected void drawPaint(Paint paint) {
     drawnPaint = paint;
+    RasterCanvas rasterCanvas = getRasterCanvas();
+    if (rasterCanvas != null) {
+      rasterCanvas.fill(paint.getColor());
+    }
   }
 
   @Implementation
   protected void drawColor(int color) {
     appendDescription("draw color " + color);
+    RasterCanvas rasterCanvas = getRasterCanvas();
+    if (rasterCanvas != null) {
+      rasterCanvas.fill(color);
+    }
   }
 
   @Implementation
@@ -135,6 +299,14 @@ public class ShadowCanvas {
     if (scaleX != 1 && scaleY != 1) {
       appendDescription(" scaled by (" + scaleX + "," + scaleY + ")");
     }
+
+    RasterCanvas rasterCanvas = getRasterCanvas();
+    if (rasterCanvas != null) {
+      int width = bitmap.getWidth();
+      int height = bitmap.getHeight();
+      rasterCanvas.drawBitmap(
+          bitmap, 0, 0, width, height, left, top, left + width, top + height, paint, matrix);
+    }
   }
 
   @Implementation
@@ -151,6 +323,10 @@ public class ShadowCanvas {
       descriptionBuilder.append( " taken from ").append(src.toString());
     }
     appendDescription(descriptionBuilder.toString());
+
+    if (dst != null) {
+      rasterizeBitmap(bitmap, src, dst.left, dst.top, dst.right, dst.bottom, paint);
+    }
   }
 
   @Implementation
@@ -167,6 +343,10 @@ public class ShadowCanvas {
       descriptionBuilder.append( " taken from ").append(src.toString());
     }
     appendDescription(descriptionBuilder.toString());
+
+    if (dst != null) {
+      rasterizeBitmap(bitmap, src, dst.left, dst.top, dst.right, dst.bottom, paint);
+    }
   }
 
   @Implementation
@@ -175,6 +355,11 @@ public class ShadowCanvas {
 
     ShadowMatrix shadowMatrix = Shadow.extract(matrix);
     appendDescription(" transformed by " + shadowMatrix.getDescription());
+
+    RasterCanvas rasterCanvas = getRasterCanvas();
+    if (rasterCanvas != null) {
+      rasterCanvas.drawBitmap(bitmap, shadowMatrix.getAffineTransform(), paint, this.matrix);
+    }
   }
 
   @Implementation
@@ -184,36 +369,117 @@ public class ShadowCanvas {
     separateLines();
     ShadowPath shadowPath = Shadow.extract(path);
     appendDescription("Path " + shadowPath.getPoints().toString());
+
+    RasterCanvas rasterCanvas = getRasterCanvas();
+    if (rasterCanvas != null) {
+      rasterCanvas.drawShape(shadowPath.getJavaShape(), paint, matrix);
+    }
   }
 
   @Implementation
   protected void drawCircle(float cx, float cy, float radius, Paint paint) {
     circlePaintEvents.add(new CirclePaintHistoryEvent(cx, cy, radius, paint));
+
+    RasterCanvas rasterCanvas = getRasterCanvas();
+    if (rasterCanvas != null) {
+      rasterCanvas.drawShape(
+          new Ellipse2D.Float(cx - radius, cy - radius, radius * 2, radius * 2), paint, matrix);
+    }
   }
 
   @Implementation
   protected void drawArc(
       RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
     arcPaintEvents.add(new ArcPaintHistoryEvent(oval, startAngle, sweepAngle, useCenter, paint));
+
+    RasterCanvas rasterCanvas = getRasterCanvas();
+    if (rasterCanvas != null) {
+      // Java2D measures angles counter-clockwise, Android clockwise
+      rasterCanvas.drawShape(
+          new Arc2D.Float(
+              oval.left,
+              oval.top,
+              oval.width(),
+              oval.height(),
+              -startAngle,
+              -sweepAngle,
+              useCenter ? Arc2D.PIE : Arc2D.OPEN),
+          paint,
+          matrix);
+    }
   }
 
   @Implementation
   protected void drawRect(float left, float top, float right, float bottom, Paint paint) {
     rectPaintEvents.add(new RectPaintHistoryEvent(left, top, right, bottom, paint));
+
+    RasterCanvas rasterCanvas = getRasterCanvas();
+    if (rasterCanvas != null) {
+      rasterCanvas.drawShape(
+          new Rectangle2D.Float(left, top, right - left, bottom - top), paint, matrix);
+    }
   }
 
   @Implementation
   protected void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
     linePaintEvents.add(new LinePaintHistoryEvent(startX, startY, stopX, stopY, paint));
+
+    RasterCanvas rasterCanvas = getRasterCanvas();
+    if (rasterCanvas != null) {
+      rasterCanvas.drawLine(new Line2D.Float(startX, startY, stopX, stopY), paint, matrix);
+    }
   }
 
   @Implementation
   protected void drawOval(RectF oval, Paint paint) {
     ovalPaintEvents.add(new OvalPaintHistoryEvent(oval, paint));
+
+    RasterCanvas rasterCanvas = getRasterCanvas();
+    if (rasterCanvas != null) {
+      rasterCanvas.drawShape(
+          new Ellipse2D.Float(oval.left, oval.top, oval.width(), oval.height()), paint, matrix);
+    }
   }
 
   @Implementation
-  protected void restore() {}
+  protected void restore() {
+    if (savedMatrices.isEmpty()) {
+      throw new IllegalStateException("Underflow in restore - more restores than saves");
+    }
+    matrix = savedMatrices.pop();
+  }
+
+  private RasterCanvas getRasterCanvas() {
+    boolean enabled = rasterEnabled != null ? rasterEnabled : RASTER_ENABLED_BY_DEFAULT;
+    return enabled ? RasterCanvas.forBitmap(targetBitmap) : null;
+  }
+
+  private void rasterizeText(String text, float x, float y, Paint paint) {
+    RasterCanvas rasterCanvas = getRasterCanvas();
+    if (rasterCanvas != null) {
+      rasterCanvas.drawText(text, x, y, paint, matrix);
+    }
+  }
+
+  private void rasterizeBitmap(
+      Bitmap bitmap, Rect src, float left, float top, float right, float bottom, Paint paint) {
+    RasterCanvas rasterCanvas = getRasterCanvas();
+    if (rasterCanvas != null) {
+      Rect source = src != null ? src : new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight());
+      rasterCanvas.drawBitmap(
+          bitmap,
+          source.left,
+          source.top,
+          source.right,
+          source.bottom,
+          left,
+          top,
+          right,
+          bottom,
+          paint,
+          matrix);
+    }
+  }
 
   private void describeBitmap(Bitmap bitmap, Paint paint) {
     separateLines();
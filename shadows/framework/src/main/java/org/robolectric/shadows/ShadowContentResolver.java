@@ -59,7 +59,7 @@ public class ShadowContentResolver {
   private final List<InsertStatement> insertStatements = new ArrayList<>();
   private final List<UpdateStatement> updateStatements = new ArrayList<>();
   private final List<DeleteStatement> deleteStatements = new ArrayList<>();
-  private List<NotifiedUri> notifiedUris = new ArrayList<>();
+  private final List<NotifiedUri> notifiedUris = new CopyOnWriteArrayList<>();
   private Map<Uri, BaseCursor> uriCursorMap = new HashMap<>();
   private Map<Uri, InputStream> inputStreamMap = new HashMap<>();
   private Map<Uri, OutputStream> outputStreamMap = new HashMap<>();
@@ -112,10 +112,13 @@ public class ShadowDisplayManager {
       displayMetrics.densityDpi = baseDisplayInfo.logicalDensityDpi;
       displayMetrics.density =
           baseDisplayInfo.logicalDensityDpi * DisplayMetrics.DENSITY_DEFAULT_SCALE;
-    }
 
-    Bootstrap.applyQualifiers(qualifiersStr, RuntimeEnvironment.getApiLevel(), configuration,
-        displayMetrics);
+      Bootstrap.applyQualifiers(qualifiersStr, RuntimeEnvironment.getApiLevel(), configuration,
+          displayMetrics);
+    } else {
+      Bootstrap.applyQualifiersToDefaults(qualifiersStr, RuntimeEnvironment.getApiLevel(),
+          configuration, displayMetrics);
+    }
 
     return createDisplayInfo(configuration, displayMetrics);
   }
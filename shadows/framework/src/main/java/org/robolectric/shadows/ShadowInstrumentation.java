@@ -32,6 +32,7 @@ import android.os.UserHandle;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -63,6 +64,51 @@ public class ShadowInstrumentation {
   private List<ServiceConnection> boundServiceConnections = new ArrayList<>();
   private List<ServiceConnection> unboundServiceConnections = new ArrayList<>();
   private List<Wrapper> registeredReceivers = new ArrayList<>();
+  // registered receivers by each action of their filter, in order of registration
+  private Map<String, List<Wrapper>> registeredReceiversByAction = new HashMap<>();
+  // live view of registeredReceivers which keeps registeredReceiversByAction up to date when it's
+  // modified, for getRegisteredReceivers()
+  private final List<Wrapper> registeredReceiversView =
+      new AbstractList<Wrapper>() {
+        @Override
+        public Wrapper get(int index) {
+          return registeredReceivers.get(index);
+        }
+
+        @Override
+        public int size() {
+          return registeredReceivers.size();
+        }
+
+        @Override
+        public Wrapper set(int index, Wrapper wrapper) {
+          Wrapper previous = registeredReceivers.set(index, wrapper);
+          rebuildActionIndex();
+          return previous;
+        }
+
+        @Override
+        public void add(int index, Wrapper wrapper) {
+          registeredReceivers.add(index, wrapper);
+          modCount++;
+          rebuildActionIndex();
+        }
+
+        @Override
+        public Wrapper remove(int index) {
+          Wrapper removed = registeredReceivers.remove(index);
+          modCount++;
+          removeFromActionIndex(removed);
+          return removed;
+        }
+
+        @Override
+        public void clear() {
+          registeredReceivers.clear();
+          registeredReceiversByAction.clear();
+          modCount++;
+        }
+      };
   private Set<String> grantedPermissions = new HashSet<>();
   private boolean unbindServiceShouldThrowIllegalArgument = false;
   private Map<Intent.FilterComparison, ServiceConnectionDataWrapper>
@@ -198,24 +244,19 @@ public class ShadowInstrumentation {
   }
 
   void assertNoBroadcastListenersOfActionRegistered(ContextWrapper context, String action) {
-    for (Wrapper registeredReceiver : registeredReceivers) {
+    for (Wrapper registeredReceiver : getRegisteredReceiversForAction(action)) {
       if (registeredReceiver.context == context.getBaseContext()) {
-        Iterator<String> actions = registeredReceiver.intentFilter.actionsIterator();
-        while (actions.hasNext()) {
-          if (actions.next().equals(action)) {
-            RuntimeException e =
-                new IllegalStateException(
-                    "Unexpected BroadcastReceiver on "
-                        + context
-                        + " with action "
-                        + action
-                        + " "
-                        + registeredReceiver.broadcastReceiver
-                        + " that was originally registered here:");
-            e.setStackTrace(registeredReceiver.exception.getStackTrace());
-            throw e;
-          }
-        }
+        RuntimeException e =
+            new IllegalStateException(
+                "Unexpected BroadcastReceiver on "
+                    + context
+                    + " with action "
+                    + action
+                    + " "
+                    + registeredReceiver.broadcastReceiver
+                    + " that was originally registered here:");
+        e.setStackTrace(registeredReceiver.exception.getStackTrace());
+        throw e;
       }
     }
   }
@@ -226,9 +267,7 @@ public class ShadowInstrumentation {
 
     List<Wrapper> result = new ArrayList<>();
 
-    List<Wrapper> copy = new ArrayList<>();
-    copy.addAll(registeredReceivers);
-    for (Wrapper wrapper : copy) {
+    for (Wrapper wrapper : getRegisteredReceiversForAction(intent.getAction())) {
       if (hasMatchingPermission(wrapper.broadcastPermission, receiverPermission)
           && wrapper.intentFilter.matchAction(intent.getAction())) {
         final int match =
@@ -600,29 +639,72 @@ public class ShadowInstrumentation {
       Handler scheduler,
       Context context) {
     if (receiver != null) {
-      registeredReceivers.add(
-          new Wrapper(receiver, filter, context, broadcastPermission, scheduler));
+      Wrapper wrapper = new Wrapper(receiver, filter, context, broadcastPermission, scheduler);
+      registeredReceivers.add(wrapper);
+      addToActionIndex(wrapper);
     }
     return processStickyIntents(filter, receiver, context);
   }
 
+  private void addToActionIndex(Wrapper wrapper) {
+    if (wrapper.intentFilter == null) {
+      return;
+    }
+    Iterator<String> actions = wrapper.intentFilter.actionsIterator();
+    while (actions != null && actions.hasNext()) {
+      String action = actions.next();
+      List<Wrapper> receiversForAction = registeredReceiversByAction.get(action);
+      if (receiversForAction == null) {
+        registeredReceiversByAction.put(action, receiversForAction = new ArrayList<>());
+      }
+      receiversForAction.add(wrapper);
+    }
+  }
+
+  private void rebuildActionIndex() {
+    registeredReceiversByAction.clear();
+    for (Wrapper wrapper : registeredReceivers) {
+      addToActionIndex(wrapper);
+    }
+  }
+
   private Intent processStickyIntents(
       IntentFilter filter, BroadcastReceiver receiver, Context context) {
-    Intent result = null;
-    for (Intent stickyIntent : stickyIntents.values()) {
-      if (filter.matchAction(stickyIntent.getAction())) {
-        if (result == null) {
-          result = stickyIntent;
-        }
-        if (receiver != null) {
-          receiver.setPendingResult(ShadowBroadcastPendingResult.createSticky(stickyIntent));
-          receiver.onReceive(context, stickyIntent);
-          receiver.setPendingResult(null);
-        } else if (result != null) {
-          break;
-        }
+    List<Intent> matchingStickyIntents = getStickyIntentsMatching(filter);
+    if (matchingStickyIntents.isEmpty()) {
+      return null;
+    }
+
+    if (receiver != null) {
+      for (Intent stickyIntent : matchingStickyIntents) {
+        receiver.setPendingResult(ShadowBroadcastPendingResult.createSticky(stickyIntent));
+        receiver.onReceive(context, stickyIntent);
+        receiver.setPendingResult(null);
       }
     }
+    return matchingStickyIntents.get(0);
+  }
+
+  /** Returns the sticky intents matching any of {@code filter}'s actions, in the order sent. */
+  private List<Intent> getStickyIntentsMatching(IntentFilter filter) {
+    List<Intent> result = new ArrayList<>();
+    if (stickyIntents.isEmpty()) {
+      return result;
+    }
+
+    Iterator<String> actions = filter.actionsIterator();
+    while (actions != null && actions.hasNext()) {
+      Intent stickyIntent = stickyIntents.get(actions.next());
+      if (stickyIntent != null) {
+        result.add(stickyIntent);
+      }
+    }
+
+    if (result.size() > 1) {
+      List<Intent> inSentOrder = new ArrayList<>(stickyIntents.values());
+      inSentOrder.retainAll(result);
+      return inSentOrder;
+    }
     return result;
   }
 
@@ -633,6 +715,7 @@ public class ShadowInstrumentation {
       Wrapper wrapper = iterator.next();
       if (wrapper.broadcastReceiver == broadcastReceiver) {
         iterator.remove();
+        removeFromActionIndex(wrapper);
         found = true;
       }
     }
@@ -641,10 +724,31 @@ public class ShadowInstrumentation {
     }
   }
 
+  private void removeFromActionIndex(Wrapper wrapper) {
+    Iterator<List<Wrapper>> iterator = registeredReceiversByAction.values().iterator();
+    while (iterator.hasNext()) {
+      List<Wrapper> receiversForAction = iterator.next();
+      if (receiversForAction.remove(wrapper) && receiversForAction.isEmpty()) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Returns a snapshot of the receivers registered for {@code action} (as of the time they were
+   * registered), so that receivers may register or unregister while it's being iterated.
+   */
+  private List<Wrapper> getRegisteredReceiversForAction(String action) {
+    List<Wrapper> receiversForAction = registeredReceiversByAction.get(action);
+    return receiversForAction == null
+        ? Collections.<Wrapper>emptyList()
+        : new ArrayList<>(receiversForAction);
+  }
+
   /** @deprecated use PackageManager.queryBroadcastReceivers instead */
   @Deprecated
   boolean hasReceiverForIntent(Intent intent) {
-    for (Wrapper wrapper : registeredReceivers) {
+    for (Wrapper wrapper : getRegisteredReceiversForAction(intent.getAction())) {
       if (wrapper.intentFilter.matchAction(intent.getAction())) {
         return true;
       }
@@ -656,7 +760,7 @@ public class ShadowInstrumentation {
   @Deprecated
   List<BroadcastReceiver> getReceiversForIntent(Intent intent) {
     ArrayList<BroadcastReceiver> broadcastReceivers = new ArrayList<>();
-    for (Wrapper wrapper : registeredReceivers) {
+    for (Wrapper wrapper : getRegisteredReceiversForAction(intent.getAction())) {
       if (wrapper.intentFilter.matchAction(intent.getAction())) {
         broadcastReceivers.add(wrapper.getBroadcastReceiver());
       }
@@ -664,9 +768,12 @@ public class ShadowInstrumentation {
     return broadcastReceivers;
   }
 
-  /** @return list of {@link Wrapper}s for registered receivers */
+  /**
+   * @return live list of {@link Wrapper}s for registered receivers; modifying it registers or
+   *     unregisters receivers accordingly
+   */
   List<Wrapper> getRegisteredReceivers() {
-    return registeredReceivers;
+    return registeredReceiversView;
   }
 
   int checkPermission(String permission, int pid, int uid) {
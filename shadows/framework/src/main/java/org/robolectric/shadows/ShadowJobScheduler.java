@@ -42,6 +42,12 @@ public abstract class ShadowJobScheduler {
 
   public abstract void failOnJob(int jobId);
 
+  /**
+   * Records scheduled jobs by id, for tests to inspect with {@link #getAllPendingJobs()} and
+   * {@link #getPendingJob(int)}; jobs are never run, however much time passes. Running a job would
+   * mean binding its {@code JobService} and passing it {@code JobParameters}, whose constructor is
+   * hidden and differs between SDK levels, and then tracking {@code jobFinished()}.
+   */
   @Implements(value = JobSchedulerImpl.class, isInAndroidSdk = false, minSdk = LOLLIPOP)
   public static class ShadowJobSchedulerImpl extends ShadowJobScheduler {
 
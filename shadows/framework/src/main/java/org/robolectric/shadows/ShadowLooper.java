@@ -7,7 +7,9 @@ import static org.robolectric.util.ReflectionHelpers.ClassParameter.from;
 
 import android.os.Looper;
 import android.os.MessageQueue;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
 import java.util.concurrent.TimeUnit;
@@ -147,6 +149,22 @@ public class ShadowLooper {
   public static Looper getLooperForThread(Thread thread) {
     return isMainThread(thread) ? mainLooper : loopingLoopers.get(thread);
   }
+
+  /** Returns the main looper, followed by the loopers of all other threads which haven't quit. */
+  public static List<Looper> getAllLoopers() {
+    List<Looper> loopers = new ArrayList<>();
+    if (mainLooper != null) {
+      loopers.add(mainLooper);
+    }
+    synchronized (loopingLoopers) {
+      for (Looper looper : loopingLoopers.values()) {
+        if (!shadowOf(looper).hasQuit()) {
+          loopers.add(looper);
+        }
+      }
+    }
+    return loopers;
+  }
   
   public static void pauseLooper(Looper looper) {
     shadowOf(looper).pause();
@@ -15,7 +15,6 @@ import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.shadow.api.Shadow;
@@ -32,11 +31,21 @@ public class ShadowMatrix {
 
   private static final float EPSILON = 1e-3f;
 
-  private final Deque<String> preOps = new ArrayDeque<>();
-  private final Deque<String> postOps = new ArrayDeque<>();
-  private final Map<String, String> setOps = new LinkedHashMap<>();
+  private static final float[] IDENTITY = {
+      1.0f, 0.0f, 0.0f,
+      0.0f, 1.0f, 0.0f,
+      0.0f, 0.0f, 1.0f,
+  };
 
-  private SimpleMatrix mMatrix = SimpleMatrix.IDENTITY;
+  // Operations are recorded as values and only described as strings when asked for.
+  private final Deque<Op> preOps = new ArrayDeque<>();
+  private final Deque<Op> postOps = new ArrayDeque<>();
+  private final Map<String, Op> setOps = new LinkedHashMap<>();
+
+  private final float[] mValues = IDENTITY.clone();
+  // Scratch space for the operand and product of pre/post operations, so they don't allocate.
+  private final float[] mTemp = new float[9];
+  private final float[] mProduct = new float[9];
 
   @Implementation
   protected void __constructor__(Matrix src) {
@@ -49,7 +58,7 @@ public class ShadowMatrix {
    * @return A list of all 'pre' operations performed on this Matrix.
    */
   public List<String> getPreOperations() {
-    return Collections.unmodifiableList(new ArrayList<>(preOps));
+    return Collections.unmodifiableList(describe(preOps));
   }
 
   /**
@@ -58,7 +67,7 @@ public class ShadowMatrix {
    * @return A list of all 'post' operations performed on this Matrix.
    */
   public List<String> getPostOperations() {
-    return Collections.unmodifiableList(new ArrayList<>(postOps));
+    return Collections.unmodifiableList(describe(postOps));
   }
 
   /**
@@ -66,32 +75,43 @@ public class ShadowMatrix {
    * @return A map of all 'set' operations performed on this Matrix.
    */
   public Map<String, String> getSetOperations() {
-    return Collections.unmodifiableMap(new LinkedHashMap<>(setOps));
+    return Collections.unmodifiableMap(describe(setOps));
   }
 
   @Implementation
   protected boolean isIdentity() {
-    return mMatrix.equals(SimpleMatrix.IDENTITY);
+    return nearlyEqual(mValues, IDENTITY);
   }
 
   @Implementation(minSdk = LOLLIPOP)
   protected boolean isAffine() {
-    return mMatrix.isAffine();
+    return mValues[6] == 0.0f && mValues[7] == 0.0f && mValues[8] == 1.0f;
   }
 
   @Implementation
   protected boolean rectStaysRect() {
-    return mMatrix.rectStaysRect();
+    final float m00 = mValues[0];
+    final float m01 = mValues[1];
+    final float m10 = mValues[3];
+    final float m11 = mValues[4];
+    return (m00 == 0 && m11 == 0 && m01 != 0 && m10 != 0)
+        || (m00 != 0 && m11 != 0 && m01 == 0 && m10 == 0);
   }
 
   @Implementation
   protected void getValues(float[] values) {
-    mMatrix.getValues(values);
+    if (values.length < 9) {
+      throw new ArrayIndexOutOfBoundsException();
+    }
+    System.arraycopy(mValues, 0, values, 0, 9);
   }
 
   @Implementation
   protected void setValues(float[] values) {
-    mMatrix = new SimpleMatrix(values);
+    if (values.length != 9) {
+      throw new ArrayIndexOutOfBoundsException();
+    }
+    System.arraycopy(values, 0, mValues, 0, 9);
   }
 
   @Implementation
@@ -102,7 +122,7 @@ public class ShadowMatrix {
       preOps.addAll(shadowMatrix.preOps);
       postOps.addAll(shadowMatrix.postOps);
       setOps.putAll(shadowMatrix.setOps);
-      mMatrix = new SimpleMatrix(getSimpleMatrix(src));
+      System.arraycopy(shadowMatrix.mValues, 0, mValues, 0, 9);
     }
   }
 
@@ -111,180 +131,224 @@ public class ShadowMatrix {
     preOps.clear();
     postOps.clear();
     setOps.clear();
-    mMatrix = SimpleMatrix.IDENTITY;
+    System.arraycopy(IDENTITY, 0, mValues, 0, 9);
   }
 
   @Implementation
   protected void setTranslate(float dx, float dy) {
-    setOps.put(TRANSLATE, dx + " " + dy);
-    mMatrix = SimpleMatrix.translate(dx, dy);
+    setOps.put(TRANSLATE, new Op(TRANSLATE, dx, dy));
+    translate(mValues, dx, dy);
   }
 
   @Implementation
   protected void setScale(float sx, float sy, float px, float py) {
-    setOps.put(SCALE, sx + " " + sy + " " + px + " " + py);
-    mMatrix = SimpleMatrix.scale(sx, sy, px, py);
+    setOps.put(SCALE, new Op(SCALE, sx, sy, px, py));
+    scale(mValues, sx, sy, px, py);
   }
 
   @Implementation
   protected void setScale(float sx, float sy) {
-    setOps.put(SCALE, sx + " " + sy);
-    mMatrix = SimpleMatrix.scale(sx, sy);
+    setOps.put(SCALE, new Op(SCALE, sx, sy));
+    scale(mValues, sx, sy);
   }
 
   @Implementation
   protected void setRotate(float degrees, float px, float py) {
-    setOps.put(ROTATE, degrees + " " + px + " " + py);
-    mMatrix = SimpleMatrix.rotate(degrees, px, py);
+    setOps.put(ROTATE, new Op(ROTATE, degrees, px, py));
+    rotate(mValues, degrees, px, py);
   }
 
   @Implementation
   protected void setRotate(float degrees) {
-    setOps.put(ROTATE, Float.toString(degrees));
-    mMatrix = SimpleMatrix.rotate(degrees);
+    setOps.put(ROTATE, new Op(ROTATE, degrees));
+    rotate(mValues, degrees);
   }
 
   @Implementation
   protected void setSinCos(float sinValue, float cosValue, float px, float py) {
-    setOps.put(SINCOS, sinValue + " " + cosValue + " " + px + " " + py);
-    mMatrix = SimpleMatrix.sinCos(sinValue, cosValue, px, py);
+    setOps.put(SINCOS, new Op(SINCOS, sinValue, cosValue, px, py));
+    sinCos(mValues, sinValue, cosValue, px, py);
   }
 
   @Implementation
   protected void setSinCos(float sinValue, float cosValue) {
-    setOps.put(SINCOS, sinValue + " " + cosValue);
-    mMatrix = SimpleMatrix.sinCos(sinValue, cosValue);
+    setOps.put(SINCOS, new Op(SINCOS, sinValue, cosValue));
+    sinCos(mValues, sinValue, cosValue);
   }
 
   @Implementation
   protected void setSkew(float kx, float ky, float px, float py) {
-    setOps.put(SKEW, kx + " " + ky + " " + px + " " + py);
-    mMatrix = SimpleMatrix.skew(kx, ky, px, py);
+    setOps.put(SKEW, new Op(SKEW, kx, ky, px, py));
+    skew(mValues, kx, ky, px, py);
   }
 
   @Implementation
   protected void setSkew(float kx, float ky) {
-    setOps.put(SKEW, kx + " " + ky);
-    mMatrix = SimpleMatrix.skew(kx, ky);
+    setOps.put(SKEW, new Op(SKEW, kx, ky));
+    skew(mValues, kx, ky);
   }
 
   @Implementation
   protected boolean setConcat(Matrix a, Matrix b) {
-    mMatrix = getSimpleMatrix(a).multiply(getSimpleMatrix(b));
+    multiply(getValues(a), getValues(b));
     return true;
   }
 
   @Implementation
   protected boolean preTranslate(float dx, float dy) {
-    preOps.addFirst(TRANSLATE + " " + dx + " " + dy);
-    return preConcat(SimpleMatrix.translate(dx, dy));
+    preOps.addFirst(new Op(TRANSLATE, dx, dy));
+    translate(mTemp, dx, dy);
+    return preConcat(mTemp);
   }
 
   @Implementation
   protected boolean preScale(float sx, float sy, float px, float py) {
-    preOps.addFirst(SCALE + " " + sx + " " + sy + " " + px + " " + py);
-    return preConcat(SimpleMatrix.scale(sx, sy, px, py));
+    preOps.addFirst(new Op(SCALE, sx, sy, px, py));
+    scale(mTemp, sx, sy, px, py);
+    return preConcat(mTemp);
   }
 
   @Implementation
   protected boolean preScale(float sx, float sy) {
-    preOps.addFirst(SCALE + " " + sx + " " + sy);
-    return preConcat(SimpleMatrix.scale(sx, sy));
+    preOps.addFirst(new Op(SCALE, sx, sy));
+    scale(mTemp, sx, sy);
+    return preConcat(mTemp);
   }
 
   @Implementation
   protected boolean preRotate(float degrees, float px, float py) {
-    preOps.addFirst(ROTATE + " " + degrees + " " + px + " " + py);
-    return preConcat(SimpleMatrix.rotate(degrees, px, py));
+    preOps.addFirst(new Op(ROTATE, degrees, px, py));
+    rotate(mTemp, degrees, px, py);
+    return preConcat(mTemp);
   }
 
   @Implementation
   protected boolean preRotate(float degrees) {
-    preOps.addFirst(ROTATE + " " + Float.toString(degrees));
-    return preConcat(SimpleMatrix.rotate(degrees));
+    preOps.addFirst(new Op(ROTATE, degrees));
+    rotate(mTemp, degrees);
+    return preConcat(mTemp);
   }
 
   @Implementation
   protected boolean preSkew(float kx, float ky, float px, float py) {
-    preOps.addFirst(SKEW + " " + kx + " " + ky + " " + px + " " + py);
-    return preConcat(SimpleMatrix.skew(kx, ky, px, py));
+    preOps.addFirst(new Op(SKEW, kx, ky, px, py));
+    skew(mTemp, kx, ky, px, py);
+    return preConcat(mTemp);
   }
 
   @Implementation
   protected boolean preSkew(float kx, float ky) {
-    preOps.addFirst(SKEW + " " + kx + " " + ky);
-    return preConcat(SimpleMatrix.skew(kx, ky));
+    preOps.addFirst(new Op(SKEW, kx, ky));
+    skew(mTemp, kx, ky);
+    return preConcat(mTemp);
   }
 
   @Implementation
   protected boolean preConcat(Matrix other) {
-    preOps.addFirst(MATRIX + " " + other);
-    return preConcat(getSimpleMatrix(other));
+    float[] otherValues = getValues(other);
+    preOps.addFirst(new Op(MATRIX, otherValues.clone()));
+    return preConcat(otherValues);
   }
 
   @Implementation
   protected boolean postTranslate(float dx, float dy) {
-    postOps.addLast(TRANSLATE + " " + dx + " " + dy);
-    return postConcat(SimpleMatrix.translate(dx, dy));
+    postOps.addLast(new Op(TRANSLATE, dx, dy));
+    translate(mTemp, dx, dy);
+    return postConcat(mTemp);
   }
 
   @Implementation
   protected boolean postScale(float sx, float sy, float px, float py) {
-    postOps.addLast(SCALE + " " + sx + " " + sy + " " + px + " " + py);
-    return postConcat(SimpleMatrix.scale(sx, sy, px, py));
+    postOps.addLast(new Op(SCALE, sx, sy, px, py));
+    scale(mTemp, sx, sy, px, py);
+    return postConcat(mTemp);
   }
 
   @Implementation
   protected boolean postScale(float sx, float sy) {
-    postOps.addLast(SCALE + " " + sx + " " + sy);
-    return postConcat(SimpleMatrix.scale(sx, sy));
+    postOps.addLast(new Op(SCALE, sx, sy));
+    scale(mTemp, sx, sy);
+    return postConcat(mTemp);
   }
 
   @Implementation
   protected boolean postRotate(float degrees, float px, float py) {
-    postOps.addLast(ROTATE + " " + degrees + " " + px + " " + py);
-    return postConcat(SimpleMatrix.rotate(degrees, px, py));
+    postOps.addLast(new Op(ROTATE, degrees, px, py));
+    rotate(mTemp, degrees, px, py);
+    return postConcat(mTemp);
   }
 
   @Implementation
   protected boolean postRotate(float degrees) {
-    postOps.addLast(ROTATE + " " + Float.toString(degrees));
-    return postConcat(SimpleMatrix.rotate(degrees));
+    postOps.addLast(new Op(ROTATE, degrees));
+    rotate(mTemp, degrees);
+    return postConcat(mTemp);
   }
 
   @Implementation
   protected boolean postSkew(float kx, float ky, float px, float py) {
-    postOps.addLast(SKEW + " " + kx + " " + ky + " " + px + " " + py);
-    return postConcat(SimpleMatrix.skew(kx, ky, px, py));
+    postOps.addLast(new Op(SKEW, kx, ky, px, py));
+    skew(mTemp, kx, ky, px, py);
+    return postConcat(mTemp);
   }
 
   @Implementation
   protected boolean postSkew(float kx, float ky) {
-    postOps.addLast(SKEW + " " + kx + " " + ky);
-    return postConcat(SimpleMatrix.skew(kx, ky));
+    postOps.addLast(new Op(SKEW, kx, ky));
+    skew(mTemp, kx, ky);
+    return postConcat(mTemp);
   }
 
   @Implementation
   protected boolean postConcat(Matrix other) {
-    postOps.addLast(MATRIX + " " + other);
-    return postConcat(getSimpleMatrix(other));
+    float[] otherValues = getValues(other);
+    postOps.addLast(new Op(MATRIX, otherValues.clone()));
+    return postConcat(otherValues);
   }
 
   @Implementation
   protected boolean invert(Matrix inverse) {
-    final SimpleMatrix inverseMatrix = mMatrix.invert();
-    if (inverseMatrix != null) {
-      if (inverse != null) {
-        final ShadowMatrix shadowInverse = Shadow.extract(inverse);
-        shadowInverse.mMatrix = inverseMatrix;
-      }
+    final float[] src = mValues;
+    final float determinant =
+        src[0] * cross(src[4], src[8], src[5], src[7])
+            + src[1] * cross(src[5], src[6], src[3], src[8])
+            + src[2] * cross(src[3], src[7], src[4], src[6]);
+    if (isNearlyZero(determinant)) {
+      return false;
+    }
+    if (inverse == null) {
       return true;
     }
-    return false;
+
+    final float invDet = 1.0f / determinant;
+    final float dst0 = cross_scale(src[4], src[8], src[5], src[7], invDet);
+    final float dst1 = cross_scale(src[2], src[7], src[1], src[8], invDet);
+    final float dst2 = cross_scale(src[1], src[5], src[2], src[4], invDet);
+
+    final float dst3 = cross_scale(src[5], src[6], src[3], src[8], invDet);
+    final float dst4 = cross_scale(src[0], src[8], src[2], src[6], invDet);
+    final float dst5 = cross_scale(src[2], src[3], src[0], src[5], invDet);
+
+    final float dst6 = cross_scale(src[3], src[7], src[4], src[6], invDet);
+    final float dst7 = cross_scale(src[1], src[6], src[0], src[7], invDet);
+    final float dst8 = cross_scale(src[0], src[4], src[1], src[3], invDet);
+
+    // the inverse may be this matrix, so only write once everything has been read
+    final float[] dst = getValues(inverse);
+    dst[0] = dst0;
+    dst[1] = dst1;
+    dst[2] = dst2;
+    dst[3] = dst3;
+    dst[4] = dst4;
+    dst[5] = dst5;
+    dst[6] = dst6;
+    dst[7] = dst7;
+    dst[8] = dst8;
+    return true;
   }
 
   boolean hasPerspective() {
-    return (mMatrix.mValues[6] != 0 || mMatrix.mValues[7] != 0 || mMatrix.mValues[8] != 1);
+    return (mValues[6] != 0 || mValues[7] != 0 || mValues[8] != 1);
   }
 
   protected AffineTransform getAffineTransform() {
@@ -293,289 +357,300 @@ public class ShadowMatrix {
     //              [ 3 4 5 ]
     // the order is 0, 3, 1, 4, 2, 5...
     return new AffineTransform(
-        mMatrix.mValues[0],
-        mMatrix.mValues[3],
-        mMatrix.mValues[1],
-        mMatrix.mValues[4],
-        mMatrix.mValues[2],
-        mMatrix.mValues[5]);
+        mValues[0],
+        mValues[3],
+        mValues[1],
+        mValues[4],
+        mValues[2],
+        mValues[5]);
   }
 
   public PointF mapPoint(float x, float y) {
-    return mMatrix.transform(new PointF(x, y));
+    return new PointF(mapX(x, y), mapY(x, y));
   }
 
   public PointF mapPoint(PointF point) {
-    return mMatrix.transform(point);
+    return mapPoint(point.x, point.y);
   }
 
   @Implementation
   protected boolean mapRect(RectF destination, RectF source) {
-    final PointF leftTop = mapPoint(source.left, source.top);
-    final PointF rightBottom = mapPoint(source.right, source.bottom);
-    destination.set(
-        Math.min(leftTop.x, rightBottom.x),
-        Math.min(leftTop.y, rightBottom.y),
-        Math.max(leftTop.x, rightBottom.x),
-        Math.max(leftTop.y, rightBottom.y));
-    return true;
+    final float left = source.left;
+    final float top = source.top;
+    final float right = source.right;
+    final float bottom = source.bottom;
+
+    float minX = Float.POSITIVE_INFINITY;
+    float minY = Float.POSITIVE_INFINITY;
+    float maxX = Float.NEGATIVE_INFINITY;
+    float maxY = Float.NEGATIVE_INFINITY;
+    for (int i = 0; i < 4; i++) {
+      final float x = (i & 1) == 0 ? left : right;
+      final float y = (i & 2) == 0 ? top : bottom;
+      final float mappedX = mapX(x, y);
+      final float mappedY = mapY(x, y);
+      minX = Math.min(minX, mappedX);
+      minY = Math.min(minY, mappedY);
+      maxX = Math.max(maxX, mappedX);
+      maxY = Math.max(maxY, mappedY);
+    }
+    destination.set(minX, minY, maxX, maxY);
+    return rectStaysRect();
   }
 
   @Implementation
   protected void mapPoints(float[] dst, int dstIndex, float[] src, int srcIndex, int pointCount) {
     for (int i = 0; i < pointCount; i++) {
-      final PointF mapped = mapPoint(src[srcIndex + i * 2], src[srcIndex + i * 2 + 1]);
-      dst[dstIndex + i * 2] = mapped.x;
-      dst[dstIndex + i * 2 + 1] = mapped.y;
+      // read both coordinates first, as dst and src may be the same array
+      final float x = src[srcIndex + i * 2];
+      final float y = src[srcIndex + i * 2 + 1];
+      dst[dstIndex + i * 2] = mapX(x, y);
+      dst[dstIndex + i * 2 + 1] = mapY(x, y);
     }
   }
 
   @Implementation
   protected void mapVectors(float[] dst, int dstIndex, float[] src, int srcIndex, int vectorCount) {
-    final float transX = mMatrix.mValues[Matrix.MTRANS_X];
-    final float transY = mMatrix.mValues[Matrix.MTRANS_Y];
-
-    mMatrix.mValues[Matrix.MTRANS_X] = 0;
-    mMatrix.mValues[Matrix.MTRANS_Y] = 0;
-
+    final boolean affine = isAffine();
+    final float originX = affine ? 0 : mapX(0, 0);
+    final float originY = affine ? 0 : mapY(0, 0);
     for (int i = 0; i < vectorCount; i++) {
-      final PointF mapped = mapPoint(src[srcIndex + i * 2], src[srcIndex + i * 2 + 1]);
-      dst[dstIndex + i * 2] = mapped.x;
-      dst[dstIndex + i * 2 + 1] = mapped.y;
+      final float x = src[srcIndex + i * 2];
+      final float y = src[srcIndex + i * 2 + 1];
+      if (affine) {
+        dst[dstIndex + i * 2] = x * mValues[0] + y * mValues[1] + 0.0f;
+        dst[dstIndex + i * 2 + 1] = x * mValues[3] + y * mValues[4] + 0.0f;
+      } else {
+        dst[dstIndex + i * 2] = mapX(x, y) - originX;
+        dst[dstIndex + i * 2 + 1] = mapY(x, y) - originY;
+      }
     }
-
-    mMatrix.mValues[Matrix.MTRANS_X] = transX;
-    mMatrix.mValues[Matrix.MTRANS_Y] = transY;
   }
 
   @Implementation
   @Override
   public boolean equals(Object obj) {
-    final float[] values;
     if (obj instanceof Matrix) {
-        return getSimpleMatrix(((Matrix) obj)).equals(mMatrix);
+      return nearlyEqual(getValues((Matrix) obj), mValues);
     } else {
-        return obj instanceof ShadowMatrix && obj.equals(mMatrix);
+      return obj instanceof ShadowMatrix && nearlyEqual(((ShadowMatrix) obj).mValues, mValues);
     }
   }
 
   @Implementation(minSdk = KITKAT)
   @Override
   public int hashCode() {
-      return Objects.hashCode(mMatrix);
+    return Arrays.hashCode(mValues);
   }
 
   public String getDescription() {
-    return "Matrix[pre=" + preOps + ", set=" + setOps + ", post=" + postOps + "]";
+    return "Matrix[pre=" + describe(preOps)
+        + ", set=" + describe(setOps)
+        + ", post=" + describe(postOps) + "]";
   }
 
-  private static SimpleMatrix getSimpleMatrix(Matrix matrix) {
+  private static float[] getValues(Matrix matrix) {
     final ShadowMatrix otherMatrix = Shadow.extract(matrix);
-    return otherMatrix.mMatrix;
+    return otherMatrix.mValues;
   }
 
-  private boolean postConcat(SimpleMatrix matrix) {
-    mMatrix = matrix.multiply(mMatrix);
-    return true;
+  private float mapX(float x, float y) {
+    final float mappedX = x * mValues[0] + y * mValues[1] + mValues[2];
+    return isAffine() ? mappedX : perspectiveDivide(mappedX, x, y);
   }
 
-  private boolean preConcat(SimpleMatrix matrix) {
-    mMatrix = mMatrix.multiply(matrix);
-    return true;
+  private float mapY(float x, float y) {
+    final float mappedY = x * mValues[3] + y * mValues[4] + mValues[5];
+    return isAffine() ? mappedY : perspectiveDivide(mappedY, x, y);
   }
 
-  /**
-   * A simple implementation of an immutable matrix.
-   */
-  private static class SimpleMatrix {
-    private static final SimpleMatrix IDENTITY = new SimpleMatrix(new float[] {
-        1.0f, 0.0f, 0.0f,
-        0.0f, 1.0f, 0.0f,
-        0.0f, 0.0f, 1.0f,
-    });
+  private float perspectiveDivide(float value, float x, float y) {
+    final float z = x * mValues[6] + y * mValues[7] + mValues[8];
+    // like Skia, leave points mapped to infinity undivided
+    return z == 0 ? value : value / z;
+  }
 
-    private final float[] mValues;
+  private boolean postConcat(float[] matrix) {
+    multiply(matrix, mValues);
+    return true;
+  }
 
-    SimpleMatrix(SimpleMatrix matrix) {
-      mValues = Arrays.copyOf(matrix.mValues, matrix.mValues.length);
-    }
+  private boolean preConcat(float[] matrix) {
+    multiply(mValues, matrix);
+    return true;
+  }
 
-    private SimpleMatrix(float[] values) {
-      if (values.length != 9) {
-        throw new ArrayIndexOutOfBoundsException();
+  /** Sets this matrix to {@code a * b}; either operand may be this matrix's own values. */
+  private void multiply(float[] a, float[] b) {
+    final float[] values = mProduct;
+    for (int i = 0; i < values.length; ++i) {
+      final int row = i / 3;
+      final int col = i % 3;
+      values[i] = 0;
+      for (int j = 0; j < 3; ++j) {
+        values[i] += a[row * 3 + j] * b[j * 3 + col];
       }
-      mValues = Arrays.copyOf(values, 9);
-    }
-
-    public boolean isAffine() {
-      return mValues[6] == 0.0f && mValues[7] == 0.0f && mValues[8] == 1.0f;
-    }
-
-    public boolean rectStaysRect() {
-      final float m00 = mValues[0];
-      final float m01 = mValues[1];
-      final float m10 = mValues[3];
-      final float m11 = mValues[4];
-      return (m00 == 0 && m11 == 0 && m01 != 0 && m10 != 0) || (m00 != 0 && m11 != 0 && m01 == 0 && m10 == 0);
     }
+    System.arraycopy(values, 0, mValues, 0, 9);
+  }
 
-    public void getValues(float[] values) {
-      if (values.length < 9) {
-        throw new ArrayIndexOutOfBoundsException();
-      }
-      System.arraycopy(mValues, 0, values, 0, 9);
-    }
+  private static void translate(float[] out, float dx, float dy) {
+    set(out,
+        1.0f, 0.0f, dx,
+        0.0f, 1.0f, dy,
+        0.0f, 0.0f, 1.0f);
+  }
 
-    public static SimpleMatrix translate(float dx, float dy) {
-      return new SimpleMatrix(new float[] {
-          1.0f, 0.0f, dx,
-          0.0f, 1.0f, dy,
-          0.0f, 0.0f, 1.0f,
-      });
-    }
+  private static void scale(float[] out, float sx, float sy, float px, float py) {
+    set(out,
+        sx,   0.0f, px * (1 - sx),
+        0.0f, sy,   py * (1 - sy),
+        0.0f, 0.0f, 1.0f);
+  }
 
-    public static SimpleMatrix scale(float sx, float sy, float px, float py) {
-      return new SimpleMatrix(new float[] {
-          sx,   0.0f, px * (1 - sx),
-          0.0f, sy,   py * (1 - sy),
-          0.0f, 0.0f, 1.0f,
-      });
-    }
+  private static void scale(float[] out, float sx, float sy) {
+    set(out,
+        sx,   0.0f, 0.0f,
+        0.0f, sy,   0.0f,
+        0.0f, 0.0f, 1.0f);
+  }
 
-    public static SimpleMatrix scale(float sx, float sy) {
-      return new SimpleMatrix(new float[] {
-          sx,   0.0f, 0.0f,
-          0.0f, sy,   0.0f,
-          0.0f, 0.0f, 1.0f,
-      });
-    }
+  private static void rotate(float[] out, float degrees, float px, float py) {
+    final double radians = Math.toRadians(degrees);
+    final float sin = (float) Math.sin(radians);
+    final float cos = (float) Math.cos(radians);
+    sinCos(out, sin, cos, px, py);
+  }
 
-    public static SimpleMatrix rotate(float degrees, float px, float py) {
-      final double radians = Math.toRadians(degrees);
-      final float sin = (float) Math.sin(radians);
-      final float cos = (float) Math.cos(radians);
-      return sinCos(sin, cos, px, py);
-    }
+  private static void rotate(float[] out, float degrees) {
+    final double radians = Math.toRadians(degrees);
+    final float sin = (float) Math.sin(radians);
+    final float cos = (float) Math.cos(radians);
+    sinCos(out, sin, cos);
+  }
 
-    public static SimpleMatrix rotate(float degrees) {
-      final double radians = Math.toRadians(degrees);
-      final float sin = (float) Math.sin(radians);
-      final float cos = (float) Math.cos(radians);
-      return sinCos(sin, cos);
-    }
+  private static void sinCos(float[] out, float sin, float cos, float px, float py) {
+    set(out,
+        cos,  -sin, sin * py + (1 - cos) * px,
+        sin,  cos,  -sin * px + (1 - cos) * py,
+        0.0f, 0.0f, 1.0f);
+  }
 
-    public static SimpleMatrix sinCos(float sin, float cos, float px, float py) {
-      return new SimpleMatrix(new float[] {
-          cos,  -sin, sin * py + (1 - cos) * px,
-          sin,  cos,  -sin * px + (1 - cos) * py,
-          0.0f, 0.0f, 1.0f,
-      });
-    }
+  private static void sinCos(float[] out, float sin, float cos) {
+    set(out,
+        cos,  -sin, 0.0f,
+        sin,  cos,  0.0f,
+        0.0f, 0.0f, 1.0f);
+  }
 
-    public static SimpleMatrix sinCos(float sin, float cos) {
-      return new SimpleMatrix(new float[] {
-          cos,  -sin, 0.0f,
-          sin,  cos,  0.0f,
-          0.0f, 0.0f, 1.0f,
-      });
-    }
+  private static void skew(float[] out, float kx, float ky, float px, float py) {
+    set(out,
+        1.0f, kx,   -kx * py,
+        ky,   1.0f, -ky * px,
+        0.0f, 0.0f, 1.0f);
+  }
 
-    public static SimpleMatrix skew(float kx, float ky, float px, float py) {
-      return new SimpleMatrix(new float[] {
-          1.0f, kx,   -kx * py,
-          ky,   1.0f, -ky * px,
-          0.0f, 0.0f, 1.0f,
-      });
-    }
+  private static void skew(float[] out, float kx, float ky) {
+    set(out,
+        1.0f, kx,   0.0f,
+        ky,   1.0f, 0.0f,
+        0.0f, 0.0f, 1.0f);
+  }
 
-    public static SimpleMatrix skew(float kx, float ky) {
-      return new SimpleMatrix(new float[] {
-          1.0f, kx,   0.0f,
-          ky,   1.0f, 0.0f,
-          0.0f, 0.0f, 1.0f,
-      });
-    }
+  private static void set(float[] out, float v0, float v1, float v2, float v3, float v4, float v5,
+      float v6, float v7, float v8) {
+    out[0] = v0;
+    out[1] = v1;
+    out[2] = v2;
+    out[3] = v3;
+    out[4] = v4;
+    out[5] = v5;
+    out[6] = v6;
+    out[7] = v7;
+    out[8] = v8;
+  }
 
-    public SimpleMatrix multiply(SimpleMatrix matrix) {
-      final float[] values = new float[9];
-      for (int i = 0; i < values.length; ++i) {
-        final int row = i / 3;
-        final int col = i % 3;
-        for (int j = 0; j < 3; ++j) {
-          values[i] += mValues[row * 3 + j] * matrix.mValues[j * 3 + col];
-        }
+  private static boolean nearlyEqual(float[] a, float[] b) {
+    for (int i = 0; i < 9; i++) {
+      if (!isNearlyZero(a[i] - b[i])) {
+        return false;
       }
-      return new SimpleMatrix(values);
     }
+    return true;
+  }
 
-    public SimpleMatrix invert() {
-      final float invDet = inverseDeterminant();
-      if (invDet == 0) {
-        return null;
-      }
-
-      final float[] src = mValues;
-      final float[] dst = new float[9];
-      dst[0] = cross_scale(src[4], src[8], src[5], src[7], invDet);
-      dst[1] = cross_scale(src[2], src[7], src[1], src[8], invDet);
-      dst[2] = cross_scale(src[1], src[5], src[2], src[4], invDet);
+  private static boolean isNearlyZero(float value) {
+    return Math.abs(value) < EPSILON;
+  }
 
-      dst[3] = cross_scale(src[5], src[6], src[3], src[8], invDet);
-      dst[4] = cross_scale(src[0], src[8], src[2], src[6], invDet);
-      dst[5] = cross_scale(src[2], src[3], src[0], src[5], invDet);
+  private static float cross(float a, float b, float c, float d) {
+    return a * b - c * d;
+  }
 
-      dst[6] = cross_scale(src[3], src[7], src[4], src[6], invDet);
-      dst[7] = cross_scale(src[1], src[6], src[0], src[7], invDet);
-      dst[8] = cross_scale(src[0], src[4], src[1], src[3], invDet);
-      return new SimpleMatrix(dst);
-    }
+  private static float cross_scale(float a, float b, float c, float d, float scale) {
+    return cross(a, b, c, d) * scale;
+  }
 
-    public PointF transform(PointF point) {
-      return new PointF(
-          point.x * mValues[0] + point.y * mValues[1] + mValues[2],
-          point.x * mValues[3] + point.y * mValues[4] + mValues[5]);
+  private static List<String> describe(Deque<Op> ops) {
+    List<String> descriptions = new ArrayList<>(ops.size());
+    for (Op op : ops) {
+      descriptions.add(op.toString());
     }
+    return descriptions;
+  }
 
-    @Override
-    public boolean equals(Object o) {
-      return this == o || (o instanceof SimpleMatrix && equals((SimpleMatrix) o));
+  private static Map<String, String> describe(Map<String, Op> ops) {
+    Map<String, String> descriptions = new LinkedHashMap<>();
+    for (Map.Entry<String, Op> entry : ops.entrySet()) {
+      descriptions.put(entry.getKey(), entry.getValue().describeArgs());
     }
+    return descriptions;
+  }
 
-    @SuppressWarnings("NonOverridingEquals")
-    public boolean equals(SimpleMatrix matrix) {
-      if (matrix == null) {
-        return false;
-      }
-      for (int i = 0; i < mValues.length; i++) {
-        if (!isNearlyZero(matrix.mValues[i] - mValues[i])) {
-          return false;
-        }
-      }
-      return true;
-    }
+  /** A recorded operation, whose description is rendered on demand. */
+  private static final class Op {
+    private final String name;
+    private final float[] args;
 
-    @Override
-    public int hashCode() {
-      return Arrays.hashCode(mValues);
+    Op(String name, float... args) {
+      this.name = name;
+      this.args = args;
     }
 
-    private static boolean isNearlyZero(float value) {
-      return Math.abs(value) < EPSILON;
+    /** Describes the arguments as they were previously recorded, e.g. {@code "10.0 20.0"}. */
+    String describeArgs() {
+      StringBuilder sb = new StringBuilder();
+      appendArgs(sb);
+      return sb.toString();
     }
 
-    private static float cross(float a, float b, float c, float d) {
-      return a * b - c * d;
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder(name).append(' ');
+      appendArgs(sb);
+      return sb.toString();
     }
 
-    private static float cross_scale(float a, float b, float c, float d, float scale) {
-      return cross(a, b, c, d) * scale;
-    }
+    private void appendArgs(StringBuilder sb) {
+      if (MATRIX.equals(name)) {
+        // the same format as Matrix.toString()
+        sb.append("Matrix{[");
+        for (int i = 0; i < 9; i++) {
+          if (i > 0) {
+            sb.append(i % 3 == 0 ? "][" : ", ");
+          }
+          sb.append(args[i]);
+        }
+        sb.append("]}");
+        return;
+      }
 
-    private float inverseDeterminant() {
-      final float determinant = mValues[0] * cross(mValues[4], mValues[8], mValues[5], mValues[7]) +
-          mValues[1] * cross(mValues[5], mValues[6], mValues[3], mValues[8]) +
-          mValues[2] * cross(mValues[3], mValues[7], mValues[4], mValues[6]);
-      return isNearlyZero(determinant) ? 0.0f : 1.0f / determinant;
+      for (int i = 0; i < args.length; i++) {
+        if (i > 0) {
+          sb.append(' ');
+        }
+        sb.append(args[i]);
+      }
     }
   }
 }
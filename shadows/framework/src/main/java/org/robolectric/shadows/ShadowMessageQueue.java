@@ -15,6 +15,7 @@ import static org.robolectric.util.ReflectionHelpers.setField;
 import android.os.Handler;
 import android.os.Message;
 import android.os.MessageQueue;
+import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
 import org.robolectric.annotation.HiddenApi;
 import org.robolectric.annotation.Implementation;
@@ -34,6 +35,9 @@ import org.robolectric.util.Scheduler;
 @Implements(MessageQueue.class)
 public class ShadowMessageQueue {
 
+  private static final MethodHandle ENQUEUE_MESSAGE =
+      Shadow.directMethodHandle(MessageQueue.class, "enqueueMessage", Message.class, long.class);
+
   @RealObject
   private MessageQueue realQueue;
 
@@ -94,7 +98,14 @@ public class ShadowMessageQueue {
   @Implementation
   @SuppressWarnings("SynchronizeOnNonFinalField")
   protected boolean enqueueMessage(final Message msg, long when) {
-    final boolean retval = directlyOn(realQueue, MessageQueue.class, "enqueueMessage", from(Message.class, msg), from(long.class, when));
+    final boolean retval;
+    try {
+      retval = (boolean) ENQUEUE_MESSAGE.invokeExact(realQueue, msg, when);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new RuntimeException(t);
+    }
     if (retval) {
       final Runnable callback = new Runnable() {
         @Override
@@ -23,7 +23,9 @@ import android.view.MotionEvent.PointerCoords;
 import android.view.MotionEvent.PointerProperties;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.HiddenApi;
 import org.robolectric.annotation.Implementation;
@@ -59,12 +61,37 @@ public class ShadowMotionEvent {
 
   private static final int HISTORY_CURRENT = -0x80000000;
 
+  /** As many as the framework keeps recycled MotionEvents. */
+  private static final int MAX_POOLED_NATIVE_EVENTS = 10;
+
+  /**
+   * Native events which have been disposed of, ready to back new MotionEvents. Events are usually
+   * disposed of by the finalizer thread.
+   */
+  private static final Queue<NativeInput.MotionEvent> nativeMotionEventPool =
+      new ArrayBlockingQueue<>(MAX_POOLED_NATIVE_EVENTS);
+
+  /** Reused when converting pointer coordinates, like the native code's stack arrays. */
+  private static final ThreadLocal<NativeInput.PointerCoords[]> tempPointerCoords =
+      ThreadLocal.withInitial(() -> new NativeInput.PointerCoords[0]);
+
   @RealObject private MotionEvent realMotionEvent;
 
   @Resetter
   public static void reset() {
-    // rely on MotionEvent finalizer to clear native object instead of calling
-    // nativeMotionEventRegistry.clear();
+    // return the native objects of recycled events to the pool, and rely on MotionEvent finalizer
+    // to clear other native objects instead of calling nativeMotionEventRegistry.clear();
+    MotionEvent recycledEvent = ReflectionHelpers.getStaticField(MotionEvent.class, "gRecyclerTop");
+    int recycledCount = ReflectionHelpers.getStaticField(MotionEvent.class, "gRecyclerUsed");
+    // bounded by the count, as an event recycled twice links to itself
+    for (int i = 0; i < recycledCount && recycledEvent != null; i++) {
+      long nativePtr = getNativePtr(recycledEvent);
+      if (nativePtr != 0) {
+        nativeDispose(nativePtr);
+        setNativePtr(recycledEvent, 0);
+      }
+      recycledEvent = ReflectionHelpers.getField(recycledEvent, "mNext");
+    }
     ReflectionHelpers.setStaticField(MotionEvent.class, "gRecyclerTop", null);
     ReflectionHelpers.setStaticField(MotionEvent.class, "gSharedTempPointerCoords", null);
     ReflectionHelpers.setStaticField(MotionEvent.class, "gSharedTempPointerProperties", null);
@@ -108,9 +135,29 @@ public class ShadowMotionEvent {
     checkNotNull(pointerPropertiesObj, "pointerProperties must not be null");
   }
 
-  private static NativeInput.PointerCoords pointerCoordsToNative(
-      PointerCoords pointerCoordsObj, float xOffset, float yOffset) {
-    NativeInput.PointerCoords outRawPointerCoords = new NativeInput.PointerCoords();
+  private static NativeInput.MotionEvent obtainNativeMotionEvent() {
+    NativeInput.MotionEvent event = nativeMotionEventPool.poll();
+    return event != null ? event : new NativeInput.MotionEvent();
+  }
+
+  private static NativeInput.PointerCoords[] obtainTempPointerCoords(int minSize) {
+    NativeInput.PointerCoords[] pointerCoords = tempPointerCoords.get();
+    if (pointerCoords.length < minSize) {
+      int oldSize = pointerCoords.length;
+      pointerCoords = Arrays.copyOf(pointerCoords, minSize);
+      for (int i = oldSize; i < minSize; i++) {
+        pointerCoords[i] = new NativeInput.PointerCoords();
+      }
+      tempPointerCoords.set(pointerCoords);
+    }
+    return pointerCoords;
+  }
+
+  private static void pointerCoordsToNative(
+      PointerCoords pointerCoordsObj,
+      float xOffset,
+      float yOffset,
+      NativeInput.PointerCoords outRawPointerCoords) {
     outRawPointerCoords.clear();
     outRawPointerCoords.setAxisValue(AMOTION_EVENT_AXIS_X, pointerCoordsObj.x - xOffset);
     outRawPointerCoords.setAxisValue(AMOTION_EVENT_AXIS_Y, pointerCoordsObj.y - yOffset);
@@ -133,7 +180,6 @@ public class ShadowMotionEvent {
         } while (!bits.isEmpty());
       }
     }
-    return outRawPointerCoords;
   }
 
   private static float[] obtainPackedAxisValuesArray(
@@ -263,15 +309,15 @@ public class ShadowMotionEvent {
     if (nativePtr > 0) {
       event = nativeMotionEventRegistry.getNativeObject(nativePtr);
     } else {
-      event = new NativeInput.MotionEvent();
+      event = obtainNativeMotionEvent();
       nativePtr = nativeMotionEventRegistry.register(event);
     }
 
-    NativeInput.PointerCoords[] rawPointerCoords = new NativeInput.PointerCoords[pointerCount];
+    NativeInput.PointerCoords[] rawPointerCoords = obtainTempPointerCoords(pointerCount);
     for (int i = 0; i < pointerCount; i++) {
       PointerCoords pointerCoordsObj = pointerCoordsObjArray[i];
       checkNotNull(pointerCoordsObj);
-      rawPointerCoords[i] = pointerCoordsToNative(pointerCoordsObj, xOffset, yOffset);
+      pointerCoordsToNative(pointerCoordsObj, xOffset, yOffset, rawPointerCoords[i]);
     }
 
     event.initialize(
@@ -305,7 +351,11 @@ public class ShadowMotionEvent {
   @Implementation(minSdk = LOLLIPOP)
   @HiddenApi
   protected static void nativeDispose(long nativePtr) {
+    NativeInput.MotionEvent event = nativeMotionEventRegistry.peekNativeObject(nativePtr);
     nativeMotionEventRegistry.unregister(nativePtr);
+    if (event != null) {
+      nativeMotionEventPool.offer(event);
+    }
   }
 
   @Implementation(maxSdk = KITKAT_WATCH)
@@ -322,12 +372,12 @@ public class ShadowMotionEvent {
     NativeInput.MotionEvent event = getNativeMotionEvent(nativePtr);
     int pointerCount = event.getPointerCount();
     validatePointerCoordsObjArray(pointerCoordsObjArray, pointerCount);
-    NativeInput.PointerCoords[] rawPointerCoords = new NativeInput.PointerCoords[pointerCount];
+    NativeInput.PointerCoords[] rawPointerCoords = obtainTempPointerCoords(pointerCount);
     for (int i = 0; i < pointerCount; i++) {
       PointerCoords pointerCoordsObj = pointerCoordsObjArray[i];
       checkNotNull(pointerCoordsObj);
-      rawPointerCoords[i] =
-          pointerCoordsToNative(pointerCoordsObj, event.getXOffset(), event.getYOffset());
+      pointerCoordsToNative(
+          pointerCoordsObj, event.getXOffset(), event.getYOffset(), rawPointerCoords[i]);
     }
     event.addSample(eventTimeNanos, rawPointerCoords);
     event.setMetaState(event.getMetaState() | metaState);
@@ -349,13 +399,13 @@ public class ShadowMotionEvent {
     validatePointerIndex(pointerIndex, pointerCount);
     validatePointerCoords(outPointerCoordsObj);
 
-    NativeInput.PointerCoords rawPointerCoords;
+    NativeInput.PointerCoords rawPointerCoords = obtainTempPointerCoords(1)[0];
     if (historyPos == HISTORY_CURRENT) {
-      rawPointerCoords = event.getRawPointerCoords(pointerIndex);
+      event.getRawPointerCoords(pointerIndex, rawPointerCoords);
     } else {
       int historySize = event.getHistorySize();
       validateHistoryPos(historyPos, historySize);
-      rawPointerCoords = event.getHistoricalRawPointerCoords(pointerIndex, historyPos);
+      event.getHistoricalRawPointerCoords(pointerIndex, historyPos, rawPointerCoords);
     }
     pointerCoordsFromNative(
         rawPointerCoords, event.getXOffset(), event.getYOffset(), outPointerCoordsObj);
@@ -393,7 +443,7 @@ public class ShadowMotionEvent {
   protected static long nativeReadFromParcel(long nativePtr, Parcel parcelObj) {
     NativeInput.MotionEvent event;
     if (nativePtr == 0) {
-      event = new NativeInput.MotionEvent();
+      event = obtainNativeMotionEvent();
       nativePtr = nativeMotionEventRegistry.register(event);
     } else {
       event = nativeMotionEventRegistry.getNativeObject(nativePtr);
@@ -566,7 +616,7 @@ public class ShadowMotionEvent {
   protected static long nativeCopy(long destNativePtr, long sourceNativePtr, boolean keepHistory) {
     NativeInput.MotionEvent destEvent = nativeMotionEventRegistry.peekNativeObject(destNativePtr);
     if (destEvent == null) {
-      destEvent = new NativeInput.MotionEvent();
+      destEvent = obtainNativeMotionEvent();
       destNativePtr = nativeMotionEventRegistry.register(destEvent);
     }
     NativeInput.MotionEvent sourceEvent = getNativeMotionEvent(sourceNativePtr);
@@ -920,14 +970,24 @@ public class ShadowMotionEvent {
   }
 
   private NativeInput.MotionEvent getNativeMotionEvent() {
-    long nativePtr;
+    return nativeMotionEventRegistry.getNativeObject(getNativePtr(realMotionEvent));
+  }
+
+  private static long getNativePtr(MotionEvent motionEvent) {
     if (RuntimeEnvironment.getApiLevel() <= KITKAT_WATCH) {
-      Integer nativePtrInt = ReflectionHelpers.getField(realMotionEvent, "mNativePtr");
-      nativePtr = nativePtrInt.longValue();
+      Integer nativePtrInt = ReflectionHelpers.getField(motionEvent, "mNativePtr");
+      return nativePtrInt.longValue();
     } else {
-      nativePtr = ReflectionHelpers.getField(realMotionEvent, "mNativePtr");
+      return ReflectionHelpers.getField(motionEvent, "mNativePtr");
+    }
+  }
+
+  private static void setNativePtr(MotionEvent motionEvent, long nativePtr) {
+    if (RuntimeEnvironment.getApiLevel() <= KITKAT_WATCH) {
+      ReflectionHelpers.setField(motionEvent, "mNativePtr", (int) nativePtr);
+    } else {
+      ReflectionHelpers.setField(motionEvent, "mNativePtr", nativePtr);
     }
-    return nativeMotionEventRegistry.getNativeObject(nativePtr);
   }
 
   // Testing API methods
@@ -939,25 +999,13 @@ public class ShadowMotionEvent {
   @Deprecated
   public MotionEvent setPointer2(float pointer1X, float pointer1Y) {
     NativeInput.MotionEvent event = getNativeMotionEvent();
-    List<NativeInput.PointerCoords> pointerCoords = event.getSamplePointerCoords();
-    List<PointerProperties> pointerProperties = event.getPointerProperties();
-    ensureTwoPointers(pointerCoords, pointerProperties);
+    event.ensurePointerCount(2);
 
-    pointerCoords.get(1).setAxisValue(AMOTION_EVENT_AXIS_X, pointer1X);
-    pointerCoords.get(1).setAxisValue(AMOTION_EVENT_AXIS_Y, pointer1Y);
+    event.setRawAxisValue(AMOTION_EVENT_AXIS_X, 1, pointer1X);
+    event.setRawAxisValue(AMOTION_EVENT_AXIS_Y, 1, pointer1Y);
     return realMotionEvent;
   }
 
-  private static void ensureTwoPointers(
-      List<NativeInput.PointerCoords> pointerCoords, List<PointerProperties> pointerProperties) {
-    if (pointerCoords.size() < 2) {
-      pointerCoords.add(new NativeInput.PointerCoords());
-    }
-    if (pointerProperties.size() < 2) {
-      pointerProperties.add(new PointerProperties());
-    }
-  }
-
   /**
    * @deprecated use {@link MotionEvent#obtain} or {@link
    *     androidx.test.core.view.MotionEventBuilder#setPointerAction(int, int)} to create a
@@ -978,11 +1026,9 @@ public class ShadowMotionEvent {
   @Deprecated
   public void setPointerIds(int index0PointerId, int index1PointerId) {
     NativeInput.MotionEvent event = getNativeMotionEvent();
-    List<NativeInput.PointerCoords> pointerCoords = event.getSamplePointerCoords();
-    List<PointerProperties> pointerProperties = event.getPointerProperties();
-    ensureTwoPointers(pointerCoords, pointerProperties);
+    event.ensurePointerCount(2);
 
-    pointerProperties.get(0).id = index0PointerId;
-    pointerProperties.get(1).id = index1PointerId;
+    event.getPointerProperties(0).id = index0PointerId;
+    event.getPointerProperties(1).id = index1PointerId;
   }
 }
@@ -5,13 +5,18 @@ import static org.robolectric.util.ReflectionHelpers.ClassParameter.from;
 import android.content.pm.PackageParser;
 import android.content.pm.PackageParser.Package;
 import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.util.DisplayMetrics;
 import java.io.File;
 import java.util.List;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Implements;
 import org.robolectric.res.FsFile;
+import org.robolectric.res.ParsedApkCache;
 import org.robolectric.shadows.ShadowLog.LogItem;
+import org.robolectric.util.Logger;
+import org.robolectric.util.PerfStatsCollector;
 import org.robolectric.util.ReflectionHelpers;
 
 /**
@@ -20,8 +25,65 @@ import org.robolectric.util.ReflectionHelpers;
 @Implements(value = PackageParser.class, isInAndroidSdk = false)
 public class ShadowPackageParser {
 
-  /** Parses an AndroidManifest.xml file using the framework PackageParser. */
+  /**
+   * Parses an AndroidManifest.xml file using the framework PackageParser.
+   *
+   * <p>Where packages can be parceled (O MR1 and later), the parsed package is cached for the rest
+   * of the run, and each call returns a new copy of it.
+   */
   public static Package callParsePackage(FsFile apkFile) {
+    if (!Parcelable.class.isAssignableFrom(Package.class)) {
+      return parsePackage(apkFile);
+    }
+
+    byte[] parceledPackage;
+    try {
+      parceledPackage = ParsedApkCache.get(
+          new File(apkFile.getPath()),
+          "package-" + RuntimeEnvironment.getApiLevel(),
+          () -> marshall(parsePackage(apkFile)));
+    } catch (ParcelingException e) {
+      Logger.warn("Couldn't cache package parsed from %s: %s", apkFile, e.getCause());
+      return e.parsedPackage;
+    }
+
+    try {
+      return unmarshall(parceledPackage);
+    } catch (RuntimeException e) {
+      Logger.warn("Couldn't copy cached package parsed from %s: %s", apkFile, e);
+      return parsePackage(apkFile);
+    }
+  }
+
+  private static byte[] marshall(Package thePackage) {
+    Parcel parcel = Parcel.obtain();
+    try {
+      thePackage.writeToParcel(parcel, 0);
+      return parcel.marshall();
+    } catch (RuntimeException e) {
+      throw new ParcelingException(thePackage, e);
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  private static Package unmarshall(byte[] parceledPackage) {
+    Parcel parcel = Parcel.obtain();
+    try {
+      parcel.unmarshall(parceledPackage, 0, parceledPackage.length);
+      parcel.setDataPosition(0);
+      return new Package(parcel);
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  private static Package parsePackage(FsFile apkFile) {
+    return PerfStatsCollector.getInstance()
+        .measure("parse package", () -> doParsePackage(apkFile));
+  }
+
+  private static Package doParsePackage(FsFile apkFile) {
     PackageParser packageParser = new PackageParser();
 
     int flags = PackageParser.PARSE_IGNORE_PROCESSES;
@@ -57,4 +119,14 @@ public class ShadowPackageParser {
       throw new RuntimeException(e);
     }
   }
+
+  /** Thrown when a parsed package can't be parceled, so it can't be cached. */
+  private static class ParcelingException extends RuntimeException {
+    private final transient Package parsedPackage;
+
+    ParcelingException(Package parsedPackage, Throwable cause) {
+      super(cause);
+      this.parsedPackage = parsedPackage;
+    }
+  }
 }
@@ -48,140 +48,174 @@ import com.android.internal.os.IDropBoxManagerService;
 import com.android.internal.view.IInputMethodManager;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
+import org.robolectric.util.PerfStatsCollector;
 import org.robolectric.util.ReflectionHelpers;
 
 @Implements(value = ServiceManager.class, isInAndroidSdk = false)
 public class ShadowServiceManager {
 
-  private static Map<String, IBinder> SERVICES =
-      new HashMap<String, IBinder>() {
-        {
-          put(
-              Context.CLIPBOARD_SERVICE,
-              createBinder(IClipboard.class, "android.content.IClipboard"));
-          put(
-              Context.WIFI_P2P_SERVICE,
-              createBinder(IWifiP2pManager.class, "android.net.wifi.p2p.IWifiP2pManager"));
-          put(
-              Context.ACCOUNT_SERVICE,
-              createBinder(IAccountManager.class, "android.accounts.IAccountManager"));
-          put(
-              Context.USB_SERVICE,
-              createBinder(IUsbManager.class, "android.hardware.usb.IUsbManager"));
-          put(
-              Context.LOCATION_SERVICE,
-              createBinder(ILocationManager.class, "android.location.ILocationManager"));
-          put(
-              Context.INPUT_METHOD_SERVICE,
+  /**
+   * Factories for the binders of the system services, keyed by service name. Binders are only
+   * created when a service is first asked for, since creating one loads (and instruments) its
+   * AIDL interface class.
+   */
+  private static final Map<String, Supplier<IBinder>> binderFactories = new HashMap<>();
+
+  private static final Map<String, IBinder> binders = new HashMap<>();
+
+  static {
+    addBinderFactory(
+        Context.CLIPBOARD_SERVICE,
+        () -> createBinder(IClipboard.class, "android.content.IClipboard"));
+    addBinderFactory(
+        Context.WIFI_P2P_SERVICE,
+        () -> createBinder(IWifiP2pManager.class, "android.net.wifi.p2p.IWifiP2pManager"));
+    addBinderFactory(
+        Context.ACCOUNT_SERVICE,
+        () -> createBinder(IAccountManager.class, "android.accounts.IAccountManager"));
+    addBinderFactory(
+        Context.USB_SERVICE,
+        () -> createBinder(IUsbManager.class, "android.hardware.usb.IUsbManager"));
+    addBinderFactory(
+        Context.LOCATION_SERVICE,
+        () -> createBinder(ILocationManager.class, "android.location.ILocationManager"));
+    addBinderFactory(
+        Context.INPUT_METHOD_SERVICE,
+        () ->
+            createBinder(
+                IInputMethodManager.class, "com.android.internal.view.IInputMethodManager"));
+    addBinderFactory(
+        Context.ALARM_SERVICE,
+        () -> createBinder(IAlarmManager.class, "android.app.IAlarmManager"));
+    addBinderFactory(
+        Context.POWER_SERVICE,
+        () -> createBinder(IPowerManager.class, "android.os.IPowerManager"));
+    addBinderFactory(
+        BatteryStats.SERVICE_NAME,
+        () -> createBinder(IBatteryStats.class, "com.android.internal.app.IBatteryStats"));
+    addBinderFactory(
+        Context.DROPBOX_SERVICE,
+        () ->
+            createBinder(
+                IDropBoxManagerService.class, "com.android.internal.os.IDropBoxManagerService"));
+    addBinderFactory(
+        Context.DEVICE_POLICY_SERVICE,
+        () -> createBinder(IDevicePolicyManager.class, "android.app.admin.IDevicePolicyManager"));
+    addBinderFactory(
+        Context.CONNECTIVITY_SERVICE,
+        () -> createBinder(IConnectivityManager.class, "android.net.IConnectivityManager"));
+    addBinderFactory(
+        Context.WIFI_SERVICE,
+        () -> createBinder(IWifiManager.class, "android.net.wifi.IWifiManager"));
+    addBinderFactory(
+        Context.SEARCH_SERVICE,
+        () -> createBinder(ISearchManager.class, "android.app.ISearchManager"));
+    addBinderFactory(
+        Context.UI_MODE_SERVICE,
+        () -> createBinder(ISearchManager.class, "android.app.IUiModeManager"));
+    addBinderFactory(
+        Context.NETWORK_POLICY_SERVICE,
+        () -> createBinder(ISearchManager.class, "android.net.INetworkPolicyManager"));
+    addBinderFactory(
+        Context.INPUT_SERVICE,
+        () -> createBinder(IInputManager.class, "android.net.IInputManager"));
+    addBinderFactory(
+        Context.COUNTRY_DETECTOR,
+        () -> createBinder(ICountryDetector.class, "android.location.ICountryDetector"));
+    addBinderFactory(
+        Context.NSD_SERVICE,
+        () -> createBinder(INsdManager.class, "android.net.nsd.INsdManagerandroi"));
+    addBinderFactory(
+        Context.AUDIO_SERVICE,
+        () -> createBinder(IAudioService.class, "android.media.IAudioService"));
+
+    if (RuntimeEnvironment.getApiLevel() >= JELLY_BEAN_MR1) {
+      addBinderFactory(
+          Context.USER_SERVICE,
+          () -> createBinder(IUserManager.class, "android.os.IUserManager"));
+    }
+    if (RuntimeEnvironment.getApiLevel() >= JELLY_BEAN_MR2) {
+      addBinderFactory(
+          Context.APP_OPS_SERVICE,
+          () -> createBinder(IAppOpsService.class, "com.android.internal.app.IAppOpsService"));
+    }
+    if (RuntimeEnvironment.getApiLevel() >= KITKAT) {
+      addBinderFactory(
+          "batteryproperties",
+          () ->
               createBinder(
-                  IInputMethodManager.class, "com.android.internal.view.IInputMethodManager"));
-          put(
-              Context.ALARM_SERVICE,
-              createBinder(IAlarmManager.class, "android.app.IAlarmManager"));
-          put(Context.POWER_SERVICE, createBinder(IPowerManager.class, "android.os.IPowerManager"));
-          put(
-              BatteryStats.SERVICE_NAME,
-              createBinder(IBatteryStats.class, "com.android.internal.app.IBatteryStats"));
-          put(
-              Context.DROPBOX_SERVICE,
+                  IBatteryPropertiesRegistrar.class, "android.os.IBatteryPropertiesRegistrar"));
+    }
+    if (RuntimeEnvironment.getApiLevel() >= LOLLIPOP) {
+      addBinderFactory(
+          Context.RESTRICTIONS_SERVICE,
+          () -> createBinder(IRestrictionsManager.class, "android.content.IRestrictionsManager"));
+      addBinderFactory(
+          Context.TRUST_SERVICE,
+          () -> createBinder(ITrustManager.class, "android.app.trust.ITrustManager"));
+      addBinderFactory(
+          Context.JOB_SCHEDULER_SERVICE,
+          () -> createBinder(IJobScheduler.class, "android.app.job.IJobScheduler"));
+      addBinderFactory(
+          Context.NETWORK_SCORE_SERVICE,
+          () -> createBinder(INetworkScoreService.class, "android.net.INetworkScoreService"));
+      addBinderFactory(
+          Context.USAGE_STATS_SERVICE,
+          () -> createBinder(IUsageStatsManager.class, "android.app.usage.IUsageStatsManager"));
+      addBinderFactory(
+          Context.MEDIA_ROUTER_SERVICE,
+          () -> createBinder(IMediaRouterService.class, "android.media.IMediaRouterService"));
+      addBinderFactory(
+          Context.MEDIA_SESSION_SERVICE,
+          () -> createDeepBinder(ISessionManager.class, "android.media.session.ISessionManager"));
+    }
+    if (RuntimeEnvironment.getApiLevel() >= M) {
+      addBinderFactory(
+          Context.FINGERPRINT_SERVICE,
+          () ->
               createBinder(
-                  IDropBoxManagerService.class, "com.android.internal.os.IDropBoxManagerService"));
-          put(
-              Context.DEVICE_POLICY_SERVICE,
-              createBinder(IDevicePolicyManager.class, "android.app.admin.IDevicePolicyManager"));
-          put(
-              Context.CONNECTIVITY_SERVICE,
-              createBinder(IConnectivityManager.class, "android.net.IConnectivityManager"));
-          put(
-              Context.WIFI_SERVICE,
-              createBinder(IWifiManager.class, "android.net.wifi.IWifiManager"));
-          put(
-              Context.SEARCH_SERVICE,
-              createBinder(ISearchManager.class, "android.app.ISearchManager"));
-          put(
-              Context.UI_MODE_SERVICE,
-              createBinder(ISearchManager.class, "android.app.IUiModeManager"));
-          put(
-              Context.NETWORK_POLICY_SERVICE,
-              createBinder(ISearchManager.class, "android.net.INetworkPolicyManager"));
-          put(
-              Context.INPUT_SERVICE,
-              createBinder(IInputManager.class, "android.net.IInputManager"));
-          put(
-              Context.COUNTRY_DETECTOR,
-              createBinder(ICountryDetector.class, "android.location.ICountryDetector"));
-          put(
-              Context.NSD_SERVICE,
-              createBinder(INsdManager.class, "android.net.nsd.INsdManagerandroi"));
-          put(
-              Context.AUDIO_SERVICE,
-              createBinder(IAudioService.class, "android.media.IAudioService"));
-
-          if (RuntimeEnvironment.getApiLevel() >= JELLY_BEAN_MR1) {
-            put(Context.USER_SERVICE, createBinder(IUserManager.class, "android.os.IUserManager"));
-          }
-          if (RuntimeEnvironment.getApiLevel() >= JELLY_BEAN_MR2) {
-            put(
-                Context.APP_OPS_SERVICE,
-                createBinder(IAppOpsService.class, "com.android.internal.app.IAppOpsService"));
-          }
-          if (RuntimeEnvironment.getApiLevel() >= KITKAT) {
-            put(
-                "batteryproperties",
-                createBinder(
-                    IBatteryPropertiesRegistrar.class, "android.os.IBatteryPropertiesRegistrar"));
-          }
-          if (RuntimeEnvironment.getApiLevel() >= LOLLIPOP) {
-            put(
-                Context.RESTRICTIONS_SERVICE,
-                createBinder(IRestrictionsManager.class, "android.content.IRestrictionsManager"));
-            put(
-                Context.TRUST_SERVICE,
-                createBinder(ITrustManager.class, "android.app.trust.ITrustManager"));
-            put(
-                Context.JOB_SCHEDULER_SERVICE,
-                createBinder(IJobScheduler.class, "android.app.job.IJobScheduler"));
-            put(
-                Context.NETWORK_SCORE_SERVICE,
-                createBinder(INetworkScoreService.class, "android.net.INetworkScoreService"));
-            put(
-                Context.USAGE_STATS_SERVICE,
-                createBinder(IUsageStatsManager.class, "android.app.usage.IUsageStatsManager"));
-            put(
-                Context.MEDIA_ROUTER_SERVICE,
-                createBinder(IMediaRouterService.class, "android.media.IMediaRouterService"));
-            put(
-                Context.MEDIA_SESSION_SERVICE,
-                createDeepBinder(ISessionManager.class, "android.media.session.ISessionManager"));
-          }
-          if (RuntimeEnvironment.getApiLevel() >= M) {
-            put(
-                Context.FINGERPRINT_SERVICE,
-                createBinder(
-                    IFingerprintService.class, "android.hardware.fingerprint.IFingerprintService"));
-          }
-          if (RuntimeEnvironment.getApiLevel() >= N_MR1) {
-            put(
-                Context.SHORTCUT_SERVICE,
-                createBinder(IShortcutService.class, "android.content.pm.IShortcutService"));
-          }
-          if (RuntimeEnvironment.getApiLevel() >= O) {
-            put("mount", createBinder(IStorageManager.class, "android.os.storage.IStorageManager"));
-          } else {
-            put(
-                "mount",
-                createBinder(
-                    "android.os.storage.IMountService", "android.os.storage.IMountService"));
-          }
-        }
-      };
+                  IFingerprintService.class, "android.hardware.fingerprint.IFingerprintService"));
+    }
+    if (RuntimeEnvironment.getApiLevel() >= N_MR1) {
+      addBinderFactory(
+          Context.SHORTCUT_SERVICE,
+          () -> createBinder(IShortcutService.class, "android.content.pm.IShortcutService"));
+    }
+    if (RuntimeEnvironment.getApiLevel() >= O) {
+      addBinderFactory(
+          "mount",
+          () -> createBinder(IStorageManager.class, "android.os.storage.IStorageManager"));
+    } else {
+      addBinderFactory(
+          "mount",
+          () ->
+              createBinder("android.os.storage.IMountService", "android.os.storage.IMountService"));
+    }
+  }
+
+  private static void addBinderFactory(String name, Supplier<IBinder> factory) {
+    binderFactories.put(name, factory);
+  }
 
   @Implementation
   public static IBinder getService(String name) {
-    return SERVICES.get(name);
+    synchronized (binders) {
+      IBinder binder = binders.get(name);
+      if (binder == null) {
+        Supplier<IBinder> factory = binderFactories.get(name);
+        if (factory == null) {
+          return null;
+        }
+        binder = PerfStatsCollector.getInstance()
+            .measure("ServiceManager binder: " + name, factory::get);
+        binders.put(name, binder);
+      }
+      return binder;
+    }
   }
 
   private static Binder createBinder(String className, String descriptor) {
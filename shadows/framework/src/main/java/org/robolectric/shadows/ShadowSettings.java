@@ -7,15 +7,17 @@ import static android.os.Build.VERSION_CODES.M;
 
 import android.content.ContentResolver;
 import android.content.Context;
+import android.net.Uri;
 import android.os.Build;
 import android.provider.Settings;
 import android.text.TextUtils;
+import com.google.common.collect.MapMaker;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
@@ -28,46 +30,32 @@ import org.robolectric.util.ReflectionHelpers.ClassParameter;
 public class ShadowSettings {
   @Implements(value = Settings.System.class)
   public static class ShadowSystem {
-    private static final WeakHashMap<ContentResolver, Map<String, Object>> dataMap = new WeakHashMap<ContentResolver, Map<String, Object>>();
+    private static final SettingsTable settings = new SettingsTable(Settings.System.CONTENT_URI);
 
     @Implementation
     protected static boolean putInt(ContentResolver cr, String name, int value) {
-      get(cr).put(name, value);
-      return true;
+      return settings.putInt(cr, name, value);
     }
 
     @Implementation
     protected static int getInt(ContentResolver cr, String name, int def) {
-      if (get(cr).get(name) instanceof Integer) {
-        return (Integer) get(cr).get(name);
-      } else {
-        return def;
-      }
+      return settings.getInt(cr, name, def);
     }
 
     @Implementation
     protected static int getInt(ContentResolver cr, String name)
         throws Settings.SettingNotFoundException {
-      if (get(cr).get(name) instanceof Integer) {
-        return (Integer) get(cr).get(name);
-      } else {
-        throw new Settings.SettingNotFoundException(name);
-      }
+      return settings.getInt(cr, name);
     }
 
     @Implementation
     protected static boolean putString(ContentResolver cr, String name, String value) {
-      get(cr).put(name, value);
-      return true;
+      return settings.putString(cr, name, value);
     }
 
     @Implementation
     protected static String getString(ContentResolver cr, String name) {
-      if (get(cr).get(name) instanceof String) {
-        return (String) get(cr).get(name);
-      } else {
-        return null;
-      }
+      return settings.getString(cr, name);
     }
 
     @Implementation(minSdk = JELLY_BEAN_MR1)
@@ -77,61 +65,34 @@ public class ShadowSettings {
 
     @Implementation
     protected static boolean putLong(ContentResolver cr, String name, long value) {
-      get(cr).put(name, value);
-      return true;
+      return settings.putLong(cr, name, value);
     }
 
     @Implementation
     protected static long getLong(ContentResolver cr, String name, long def) {
-      if (get(cr).get(name) instanceof Long) {
-        return (Long) get(cr).get(name);
-      } else {
-        return def;
-      }
+      return settings.getLong(cr, name, def);
     }
 
     @Implementation
     protected static long getLong(ContentResolver cr, String name)
         throws Settings.SettingNotFoundException {
-      if (get(cr).get(name) instanceof Long) {
-        return (Long) get(cr).get(name);
-      } else {
-        throw new Settings.SettingNotFoundException(name);
-      }
+      return settings.getLong(cr, name);
     }
 
     @Implementation
     protected static boolean putFloat(ContentResolver cr, String name, float value) {
-      get(cr).put(name, value);
-      return true;
+      return settings.putFloat(cr, name, value);
     }
 
     @Implementation
     protected static float getFloat(ContentResolver cr, String name, float def) {
-      if (get(cr).get(name) instanceof Float) {
-        return (Float) get(cr).get(name);
-      } else {
-        return def;
-      }
+      return settings.getFloat(cr, name, def);
     }
 
     @Implementation
     protected static float getFloat(ContentResolver cr, String name)
         throws Settings.SettingNotFoundException {
-      if (get(cr).get(name) instanceof Float) {
-        return (Float) get(cr).get(name);
-      } else {
-        throw new Settings.SettingNotFoundException(name);
-      }
-    }
-
-    private static Map<String, Object> get(ContentResolver cr) {
-      Map<String, Object> map = dataMap.get(cr);
-      if (map == null) {
-        map = new HashMap<>();
-        dataMap.put(cr, map);
-      }
-      return map;
+      return settings.getFloat(cr, name);
     }
   }
 
@@ -140,8 +101,7 @@ public class ShadowSettings {
    */
   @Implements(value = Settings.Secure.class)
   public static class ShadowSecure {
-    private static final WeakHashMap<ContentResolver, Map<String, Object>> dataMap =
-        new WeakHashMap<ContentResolver, Map<String, Object>>();
+    private static final SettingsTable settings = new SettingsTable(Settings.Secure.CONTENT_URI);
 
     @Implementation(minSdk = JELLY_BEAN_MR1)
     @SuppressWarnings("robolectric.ShadowReturnTypeMismatch")
@@ -188,8 +148,7 @@ public class ShadowSettings {
             ClassParameter.from(int.class, value),
             ClassParameter.from(int.class, 0));
       }
-      get(resolver).put(name, value);
-      return true;
+      return settings.putInt(resolver, name, value);
     }
 
     @Implementation(minSdk = LOLLIPOP)
@@ -212,11 +171,7 @@ public class ShadowSettings {
             ClassParameter.from(int.class, 0));
       }
 
-      if (get(resolver).get(name) instanceof Integer) {
-        return (Integer) get(resolver).get(name);
-      } else {
-        throw new Settings.SettingNotFoundException(name);
-      }
+      return settings.getInt(resolver, name);
     }
 
     @Implementation
@@ -230,27 +185,17 @@ public class ShadowSettings {
             ClassParameter.from(ContentResolver.class, resolver),
             ClassParameter.from(int.class, 0));
       }
-      Integer v = (Integer) get(resolver).get(name);
-      try {
-        return v != null ? v : def;
-      } catch (NumberFormatException e) {
-        return def;
-      }
+      return settings.getInt(resolver, name, def);
     }
 
     @Implementation
     protected static boolean putString(ContentResolver cr, String name, String value) {
-      get(cr).put(name, value);
-      return true;
+      return settings.putString(cr, name, value);
     }
 
     @Implementation
     protected static String getString(ContentResolver cr, String name) {
-      if (get(cr).get(name) instanceof String) {
-        return (String) get(cr).get(name);
-      } else {
-        return null;
-      }
+      return settings.getString(cr, name);
     }
 
     @Implementation(minSdk = JELLY_BEAN_MR1)
@@ -260,61 +205,34 @@ public class ShadowSettings {
 
     @Implementation
     protected static boolean putLong(ContentResolver cr, String name, long value) {
-      get(cr).put(name, value);
-      return true;
+      return settings.putLong(cr, name, value);
     }
 
     @Implementation
     protected static long getLong(ContentResolver cr, String name, long def) {
-      if (get(cr).get(name) instanceof Long) {
-        return (Long) get(cr).get(name);
-      } else {
-        return def;
-      }
+      return settings.getLong(cr, name, def);
     }
 
     @Implementation
     protected static long getLong(ContentResolver cr, String name)
         throws Settings.SettingNotFoundException {
-      if (get(cr).get(name) instanceof Long) {
-        return (Long) get(cr).get(name);
-      } else {
-        throw new Settings.SettingNotFoundException(name);
-      }
+      return settings.getLong(cr, name);
     }
 
     @Implementation
     protected static boolean putFloat(ContentResolver cr, String name, float value) {
-      get(cr).put(name, value);
-      return true;
+      return settings.putFloat(cr, name, value);
     }
 
     @Implementation
     protected static float getFloat(ContentResolver cr, String name, float def) {
-      if (get(cr).get(name) instanceof Float) {
-        return (Float) get(cr).get(name);
-      } else {
-        return def;
-      }
+      return settings.getFloat(cr, name, def);
     }
 
     @Implementation
     protected static float getFloat(ContentResolver cr, String name)
         throws Settings.SettingNotFoundException {
-      if (get(cr).get(name) instanceof Float) {
-        return (Float) get(cr).get(name);
-      } else {
-        throw new Settings.SettingNotFoundException(name);
-      }
-    }
-
-    private static Map<String, Object> get(ContentResolver cr) {
-      Map<String, Object> map = dataMap.get(cr);
-      if (map == null) {
-        map = new HashMap<>();
-        dataMap.put(cr, map);
-      }
-      return map;
+      return settings.getFloat(cr, name);
     }
   }
 
@@ -323,47 +241,32 @@ public class ShadowSettings {
    */
   @Implements(value = Settings.Global.class, minSdk = JELLY_BEAN_MR1)
   public static class ShadowGlobal {
-    private static final WeakHashMap<ContentResolver, Map<String, Object>> dataMap =
-        new WeakHashMap<ContentResolver, Map<String, Object>>();
+    private static final SettingsTable settings = new SettingsTable(Settings.Global.CONTENT_URI);
 
     @Implementation
     protected static boolean putInt(ContentResolver cr, String name, int value) {
-      get(cr).put(name, value);
-      return true;
+      return settings.putInt(cr, name, value);
     }
 
     @Implementation
     protected static int getInt(ContentResolver cr, String name, int def) {
-      if (get(cr).get(name) instanceof Integer) {
-        return (Integer) get(cr).get(name);
-      } else {
-        return def;
-      }
+      return settings.getInt(cr, name, def);
     }
 
     @Implementation
     protected static int getInt(ContentResolver cr, String name)
         throws Settings.SettingNotFoundException {
-      if (get(cr).get(name) instanceof Integer) {
-        return (Integer) get(cr).get(name);
-      } else {
-        throw new Settings.SettingNotFoundException(name);
-      }
+      return settings.getInt(cr, name);
     }
 
     @Implementation
     protected static boolean putString(ContentResolver cr, String name, String value) {
-      get(cr).put(name, value);
-      return true;
+      return settings.putString(cr, name, value);
     }
 
     @Implementation
     protected static String getString(ContentResolver cr, String name) {
-      if (get(cr).get(name) instanceof String) {
-        return (String) get(cr).get(name);
-      } else {
-        return null;
-      }
+      return settings.getString(cr, name);
     }
 
     @Implementation(minSdk = JELLY_BEAN_MR1)
@@ -373,61 +276,34 @@ public class ShadowSettings {
 
     @Implementation
     protected static boolean putLong(ContentResolver cr, String name, long value) {
-      get(cr).put(name, value);
-      return true;
+      return settings.putLong(cr, name, value);
     }
 
     @Implementation
     protected static long getLong(ContentResolver cr, String name, long def) {
-      if (get(cr).get(name) instanceof Long) {
-        return (Long) get(cr).get(name);
-      } else {
-        return def;
-      }
+      return settings.getLong(cr, name, def);
     }
 
     @Implementation
     protected static long getLong(ContentResolver cr, String name)
         throws Settings.SettingNotFoundException {
-      if (get(cr).get(name) instanceof Long) {
-        return (Long) get(cr).get(name);
-      } else {
-        throw new Settings.SettingNotFoundException(name);
-      }
+      return settings.getLong(cr, name);
     }
 
     @Implementation
     protected static boolean putFloat(ContentResolver cr, String name, float value) {
-      get(cr).put(name, value);
-      return true;
+      return settings.putFloat(cr, name, value);
     }
 
     @Implementation
     protected static float getFloat(ContentResolver cr, String name, float def) {
-      if (get(cr).get(name) instanceof Float) {
-        return (Float) get(cr).get(name);
-      } else {
-        return def;
-      }
+      return settings.getFloat(cr, name, def);
     }
 
     @Implementation
     protected static float getFloat(ContentResolver cr, String name)
         throws Settings.SettingNotFoundException {
-      if (get(cr).get(name) instanceof Float) {
-        return (Float) get(cr).get(name);
-      } else {
-        throw new Settings.SettingNotFoundException(name);
-      }
-    }
-
-    private static Map<String, Object> get(ContentResolver cr) {
-      Map<String, Object> map = dataMap.get(cr);
-      if (map == null) {
-        map = new HashMap<>();
-        dataMap.put(cr, map);
-      }
-      return map;
+      return settings.getFloat(cr, name);
     }
   }
 
@@ -529,4 +405,142 @@ public class ShadowSettings {
   public static void reset() {
     canDrawOverlays = false;
   }
+
+  /**
+   * The settings of one table, such as {@link Settings.System}, for each ContentResolver.
+   *
+   * <p>Settings are stored with their type, and are only read back as that type. Tables may be
+   * used from any thread. Observers of a setting's Uri are notified through the ContentResolver
+   * when the setting's value changes.
+   */
+  private static class SettingsTable {
+    private final Uri contentUri;
+    private final ConcurrentMap<ContentResolver, ConcurrentMap<String, Setting>> byResolver =
+        new MapMaker().weakKeys().makeMap();
+
+    SettingsTable(Uri contentUri) {
+      this.contentUri = contentUri;
+    }
+
+    boolean putInt(ContentResolver cr, String name, int value) {
+      return put(cr, name, new Setting(Setting.Type.INT, value, null));
+    }
+
+    int getInt(ContentResolver cr, String name, int def) {
+      Setting setting = get(cr, name, Setting.Type.INT);
+      return setting != null ? (int) setting.primitiveValue : def;
+    }
+
+    int getInt(ContentResolver cr, String name) throws Settings.SettingNotFoundException {
+      return (int) getOrThrow(cr, name, Setting.Type.INT).primitiveValue;
+    }
+
+    boolean putLong(ContentResolver cr, String name, long value) {
+      return put(cr, name, new Setting(Setting.Type.LONG, value, null));
+    }
+
+    long getLong(ContentResolver cr, String name, long def) {
+      Setting setting = get(cr, name, Setting.Type.LONG);
+      return setting != null ? setting.primitiveValue : def;
+    }
+
+    long getLong(ContentResolver cr, String name) throws Settings.SettingNotFoundException {
+      return getOrThrow(cr, name, Setting.Type.LONG).primitiveValue;
+    }
+
+    boolean putFloat(ContentResolver cr, String name, float value) {
+      return put(cr, name, new Setting(Setting.Type.FLOAT, Float.floatToRawIntBits(value), null));
+    }
+
+    float getFloat(ContentResolver cr, String name, float def) {
+      Setting setting = get(cr, name, Setting.Type.FLOAT);
+      return setting != null ? Float.intBitsToFloat((int) setting.primitiveValue) : def;
+    }
+
+    float getFloat(ContentResolver cr, String name) throws Settings.SettingNotFoundException {
+      return Float.intBitsToFloat((int) getOrThrow(cr, name, Setting.Type.FLOAT).primitiveValue);
+    }
+
+    boolean putString(ContentResolver cr, String name, String value) {
+      return put(cr, name, new Setting(Setting.Type.STRING, 0, value));
+    }
+
+    String getString(ContentResolver cr, String name) {
+      Setting setting = get(cr, name, Setting.Type.STRING);
+      return setting != null ? setting.stringValue : null;
+    }
+
+    private boolean put(ContentResolver cr, String name, Setting setting) {
+      Setting oldSetting = getSettings(cr).put(name, setting);
+      if (!setting.equals(oldSetting)) {
+        cr.notifyChange(Uri.withAppendedPath(contentUri, name), null);
+      }
+      return true;
+    }
+
+    private Setting get(ContentResolver cr, String name, Setting.Type type) {
+      Setting setting = getSettings(cr).get(name);
+      return setting != null && setting.type == type ? setting : null;
+    }
+
+    private Setting getOrThrow(ContentResolver cr, String name, Setting.Type type)
+        throws Settings.SettingNotFoundException {
+      Setting setting = get(cr, name, type);
+      if (setting == null) {
+        throw new Settings.SettingNotFoundException(name);
+      }
+      return setting;
+    }
+
+    private ConcurrentMap<String, Setting> getSettings(ContentResolver cr) {
+      ConcurrentMap<String, Setting> settings = byResolver.get(cr);
+      if (settings == null) {
+        ConcurrentMap<String, Setting> newSettings = new ConcurrentHashMap<>();
+        settings = byResolver.putIfAbsent(cr, newSettings);
+        if (settings == null) {
+          settings = newSettings;
+        }
+      }
+      return settings;
+    }
+  }
+
+  /** The value of a setting. Int and long values, and the bits of float values, are unboxed. */
+  private static final class Setting {
+    enum Type {
+      INT,
+      LONG,
+      FLOAT,
+      STRING
+    }
+
+    final Type type;
+    final long primitiveValue;
+    final String stringValue;
+
+    Setting(Type type, long primitiveValue, String stringValue) {
+      this.type = type;
+      this.primitiveValue = primitiveValue;
+      this.stringValue = stringValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Setting)) {
+        return false;
+      }
+      Setting setting = (Setting) o;
+      return type == setting.type
+          && primitiveValue == setting.primitiveValue
+          && Objects.equals(stringValue, setting.stringValue);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, primitiveValue, stringValue);
+    }
+  }
 }
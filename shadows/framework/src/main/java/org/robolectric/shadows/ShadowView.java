@@ -6,6 +6,7 @@ import static org.robolectric.shadow.api.Shadow.directlyOn;
 import static org.robolectric.shadow.api.Shadow.invokeConstructor;
 import static org.robolectric.util.ReflectionHelpers.getField;
 import static org.robolectric.util.ReflectionHelpers.setField;
+import static org.robolectric.util.reflector.Reflector.reflector;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
@@ -30,7 +31,6 @@ import android.view.WindowId;
 import android.view.animation.Animation;
 import android.view.animation.Transformation;
 import java.io.PrintStream;
-import java.lang.reflect.Method;
 import org.robolectric.android.AccessibilityUtil;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
@@ -39,6 +39,9 @@ import org.robolectric.shadow.api.Shadow;
 import org.robolectric.util.ReflectionHelpers;
 import org.robolectric.util.ReflectionHelpers.ClassParameter;
 import org.robolectric.util.TimeUtils;
+import org.robolectric.util.reflector.Accessor;
+import org.robolectric.util.reflector.Direct;
+import org.robolectric.util.reflector.ForType;
 
 @Implements(View.class)
 @SuppressLint("NewApi")
@@ -64,6 +67,7 @@ public class ShadowView {
   private View.OnCreateContextMenuListener onCreateContextMenuListener;
   private Rect globalVisibleRect;
   private int layerType;
+  private _View_ viewReflector;
 
   /**
    * Calls {@code performClick()} on a {@code View} after ensuring that it and its ancestors are visible and that it
@@ -174,12 +178,7 @@ public class ShadowView {
   @Implementation
   protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
     onLayoutWasCalled = true;
-    directlyOn(realView, View.class, "onLayout",
-        ClassParameter.from(boolean.class, changed),
-        ClassParameter.from(int.class, left),
-        ClassParameter.from(int.class, top),
-        ClassParameter.from(int.class, right),
-        ClassParameter.from(int.class, bottom));
+    viewReflector().onLayout(changed, left, top, right, bottom);
   }
 
   public boolean onLayoutWasCalled() {
@@ -390,16 +389,11 @@ public class ShadowView {
 
   @Implementation
   protected void scrollTo(int x, int y) {
-    try {
-      Method method = View.class.getDeclaredMethod("onScrollChanged", new Class[]{int.class, int.class, int.class, int.class});
-      method.setAccessible(true);
-      method.invoke(realView, x, y, scrollToCoordinates.x, scrollToCoordinates.y);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+    _View_ view = viewReflector();
+    view.onScrollChanged(x, y, scrollToCoordinates.x, scrollToCoordinates.y);
     scrollToCoordinates = new Point(x, y);
-    ReflectionHelpers.setField(realView, "mScrollX", x);
-    ReflectionHelpers.setField(realView, "mScrollY", y);
+    view.setScrollX(x);
+    view.setScrollY(y);
   }
 
   @Implementation
@@ -495,15 +489,15 @@ public class ShadowView {
   }
 
   private Object getAttachInfo() {
-    return getField(realView, "mAttachInfo");
+    return viewReflector().getAttachInfo();
   }
 
   public void callOnAttachedToWindow() {
-    invokeReflectively("onAttachedToWindow");
+    viewReflector().onAttachedToWindow();
   }
 
   public void callOnDetachedFromWindow() {
-    invokeReflectively("onDetachedFromWindow");
+    viewReflector().onDetachedFromWindow();
   }
 
   @Implementation(minSdk = JELLY_BEAN_MR2)
@@ -511,10 +505,6 @@ public class ShadowView {
     return WindowIdHelper.getWindowId(this);
   }
 
-  private void invokeReflectively(String methodName) {
-    ReflectionHelpers.callInstanceMethod(realView, methodName);
-  }
-
   @Implementation
   protected boolean performHapticFeedback(int hapticFeedbackType) {
     hapticFeedbackPerformed = hapticFeedbackType;
@@ -552,7 +542,7 @@ public class ShadowView {
   }
 
   public void setMyParent(ViewParent viewParent) {
-    directlyOn(realView, View.class, "assignParent", ClassParameter.from(ViewParent.class, viewParent));
+    viewReflector().assignParent(viewParent);
   }
 
   private View directly() {
@@ -588,4 +578,37 @@ public class ShadowView {
       }
     }
   }
+
+  private _View_ viewReflector() {
+    if (viewReflector == null) {
+      viewReflector = reflector(_View_.class, realView);
+    }
+    return viewReflector;
+  }
+
+  /** Accessor interface for {@link View}'s internals. */
+  @ForType(View.class)
+  private interface _View_ {
+
+    @Direct
+    void onLayout(boolean changed, int left, int top, int right, int bottom);
+
+    @Direct
+    void assignParent(ViewParent viewParent);
+
+    void onScrollChanged(int l, int t, int oldl, int oldt);
+
+    void onAttachedToWindow();
+
+    void onDetachedFromWindow();
+
+    @Accessor("mScrollX")
+    void setScrollX(int scrollX);
+
+    @Accessor("mScrollY")
+    void setScrollY(int scrollY);
+
+    @Accessor("mAttachInfo")
+    Object getAttachInfo();
+  }
 }
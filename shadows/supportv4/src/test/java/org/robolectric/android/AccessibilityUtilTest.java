@@ -1,9 +1,13 @@
 package org.robolectric.android;
 
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.robolectric.Shadows.shadowOf;
 
+import android.graphics.Color;
 import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
 import android.text.SpannableString;
 import android.text.Spanned;
 import android.text.style.ClickableSpan;
@@ -42,6 +46,7 @@ public class AccessibilityUtilTest {
     AccessibilityUtil.setSuppressingResultMatcher(null);
     AccessibilityUtil.setRunChecksFromRootView(false);
     AccessibilityUtil.setThrowExceptionForErrors(true);
+    AccessibilityUtil.setBatchChecking(false);
 
     labeledView = new View(RuntimeEnvironment.application);
     labeledView.setContentDescription("Something");
@@ -104,6 +109,45 @@ public class AccessibilityUtilTest {
     AccessibilityUtil.checkViewIfCheckingEnabled(unlabeledView);
   }
 
+  @Test
+  @AccessibilityChecks
+  public void whenBatchChecking_conditionalCheckDeferredUntilPendingViewsChecked() {
+    AccessibilityUtil.setBatchChecking(true);
+    assertTrue(AccessibilityUtil.checkViewIfCheckingEnabled(unlabeledView).isEmpty());
+
+    try {
+      AccessibilityUtil.checkPendingViews();
+      fail("should have thrown");
+    } catch (AccessibilityViewCheckException expected) {
+    }
+    assertTrue(AccessibilityUtil.checkPendingViews().isEmpty());
+  }
+
+  @Test(expected = AccessibilityViewCheckException.class)
+  public void checkView_afterViewChanges_shouldCheckAgain() throws Exception {
+    AccessibilityUtil.checkView(labeledView);
+    labeledView.setContentDescription(null);
+    AccessibilityUtil.checkView(labeledView);
+  }
+
+  @Test
+  public void checkView_afterBackgroundChangesInPlace_shouldCheckAgain() throws Exception {
+    TextView textView = new TextView(RuntimeEnvironment.application);
+    textView.setText("Some text");
+    textView.setTextColor(Color.BLACK);
+    textView.setBackground(new ColorDrawable(Color.WHITE));
+    shadowOf(textView).setGlobalVisibleRect(new Rect(100, 100, 200, 200));
+    AccessibilityUtil.checkView(textView);
+
+    ((ColorDrawable) textView.getBackground()).setColor(Color.BLACK);
+
+    try {
+      AccessibilityUtil.checkView(textView);
+      fail("should have thrown for low contrast");
+    } catch (AccessibilityViewCheckException expected) {
+    }
+  }
+
   @Test(expected = AccessibilityViewCheckException.class)
   public void framework2pt0Error_byDefault_shouldThrow() throws Exception {
     AccessibilityUtil.checkView(textViewWithClickableSpan);
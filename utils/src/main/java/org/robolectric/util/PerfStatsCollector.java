@@ -86,6 +86,29 @@ public class PerfStatsCollector {
     void run() throws F;
   }
 
+  /**
+   * Increments the count of the named metric by {@code delta} without recording any elapsed time.
+   * Useful for counters such as cache hits or live object counts.
+   */
+  public void incrementCount(String eventName, int delta) {
+    if (!enabled) {
+      return;
+    }
+
+    synchronized (this) {
+      MetricKey key = new MetricKey(eventName, true);
+      Metric metric = metricMap.get(key);
+      if (metric == null) {
+        metricMap.put(key, metric = new Metric(key.name, key.success));
+      }
+      metric.count += delta;
+    }
+  }
+
+  public void incrementCount(String eventName) {
+    incrementCount(eventName, 1);
+  }
+
   public synchronized Collection<Metric> getMetrics() {
     return new ArrayList<>(metricMap.values());
   }
@@ -102,7 +125,7 @@ public class PerfStatsCollector {
     return new Metadata(metadata);
   }
 
-  public void reset() {
+  public synchronized void reset() {
     metadata.clear();
     metricMap.clear();
   }
@@ -281,6 +281,14 @@ public class Scheduler {
     return false;
   }
 
+  /**
+   * Returns the time at which the next enqueued runnable is scheduled to run, or 0 if there are
+   * none.
+   */
+  public synchronized long getNextScheduledTaskTime() {
+    return runnables.isEmpty() ? 0 : runnables.peek().scheduledTime;
+  }
+
   /**
    * Determine if any enqueued runnables are enqueued before the current time.
    *
@@ -4,11 +4,35 @@ import java.io.IOException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class TempDirectory {
+  /**
+   * Temp directories which haven't been destroyed yet. A single shutdown hook destroys whatever is
+   * left here when the JVM exits, rather than each instance registering a hook of its own.
+   */
+  private static final Set<TempDirectory> UNDESTROYED = ConcurrentHashMap.newKeySet();
+
+  static {
+    // Use a manual hook that actually clears the directory
+    // This is necessary because File.deleteOnExit won't delete non empty directories
+    Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+      @Override public void run() {
+        for (TempDirectory tempDirectory : new ArrayList<>(UNDESTROYED)) {
+          tempDirectory.destroy();
+        }
+      }
+    }, "robolectric-temp-directory-cleanup"));
+  }
+
   private final Path basePath;
 
   public TempDirectory(String name) {
@@ -18,13 +42,7 @@ public class TempDirectory {
       throw new RuntimeException(e);
     }
 
-    // Use a manual hook that actually clears the directory
-    // This is necessary because File.deleteOnExit won't delete non empty directories
-    Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
-      @Override public void run() {
-        destroy();
-      }
-    }));
+    UNDESTROYED.add(this);
   }
 
   public Path create(String name) {
@@ -54,8 +72,30 @@ public class TempDirectory {
     try {
       clearDirectory(basePath);
       Files.delete(basePath);
+    } catch (NoSuchFileException ignored) {
+      // already destroyed
     } catch (IOException ignored) {
     }
+    UNDESTROYED.remove(this);
+  }
+
+  /**
+   * Destroys this directory on a background thread, so callers don't have to wait for the tree to
+   * be deleted. Anything not yet deleted when the JVM exits is destroyed by the shutdown hook.
+   */
+  public void destroyAsync() {
+    Deleter.EXECUTOR.execute(this::destroy);
+  }
+
+  /** Holds the background deletion thread, which is only started when first needed. */
+  private static class Deleter {
+    private static final ExecutorService EXECUTOR =
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "robolectric-temp-directory-deleter");
+              thread.setDaemon(true);
+              return thread;
+            });
   }
 
   private void clearDirectory(final Path directory) throws IOException {
@@ -107,6 +107,23 @@ public class PerfStatsCollectorTest {
         new Metric("event", 1, 5, false));
   }
 
+  @Test
+  public void incrementCount_shouldAccumulateCountsWithoutElapsedTime() throws Exception {
+    collector.incrementCount("counter");
+    fakeClock.delay(10);
+    collector.incrementCount("counter", 4);
+
+    Collection<Metric> metrics = collector.getMetrics();
+    assertThat(metrics).containsExactly(new Metric("counter", 5, 0, true));
+  }
+
+  @Test
+  public void incrementCount_shouldDoNothingWhenDisabled() throws Exception {
+    collector.setEnabled(false);
+    collector.incrementCount("counter");
+    assertThat(collector.getMetrics()).isEmpty();
+  }
+
   @Test
   public void reset_shouldClearAllMetadataAndMetrics() throws Exception {
     collector.putMetadata(String.class, "metadata");